@@ -0,0 +1,230 @@
+package com.alerts;
+
+import com.data_management.DataListener;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Evaluates patients' new data at a cadence set by their acuity.
+ *
+ * <p>A patient is acute while an alert was raised for them, or a value one of
+ * the generator's rules reports as abnormal (see
+ * {@link StreamingAlertEngine#isAbnormal}) arrived, within the acute window;
+ * acute patients are evaluated at most every {@code acuteIntervalMs}, all
+ * others at most every {@code stableIntervalMs}. The scheduler listens to a
+ * {@link DataStorage}: a patient is only queued for evaluation once new data
+ * arrives, and an abnormal value moves an already queued patient forward to
+ * the acute cadence. Patients without new data are never evaluated, so
+ * evaluation work follows the number and acuity of the patients that are
+ * actually changing rather than the census.</p>
+ *
+ * <p>Due patients are kept in a priority queue ordered by due time; an update
+ * pushes a new entry and leaves the old one to be skipped when it surfaces.
+ * Data listeners take a lock only when a patient goes from having no pending
+ * data to having some, or on abnormal values, so high-rate series cost a
+ * volatile read per sample. Evaluation runs on a single scheduler thread via
+ * {@link AlertGenerator#evaluateNewData}.</p>
+ *
+ * <p>Data listeners are called by the threads adding data, after the record
+ * was added to its {@link Patient}. A listener that finds the patient dirty
+ * leaves the record to the pending evaluation: the flag is cleared before that
+ * evaluation reads the patient's records under the patient's lock, so the
+ * record is visible to it. Scheduling state is guarded by the scheduler's
+ * lock.</p>
+ */
+public class AcuityScheduler implements DataListener, AutoCloseable {
+    /** Default cadence for patients with recent alerts or abnormal values. */
+    public static final long DEFAULT_ACUTE_INTERVAL_MS = 1000;
+    /** Default cadence for stable patients. */
+    public static final long DEFAULT_STABLE_INTERVAL_MS = 30 * 1000;
+    /** Default time a patient stays acute after an alert or abnormal value. */
+    public static final long DEFAULT_ACUTE_WINDOW_MS = 5 * 60 * 1000; // 5 minutes
+
+    private static final long TICK_MS = 100;
+
+    private final AlertGenerator alertGenerator;
+    private final DataStorage storage;
+    private final long acuteIntervalMs;
+    private final long stableIntervalMs;
+    private final long acuteWindowMs;
+    private final LongSupplier clock;
+    private final Map<Integer, PatientState> states = new ConcurrentHashMap<>();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final ScheduledExecutorService executor;
+    private long evaluations;
+
+    public AcuityScheduler(AlertGenerator alertGenerator, DataStorage storage) {
+        this(alertGenerator, storage, DEFAULT_ACUTE_INTERVAL_MS, DEFAULT_STABLE_INTERVAL_MS, DEFAULT_ACUTE_WINDOW_MS,
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a scheduler and registers it as a listener of the storage. Call
+     * {@link #start} to begin evaluating, or drive it with {@link #runDue}.
+     *
+     * @param alertGenerator   the generator that evaluates patients
+     * @param storage          the storage the patients' data is added to
+     * @param acuteIntervalMs  the evaluation cadence of acute patients
+     * @param stableIntervalMs the evaluation cadence of stable patients
+     * @param acuteWindowMs    how long a patient stays acute after an alert or
+     *                         abnormal value
+     * @param clock            the current time in milliseconds
+     */
+    public AcuityScheduler(AlertGenerator alertGenerator, DataStorage storage, long acuteIntervalMs,
+                           long stableIntervalMs, long acuteWindowMs, LongSupplier clock) {
+        if (acuteIntervalMs <= 0 || stableIntervalMs < acuteIntervalMs) {
+            throw new IllegalArgumentException("Intervals must be positive, the stable one at least the acute one");
+        }
+        this.alertGenerator = alertGenerator;
+        this.storage = storage;
+        this.acuteIntervalMs = acuteIntervalMs;
+        this.stableIntervalMs = stableIntervalMs;
+        this.acuteWindowMs = acuteWindowMs;
+        this.clock = clock;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "acuity-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        storage.addDataListener(this);
+    }
+
+    /**
+     * Starts evaluating due patients on the scheduler thread.
+     */
+    public void start() {
+        executor.scheduleWithFixedDelay(() -> runDue(clock.getAsLong()), TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onData(int patientId, double measurementValue, String recordType, long timestamp) {
+        PatientState state = states.computeIfAbsent(patientId, PatientState::new);
+        boolean abnormal = alertGenerator.getStreamingEngine().isAbnormal(recordType, measurementValue);
+        if (state.dirty && !abnormal) {
+            return;
+        }
+        long now = clock.getAsLong();
+        synchronized (this) {
+            state.dirty = true;
+            if (abnormal) {
+                state.acuteUntil = Math.max(state.acuteUntil, now + acuteWindowMs);
+            }
+            long due = Math.max(now, state.lastEvaluated + interval(state, now));
+            if (!state.queued || due < state.due) {
+                state.queued = true;
+                state.due = due;
+                queue.add(new Entry(due, state));
+            }
+        }
+    }
+
+    /**
+     * Evaluates every patient whose evaluation is due.
+     *
+     * @param now the current time in milliseconds
+     * @return the number of patients evaluated
+     */
+    public int runDue(long now) {
+        int evaluated = 0;
+        while (true) {
+            PatientState state;
+            synchronized (this) {
+                Entry head = queue.peek();
+                if (head == null || head.due > now) {
+                    evaluations += evaluated;
+                    return evaluated;
+                }
+                queue.poll();
+                state = head.state;
+                if (!state.queued || state.due != head.due) {
+                    continue;
+                }
+                state.queued = false;
+                state.dirty = false;
+                state.lastEvaluated = now;
+            }
+            Patient patient = storage.getPatient(state.patientId);
+            if (patient != null && alertGenerator.evaluateNewData(patient) > 0) {
+                synchronized (this) {
+                    state.acuteUntil = Math.max(state.acuteUntil, now + acuteWindowMs);
+                }
+            }
+            evaluated++;
+        }
+    }
+
+    private long interval(PatientState state, long now) {
+        return now < state.acuteUntil ? acuteIntervalMs : stableIntervalMs;
+    }
+
+    /**
+     * Returns whether a patient currently counts as acute.
+     *
+     * @param patientId the unique identifier of the patient
+     * @return {@code true} if an alert or abnormal value was seen within the acute window
+     */
+    public boolean isAcute(int patientId) {
+        PatientState state = states.get(patientId);
+        if (state == null) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        synchronized (this) {
+            return now < state.acuteUntil;
+        }
+    }
+
+    /**
+     * Returns the number of patient evaluations run so far.
+     *
+     * @return the evaluation count
+     */
+    public synchronized long getEvaluationCount() {
+        return evaluations;
+    }
+
+    /**
+     * Stops evaluating and unregisters from the storage.
+     */
+    @Override
+    public void close() {
+        storage.removeDataListener(this);
+        executor.shutdownNow();
+    }
+
+    private static final class PatientState {
+        final int patientId;
+        volatile boolean dirty;
+        boolean queued;
+        long due;
+        long lastEvaluated = Long.MIN_VALUE / 2;
+        long acuteUntil = Long.MIN_VALUE;
+
+        PatientState(int patientId) {
+            this.patientId = patientId;
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final long due;
+        final PatientState state;
+
+        Entry(long due, PatientState state) {
+            this.due = due;
+            this.state = state;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(due, other.due);
+        }
+    }
+}
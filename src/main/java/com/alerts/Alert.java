@@ -1,26 +1,192 @@
 package com.alerts;
 
-// Represents an alert
+/**
+ * Represents an alert.
+ *
+ * <p>Alerts raised by the built-in rules are structured: a numeric patient ID,
+ * an {@link AlertCode} and the measurement that raised them. Their condition
+ * text and string patient ID are only rendered when first asked for, so alerts
+ * that are suppressed or only counted never build strings. Alerts created from
+ * a condition text carry {@link AlertCode#CUSTOM}.</p>
+ *
+ * <p>Instances may be reused on hot paths with {@link #set}; whoever keeps an
+ * alert beyond the call it was passed to should keep a {@link #copy()}.</p>
+ */
 public class Alert {
     private String patientId;
     private String condition;
     private long timestamp;
 
+    private int patientNumber;
+    private AlertCode code;
+    private double value;
+    private double reference;
+    private String conditionPrefix;
+    private int priority;
+
     public Alert(String patientId, String condition, long timestamp) {
+        this(patientId, condition, 0, timestamp);
+    }
+
+    /**
+     * Creates an alert from a condition text with a priority.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param condition the condition text
+     * @param priority  the priority, 1 being the most urgent, or 0 for none
+     * @param timestamp the time of the measurement
+     */
+    public Alert(String patientId, String condition, int priority, long timestamp) {
         this.patientId = patientId;
         this.condition = condition;
         this.timestamp = timestamp;
+        this.code = AlertCode.CUSTOM;
+        this.priority = priority;
+        this.patientNumber = parsePatientNumber(patientId);
+    }
+
+    /**
+     * Creates a structured alert.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param code      the condition
+     * @param value     the measurement that raised the alert
+     * @param reference the value it was compared with, or 0 if none
+     * @param timestamp the time of the measurement
+     */
+    public Alert(int patientId, AlertCode code, double value, double reference, long timestamp) {
+        set(patientId, code, value, reference, timestamp);
+    }
+
+    /** Used by decorators, which delegate every accessor. */
+    Alert() {
+        this.code = AlertCode.CUSTOM;
+    }
+
+    /**
+     * Overwrites this alert with a new structured alert, for reusing instances.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param code      the condition
+     * @param value     the measurement that raised the alert
+     * @param reference the value it was compared with, or 0 if none
+     * @param timestamp the time of the measurement
+     * @return this alert
+     */
+    public Alert set(int patientId, AlertCode code, double value, double reference, long timestamp) {
+        this.patientNumber = patientId;
+        this.patientId = null;
+        this.code = code;
+        this.value = value;
+        this.reference = reference;
+        this.timestamp = timestamp;
+        this.condition = null;
+        this.conditionPrefix = null;
+        this.priority = code.getDefaultPriority();
+        return this;
+    }
+
+    /**
+     * Sets text placed before the rendered condition, e.g. {@code "ECG: "}.
+     *
+     * @param prefix the prefix
+     * @return this alert
+     */
+    public Alert withConditionPrefix(String prefix) {
+        if (condition != null && code == AlertCode.CUSTOM) {
+            condition = prefix + condition;
+        } else {
+            conditionPrefix = prefix;
+            condition = null;
+        }
+        return this;
+    }
+
+    /**
+     * Returns an independent copy of this alert.
+     *
+     * @return the copy
+     */
+    public Alert copy() {
+        Alert copy = new Alert();
+        copy.patientId = patientId;
+        copy.condition = condition;
+        copy.timestamp = timestamp;
+        copy.patientNumber = patientNumber;
+        copy.code = code;
+        copy.value = value;
+        copy.reference = reference;
+        copy.conditionPrefix = conditionPrefix;
+        copy.priority = priority;
+        return copy;
     }
 
     public String getPatientId() {
+        if (patientId == null) {
+            patientId = String.valueOf(patientNumber);
+        }
         return patientId;
     }
 
+    /**
+     * Returns the patient ID as a number.
+     *
+     * @return the patient ID, or -1 if the alert was created with a non-numeric ID
+     */
+    public int getPatientNumber() {
+        return patientNumber;
+    }
+
     public String getCondition() {
+        if (condition == null) {
+            String rendered = code.render(value, reference);
+            condition = conditionPrefix == null ? rendered : conditionPrefix + rendered;
+        }
         return condition;
     }
 
     public long getTimestamp() {
         return timestamp;
     }
+
+    public AlertCode getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the measurement that raised a structured alert.
+     *
+     * @return the measured value, or 0 for custom alerts
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the value the measurement was compared with, e.g. the moving
+     * average for ECG peaks.
+     *
+     * @return the reference value, or 0 if there is none
+     */
+    public double getReference() {
+        return reference;
+    }
+
+    /**
+     * Returns the priority of the alert, 1 being the most urgent. Structured
+     * alerts have the default priority of their code.
+     *
+     * @return the priority, or 0 if none was assigned
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    private static int parsePatientNumber(String patientId) {
+        try {
+            return Integer.parseInt(patientId);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 }
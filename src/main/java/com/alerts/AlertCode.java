@@ -0,0 +1,93 @@
+package com.alerts;
+
+/**
+ * The conditions the built-in rules raise alerts for, each with the template its
+ * condition text is rendered from and a default priority.
+ *
+ * <p>Templates may contain {@code {value}}, written like string concatenation of
+ * a {@code double}, and {@code {reference}}, written with two decimals.
+ * Priorities follow {@link PriorityAlertDecorator}: 1 is the most urgent, and 0
+ * means no priority was assigned.</p>
+ */
+public enum AlertCode {
+    CRITICAL_SYSTOLIC_HIGH("Critical Systolic High: {value}", 1),
+    CRITICAL_SYSTOLIC_LOW("Critical Systolic Low: {value}", 1),
+    CRITICAL_DIASTOLIC_HIGH("Critical Diastolic High: {value}", 1),
+    CRITICAL_DIASTOLIC_LOW("Critical Diastolic Low: {value}", 1),
+    SYSTOLIC_INCREASING_TREND("Systolic Increasing Trend", 2),
+    SYSTOLIC_DECREASING_TREND("Systolic Decreasing Trend", 2),
+    DIASTOLIC_INCREASING_TREND("Diastolic Increasing Trend", 2),
+    DIASTOLIC_DECREASING_TREND("Diastolic Decreasing Trend", 2),
+    LOW_BLOOD_SATURATION("Low Blood Saturation: {value}", 2),
+    RAPID_BLOOD_SATURATION_DROP("Rapid Blood Saturation Drop", 2),
+    HYPOTENSIVE_HYPOXEMIA("Hypotensive Hypoxemia Alert", 1),
+    TACHYCARDIC_DESATURATION("Tachycardic Desaturation Alert: {value} bpm", 1),
+    ABNORMAL_ECG_PEAK("Abnormal ECG Peak: {value} (Avg: {reference})", 2),
+    ABNORMAL_ECG_FROM_ZERO_BASELINE("Abnormal ECG Activity (from zero baseline): {value}", 2),
+    MANUAL_ALERT("Manual Alert Triggered", 1),
+    /** A baseline deviation of a record type without a code of its own. */
+    BASELINE_DEVIATION("Baseline Deviation: {value} (Baseline: {reference})", 2),
+    SYSTOLIC_BASELINE_DEVIATION("Systolic Baseline Deviation: {value} (Baseline: {reference})", 2),
+    DIASTOLIC_BASELINE_DEVIATION("Diastolic Baseline Deviation: {value} (Baseline: {reference})", 2),
+    SATURATION_BASELINE_DEVIATION("Saturation Baseline Deviation: {value} (Baseline: {reference})", 2),
+    HEART_RATE_BASELINE_DEVIATION("Heart Rate Baseline Deviation: {value} (Baseline: {reference})", 2),
+    CHOLESTEROL_BASELINE_DEVIATION("Cholesterol Baseline Deviation: {value} (Baseline: {reference})", 2),
+    WHITE_BLOOD_CELLS_BASELINE_DEVIATION("White Blood Cells Baseline Deviation: {value} (Baseline: {reference})", 2),
+    RED_BLOOD_CELLS_BASELINE_DEVIATION("Red Blood Cells Baseline Deviation: {value} (Baseline: {reference})", 2),
+    /** An alert whose condition text was given directly rather than rendered from a code. */
+    CUSTOM("", 0);
+
+    private static final String VALUE = "{value}";
+    private static final String REFERENCE = "{reference}";
+
+    private final String prefix;
+    private final String middle;
+    private final String suffix;
+    private final boolean hasValue;
+    private final boolean hasReference;
+    private final int defaultPriority;
+
+    AlertCode(String template, int defaultPriority) {
+        int value = template.indexOf(VALUE);
+        int reference = template.indexOf(REFERENCE);
+        this.hasValue = value >= 0;
+        this.hasReference = reference >= 0;
+        if (hasValue && hasReference) {
+            this.prefix = template.substring(0, value);
+            this.middle = template.substring(value + VALUE.length(), reference);
+            this.suffix = template.substring(reference + REFERENCE.length());
+        } else if (hasValue) {
+            this.prefix = template.substring(0, value);
+            this.middle = "";
+            this.suffix = template.substring(value + VALUE.length());
+        } else {
+            this.prefix = template;
+            this.middle = "";
+            this.suffix = "";
+        }
+        this.defaultPriority = defaultPriority;
+    }
+
+    public int getDefaultPriority() {
+        return defaultPriority;
+    }
+
+    /**
+     * Renders the condition text of an alert with this code.
+     *
+     * @param value     the measurement that raised the alert
+     * @param reference the value it was compared with, e.g. a moving average
+     * @return the condition text
+     */
+    public String render(double value, double reference) {
+        if (!hasValue) {
+            return prefix;
+        }
+        StringBuilder condition = new StringBuilder(prefix.length() + 32);
+        condition.append(prefix).append(value).append(middle);
+        if (hasReference) {
+            condition.append(String.format("%.2f", reference));
+        }
+        return condition.append(suffix).toString();
+    }
+}
@@ -4,7 +4,6 @@ public abstract class AlertDecorator extends Alert {
     protected Alert decoratedAlert;
 
     public AlertDecorator(Alert decoratedAlert) {
-        super(decoratedAlert.getPatientId(), decoratedAlert.getCondition(), decoratedAlert.getTimestamp());
         this.decoratedAlert = decoratedAlert;
     }
 
@@ -13,6 +12,11 @@ public abstract class AlertDecorator extends Alert {
         return decoratedAlert.getPatientId();
     }
 
+    @Override
+    public int getPatientNumber() {
+        return decoratedAlert.getPatientNumber();
+    }
+
     @Override
     public String getCondition() {
         return decoratedAlert.getCondition();
@@ -22,4 +26,24 @@ public abstract class AlertDecorator extends Alert {
     public long getTimestamp() {
         return decoratedAlert.getTimestamp();
     }
-} 
\ No newline at end of file
+
+    @Override
+    public AlertCode getCode() {
+        return decoratedAlert.getCode();
+    }
+
+    @Override
+    public double getValue() {
+        return decoratedAlert.getValue();
+    }
+
+    @Override
+    public double getReference() {
+        return decoratedAlert.getReference();
+    }
+
+    @Override
+    public int getPriority() {
+        return decoratedAlert.getPriority();
+    }
+}
@@ -0,0 +1,438 @@
+package com.alerts;
+
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Routes each patient's new records to the {@link AlertStrategy} instances
+ * registered for their record type.
+ *
+ * <p>On every dispatch the records added to the patient since the previous
+ * dispatch are walked once and appended to per-type {@link RecordSeries}.
+ * Each strategy is then called once with the series it declared, and only if
+ * at least one of them received new samples. Record types that no strategy
+ * uses are skipped without being stored.</p>
+ *
+ * <p>Strategies may derive new samples, e.g. a heart rate from ECG, with
+ * {@link #derive}. They are appended once the running strategies are done, and
+ * the strategies reading their type run again within the same dispatch. Stored
+ * records of a type a registered strategy derives are skipped, so derived
+ * samples written back to the storage are not evaluated twice.</p>
+ *
+ * <p>Different patients may be dispatched concurrently, provided each patient
+ * is dispatched by one thread at a time. The set of strategies is an immutable
+ * registry swapped atomically by {@link #register} and
+ * {@link #replaceStrategies}, so strategies can be changed while dispatching:
+ * each dispatch runs against the registry it started with, and series already
+ * kept for a patient are retained across swaps.</p>
+ */
+public class AlertDispatcher {
+    /** Default number of samples retained per series. */
+    public static final int DEFAULT_SERIES_CAPACITY = 64;
+
+    private final int seriesCapacity;
+    private final Map<Integer, PatientSeries> patients = new ConcurrentHashMap<>();
+    private volatile Registry registry = new Registry(new ArrayList<>(), new ArrayList<>());
+
+    public AlertDispatcher() {
+        this(DEFAULT_SERIES_CAPACITY);
+    }
+
+    /**
+     * Creates a dispatcher retaining up to {@code seriesCapacity} samples per
+     * patient and record type.
+     *
+     * @param seriesCapacity the series capacity; must be a power of two
+     */
+    public AlertDispatcher(int seriesCapacity) {
+        this.seriesCapacity = seriesCapacity;
+    }
+
+    /**
+     * Registers a strategy. Alerts it raises are created by {@code alertFactory}.
+     *
+     * @param strategy     the strategy to call for its record types
+     * @param alertFactory the factory the strategy creates its alerts with
+     */
+    public synchronized void register(AlertStrategy strategy, AlertFactory alertFactory) {
+        List<String> recordTypes = new ArrayList<>(registry.recordTypes);
+        List<Registration> registrations = new ArrayList<>(registry.registrations);
+        registrations.add(newRegistration(recordTypes, strategy, alertFactory));
+        registry = new Registry(recordTypes, registrations);
+    }
+
+    /**
+     * Atomically replaces every registered strategy. Dispatches already running
+     * finish with the previous strategies; later dispatches use the new ones,
+     * which see only samples that arrive after the swap as new.
+     *
+     * @param strategies   the strategies to run from now on
+     * @param alertFactory the factory the strategies create their alerts with
+     */
+    public synchronized void replaceStrategies(List<? extends AlertStrategy> strategies, AlertFactory alertFactory) {
+        // Record types keep their index so the series kept for each patient stay valid.
+        List<String> recordTypes = new ArrayList<>(registry.recordTypes);
+        List<Registration> registrations = new ArrayList<>();
+        for (AlertStrategy strategy : strategies) {
+            registrations.add(newRegistration(recordTypes, strategy, alertFactory));
+        }
+        registry = new Registry(recordTypes, registrations);
+    }
+
+    private static Registration newRegistration(List<String> recordTypes, AlertStrategy strategy,
+                                                AlertFactory alertFactory) {
+        String[] types = strategy.getRecordTypes();
+        int[] indexes = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            int index = recordTypes.indexOf(types[i]);
+            if (index < 0) {
+                recordTypes.add(types[i]);
+                index = recordTypes.size() - 1;
+            }
+            indexes[i] = index;
+        }
+        return new Registration(strategy, alertFactory, indexes);
+    }
+
+    /**
+     * Returns whether a sample is abnormal for any of the registered strategies
+     * reading its type.
+     *
+     * @param recordType the type of the sample
+     * @param value      the measurement value
+     * @return {@code true} if a strategy reports the value as abnormal
+     * @see AlertStrategy#isAbnormal
+     */
+    public boolean isAbnormal(String recordType, double value) {
+        List<AlertStrategy> strategies = registry.readers.get(recordType);
+        if (strategies == null) {
+            return false;
+        }
+        for (AlertStrategy strategy : strategies) {
+            if (strategy.isAbnormal(recordType, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks the records added to the patient since the previous dispatch and runs
+     * the strategies whose record types received new samples.
+     *
+     * @param patient the patient whose new records should be evaluated
+     * @param sink    receives each alert raised by a strategy
+     */
+    public void dispatch(Patient patient, Consumer<Alert> sink) {
+        PatientSeries state = patients.computeIfAbsent(patient.getPatientId(), id -> new PatientSeries(patient));
+        int recordCount;
+        List<PatientRecord> newRecords;
+        // Read the cursor and the records together, as the patient may be written to meanwhile.
+        synchronized (patient) {
+            recordCount = patient.getRecordCount();
+            if (state.consumedRecords >= recordCount) {
+                return;
+            }
+            newRecords = patient.getRecordsFrom(state.consumedRecords);
+        }
+        // Records discarded by the storage before they were read are skipped.
+        state.consumedRecords = recordCount;
+        Registry current = registry;
+        state.use(current);
+        for (PatientRecord record : newRecords) {
+            Integer typeIndex = current.inputTypes.get(record.getRecordType());
+            if (typeIndex != null) {
+                append(state, current, typeIndex, record.getMeasurementValue(), record.getTimestamp(), sink);
+            }
+        }
+        runStrategies(state, current, sink);
+    }
+
+    /**
+     * Appends one sample to a patient's series without it being stored as a
+     * record, e.g. when replaying archived data. Strategies see the sample on
+     * the next {@link #flush}, or earlier if the series is about to wrap.
+     *
+     * @param patient    the patient the sample belongs to
+     * @param recordType the type of the sample
+     * @param value      the measurement value
+     * @param timestamp  the time of the measurement
+     * @param sink       receives alerts raised if the strategies have to run
+     * @return whether a strategy reads the record type and none derives it; if
+     *         not, the sample is discarded
+     */
+    public boolean offer(Patient patient, String recordType, double value, long timestamp, Consumer<Alert> sink) {
+        Registry current = registry;
+        Integer typeIndex = current.inputTypes.get(recordType);
+        if (typeIndex == null) {
+            return false;
+        }
+        PatientSeries state = patients.computeIfAbsent(patient.getPatientId(), id -> new PatientSeries(patient));
+        state.use(current);
+        append(state, current, typeIndex, value, timestamp, sink);
+        return true;
+    }
+
+    /**
+     * Runs the strategies whose record types received samples through
+     * {@link #offer} since they last ran for the patient.
+     *
+     * @param patient the patient whose offered samples should be evaluated
+     * @param sink    receives each alert raised by a strategy
+     */
+    public void flush(Patient patient, Consumer<Alert> sink) {
+        PatientSeries state = patients.get(patient.getPatientId());
+        if (state == null) {
+            return;
+        }
+        Registry current = registry;
+        state.use(current);
+        runStrategies(state, current, sink);
+    }
+
+    /**
+     * Adds a sample that a strategy derived while running for the patient. The
+     * sample is appended to the patient's series after the running strategies
+     * are done, and the strategies reading its type then run again in the same
+     * dispatch, so rules on derived types see it at once. Must be called on the
+     * thread dispatching the patient; samples derived outside a dispatch are
+     * evaluated on the patient's next dispatch or flush. A strategy must not
+     * derive samples of a type it reads itself.
+     *
+     * <p>The parameters follow {@link com.data_management.DataListener#onData},
+     * so a method reference to this method can be passed where derived samples
+     * are reported to a listener.</p>
+     *
+     * @param patientId  the patient the sample belongs to
+     * @param value      the derived value
+     * @param recordType the type of the derived sample
+     * @param timestamp  the time of the derived sample
+     */
+    public void derive(int patientId, double value, String recordType, long timestamp) {
+        PatientSeries state = patients.get(patientId);
+        if (state == null || state.registry == null) {
+            return;
+        }
+        Integer typeIndex = state.registry.routedTypes.get(recordType);
+        if (typeIndex != null) {
+            state.addDerived(typeIndex, value, timestamp);
+        }
+    }
+
+    /**
+     * Discards the series and strategy state kept for a patient, so the next
+     * dispatch starts again from the patient's first record.
+     *
+     * @param patientId the unique identifier of the patient
+     */
+    public void reset(int patientId) {
+        patients.remove(patientId);
+        for (Registration registration : registry.registrations) {
+            registration.strategy.reset(patientId);
+        }
+    }
+
+    private void append(PatientSeries state, Registry current, int typeIndex, double value, long timestamp,
+                        Consumer<Alert> sink) {
+        RecordSeries series = state.series(typeIndex);
+        if (series.remainingNewCapacity() == 0) {
+            // Let the strategies see what is buffered before the ring wraps over it.
+            runStrategies(state, current, sink);
+        }
+        series.append(value, timestamp);
+    }
+
+    private void runStrategies(PatientSeries state, Registry current, Consumer<Alert> sink) {
+        runPass(state, current, sink);
+        while (state.derivedCount > 0) {
+            int count = state.derivedCount;
+            int[] types = Arrays.copyOf(state.derivedTypes, count);
+            double[] values = Arrays.copyOf(state.derivedValues, count);
+            long[] timestamps = Arrays.copyOf(state.derivedTimestamps, count);
+            state.derivedCount = 0;
+            for (int i = 0; i < count; i++) {
+                RecordSeries series = state.series(types[i]);
+                if (series.remainingNewCapacity() == 0) {
+                    runPass(state, current, sink);
+                }
+                series.append(values[i], timestamps[i]);
+            }
+            runPass(state, current, sink);
+        }
+    }
+
+    private void runPass(PatientSeries state, Registry current, Consumer<Alert> sink) {
+        List<Registration> registrations = current.registrations;
+        // Strategies usually share one factory, so one emitting factory serves the whole pass.
+        EmittingAlertFactory emitting = null;
+        for (int r = 0; r < registrations.size(); r++) {
+            Registration registration = registrations.get(r);
+            RecordSeries[] views = state.views(r, registration);
+            boolean hasNew = false;
+            for (RecordSeries view : views) {
+                hasNew |= view.hasNewSamples();
+            }
+            if (hasNew) {
+                if (emitting == null || emitting.getDelegate() != registration.alertFactory) {
+                    emitting = new EmittingAlertFactory(registration.alertFactory, sink);
+                }
+                registration.strategy.checkAlert(state.patient, views, emitting);
+            }
+        }
+        for (RecordSeries series : state.seriesByType) {
+            if (series != null) {
+                series.markSeen();
+            }
+        }
+    }
+
+    /**
+     * Builds one fully-new series per record type from a list of records. Used by
+     * strategies called outside a dispatcher.
+     */
+    static RecordSeries[] toSeries(String[] types, List<PatientRecord> records) {
+        int[] counts = new int[types.length];
+        for (PatientRecord record : records) {
+            for (int i = 0; i < types.length; i++) {
+                if (types[i].equals(record.getRecordType())) {
+                    counts[i]++;
+                }
+            }
+        }
+        RecordSeries[] series = new RecordSeries[types.length];
+        for (int i = 0; i < types.length; i++) {
+            series[i] = new RecordSeries(types[i], Integer.highestOneBit(Math.max(1, counts[i]) * 2 - 1));
+        }
+        for (PatientRecord record : records) {
+            for (int i = 0; i < types.length; i++) {
+                if (types[i].equals(record.getRecordType())) {
+                    series[i].append(record.getMeasurementValue(), record.getTimestamp());
+                }
+            }
+        }
+        return series;
+    }
+
+    /**
+     * An immutable set of registrations. Record types are only ever appended, so
+     * a type keeps its index across registries.
+     */
+    private static final class Registry {
+        final List<String> recordTypes;
+        final List<Registration> registrations;
+        /** Index of each record type some registration reads. */
+        final Map<String, Integer> routedTypes = new HashMap<>();
+        /** Index of each routed record type that no registration derives. */
+        final Map<String, Integer> inputTypes;
+        /** The strategies reading each record type. */
+        final Map<String, List<AlertStrategy>> readers = new HashMap<>();
+
+        Registry(List<String> recordTypes, List<Registration> registrations) {
+            this.recordTypes = recordTypes;
+            this.registrations = registrations;
+            for (Registration registration : registrations) {
+                for (int index : registration.typeIndexes) {
+                    String recordType = recordTypes.get(index);
+                    routedTypes.put(recordType, index);
+                    readers.computeIfAbsent(recordType, type -> new ArrayList<>()).add(registration.strategy);
+                }
+            }
+            inputTypes = new HashMap<>(routedTypes);
+            for (Registration registration : registrations) {
+                for (String recordType : registration.strategy.getDerivedTypes()) {
+                    inputTypes.remove(recordType);
+                }
+            }
+        }
+    }
+
+    private static final class Registration {
+        final AlertStrategy strategy;
+        final AlertFactory alertFactory;
+        final int[] typeIndexes;
+
+        Registration(AlertStrategy strategy, AlertFactory alertFactory, int[] typeIndexes) {
+            this.strategy = strategy;
+            this.alertFactory = alertFactory;
+            this.typeIndexes = typeIndexes;
+        }
+    }
+
+    /** The series and record cursor kept for one patient. */
+    private final class PatientSeries {
+        final Patient patient;
+        int consumedRecords;
+        Registry registry;
+        RecordSeries[] seriesByType = new RecordSeries[0];
+        RecordSeries[][] viewsByRegistration = new RecordSeries[0][];
+        /** Samples derived by the strategies of the running pass, appended after it. */
+        int[] derivedTypes = new int[0];
+        double[] derivedValues = new double[0];
+        long[] derivedTimestamps = new long[0];
+        int derivedCount;
+
+        PatientSeries(Patient patient) {
+            this.patient = patient;
+        }
+
+        void addDerived(int typeIndex, double value, long timestamp) {
+            if (derivedCount == derivedTypes.length) {
+                int length = Math.max(4, derivedCount * 2);
+                derivedTypes = Arrays.copyOf(derivedTypes, length);
+                derivedValues = Arrays.copyOf(derivedValues, length);
+                derivedTimestamps = Arrays.copyOf(derivedTimestamps, length);
+            }
+            derivedTypes[derivedCount] = typeIndex;
+            derivedValues[derivedCount] = value;
+            derivedTimestamps[derivedCount] = timestamp;
+            derivedCount++;
+        }
+
+        /** Switches to another registry, keeping the series but not the per-registration views. */
+        void use(Registry current) {
+            if (registry != current) {
+                registry = current;
+                viewsByRegistration = new RecordSeries[current.registrations.size()][];
+            }
+        }
+
+        RecordSeries series(int typeIndex) {
+            if (typeIndex >= seriesByType.length) {
+                RecordSeries[] grown = new RecordSeries[registry.recordTypes.size()];
+                System.arraycopy(seriesByType, 0, grown, 0, seriesByType.length);
+                seriesByType = grown;
+            }
+            RecordSeries series = seriesByType[typeIndex];
+            if (series == null) {
+                series = new RecordSeries(registry.recordTypes.get(typeIndex), seriesCapacity);
+                seriesByType[typeIndex] = series;
+            }
+            return series;
+        }
+
+        RecordSeries[] views(int registrationIndex, Registration registration) {
+            if (registrationIndex >= viewsByRegistration.length) {
+                RecordSeries[][] grown = new RecordSeries[registry.registrations.size()][];
+                System.arraycopy(viewsByRegistration, 0, grown, 0, viewsByRegistration.length);
+                viewsByRegistration = grown;
+            }
+            RecordSeries[] views = viewsByRegistration[registrationIndex];
+            if (views == null) {
+                views = new RecordSeries[registration.typeIndexes.length];
+                for (int i = 0; i < views.length; i++) {
+                    views[i] = series(registration.typeIndexes[i]);
+                }
+                viewsByRegistration[registrationIndex] = views;
+            }
+            return views;
+        }
+    }
+}
@@ -2,4 +2,46 @@ package com.alerts;
 
 public interface AlertFactory {
     Alert createAlert(String patientId, String condition, long timestamp);
-} 
\ No newline at end of file
+
+    /**
+     * Creates an alert from a condition text with a priority. Factories that do
+     * not override this ignore the priority and call
+     * {@link #createAlert(String, String, long)}.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param condition the condition text
+     * @param priority  the priority, 1 being the most urgent, or 0 for none
+     * @param timestamp the time of the measurement
+     * @return the alert
+     */
+    default Alert createAlert(String patientId, String condition, int priority, long timestamp) {
+        return createAlert(patientId, condition, timestamp);
+    }
+
+    /**
+     * Creates a structured alert. Factories that do not override this render the
+     * condition text right away and pass it to
+     * {@link #createAlert(String, String, long)}.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param code      the condition
+     * @param value     the measurement that raised the alert
+     * @param reference the value it was compared with, or 0 if none
+     * @param timestamp the time of the measurement
+     * @return the alert
+     */
+    default Alert createAlert(int patientId, AlertCode code, double value, double reference, long timestamp) {
+        return createAlert(String.valueOf(patientId), code.render(value, reference), timestamp);
+    }
+
+    /**
+     * Reports that a condition no longer holds for a patient, e.g. because a
+     * reading is back in range, so that suppression and open-alert tracking can
+     * end its episode. Factories that do not track conditions ignore it.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param code      the condition that cleared
+     */
+    default void resolve(int patientId, AlertCode code) {
+    }
+}
@@ -1,13 +1,23 @@
 package com.alerts;
 
+import com.alerts.delivery.AlertDeliveryPipeline;
+import com.alerts.store.AlertStore;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
+import com.metrics.LatencyMetrics;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The {@code AlertGenerator} class is responsible for monitoring patient data
@@ -17,7 +27,16 @@ import java.util.stream.Collectors;
  */
 public class AlertGenerator {
     private DataStorage dataStorage;
-    private List<Alert> triggeredAlerts;
+    private final AlertStore alertStore;
+
+    private final StreamingAlertEngine streamingEngine;
+    private final AlertSuppressor suppressor;
+    private final AlertDeliveryPipeline deliveryPipeline;
+    private final LatencyMetrics metrics;
+    /** The (patient, code) keys of structured conditions raised and not resolved since. */
+    private final Set<Long> openConditions = ConcurrentHashMap.newKeySet();
+    /** The alerts and resolutions of the parallel evaluation slice running on this thread, if any. */
+    private final ThreadLocal<List<Object>> sliceEvents = new ThreadLocal<>();
 
     private static final double SYSTOLIC_CRITICAL_HIGH = 180.0;
     private static final double SYSTOLIC_CRITICAL_LOW = 90.0;
@@ -42,8 +61,91 @@ public class AlertGenerator {
      *                    data
      */
     public AlertGenerator(DataStorage dataStorage) {
+        this(dataStorage, null);
+    }
+
+    /**
+     * Constructs an {@code AlertGenerator} whose alerts pass through an
+     * {@link AlertSuppressor} before they are triggered, so repeats of an active
+     * condition are suppressed, re-notified or escalated.
+     *
+     * @param dataStorage the data storage system that provides access to patient
+     *                    data
+     * @param suppressor  the suppressor to filter alerts through, or {@code null}
+     *                    to trigger every alert
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertSuppressor suppressor) {
+        this(dataStorage, suppressor, null);
+    }
+
+    /**
+     * Constructs an {@code AlertGenerator} that hands triggered alerts to an
+     * {@link AlertDeliveryPipeline} instead of printing them on the evaluation
+     * thread. The caller starts and closes the pipeline.
+     *
+     * @param dataStorage      the data storage system that provides access to
+     *                         patient data
+     * @param suppressor       the suppressor to filter alerts through, or
+     *                         {@code null} to trigger every alert
+     * @param deliveryPipeline the pipeline to deliver alerts through, or
+     *                         {@code null} to print them to the console
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertSuppressor suppressor, AlertDeliveryPipeline deliveryPipeline) {
+        this(dataStorage, suppressor, deliveryPipeline, new AlertStore());
+    }
+
+    /**
+     * Constructs an {@code AlertGenerator} that records triggered alerts in the
+     * given store, e.g. one backed by an alert log.
+     *
+     * @param dataStorage      the data storage system that provides access to
+     *                         patient data
+     * @param suppressor       the suppressor to filter alerts through, or
+     *                         {@code null} to trigger every alert
+     * @param deliveryPipeline the pipeline to deliver alerts through, or
+     *                         {@code null} to print them to the console
+     * @param alertStore       the store triggered alerts are recorded in
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertSuppressor suppressor, AlertDeliveryPipeline deliveryPipeline,
+                          AlertStore alertStore) {
+        this(dataStorage, suppressor, deliveryPipeline, alertStore, null);
+    }
+
+    /**
+     * Constructs an {@code AlertGenerator} that also records how long after
+     * their samples alerts are triggered. Pass metrics only when the samples
+     * are timestamped with the wall clock as they are generated; the latency of
+     * archived or simulated samples would be their age.
+     *
+     * @param dataStorage      the data storage system that provides access to
+     *                         patient data
+     * @param suppressor       the suppressor to filter alerts through, or
+     *                         {@code null} to trigger every alert
+     * @param deliveryPipeline the pipeline to deliver alerts through, or
+     *                         {@code null} to print them to the console
+     * @param alertStore       the store triggered alerts are recorded in
+     * @param metrics          the metrics to record
+     *                         {@link LatencyMetrics.Stage#ALERTED} latency in,
+     *                         or {@code null} not to track latency
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertSuppressor suppressor, AlertDeliveryPipeline deliveryPipeline,
+                          AlertStore alertStore, LatencyMetrics metrics) {
         this.dataStorage = dataStorage;
-        this.triggeredAlerts = new ArrayList<>();
+        this.alertStore = alertStore;
+        this.streamingEngine = new StreamingAlertEngine(StreamingAlertEngine.defaultStrategies(),
+                new StructuredAlertFactory() {
+                    @Override
+                    public void resolve(int patientId, AlertCode code) {
+                        AlertGenerator.this.resolve(patientId, code);
+                    }
+                });
+        this.suppressor = suppressor;
+        this.deliveryPipeline = deliveryPipeline;
+        this.metrics = metrics;
+        // Conditions still open in replayed history can be resolved like new ones.
+        for (Alert alert : alertStore.getOpenCriticalAlerts()) {
+            markOpen(alert);
+        }
     }
 
     /**
@@ -66,52 +168,175 @@ public class AlertGenerator {
             return;
         }
         records.sort(Comparator.comparingLong(PatientRecord::getTimestamp));
+        Map<String, List<PatientRecord>> recordsByType = groupByType(records);
+
+        List<PatientRecord> systolicRecords = recordsOfType(recordsByType, "BloodPressureSystolic");
+        List<PatientRecord> diastolicRecords = recordsOfType(recordsByType, "BloodPressureDiastolic");
+        List<PatientRecord> saturationRecords = recordsOfType(recordsByType, "BloodSaturation");
+
+        checkBloodPressureAlerts(patient, systolicRecords, diastolicRecords);
+        checkBloodSaturationAlerts(patient, saturationRecords);
+        checkCombinedAlerts(patient, systolicRecords, saturationRecords);
+        checkECGAlerts(patient, recordsOfType(recordsByType, "ECG"));
+        checkManualAlerts(patient, recordsOfType(recordsByType, "ManualAlert"));
+    }
+
+    /**
+     * Evaluates only the records that arrived for the specified patient since the
+     * previous call to this method. Unlike {@link #evaluateData}, rule state (trend
+     * windows, the ECG window, the latest values used by combined checks) is kept
+     * between calls, so each record is examined exactly once and alerts for
+     * records that were already evaluated are never triggered again.
+     *
+     * <p>Records are consumed in the order they were added to the patient, which
+     * is expected to be timestamp order for live feeds.</p>
+     *
+     * @param patient the patient whose new data should be evaluated
+     * @return the number of alerts the rules raised, before suppression
+     */
+    public int evaluateNewData(Patient patient) {
+        if (patient == null) {
+            System.err.println("AlertGenerator: Patient data is null.");
+            return 0;
+        }
+        int[] raised = new int[1];
+        streamingEngine.evaluate(patient, alert -> {
+            raised[0]++;
+            triggerAlert(alert);
+        });
+        return raised[0];
+    }
 
-        checkBloodPressureAlerts(patient, records);
-        checkBloodSaturationAlerts(patient, records);
-        checkCombinedAlerts(patient, records);
-        checkECGAlerts(patient, records);
-        checkManualAlerts(patient, records);
+    /**
+     * Evaluates the new data of many patients in parallel on the common fork-join
+     * pool.
+     *
+     * @param patients the patients to evaluate; each patient must appear once
+     * @return the wall time and alert throughput of the evaluation
+     * @see #evaluateAll(List, ForkJoinPool)
+     */
+    public EvaluationReport evaluateAll(List<Patient> patients) {
+        return evaluateAll(patients, ForkJoinPool.commonPool());
     }
 
-    private void checkBloodPressureAlerts(Patient patient, List<PatientRecord> allRecords) {
-        List<PatientRecord> systolicRecords = filterAndSortRecords(allRecords, "BloodPressureSystolic");
-        List<PatientRecord> diastolicRecords = filterAndSortRecords(allRecords, "BloodPressureDiastolic");
+    /**
+     * Evaluates the new data of many patients in parallel, with the same result as
+     * calling {@link #evaluateNewData} for each of them.
+     *
+     * <p>The patient list is split recursively across the pool. Each leaf task
+     * evaluates a contiguous slice of patients into its own buffer of raised
+     * alerts and resolved conditions, and applies them in one batch, in the
+     * order they occurred, when the slice is done, so workers only contend once
+     * per slice. Patients in different slices share no rule state.</p>
+     *
+     * @param patients the patients to evaluate; each patient must appear once
+     * @param pool     the pool to run the evaluation on
+     * @return the wall time and alert throughput of the evaluation
+     */
+    public EvaluationReport evaluateAll(List<Patient> patients, ForkJoinPool pool) {
+        AtomicLong alertCount = new AtomicLong();
+        long start = System.nanoTime();
+        pool.invoke(new PatientEvaluationTask(patients, 0, patients.size(), alertCount));
+        long wallNanos = System.nanoTime() - start;
+        return new EvaluationReport(patients.size(), alertCount.get(), wallNanos, pool.getParallelism());
+    }
 
+    /**
+     * Evaluates a slice of the patient list, splitting it further while it is
+     * larger than {@link #LEAF_SIZE}.
+     */
+    private final class PatientEvaluationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int LEAF_SIZE = 64;
+
+        private final List<Patient> patients;
+        private final int from;
+        private final int to;
+        private final AtomicLong alertCount;
+
+        PatientEvaluationTask(List<Patient> patients, int from, int to, AtomicLong alertCount) {
+            this.patients = patients;
+            this.from = from;
+            this.to = to;
+            this.alertCount = alertCount;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PatientEvaluationTask(patients, from, middle, alertCount),
+                          new PatientEvaluationTask(patients, middle, to, alertCount));
+                return;
+            }
+            List<Object> events = new ArrayList<>();
+            sliceEvents.set(events);
+            try {
+                for (int i = from; i < to; i++) {
+                    Patient patient = patients.get(i);
+                    if (patient != null) {
+                        // Marked open as raised, so a later reading in the slice can resolve it.
+                        streamingEngine.evaluate(patient, alert -> {
+                            markOpen(alert);
+                            events.add(alert);
+                        });
+                    }
+                }
+            } finally {
+                sliceEvents.remove();
+            }
+            alertCount.addAndGet(triggerAlerts(events));
+        }
+    }
+
+    private void checkBloodPressureAlerts(Patient patient, List<PatientRecord> systolicRecords,
+                                          List<PatientRecord> diastolicRecords) {
 
         if (!systolicRecords.isEmpty()) {
             PatientRecord latestSystolic = systolicRecords.get(systolicRecords.size() - 1);
             if (latestSystolic.getMeasurementValue() > SYSTOLIC_CRITICAL_HIGH) {
-                triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Critical Systolic High: " + latestSystolic.getMeasurementValue(), latestSystolic.getTimestamp()));
+                triggerAlert(new Alert(patient.getPatientId(), AlertCode.CRITICAL_SYSTOLIC_HIGH, latestSystolic.getMeasurementValue(), SYSTOLIC_CRITICAL_HIGH, latestSystolic.getTimestamp()));
             }
             if (latestSystolic.getMeasurementValue() < SYSTOLIC_CRITICAL_LOW) {
-                triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Critical Systolic Low: " + latestSystolic.getMeasurementValue(), latestSystolic.getTimestamp()));
+                triggerAlert(new Alert(patient.getPatientId(), AlertCode.CRITICAL_SYSTOLIC_LOW, latestSystolic.getMeasurementValue(), SYSTOLIC_CRITICAL_LOW, latestSystolic.getTimestamp()));
+            }
+            if (latestSystolic.getMeasurementValue() >= SYSTOLIC_CRITICAL_LOW
+                    && latestSystolic.getMeasurementValue() <= SYSTOLIC_CRITICAL_HIGH) {
+                resolve(patient.getPatientId(), AlertCode.CRITICAL_SYSTOLIC_HIGH);
+                resolve(patient.getPatientId(), AlertCode.CRITICAL_SYSTOLIC_LOW);
             }
         }
 
         if (!diastolicRecords.isEmpty()) {
             PatientRecord latestDiastolic = diastolicRecords.get(diastolicRecords.size() - 1);
             if (latestDiastolic.getMeasurementValue() > DIASTOLIC_CRITICAL_HIGH) {
-                triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Critical Diastolic High: " + latestDiastolic.getMeasurementValue(), latestDiastolic.getTimestamp()));
+                triggerAlert(new Alert(patient.getPatientId(), AlertCode.CRITICAL_DIASTOLIC_HIGH, latestDiastolic.getMeasurementValue(), DIASTOLIC_CRITICAL_HIGH, latestDiastolic.getTimestamp()));
             }
             if (latestDiastolic.getMeasurementValue() < DIASTOLIC_CRITICAL_LOW) {
-                triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Critical Diastolic Low: " + latestDiastolic.getMeasurementValue(), latestDiastolic.getTimestamp()));
+                triggerAlert(new Alert(patient.getPatientId(), AlertCode.CRITICAL_DIASTOLIC_LOW, latestDiastolic.getMeasurementValue(), DIASTOLIC_CRITICAL_LOW, latestDiastolic.getTimestamp()));
+            }
+            if (latestDiastolic.getMeasurementValue() >= DIASTOLIC_CRITICAL_LOW
+                    && latestDiastolic.getMeasurementValue() <= DIASTOLIC_CRITICAL_HIGH) {
+                resolve(patient.getPatientId(), AlertCode.CRITICAL_DIASTOLIC_HIGH);
+                resolve(patient.getPatientId(), AlertCode.CRITICAL_DIASTOLIC_LOW);
             }
         }
 
         if (systolicRecords.size() >= BP_TREND_CONSECUTIVE_READINGS) {
             for (int i = 0; i <= systolicRecords.size() - BP_TREND_CONSECUTIVE_READINGS; i++) {
-                checkTrend(patient, systolicRecords.subList(i, i + BP_TREND_CONSECUTIVE_READINGS), "Systolic");
+                checkTrend(patient, systolicRecords.subList(i, i + BP_TREND_CONSECUTIVE_READINGS),
+                        AlertCode.SYSTOLIC_INCREASING_TREND, AlertCode.SYSTOLIC_DECREASING_TREND);
             }
         }
         if (diastolicRecords.size() >= BP_TREND_CONSECUTIVE_READINGS) {
              for (int i = 0; i <= diastolicRecords.size() - BP_TREND_CONSECUTIVE_READINGS; i++) {
-                checkTrend(patient, diastolicRecords.subList(i, i + BP_TREND_CONSECUTIVE_READINGS), "Diastolic");
+                checkTrend(patient, diastolicRecords.subList(i, i + BP_TREND_CONSECUTIVE_READINGS),
+                        AlertCode.DIASTOLIC_INCREASING_TREND, AlertCode.DIASTOLIC_DECREASING_TREND);
             }
         }
     }
 
-    private void checkTrend(Patient patient, List<PatientRecord> records, String bpType) {
+    private void checkTrend(Patient patient, List<PatientRecord> records, AlertCode increasing, AlertCode decreasing) {
         if (records.size() < BP_TREND_CONSECUTIVE_READINGS) return;
 
         boolean increasingTrend = true;
@@ -127,31 +352,33 @@ public class AlertGenerator {
             }
         }
 
-        long alertTimestamp = records.get(BP_TREND_CONSECUTIVE_READINGS - 1).getTimestamp();
+        PatientRecord first = records.get(0);
+        PatientRecord last = records.get(BP_TREND_CONSECUTIVE_READINGS - 1);
         if (increasingTrend) {
-            triggerAlert(new Alert(String.valueOf(patient.getPatientId()), bpType + " Increasing Trend", alertTimestamp));
+            triggerAlert(new Alert(patient.getPatientId(), increasing, last.getMeasurementValue(), first.getMeasurementValue(), last.getTimestamp()));
         }
         if (decreasingTrend) {
-            triggerAlert(new Alert(String.valueOf(patient.getPatientId()), bpType + " Decreasing Trend", alertTimestamp));
+            triggerAlert(new Alert(patient.getPatientId(), decreasing, last.getMeasurementValue(), first.getMeasurementValue(), last.getTimestamp()));
         }
     }
 
 
-    private void checkBloodSaturationAlerts(Patient patient, List<PatientRecord> allRecords) {
-        List<PatientRecord> saturationRecords = filterAndSortRecords(allRecords, "BloodSaturation");
+    private void checkBloodSaturationAlerts(Patient patient, List<PatientRecord> saturationRecords) {
         if (saturationRecords.isEmpty()) return;
 
         PatientRecord latestSaturation = saturationRecords.get(saturationRecords.size() - 1);
 
 
         if (latestSaturation.getMeasurementValue() < SATURATION_LOW_THRESHOLD) {
-            triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Low Blood Saturation: " + latestSaturation.getMeasurementValue(), latestSaturation.getTimestamp()));
+            triggerAlert(new Alert(patient.getPatientId(), AlertCode.LOW_BLOOD_SATURATION, latestSaturation.getMeasurementValue(), SATURATION_LOW_THRESHOLD, latestSaturation.getTimestamp()));
+        } else {
+            resolve(patient.getPatientId(), AlertCode.LOW_BLOOD_SATURATION);
         }
         for (int i = saturationRecords.size() - 2; i >= 0; i--) {
             PatientRecord earlierRecord = saturationRecords.get(i);
             if (latestSaturation.getTimestamp() - earlierRecord.getTimestamp() <= SATURATION_RAPID_DROP_INTERVAL_MS) {
                 if (earlierRecord.getMeasurementValue() - latestSaturation.getMeasurementValue() >= SATURATION_RAPID_DROP_PERCENTAGE) {
-                    triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Rapid Blood Saturation Drop", latestSaturation.getTimestamp()));
+                    triggerAlert(new Alert(patient.getPatientId(), AlertCode.RAPID_BLOOD_SATURATION_DROP, latestSaturation.getMeasurementValue(), earlierRecord.getMeasurementValue(), latestSaturation.getTimestamp()));
                     break;
                 }
             } else {
@@ -160,24 +387,27 @@ public class AlertGenerator {
         }
     }
 
-    private void checkCombinedAlerts(Patient patient, List<PatientRecord> allRecords) {
-        List<PatientRecord> systolicRecords = filterAndSortRecords(allRecords, "BloodPressureSystolic");
-        List<PatientRecord> saturationRecords = filterAndSortRecords(allRecords, "BloodSaturation");
-
+    private void checkCombinedAlerts(Patient patient, List<PatientRecord> systolicRecords,
+                                     List<PatientRecord> saturationRecords) {
         if (systolicRecords.isEmpty() || saturationRecords.isEmpty()) return;
 
         PatientRecord latestSystolic = systolicRecords.get(systolicRecords.size() - 1);
         PatientRecord latestSaturation = saturationRecords.get(saturationRecords.size() - 1);
 
+        // Readings taken too far apart do not describe the same moment.
+        if (Math.abs(latestSystolic.getTimestamp() - latestSaturation.getTimestamp())
+                > CorrelationStrategy.DEFAULT_ALIGNMENT_TOLERANCE_MS) return;
+
         if (latestSystolic.getMeasurementValue() < SYSTOLIC_CRITICAL_LOW &&
             latestSaturation.getMeasurementValue() < SATURATION_LOW_THRESHOLD) {
             long alertTimestamp = Math.max(latestSystolic.getTimestamp(), latestSaturation.getTimestamp());
-            triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Hypotensive Hypoxemia Alert", alertTimestamp));
+            triggerAlert(new Alert(patient.getPatientId(), AlertCode.HYPOTENSIVE_HYPOXEMIA, latestSystolic.getMeasurementValue(), latestSaturation.getMeasurementValue(), alertTimestamp));
+        } else {
+            resolve(patient.getPatientId(), AlertCode.HYPOTENSIVE_HYPOXEMIA);
         }
     }
 
-    private void checkECGAlerts(Patient patient, List<PatientRecord> allRecords) {
-        List<PatientRecord> ecgRecords = filterAndSortRecords(allRecords, "ECG");
+    private void checkECGAlerts(Patient patient, List<PatientRecord> ecgRecords) {
         if (ecgRecords.size() < ECG_SLIDING_WINDOW_SIZE) return; // Not enough data for sliding window
 
         // Consider the latest set of records for the sliding window
@@ -193,30 +423,40 @@ public class AlertGenerator {
         // Check the most recent ECG value against the average of the window
         PatientRecord latestEcg = window.get(window.size() - 1); 
         if (Math.abs(latestEcg.getMeasurementValue()) > Math.abs(average * ECG_PEAK_DEVIATION_FACTOR) && average != 0) { // Avoid division by zero or alerts on zero-average if not meaningful
-             triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Abnormal ECG Peak: " + latestEcg.getMeasurementValue() + " (Avg: " + String.format("%.2f", average) + ")", latestEcg.getTimestamp()));
+             triggerAlert(new Alert(patient.getPatientId(), AlertCode.ABNORMAL_ECG_PEAK, latestEcg.getMeasurementValue(), average, latestEcg.getTimestamp()));
         } else if (average == 0 && Math.abs(latestEcg.getMeasurementValue()) > 1.0) { // Arbitrary threshold if average is zero, assuming ECG should not be flatline then suddenly spike high without it being notable
-            triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Abnormal ECG Activity (from zero baseline): " + latestEcg.getMeasurementValue(), latestEcg.getTimestamp()));
+            triggerAlert(new Alert(patient.getPatientId(), AlertCode.ABNORMAL_ECG_FROM_ZERO_BASELINE, latestEcg.getMeasurementValue(), average, latestEcg.getTimestamp()));
         }
     }
     
-    private void checkManualAlerts(Patient patient, List<PatientRecord> allRecords) {
+    private void checkManualAlerts(Patient patient, List<PatientRecord> manualAlertRecords) {
         // Assuming "ManualAlert" is a record type. Value > 0 means active.
         // This check could be improved if "untriggered" events also come as records (e.g., value 0).
         // For now, any "ManualAlert" record is treated as an active alert event at its timestamp.
-        List<PatientRecord> manualAlertRecords = filterAndSortRecords(allRecords, "ManualAlert");
         for (PatientRecord record : manualAlertRecords) {
             if (record.getMeasurementValue() > 0) { // Or some other condition indicating active alert
-                 triggerAlert(new Alert(String.valueOf(patient.getPatientId()), "Manual Alert Triggered", record.getTimestamp()));
+                 triggerAlert(new Alert(patient.getPatientId(), AlertCode.MANUAL_ALERT, record.getMeasurementValue(), 0, record.getTimestamp()));
+            } else {
+                resolve(patient.getPatientId(), AlertCode.MANUAL_ALERT);
             }
         }
     }
 
 
-    private List<PatientRecord> filterAndSortRecords(List<PatientRecord> allRecords, String recordType) {
-        return allRecords.stream()
-                .filter(r -> r.getRecordType().equals(recordType))
-                // .sorted(Comparator.comparingLong(PatientRecord::getTimestamp)) // Already sorted in evaluateData
-                .collect(Collectors.toList());
+    /**
+     * Splits the sorted records by record type in a single pass, keeping each
+     * type's records in timestamp order.
+     */
+    private Map<String, List<PatientRecord>> groupByType(List<PatientRecord> allRecords) {
+        Map<String, List<PatientRecord>> recordsByType = new HashMap<>();
+        for (PatientRecord record : allRecords) {
+            recordsByType.computeIfAbsent(record.getRecordType(), type -> new ArrayList<>()).add(record);
+        }
+        return recordsByType;
+    }
+
+    private List<PatientRecord> recordsOfType(Map<String, List<PatientRecord>> recordsByType, String recordType) {
+        return recordsByType.getOrDefault(recordType, Collections.emptyList());
     }
 
     /**
@@ -228,20 +468,164 @@ public class AlertGenerator {
      * @param alert the alert object containing details about the alert condition
      */
     private void triggerAlert(Alert alert) {
-        // Simple console log for now.
-        System.out.println("ALERT TRIGGERED: Patient ID " + alert.getPatientId() +
-                           " - Condition: " + alert.getCondition() +
-                           " - Timestamp: " + alert.getTimestamp());
-        this.triggeredAlerts.add(alert);
+        markOpen(alert);
+        if (suppressor != null) {
+            alert = suppressor.process(alert);
+            if (alert == null) {
+                return;
+            }
+        }
+        if (deliveryPipeline != null) {
+            deliveryPipeline.submit(alert);
+        } else {
+            // Simple console log for now.
+            System.out.println("ALERT TRIGGERED: Patient ID " + alert.getPatientId() +
+                               " - Condition: " + alert.getCondition() +
+                               " - Timestamp: " + alert.getTimestamp());
+        }
+        alertStore.add(alert);
+        if (metrics != null) {
+            metrics.record(LatencyMetrics.Stage.ALERTED, alert.getCode().name(), alert.getTimestamp());
+        }
+    }
+
+    /**
+     * Triggers a batch of alerts collected by one evaluation worker, and applies
+     * the resolutions collected with them in between, recording the alerts in
+     * the store in as few calls as the resolutions allow.
+     *
+     * @param events the alerts to trigger and the {@link Resolution}s to apply,
+     *               in the order they occurred
+     * @return the number of alerts triggered after suppression
+     */
+    private int triggerAlerts(List<Object> events) {
+        List<Alert> alerts = new ArrayList<>(events.size());
+        int stored = 0;
+        for (Object event : events) {
+            if (event instanceof Resolution) {
+                Resolution resolution = (Resolution) event;
+                if (suppressor != null) {
+                    suppressor.resolve(resolution.patientId, resolution.code);
+                }
+                // The alerts raised before the resolution must be in the store for it to resolve them.
+                if (stored < alerts.size()) {
+                    alertStore.addAll(alerts.subList(stored, alerts.size()));
+                    stored = alerts.size();
+                }
+                alertStore.resolve(String.valueOf(resolution.patientId), resolution.code);
+                continue;
+            }
+            Alert alert = (Alert) event;
+            if (suppressor != null) {
+                alert = suppressor.process(alert);
+                if (alert == null) {
+                    continue;
+                }
+            }
+            alerts.add(alert);
+        }
+        if (stored < alerts.size()) {
+            alertStore.addAll(alerts.subList(stored, alerts.size()));
+        }
+        if (alerts.isEmpty()) {
+            return 0;
+        }
+        if (deliveryPipeline != null) {
+            for (Alert alert : alerts) {
+                deliveryPipeline.submit(alert);
+            }
+        } else {
+            StringBuilder log = new StringBuilder();
+            for (Alert alert : alerts) {
+                log.append("ALERT TRIGGERED: Patient ID ").append(alert.getPatientId())
+                   .append(" - Condition: ").append(alert.getCondition())
+                   .append(" - Timestamp: ").append(alert.getTimestamp())
+                   .append(System.lineSeparator());
+            }
+            System.out.print(log);
+        }
+        if (metrics != null) {
+            for (Alert alert : alerts) {
+                metrics.record(LatencyMetrics.Stage.ALERTED, alert.getCode().name(), alert.getTimestamp());
+            }
+        }
+        return alerts.size();
+    }
+
+    /**
+     * Ends the episode of a structured condition that no longer holds, so the
+     * suppressor delivers its next alert at once and the alert store no longer
+     * lists it as open. Only conditions raised since they were last resolved are
+     * passed on, so rules may report every in-range reading.
+     *
+     * @param patientId the patient
+     * @param code      the condition that cleared
+     */
+    public void resolve(int patientId, AlertCode code) {
+        if (!openConditions.remove(conditionKey(patientId, code))) {
+            return;
+        }
+        List<Object> events = sliceEvents.get();
+        if (events != null) {
+            // The alert being resolved may still wait in the slice's buffer.
+            events.add(new Resolution(patientId, code));
+            return;
+        }
+        if (suppressor != null) {
+            suppressor.resolve(patientId, code);
+        }
+        alertStore.resolve(String.valueOf(patientId), code);
+    }
+
+    private void markOpen(Alert alert) {
+        if (alert.getCode() != AlertCode.CUSTOM && alert.getPatientNumber() >= 0) {
+            openConditions.add(conditionKey(alert.getPatientNumber(), alert.getCode()));
+        }
+    }
+
+    private static long conditionKey(int patientId, AlertCode code) {
+        return ((long) patientId << 32) | code.ordinal();
+    }
+
+    /** A condition resolved during a parallel evaluation slice. */
+    private static final class Resolution {
+        final int patientId;
+        final AlertCode code;
+
+        Resolution(int patientId, AlertCode code) {
+            this.patientId = patientId;
+            this.code = code;
+        }
+    }
+
+    /**
+     * Returns the engine behind {@link #evaluateNewData} and {@link #evaluateAll},
+     * e.g. to replace its rules.
+     *
+     * @return the streaming alert engine
+     */
+    public StreamingAlertEngine getStreamingEngine() {
+        return streamingEngine;
+    }
+
+    /**
+     * Returns the store triggered alerts are recorded in, for queries by patient
+     * and time.
+     *
+     * @return the alert store
+     */
+    public AlertStore getAlertStore() {
+        return alertStore;
     }
 
     /**
-     * Returns a list of alerts triggered during the last evaluation(s).
+     * Returns a list of alerts triggered during the last evaluation(s), as far
+     * as the alert store retains them.
      * Useful for testing.
-     * @return A list of triggered Alert objects.
+     * @return A list of triggered Alert objects, in the order they were triggered.
      */
     public List<Alert> getTriggeredAlerts() {
-        return new ArrayList<>(triggeredAlerts); // Return a copy
+        return alertStore.getAll();
     }
 
     /**
@@ -249,6 +633,6 @@ public class AlertGenerator {
      * Useful for resetting state in tests.
      */
     public void clearTriggeredAlerts() {
-        this.triggeredAlerts.clear();
+        alertStore.clear();
     }
 }
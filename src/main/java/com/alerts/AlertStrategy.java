@@ -4,6 +4,78 @@ import com.data_management.Patient;
 import com.data_management.PatientRecord;
 import java.util.List;
 
+/**
+ * A rule that checks one or more record series of a patient and raises alerts.
+ *
+ * <p>Strategies are driven by an {@link AlertDispatcher}, which walks each
+ * patient's new records once and calls a strategy only when one of the record
+ * types it declares received new samples. Alerts are raised by creating them
+ * through the supplied {@link AlertFactory}.</p>
+ */
 public interface AlertStrategy {
-    void checkAlert(Patient patient, List<PatientRecord> records, AlertFactory alertFactory);
-} 
\ No newline at end of file
+    /**
+     * Returns the record types this strategy reads. The series passed to
+     * {@link #checkAlert(Patient, RecordSeries[], AlertFactory)} are in the same
+     * order.
+     *
+     * @return the record types, e.g. {@code {"ECG"}}
+     */
+    String[] getRecordTypes();
+
+    /**
+     * Returns the record types this strategy derives and reports through
+     * {@link AlertDispatcher#derive}. Records of these types that are also
+     * written to the data storage are not evaluated again when they are read
+     * back, as the strategies reading them already saw the derived samples.
+     *
+     * @return the derived record types, empty by default
+     */
+    default String[] getDerivedTypes() {
+        return new String[0];
+    }
+
+    /**
+     * Checks the samples that arrived since the previous call.
+     *
+     * @param patient      the patient the series belong to
+     * @param series       one series per record type returned by
+     *                     {@link #getRecordTypes()}; some may have no new samples
+     * @param alertFactory the factory used to raise alerts
+     */
+    void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory);
+
+    /**
+     * Discards any state kept for a patient between calls. Strategies that only
+     * look at the series they are given keep no state and need not override this.
+     *
+     * @param patientId the unique identifier of the patient
+     */
+    default void reset(int patientId) {
+    }
+
+    /**
+     * Returns whether a single sample already meets one of this strategy's
+     * conditions, so a patient can be looked at sooner. Strategies whose
+     * conditions depend on more than one sample need not override this.
+     *
+     * @param recordType one of the record types this strategy reads
+     * @param value      the measurement value
+     * @return {@code true} if the value is abnormal for this strategy
+     */
+    default boolean isAbnormal(String recordType, double value) {
+        return false;
+    }
+
+    /**
+     * Checks a complete list of records at once, treating every record of a
+     * declared type as new. Per-patient state kept by the strategy is updated as
+     * if the records had arrived through a dispatcher.
+     *
+     * @param patient      the patient the records belong to
+     * @param records      the records to check, in timestamp order
+     * @param alertFactory the factory used to raise alerts
+     */
+    default void checkAlert(Patient patient, List<PatientRecord> records, AlertFactory alertFactory) {
+        checkAlert(patient, AlertDispatcher.toSeries(getRecordTypes(), records), alertFactory);
+    }
+}
@@ -0,0 +1,338 @@
+package com.alerts;
+
+/**
+ * Deduplicates alerts between the strategies and alert delivery.
+ *
+ * <p>State is kept per (patient, condition code). The condition code of a
+ * structured alert is its {@link AlertCode}, so its text is never rendered; for
+ * other alerts it is the condition without its trailing measurement, e.g.
+ * "Critical Systolic High" for "Critical Systolic High: 181.0". The first alert of an episode is
+ * delivered. Repeats of the same condition are suppressed until the re-notify
+ * interval has passed since the last delivery; then one repeat is delivered,
+ * marked with a {@link RepeatedAlertDecorator}. Once a condition has been
+ * re-notified {@code escalateAfter} times in the same episode, further
+ * re-notifications are escalated with a {@link PriorityAlertDecorator}. An
+ * episode ends when {@link #resolve} is called or when the condition has not
+ * been seen for the clear-after interval.</p>
+ *
+ * <p>All times are alert timestamps, so suppression follows the data rather
+ * than the wall clock. The state lives in an open-addressing hash table of
+ * primitive arrays with a fixed maximum number of entries, and each candidate
+ * alert costs one hash probe sequence. Entries not seen for the clear-after
+ * interval are purged as alert time passes: each candidate alert also takes
+ * {@value #PURGE_SLOTS_PER_ALERT} steps, each checking a slot or removing a
+ * stale entry, of a sweep around the table, so a long-running process does not fill the table with stale conditions and
+ * no alert pays for a scan of the whole table. When
+ * the table is still full, alerts for new conditions are delivered unsuppressed
+ * rather than dropped. Condition codes are stored by their 32-bit hash, so two
+ * codes with the same hash share an entry.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public class AlertSuppressor {
+    /** Default time after which a still-active condition is notified again. */
+    public static final long DEFAULT_RENOTIFY_INTERVAL_MS = 5 * 60 * 1000; // 5 minutes
+    /** Default number of re-notifications before further ones are escalated. */
+    public static final int DEFAULT_ESCALATE_AFTER = 3;
+    /** Default quiet time after which a condition counts as resolved. */
+    public static final long DEFAULT_CLEAR_AFTER_MS = 15 * 60 * 1000; // 15 minutes
+    /** Default maximum number of tracked (patient, condition) pairs. */
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 16;
+
+    private static final int ESCALATED_PRIORITY = 1;
+    /** Steps of the sweep for stale entries taken per candidate alert. */
+    private static final int PURGE_SLOTS_PER_ALERT = 16;
+
+    private final long renotifyIntervalMs;
+    private final int escalateAfter;
+    private final long clearAfterMs;
+    private final int maxEntries;
+
+    private final int mask;
+    private final boolean[] used;
+    private final long[] keys;
+    private final long[] lastNotified;
+    private final long[] lastSeen;
+    private final int[] renotifications;
+    private int size;
+    private int purgeCursor;
+
+    private long delivered;
+    private long suppressed;
+    private long escalated;
+    private long overflowed;
+
+    public AlertSuppressor() {
+        this(DEFAULT_RENOTIFY_INTERVAL_MS, DEFAULT_ESCALATE_AFTER, DEFAULT_CLEAR_AFTER_MS, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a suppressor.
+     *
+     * @param renotifyIntervalMs minimum time between deliveries of the same
+     *                           active condition
+     * @param escalateAfter      number of re-notifications after which further
+     *                           ones are escalated
+     * @param clearAfterMs       quiet time after which a condition starts a new
+     *                           episode
+     * @param maxEntries         maximum number of tracked (patient, condition)
+     *                           pairs
+     */
+    public AlertSuppressor(long renotifyIntervalMs, int escalateAfter, long clearAfterMs, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.renotifyIntervalMs = renotifyIntervalMs;
+        this.escalateAfter = escalateAfter;
+        this.clearAfterMs = clearAfterMs;
+        this.maxEntries = maxEntries;
+
+        // Keep the load factor at or below one half so probe sequences stay short.
+        int capacity = Integer.highestOneBit(Math.max(2, maxEntries) * 2 - 1) * 2;
+        this.mask = capacity - 1;
+        this.used = new boolean[capacity];
+        this.keys = new long[capacity];
+        this.lastNotified = new long[capacity];
+        this.lastSeen = new long[capacity];
+        this.renotifications = new int[capacity];
+    }
+
+    /**
+     * Decides whether a candidate alert should be delivered.
+     *
+     * @param alert the alert raised by a strategy
+     * @return the alert to deliver, possibly decorated as repeated or escalated,
+     *         or {@code null} if it is suppressed
+     */
+    public synchronized Alert process(Alert alert) {
+        long key = key(alert);
+        long timestamp = alert.getTimestamp();
+        purgeStep(timestamp);
+        int slot = find(key);
+
+        if (slot < 0) {
+            if (size >= maxEntries) {
+                overflowed++;
+                delivered++;
+                return alert;
+            }
+            insert(~slot, key, timestamp);
+            delivered++;
+            return alert;
+        }
+
+        if (timestamp - lastSeen[slot] > clearAfterMs) {
+            startEpisode(slot, timestamp);
+            delivered++;
+            return alert;
+        }
+
+        lastSeen[slot] = Math.max(lastSeen[slot], timestamp);
+        if (timestamp - lastNotified[slot] < renotifyIntervalMs) {
+            suppressed++;
+            return null;
+        }
+
+        lastNotified[slot] = timestamp;
+        renotifications[slot]++;
+        delivered++;
+        Alert repeated = new RepeatedAlertDecorator(alert);
+        if (renotifications[slot] > escalateAfter) {
+            escalated++;
+            return new PriorityAlertDecorator(repeated, ESCALATED_PRIORITY);
+        }
+        return repeated;
+    }
+
+    /**
+     * Ends the current episode of a condition, so its next alert is delivered
+     * immediately.
+     *
+     * @param patientId     the patient the condition belongs to
+     * @param conditionCode the condition code, or a full condition text
+     */
+    public synchronized void resolve(String patientId, String conditionCode) {
+        remove(key(patientNumber(patientId), conditionCode(conditionCode).hashCode()));
+    }
+
+    /**
+     * Ends the current episode of a structured condition, so its next alert is
+     * delivered immediately.
+     *
+     * @param patientId the patient the condition belongs to
+     * @param code      the condition
+     */
+    public synchronized void resolve(int patientId, AlertCode code) {
+        remove(key(patientId, codeHash(code)));
+    }
+
+    private void remove(long key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            remove(slot);
+        }
+    }
+
+    /** Checks the next slots of the incremental sweep and removes stale entries. */
+    private void purgeStep(long now) {
+        for (int i = 0; i < PURGE_SLOTS_PER_ALERT; i++) {
+            int slot = purgeCursor;
+            if (used[slot] && now - lastSeen[slot] > clearAfterMs) {
+                // Backward shifting may move another entry into this slot, so check it again.
+                remove(slot);
+            } else {
+                purgeCursor = (slot + 1) & mask;
+            }
+        }
+    }
+
+    /**
+     * Removes every entry whose condition has not been seen for the clear-after
+     * interval. Runs in time proportional to the table capacity; alerts purge
+     * the table incrementally, so this is only needed to reclaim every stale
+     * entry at once.
+     *
+     * @param now the current time in the same clock as alert timestamps
+     * @return the number of entries removed
+     */
+    public synchronized int purgeExpired(long now) {
+        int removed = 0;
+        int slot = 0;
+        while (slot <= mask) {
+            if (used[slot] && now - lastSeen[slot] > clearAfterMs) {
+                remove(slot);
+                removed++;
+                // Backward shifting may have moved another entry into this slot.
+                continue;
+            }
+            slot++;
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the condition code of an alert condition: the text before the
+     * trailing measurement, if any.
+     *
+     * @param condition the alert condition text
+     * @return the condition without its measurement
+     */
+    public static String conditionCode(String condition) {
+        int index = condition.indexOf(": ");
+        while (index >= 0) {
+            int next = index + 2;
+            if (next < condition.length()) {
+                char c = condition.charAt(next);
+                if (Character.isDigit(c) || c == '-') {
+                    return condition.substring(0, index);
+                }
+            }
+            index = condition.indexOf(": ", next);
+        }
+        return condition;
+    }
+
+    private static long key(Alert alert) {
+        int patient = alert.getPatientNumber() >= 0 ? alert.getPatientNumber() : patientNumber(alert.getPatientId());
+        AlertCode code = alert.getCode();
+        int condition = code == AlertCode.CUSTOM ? conditionCode(alert.getCondition()).hashCode() : codeHash(code);
+        return key(patient, condition);
+    }
+
+    private static long key(int patient, int condition) {
+        return ((long) patient << 32) | (condition & 0xffffffffL);
+    }
+
+    private static int codeHash(AlertCode code) {
+        // Negative, so codes rarely share an entry with hashed condition texts.
+        return ~code.ordinal();
+    }
+
+    private static int patientNumber(String patientId) {
+        try {
+            return Integer.parseInt(patientId);
+        } catch (NumberFormatException e) {
+            return patientId.hashCode();
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the slot holding the key, or {@code ~slot} of the empty slot where
+     * it would be inserted.
+     */
+    private int find(long key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    private void insert(int slot, long key, long timestamp) {
+        used[slot] = true;
+        keys[slot] = key;
+        startEpisode(slot, timestamp);
+        size++;
+    }
+
+    private void startEpisode(int slot, long timestamp) {
+        lastNotified[slot] = timestamp;
+        lastSeen[slot] = timestamp;
+        renotifications[slot] = 0;
+    }
+
+    /** Linear-probing deletion that shifts later entries back instead of leaving tombstones. */
+    private void remove(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (used[next]) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, next].
+            boolean stays = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (!stays) {
+                keys[hole] = keys[next];
+                lastNotified[hole] = lastNotified[next];
+                lastSeen[hole] = lastSeen[next];
+                renotifications[hole] = renotifications[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[hole] = false;
+        size--;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getDeliveredCount() {
+        return delivered;
+    }
+
+    public synchronized long getSuppressedCount() {
+        return suppressed;
+    }
+
+    public synchronized long getEscalatedCount() {
+        return escalated;
+    }
+
+    /**
+     * Returns how many alerts were delivered unsuppressed because the table was
+     * full.
+     *
+     * @return the overflow count
+     */
+    public synchronized long getOverflowCount() {
+        return overflowed;
+    }
+}
@@ -0,0 +1,157 @@
+package com.alerts;
+
+import com.data_management.Patient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raises an alert when a reading deviates strongly from the patient's own
+ * baseline for that record type.
+ *
+ * <p>For each (patient, record type) the strategy keeps an exponentially
+ * weighted moving mean and variance, updated incrementally per sample. A
+ * reading whose z-score against the baseline before it exceeds the threshold is
+ * reported once the baseline has seen enough samples to be meaningful. The
+ * reading is then folded into the baseline, so a lasting change becomes the new
+ * normal instead of alerting forever.</p>
+ *
+ * <p>All state for a patient lives in one {@code double} array of three entries
+ * per record type, so memory per patient is constant and each sample costs a
+ * handful of arithmetic operations. Alerts carry the reading and the baseline
+ * mean, and each record type is raised as a condition of its own, e.g.
+ * {@link AlertCode#CHOLESTEROL_BASELINE_DEVIATION}, "Cholesterol Baseline
+ * Deviation: 251.3 (Baseline: 175.20)", so a deviation of one type never
+ * suppresses or resolves that of another. The default record types have
+ * structured codes, so nothing is rendered unless the alert is delivered;
+ * other types raise alerts whose condition text starts with the record
+ * type.</p>
+ *
+ * <p>The strategy is not among {@link StreamingAlertEngine#defaultStrategies()},
+ * which raise the same alerts as {@link AlertGenerator#evaluateData}; register
+ * it on the engine to use it.</p>
+ */
+public class BaselineDeviationStrategy implements AlertStrategy {
+    /** Record types checked by default: every slowly varying series the simulator produces. */
+    public static final String[] DEFAULT_RECORD_TYPES = {
+        "BloodPressureSystolic", "BloodPressureDiastolic", "BloodSaturation", "HeartRate",
+        "Cholesterol", "WhiteBloodCells", "RedBloodCells"
+    };
+
+    private static final double DEFAULT_SMOOTHING = 0.05;
+    private static final double DEFAULT_Z_THRESHOLD = 4.0;
+    private static final int DEFAULT_WARM_UP_SAMPLES = 20;
+
+    private static final int MEAN = 0;
+    private static final int VARIANCE = 1;
+    private static final int COUNT = 2;
+    private static final int STRIDE = 3;
+
+    private static final Map<String, AlertCode> CODES = Map.of(
+        "BloodPressureSystolic", AlertCode.SYSTOLIC_BASELINE_DEVIATION,
+        "BloodPressureDiastolic", AlertCode.DIASTOLIC_BASELINE_DEVIATION,
+        "BloodSaturation", AlertCode.SATURATION_BASELINE_DEVIATION,
+        "HeartRate", AlertCode.HEART_RATE_BASELINE_DEVIATION,
+        "Cholesterol", AlertCode.CHOLESTEROL_BASELINE_DEVIATION,
+        "WhiteBloodCells", AlertCode.WHITE_BLOOD_CELLS_BASELINE_DEVIATION,
+        "RedBloodCells", AlertCode.RED_BLOOD_CELLS_BASELINE_DEVIATION);
+
+    private final String[] recordTypes;
+    /** The code of each record type, or {@code null} if it has none. */
+    private final AlertCode[] codes;
+    private final double smoothing;
+    private final double zThreshold;
+    private final int warmUpSamples;
+    private final Map<Integer, double[]> baselines = new ConcurrentHashMap<>();
+
+    public BaselineDeviationStrategy() {
+        this(DEFAULT_RECORD_TYPES, DEFAULT_SMOOTHING, DEFAULT_Z_THRESHOLD, DEFAULT_WARM_UP_SAMPLES);
+    }
+
+    /**
+     * Creates a strategy for the given record types.
+     *
+     * @param recordTypes   the record types to track
+     * @param smoothing     the weight of each new sample in the baseline, between
+     *                      0 and 1; about 2 / smoothing samples dominate it
+     * @param zThreshold    how many standard deviations from the baseline mean a
+     *                      reading must be to raise an alert
+     * @param warmUpSamples the number of samples a baseline needs before
+     *                      readings are checked against it
+     */
+    public BaselineDeviationStrategy(String[] recordTypes, double smoothing, double zThreshold, int warmUpSamples) {
+        if (!(smoothing > 0 && smoothing < 1)) {
+            throw new IllegalArgumentException("Smoothing must be between 0 and 1: " + smoothing);
+        }
+        if (!(zThreshold > 0)) {
+            throw new IllegalArgumentException("Z threshold must be positive: " + zThreshold);
+        }
+        this.recordTypes = recordTypes.clone();
+        this.codes = new AlertCode[recordTypes.length];
+        for (int k = 0; k < recordTypes.length; k++) {
+            codes[k] = CODES.get(recordTypes[k]);
+        }
+        this.smoothing = smoothing;
+        this.zThreshold = zThreshold;
+        this.warmUpSamples = Math.max(2, warmUpSamples);
+    }
+
+    @Override
+    public String[] getRecordTypes() {
+        return recordTypes;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        double[] state = baselines.computeIfAbsent(patient.getPatientId(), id -> new double[recordTypes.length * STRIDE]);
+        for (int k = 0; k < series.length; k++) {
+            RecordSeries s = series[k];
+            if (s.hasNewSamples()) {
+                check(patient, s, k, state, alertFactory);
+            }
+        }
+    }
+
+    private void check(Patient patient, RecordSeries s, int typeIndex, double[] state, AlertFactory alertFactory) {
+        int base = typeIndex * STRIDE;
+        double mean = state[base + MEAN];
+        double variance = state[base + VARIANCE];
+        double count = state[base + COUNT];
+        for (long i = s.getFirstNewIndex(); i < s.size(); i++) {
+            double value = s.getValue(i);
+            if (count == 0) {
+                mean = value;
+                count = 1;
+                continue;
+            }
+            double diff = value - mean;
+            if (count >= warmUpSamples && variance > 0 && diff * diff > zThreshold * zThreshold * variance) {
+                raise(patient, typeIndex, value, mean, s.getTimestamp(i), alertFactory);
+            }
+            double increment = smoothing * diff;
+            mean += increment;
+            variance = (1 - smoothing) * (variance + diff * increment);
+            count++;
+        }
+        state[base + MEAN] = mean;
+        state[base + VARIANCE] = variance;
+        state[base + COUNT] = count;
+    }
+
+    private void raise(Patient patient, int typeIndex, double value, double mean, long timestamp,
+                       AlertFactory alertFactory) {
+        AlertCode code = codes[typeIndex];
+        if (code != null) {
+            alertFactory.createAlert(patient.getPatientId(), code, value, mean, timestamp);
+        } else {
+            // Suppression keys text alerts by their condition, so the record type keeps them apart.
+            alertFactory.createAlert(String.valueOf(patient.getPatientId()),
+                recordTypes[typeIndex] + " " + AlertCode.BASELINE_DEVIATION.render(value, mean), timestamp);
+        }
+    }
+
+    @Override
+    public void reset(int patientId) {
+        baselines.remove(patientId);
+    }
+}
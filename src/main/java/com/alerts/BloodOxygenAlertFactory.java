@@ -5,4 +5,9 @@ public class BloodOxygenAlertFactory implements AlertFactory {
     public Alert createAlert(String patientId, String condition, long timestamp) {
         return new Alert(patientId, "Blood Oxygen: " + condition, timestamp);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Alert createAlert(int patientId, AlertCode code, double value, double reference, long timestamp) {
+        return new Alert(patientId, code, value, reference, timestamp).withConditionPrefix("Blood Oxygen: ");
+    }
+}
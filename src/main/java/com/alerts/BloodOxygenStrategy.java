@@ -1,53 +1,85 @@
 package com.alerts;
 
+import com.alerts.window.MonotonicWindow;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
-import java.util.List;
-import java.util.stream.Collectors;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raises alerts for low blood saturation and for rapid drops in saturation.
+ *
+ * <p>A drop is detected by comparing each sample with the highest reading of
+ * the preceding interval, tracked per patient in a {@link MonotonicWindow}, so
+ * the check costs O(1) amortised per sample however long the interval is.</p>
+ */
 public class BloodOxygenStrategy implements AlertStrategy {
+    private static final String[] RECORD_TYPES = {"BloodSaturation"};
+
     private static final double SATURATION_LOW_THRESHOLD = 92.0;
     private static final double SATURATION_RAPID_DROP_PERCENTAGE = 5.0;
     private static final long SATURATION_RAPID_DROP_INTERVAL_MS = 10 * 60 * 1000; // 10 minutes
 
+    private final long rapidDropIntervalMs;
+    private final Map<Integer, MonotonicWindow> recentMaxima = new ConcurrentHashMap<>();
+
+    public BloodOxygenStrategy() {
+        this(SATURATION_RAPID_DROP_INTERVAL_MS);
+    }
+
+    /**
+     * Creates a strategy that looks for rapid drops within the given interval.
+     *
+     * @param rapidDropIntervalMs how far back, in milliseconds, a sample is
+     *                            compared with earlier readings
+     */
+    public BloodOxygenStrategy(long rapidDropIntervalMs) {
+        this.rapidDropIntervalMs = rapidDropIntervalMs;
+    }
+
     @Override
-    public void checkAlert(Patient patient, List<PatientRecord> allRecords, AlertFactory alertFactory) {
-        List<PatientRecord> saturationRecords = filterAndSortRecords(allRecords, "BloodSaturation");
-        if (saturationRecords.isEmpty()) return;
+    public String[] getRecordTypes() {
+        return RECORD_TYPES;
+    }
 
-        checkLowSaturation(patient, saturationRecords, alertFactory);
-        checkRapidDrop(patient, saturationRecords, alertFactory);
+    @Override
+    public boolean isAbnormal(String recordType, double value) {
+        return value < SATURATION_LOW_THRESHOLD;
     }
 
-    private void checkLowSaturation(Patient patient, List<PatientRecord> records, AlertFactory alertFactory) {
-        PatientRecord latest = records.get(records.size() - 1);
-        if (latest.getMeasurementValue() < SATURATION_LOW_THRESHOLD) {
-            alertFactory.createAlert(String.valueOf(patient.getPatientId()),
-                "Low Blood Saturation: " + latest.getMeasurementValue(),
-                latest.getTimestamp());
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        RecordSeries saturation = series[0];
+        MonotonicWindow maxima = recentMaxima.computeIfAbsent(patient.getPatientId(), id -> MonotonicWindow.maximum());
+        for (long i = saturation.getFirstNewIndex(); i < saturation.size(); i++) {
+            double value = saturation.getValue(i);
+            long timestamp = saturation.getTimestamp(i);
+            checkLowSaturation(patient, value, timestamp, alertFactory);
+            checkRapidDrop(patient, maxima, value, timestamp, alertFactory);
+            maxima.add(timestamp, value);
         }
     }
 
-    private void checkRapidDrop(Patient patient, List<PatientRecord> records, AlertFactory alertFactory) {
-        PatientRecord latest = records.get(records.size() - 1);
-        for (int i = records.size() - 2; i >= 0; i--) {
-            PatientRecord earlierRecord = records.get(i);
-            if (latest.getTimestamp() - earlierRecord.getTimestamp() <= SATURATION_RAPID_DROP_INTERVAL_MS) {
-                if (earlierRecord.getMeasurementValue() - latest.getMeasurementValue() >= SATURATION_RAPID_DROP_PERCENTAGE) {
-                    alertFactory.createAlert(String.valueOf(patient.getPatientId()),
-                        "Rapid Blood Saturation Drop",
-                        latest.getTimestamp());
-                    break;
-                }
-            } else {
-                break;
-            }
+    private void checkLowSaturation(Patient patient, double value, long timestamp, AlertFactory alertFactory) {
+        if (value < SATURATION_LOW_THRESHOLD) {
+            alertFactory.createAlert(patient.getPatientId(), AlertCode.LOW_BLOOD_SATURATION,
+                value, SATURATION_LOW_THRESHOLD, timestamp);
+        } else {
+            alertFactory.resolve(patient.getPatientId(), AlertCode.LOW_BLOOD_SATURATION);
         }
     }
 
-    private List<PatientRecord> filterAndSortRecords(List<PatientRecord> allRecords, String recordType) {
-        return allRecords.stream()
-                .filter(r -> r.getRecordType().equals(recordType))
-                .collect(Collectors.toList());
+    private void checkRapidDrop(Patient patient, MonotonicWindow maxima, double value, long timestamp,
+                                AlertFactory alertFactory) {
+        maxima.evictBefore(timestamp - rapidDropIntervalMs);
+        if (!maxima.isEmpty() && maxima.peek() - value >= SATURATION_RAPID_DROP_PERCENTAGE) {
+            alertFactory.createAlert(patient.getPatientId(), AlertCode.RAPID_BLOOD_SATURATION_DROP,
+                value, maxima.peek(), timestamp);
+        }
+    }
+
+    @Override
+    public void reset(int patientId) {
+        recentMaxima.remove(patientId);
     }
-} 
\ No newline at end of file
+}
@@ -1,11 +1,10 @@
 package com.alerts;
 
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
-import java.util.List;
-import java.util.stream.Collectors;
 
 public class BloodPressureStrategy implements AlertStrategy {
+    private static final String[] RECORD_TYPES = {"BloodPressureSystolic", "BloodPressureDiastolic"};
+
     private static final double SYSTOLIC_CRITICAL_HIGH = 180.0;
     private static final double SYSTOLIC_CRITICAL_LOW = 90.0;
     private static final double DIASTOLIC_CRITICAL_HIGH = 120.0;
@@ -14,63 +13,84 @@ public class BloodPressureStrategy implements AlertStrategy {
     private static final int BP_TREND_CONSECUTIVE_READINGS = 3;
 
     @Override
-    public void checkAlert(Patient patient, List<PatientRecord> allRecords, AlertFactory alertFactory) {
-        List<PatientRecord> systolicRecords = filterAndSortRecords(allRecords, "BloodPressureSystolic");
-        List<PatientRecord> diastolicRecords = filterAndSortRecords(allRecords, "BloodPressureDiastolic");
+    public String[] getRecordTypes() {
+        return RECORD_TYPES;
+    }
 
-        checkSystolicAlerts(patient, systolicRecords, alertFactory);
-        checkDiastolicAlerts(patient, diastolicRecords, alertFactory);
-        checkTrends(patient, systolicRecords, diastolicRecords, alertFactory);
+    @Override
+    public boolean isAbnormal(String recordType, double value) {
+        if (recordType.equals(RECORD_TYPES[0])) {
+            return value > SYSTOLIC_CRITICAL_HIGH || value < SYSTOLIC_CRITICAL_LOW;
+        }
+        return value > DIASTOLIC_CRITICAL_HIGH || value < DIASTOLIC_CRITICAL_LOW;
     }
 
-    private void checkSystolicAlerts(Patient patient, List<PatientRecord> records, AlertFactory alertFactory) {
-        if (!records.isEmpty()) {
-            PatientRecord latest = records.get(records.size() - 1);
-            if (latest.getMeasurementValue() > SYSTOLIC_CRITICAL_HIGH) {
-                alertFactory.createAlert(String.valueOf(patient.getPatientId()), 
-                    "Critical Systolic High: " + latest.getMeasurementValue(), 
-                    latest.getTimestamp());
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        RecordSeries systolic = series[0];
+        RecordSeries diastolic = series[1];
+
+        checkSystolicAlerts(patient, systolic, alertFactory);
+        checkDiastolicAlerts(patient, diastolic, alertFactory);
+        checkTrends(patient, systolic, diastolic, alertFactory);
+    }
+
+    private void checkSystolicAlerts(Patient patient, RecordSeries series, AlertFactory alertFactory) {
+        for (long i = series.getFirstNewIndex(); i < series.size(); i++) {
+            double value = series.getValue(i);
+            if (value > SYSTOLIC_CRITICAL_HIGH) {
+                alertFactory.createAlert(patient.getPatientId(), AlertCode.CRITICAL_SYSTOLIC_HIGH,
+                    value, SYSTOLIC_CRITICAL_HIGH, series.getTimestamp(i));
+            }
+            if (value < SYSTOLIC_CRITICAL_LOW) {
+                alertFactory.createAlert(patient.getPatientId(), AlertCode.CRITICAL_SYSTOLIC_LOW,
+                    value, SYSTOLIC_CRITICAL_LOW, series.getTimestamp(i));
             }
-            if (latest.getMeasurementValue() < SYSTOLIC_CRITICAL_LOW) {
-                alertFactory.createAlert(String.valueOf(patient.getPatientId()), 
-                    "Critical Systolic Low: " + latest.getMeasurementValue(), 
-                    latest.getTimestamp());
+            if (value >= SYSTOLIC_CRITICAL_LOW && value <= SYSTOLIC_CRITICAL_HIGH) {
+                alertFactory.resolve(patient.getPatientId(), AlertCode.CRITICAL_SYSTOLIC_HIGH);
+                alertFactory.resolve(patient.getPatientId(), AlertCode.CRITICAL_SYSTOLIC_LOW);
             }
         }
     }
 
-    private void checkDiastolicAlerts(Patient patient, List<PatientRecord> records, AlertFactory alertFactory) {
-        if (!records.isEmpty()) {
-            PatientRecord latest = records.get(records.size() - 1);
-            if (latest.getMeasurementValue() > DIASTOLIC_CRITICAL_HIGH) {
-                alertFactory.createAlert(String.valueOf(patient.getPatientId()), 
-                    "Critical Diastolic High: " + latest.getMeasurementValue(), 
-                    latest.getTimestamp());
+    private void checkDiastolicAlerts(Patient patient, RecordSeries series, AlertFactory alertFactory) {
+        for (long i = series.getFirstNewIndex(); i < series.size(); i++) {
+            double value = series.getValue(i);
+            if (value > DIASTOLIC_CRITICAL_HIGH) {
+                alertFactory.createAlert(patient.getPatientId(), AlertCode.CRITICAL_DIASTOLIC_HIGH,
+                    value, DIASTOLIC_CRITICAL_HIGH, series.getTimestamp(i));
+            }
+            if (value < DIASTOLIC_CRITICAL_LOW) {
+                alertFactory.createAlert(patient.getPatientId(), AlertCode.CRITICAL_DIASTOLIC_LOW,
+                    value, DIASTOLIC_CRITICAL_LOW, series.getTimestamp(i));
             }
-            if (latest.getMeasurementValue() < DIASTOLIC_CRITICAL_LOW) {
-                alertFactory.createAlert(String.valueOf(patient.getPatientId()), 
-                    "Critical Diastolic Low: " + latest.getMeasurementValue(), 
-                    latest.getTimestamp());
+            if (value >= DIASTOLIC_CRITICAL_LOW && value <= DIASTOLIC_CRITICAL_HIGH) {
+                alertFactory.resolve(patient.getPatientId(), AlertCode.CRITICAL_DIASTOLIC_HIGH);
+                alertFactory.resolve(patient.getPatientId(), AlertCode.CRITICAL_DIASTOLIC_LOW);
             }
         }
     }
 
-    private void checkTrends(Patient patient, List<PatientRecord> systolicRecords, 
-                           List<PatientRecord> diastolicRecords, AlertFactory alertFactory) {
-        checkTrend(patient, systolicRecords, "Systolic", alertFactory);
-        checkTrend(patient, diastolicRecords, "Diastolic", alertFactory);
+    private void checkTrends(Patient patient, RecordSeries systolic,
+                           RecordSeries diastolic, AlertFactory alertFactory) {
+        checkTrend(patient, systolic, AlertCode.SYSTOLIC_INCREASING_TREND, AlertCode.SYSTOLIC_DECREASING_TREND,
+                alertFactory);
+        checkTrend(patient, diastolic, AlertCode.DIASTOLIC_INCREASING_TREND, AlertCode.DIASTOLIC_DECREASING_TREND,
+                alertFactory);
     }
 
-    private void checkTrend(Patient patient, List<PatientRecord> records, String bpType, AlertFactory alertFactory) {
-        if (records.size() < BP_TREND_CONSECUTIVE_READINGS) return;
-
-        for (int i = 0; i <= records.size() - BP_TREND_CONSECUTIVE_READINGS; i++) {
-            List<PatientRecord> window = records.subList(i, i + BP_TREND_CONSECUTIVE_READINGS);
+    private void checkTrend(Patient patient, RecordSeries series, AlertCode increasing, AlertCode decreasing,
+                            AlertFactory alertFactory) {
+        // Every window ending in a new sample; windows ending earlier were checked by a previous call.
+        long firstEnd = Math.max(series.getFirstNewIndex(),
+                series.getOldestIndex() + BP_TREND_CONSECUTIVE_READINGS - 1);
+        for (long end = firstEnd; end < series.size(); end++) {
+            long start = end - (BP_TREND_CONSECUTIVE_READINGS - 1);
             boolean increasingTrend = true;
             boolean decreasingTrend = true;
 
-            for (int j = 0; j < BP_TREND_CONSECUTIVE_READINGS - 1; j++) {
-                double diff = window.get(j + 1).getMeasurementValue() - window.get(j).getMeasurementValue();
+            for (long j = start; j < end; j++) {
+                double diff = series.getValue(j + 1) - series.getValue(j);
                 if (!(diff > BP_TREND_CHANGE_THRESHOLD)) {
                     increasingTrend = false;
                 }
@@ -79,21 +99,14 @@ public class BloodPressureStrategy implements AlertStrategy {
                 }
             }
 
-            long alertTimestamp = window.get(BP_TREND_CONSECUTIVE_READINGS - 1).getTimestamp();
+            long alertTimestamp = series.getTimestamp(end);
+            double latest = series.getValue(end);
             if (increasingTrend) {
-                alertFactory.createAlert(String.valueOf(patient.getPatientId()), 
-                    bpType + " Increasing Trend", alertTimestamp);
+                alertFactory.createAlert(patient.getPatientId(), increasing, latest, series.getValue(start), alertTimestamp);
             }
             if (decreasingTrend) {
-                alertFactory.createAlert(String.valueOf(patient.getPatientId()), 
-                    bpType + " Decreasing Trend", alertTimestamp);
+                alertFactory.createAlert(patient.getPatientId(), decreasing, latest, series.getValue(start), alertTimestamp);
             }
         }
     }
-
-    private List<PatientRecord> filterAndSortRecords(List<PatientRecord> allRecords, String recordType) {
-        return allRecords.stream()
-                .filter(r -> r.getRecordType().equals(recordType))
-                .collect(Collectors.toList());
-    }
-} 
\ No newline at end of file
+}
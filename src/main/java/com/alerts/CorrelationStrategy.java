@@ -0,0 +1,135 @@
+package com.alerts;
+
+import com.data_management.Patient;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * Raises an alert while the latest samples of several record types all meet
+ * their conditions and were all taken within an alignment tolerance of each
+ * other.
+ *
+ * <p>The new samples of all series are merge-joined in timestamp order. At each
+ * distinct timestamp the latest sample of every series is brought up to date,
+ * and the combination is checked if none of those samples is older than the
+ * tolerance, so a fresh reading is never paired with a stale one. Each distinct
+ * timestamp costs one step per series, independent of the history length. The
+ * alert carries the value of the first series, with the value of the second as
+ * reference.</p>
+ *
+ * @see HypotensiveHypoxemiaStrategy
+ * @see TachycardicDesaturationStrategy
+ */
+public class CorrelationStrategy implements AlertStrategy {
+    /**
+     * Default alignment tolerance: the sampling period of the slowest vital
+     * sign the simulator produces, blood pressure.
+     */
+    public static final long DEFAULT_ALIGNMENT_TOLERANCE_MS = 60 * 1000; // 1 minute
+
+    private final AlertCode code;
+    private final long toleranceMs;
+    private final String[] recordTypes;
+    private final DoublePredicate[] conditions;
+
+    /**
+     * Creates a correlation rule.
+     *
+     * @param code        the condition raised while the rule holds
+     * @param toleranceMs how much older than the newest sample the other samples
+     *                    of a combination may be
+     * @param recordTypes the record types to correlate; at least two
+     * @param conditions  one condition per record type, applied to its latest value
+     */
+    public CorrelationStrategy(AlertCode code, long toleranceMs, String[] recordTypes, DoublePredicate[] conditions) {
+        if (recordTypes.length < 2 || recordTypes.length != conditions.length) {
+            throw new IllegalArgumentException("A correlation needs at least two record types, each with one condition");
+        }
+        if (toleranceMs < 0) {
+            throw new IllegalArgumentException("Tolerance must not be negative: " + toleranceMs);
+        }
+        this.code = code;
+        this.toleranceMs = toleranceMs;
+        this.recordTypes = recordTypes.clone();
+        this.conditions = conditions.clone();
+    }
+
+    @Override
+    public String[] getRecordTypes() {
+        return recordTypes;
+    }
+
+    /** Returns whether the value meets the condition of its record type. */
+    @Override
+    public boolean isAbnormal(String recordType, double value) {
+        for (int k = 0; k < recordTypes.length; k++) {
+            if (recordTypes[k].equals(recordType) && conditions[k].test(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        int count = series.length;
+        long[] next = new long[count];
+        long[] latest = new long[count];
+        for (int k = 0; k < count; k++) {
+            RecordSeries s = series[k];
+            next[k] = s.getFirstNewIndex();
+            // Readings seen before this call; -1 until the series has any.
+            latest[k] = next[k] > s.getOldestIndex() ? next[k] - 1 : -1;
+        }
+
+        while (true) {
+            long timestamp = Long.MAX_VALUE;
+            for (int k = 0; k < count; k++) {
+                if (next[k] < series[k].size()) {
+                    timestamp = Math.min(timestamp, series[k].getTimestamp(next[k]));
+                }
+            }
+            if (timestamp == Long.MAX_VALUE) {
+                return;
+            }
+            for (int k = 0; k < count; k++) {
+                RecordSeries s = series[k];
+                while (next[k] < s.size() && s.getTimestamp(next[k]) == timestamp) {
+                    latest[k] = next[k]++;
+                }
+            }
+            if (holds(series, latest, timestamp)) {
+                raiseAlert(patient, series[0].getValue(latest[0]), series[1].getValue(latest[1]), timestamp,
+                    alertFactory);
+            } else {
+                alertFactory.resolve(patient.getPatientId(), code);
+            }
+        }
+    }
+
+    /**
+     * Raises the alert for a combination that holds. The default creates a
+     * structured alert with this rule's code.
+     *
+     * @param patient      the patient the series belong to
+     * @param first        the latest value of the first series
+     * @param second       the latest value of the second series
+     * @param timestamp    the timestamp of the reading that completed the combination
+     * @param alertFactory the factory used to raise alerts
+     */
+    protected void raiseAlert(Patient patient, double first, double second, long timestamp,
+                              AlertFactory alertFactory) {
+        alertFactory.createAlert(patient.getPatientId(), code, first, second, timestamp);
+    }
+
+    private boolean holds(RecordSeries[] series, long[] latest, long timestamp) {
+        for (int k = 0; k < series.length; k++) {
+            if (latest[k] < 0
+                    || timestamp - series[k].getTimestamp(latest[k]) > toleranceMs
+                    || !conditions[k].test(series[k].getValue(latest[k]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -5,4 +5,9 @@ public class ECGAlertFactory implements AlertFactory {
     public Alert createAlert(String patientId, String condition, long timestamp) {
         return new Alert(patientId, "ECG: " + condition, timestamp);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Alert createAlert(int patientId, AlertCode code, double value, double reference, long timestamp) {
+        return new Alert(patientId, code, value, reference, timestamp).withConditionPrefix("ECG: ");
+    }
+}
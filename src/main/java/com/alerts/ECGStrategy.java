@@ -1,48 +1,73 @@
 package com.alerts;
 
+import com.alerts.window.RunningSumWindow;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
-import java.util.List;
-import java.util.stream.Collectors;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raises an alert when an ECG sample deviates strongly from the moving average
+ * of the latest samples.
+ *
+ * <p>Each patient has a {@link RunningSumWindow}, so the average is updated in
+ * constant time per sample whatever the window size.</p>
+ */
 public class ECGStrategy implements AlertStrategy {
+    private static final String[] RECORD_TYPES = {"ECG"};
+
     private static final int ECG_SLIDING_WINDOW_SIZE = 10;
     private static final double ECG_PEAK_DEVIATION_FACTOR = 3.0;
 
-    @Override
-    public void checkAlert(Patient patient, List<PatientRecord> allRecords, AlertFactory alertFactory) {
-        List<PatientRecord> ecgRecords = filterAndSortRecords(allRecords, "ECG");
-        if (ecgRecords.size() < ECG_SLIDING_WINDOW_SIZE) return;
+    private final int windowSize;
+    private final Map<Integer, RunningSumWindow> windows = new ConcurrentHashMap<>();
 
-        checkECGPeaks(patient, ecgRecords, alertFactory);
+    public ECGStrategy() {
+        this(ECG_SLIDING_WINDOW_SIZE);
     }
 
-    private void checkECGPeaks(Patient patient, List<PatientRecord> records, AlertFactory alertFactory) {
-        int startIndex = Math.max(0, records.size() - ECG_SLIDING_WINDOW_SIZE);
-        List<PatientRecord> window = records.subList(startIndex, records.size());
-        
-        double sum = 0;
-        for (PatientRecord record : window) {
-            sum += record.getMeasurementValue();
+    /**
+     * Creates a strategy comparing each sample with the average of the last
+     * {@code windowSize} samples, the sample itself included.
+     *
+     * @param windowSize the number of samples in the moving average
+     */
+    public ECGStrategy(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
         }
-        double average = sum / window.size();
-
-        PatientRecord latestEcg = window.get(window.size() - 1);
-        if (Math.abs(latestEcg.getMeasurementValue()) > Math.abs(average * ECG_PEAK_DEVIATION_FACTOR) && average != 0) {
-            alertFactory.createAlert(String.valueOf(patient.getPatientId()),
-                "Abnormal ECG Peak: " + latestEcg.getMeasurementValue() + 
-                " (Avg: " + String.format("%.2f", average) + ")",
-                latestEcg.getTimestamp());
-        } else if (average == 0 && Math.abs(latestEcg.getMeasurementValue()) > 1.0) {
-            alertFactory.createAlert(String.valueOf(patient.getPatientId()),
-                "Abnormal ECG Activity (from zero baseline): " + latestEcg.getMeasurementValue(),
-                latestEcg.getTimestamp());
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public String[] getRecordTypes() {
+        return RECORD_TYPES;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        RecordSeries ecg = series[0];
+        RunningSumWindow window = windows.computeIfAbsent(patient.getPatientId(), id -> new RunningSumWindow(windowSize));
+        for (long i = ecg.getFirstNewIndex(); i < ecg.size(); i++) {
+            window.add(ecg.getValue(i));
+            if (window.isFull()) {
+                checkECGPeak(patient, ecg.getValue(i), window.getAverage(), ecg.getTimestamp(i), alertFactory);
+            }
+        }
+    }
+
+    private void checkECGPeak(Patient patient, double latestEcg, double average, long timestamp, AlertFactory alertFactory) {
+        if (Math.abs(latestEcg) > Math.abs(average * ECG_PEAK_DEVIATION_FACTOR) && average != 0) {
+            alertFactory.createAlert(patient.getPatientId(), AlertCode.ABNORMAL_ECG_PEAK,
+                latestEcg, average, timestamp);
+        } else if (average == 0 && Math.abs(latestEcg) > 1.0) {
+            alertFactory.createAlert(patient.getPatientId(), AlertCode.ABNORMAL_ECG_FROM_ZERO_BASELINE,
+                latestEcg, average, timestamp);
         }
     }
 
-    private List<PatientRecord> filterAndSortRecords(List<PatientRecord> allRecords, String recordType) {
-        return allRecords.stream()
-                .filter(r -> r.getRecordType().equals(recordType))
-                .collect(Collectors.toList());
+    @Override
+    public void reset(int patientId) {
+        windows.remove(patientId);
     }
-} 
\ No newline at end of file
+}
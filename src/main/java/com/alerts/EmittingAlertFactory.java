@@ -0,0 +1,47 @@
+package com.alerts;
+
+import java.util.function.Consumer;
+
+/**
+ * Passes every alert created by a strategy on to a sink, so that creating an
+ * alert through the factory is what raises it.
+ */
+class EmittingAlertFactory implements AlertFactory {
+    private final AlertFactory delegate;
+    private final Consumer<Alert> sink;
+
+    EmittingAlertFactory(AlertFactory delegate, Consumer<Alert> sink) {
+        this.delegate = delegate;
+        this.sink = sink;
+    }
+
+    AlertFactory getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Alert createAlert(String patientId, String condition, long timestamp) {
+        Alert alert = delegate.createAlert(patientId, condition, timestamp);
+        sink.accept(alert);
+        return alert;
+    }
+
+    @Override
+    public Alert createAlert(String patientId, String condition, int priority, long timestamp) {
+        Alert alert = delegate.createAlert(patientId, condition, priority, timestamp);
+        sink.accept(alert);
+        return alert;
+    }
+
+    @Override
+    public Alert createAlert(int patientId, AlertCode code, double value, double reference, long timestamp) {
+        Alert alert = delegate.createAlert(patientId, code, value, reference, timestamp);
+        sink.accept(alert);
+        return alert;
+    }
+
+    @Override
+    public void resolve(int patientId, AlertCode code) {
+        delegate.resolve(patientId, code);
+    }
+}
@@ -0,0 +1,61 @@
+package com.alerts;
+
+import java.util.Locale;
+
+/**
+ * Summary of one evaluation run over a set of patients: how many patients and
+ * alerts were processed, how long it took and on how many workers.
+ */
+public class EvaluationReport {
+    private final int patientCount;
+    private final long alertCount;
+    private final long wallTimeNanos;
+    private final int parallelism;
+
+    public EvaluationReport(int patientCount, long alertCount, long wallTimeNanos, int parallelism) {
+        this.patientCount = patientCount;
+        this.alertCount = alertCount;
+        this.wallTimeNanos = wallTimeNanos;
+        this.parallelism = parallelism;
+    }
+
+    public int getPatientCount() {
+        return patientCount;
+    }
+
+    public long getAlertCount() {
+        return alertCount;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Returns the evaluation wall time in milliseconds.
+     *
+     * @return the wall time, with sub-millisecond precision
+     */
+    public double getWallTimeMillis() {
+        return wallTimeNanos / 1_000_000.0;
+    }
+
+    /**
+     * Returns the number of alerts raised per second of wall time.
+     *
+     * @return the alert throughput, or 0 if the run took no measurable time
+     */
+    public double getAlertsPerSecond() {
+        return wallTimeNanos == 0 ? 0 : alertCount * 1_000_000_000.0 / wallTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "Evaluated %d patients on %d worker(s) in %.2f ms: %d alerts (%.0f alerts/sec)",
+                patientCount, parallelism, getWallTimeMillis(), alertCount, getAlertsPerSecond());
+    }
+}
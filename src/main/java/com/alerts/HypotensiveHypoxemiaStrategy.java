@@ -0,0 +1,33 @@
+package com.alerts;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * Raises a combined alert while both the latest systolic pressure and the
+ * latest blood saturation are below their critical thresholds and were taken
+ * within the alignment tolerance of each other.
+ *
+ * <p>Every reading that completes the combination is reported once; see
+ * {@link CorrelationStrategy}.</p>
+ */
+public class HypotensiveHypoxemiaStrategy extends CorrelationStrategy {
+    static final double SYSTOLIC_CRITICAL_LOW = 90.0;
+    static final double SATURATION_LOW_THRESHOLD = 92.0;
+
+    public HypotensiveHypoxemiaStrategy() {
+        this(DEFAULT_ALIGNMENT_TOLERANCE_MS);
+    }
+
+    /**
+     * Creates the rule with the given alignment tolerance.
+     *
+     * @param toleranceMs how far apart, in milliseconds, the two readings may be
+     */
+    public HypotensiveHypoxemiaStrategy(long toleranceMs) {
+        super(AlertCode.HYPOTENSIVE_HYPOXEMIA, toleranceMs,
+                new String[] {"BloodPressureSystolic", "BloodSaturation"},
+                new DoublePredicate[] {
+                    systolic -> systolic < SYSTOLIC_CRITICAL_LOW,
+                    saturation -> saturation < SATURATION_LOW_THRESHOLD});
+    }
+}
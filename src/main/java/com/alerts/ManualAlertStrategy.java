@@ -0,0 +1,34 @@
+package com.alerts;
+
+import com.data_management.Patient;
+
+/**
+ * Raises an alert for every "ManualAlert" record with a positive value, i.e.
+ * every time staff or the patient pressed the alert button, and resolves it
+ * when a record of 0 reports the alert was cleared.
+ */
+public class ManualAlertStrategy implements AlertStrategy {
+    private static final String[] RECORD_TYPES = {"ManualAlert"};
+
+    @Override
+    public String[] getRecordTypes() {
+        return RECORD_TYPES;
+    }
+
+    @Override
+    public boolean isAbnormal(String recordType, double value) {
+        return value > 0;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        RecordSeries manual = series[0];
+        for (long i = manual.getFirstNewIndex(); i < manual.size(); i++) {
+            if (manual.getValue(i) > 0) {
+                alertFactory.createAlert(patient.getPatientId(), AlertCode.MANUAL_ALERT, manual.getValue(i), 0, manual.getTimestamp(i));
+            } else {
+                alertFactory.resolve(patient.getPatientId(), AlertCode.MANUAL_ALERT);
+            }
+        }
+    }
+}
@@ -12,6 +12,16 @@ public class PriorityAlertDecorator extends AlertDecorator {
         return priorityLevel;
     }
 
+    @Override
+    public int getPriority() {
+        return priorityLevel;
+    }
+
+    @Override
+    public Alert copy() {
+        return new PriorityAlertDecorator(decoratedAlert.copy(), priorityLevel);
+    }
+
     @Override
     public String getCondition() {
         return "[Priority " + priorityLevel + "] " + decoratedAlert.getCondition();
@@ -0,0 +1,147 @@
+package com.alerts;
+
+/**
+ * The recent samples of one record type for one patient, as seen by an
+ * {@link AlertStrategy}.
+ *
+ * <p>Samples are addressed by their position in the series since the patient
+ * was first seen, starting at zero. The series only retains the most recent
+ * {@link #getCapacity()} samples; positions before {@link #getOldestIndex()}
+ * are no longer available. Samples from {@link #getFirstNewIndex()} up to
+ * {@link #size()} arrived since the strategies last ran and are the ones a
+ * strategy is expected to check; older retained samples can be used as
+ * history.</p>
+ *
+ * <p>Values and timestamps are kept in primitive ring buffers that grow on
+ * demand up to the capacity.</p>
+ */
+public class RecordSeries {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String recordType;
+    private final int capacity;
+    private double[] values;
+    private long[] timestamps;
+    private long size;
+    private long firstNew;
+
+    /**
+     * Creates an empty series.
+     *
+     * @param recordType the record type held by this series, e.g. "ECG"
+     * @param capacity   the maximum number of samples retained; must be a power
+     *                   of two
+     */
+    public RecordSeries(String recordType, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        this.recordType = recordType;
+        this.capacity = capacity;
+        int initial = Math.min(INITIAL_CAPACITY, capacity);
+        this.values = new double[initial];
+        this.timestamps = new long[initial];
+    }
+
+    public String getRecordType() {
+        return recordType;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of samples appended to this series so far.
+     *
+     * @return the position one past the latest sample
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the position of the first sample the strategies have not seen yet.
+     *
+     * @return the first new position, equal to {@link #size()} if nothing is new
+     */
+    public long getFirstNewIndex() {
+        return firstNew;
+    }
+
+    /**
+     * Returns the position of the oldest sample still retained.
+     *
+     * @return the oldest readable position
+     */
+    public long getOldestIndex() {
+        return Math.max(0, size - values.length);
+    }
+
+    public boolean hasNewSamples() {
+        return firstNew < size;
+    }
+
+    /**
+     * Returns the value of the sample at the given position.
+     *
+     * @param index a position between {@link #getOldestIndex()} and {@link #size()}
+     * @return the measurement value
+     * @throws IndexOutOfBoundsException if the sample is not retained
+     */
+    public double getValue(long index) {
+        return values[slot(index)];
+    }
+
+    /**
+     * Returns the timestamp of the sample at the given position.
+     *
+     * @param index a position between {@link #getOldestIndex()} and {@link #size()}
+     * @return the timestamp in milliseconds since the Unix epoch
+     * @throws IndexOutOfBoundsException if the sample is not retained
+     */
+    public long getTimestamp(long index) {
+        return timestamps[slot(index)];
+    }
+
+    private int slot(long index) {
+        if (index < getOldestIndex() || index >= size) {
+            throw new IndexOutOfBoundsException("Sample " + index + " is not retained in " + recordType
+                    + " (retained " + getOldestIndex() + ".." + size + ")");
+        }
+        return (int) (index & (values.length - 1));
+    }
+
+    /**
+     * Returns the number of samples that can be appended before unseen samples
+     * would be overwritten.
+     */
+    int remainingNewCapacity() {
+        return capacity - (int) (size - firstNew);
+    }
+
+    void append(double value, long timestamp) {
+        if (size == values.length && values.length < capacity) {
+            grow();
+        }
+        int slot = (int) (size & (values.length - 1));
+        values[slot] = value;
+        timestamps[slot] = timestamp;
+        size++;
+    }
+
+    void markSeen() {
+        firstNew = size;
+    }
+
+    private void grow() {
+        // Only called while the buffer has never wrapped, so slots equal positions.
+        int newLength = Math.min(values.length * 2, capacity);
+        double[] newValues = new double[newLength];
+        long[] newTimestamps = new long[newLength];
+        System.arraycopy(values, 0, newValues, 0, values.length);
+        System.arraycopy(timestamps, 0, newTimestamps, 0, timestamps.length);
+        values = newValues;
+        timestamps = newTimestamps;
+    }
+}
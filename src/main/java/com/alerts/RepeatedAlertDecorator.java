@@ -10,12 +10,33 @@ public class RepeatedAlertDecorator extends AlertDecorator {
     }
 
     public boolean shouldRepeat() {
-        long currentTime = System.currentTimeMillis();
+        return shouldRepeat(System.currentTimeMillis());
+    }
+
+    /**
+     * Checks whether the repeat interval has passed at the given time, which
+     * lets callers use alert timestamps instead of the wall clock.
+     *
+     * @param currentTime the current time in milliseconds
+     * @return {@code true} if the alert should be repeated
+     */
+    public boolean shouldRepeat(long currentTime) {
         return (currentTime - lastTriggeredTime) >= REPEAT_INTERVAL_MS;
     }
 
     public void updateLastTriggeredTime() {
-        this.lastTriggeredTime = System.currentTimeMillis();
+        updateLastTriggeredTime(System.currentTimeMillis());
+    }
+
+    public void updateLastTriggeredTime(long currentTime) {
+        this.lastTriggeredTime = currentTime;
+    }
+
+    @Override
+    public Alert copy() {
+        RepeatedAlertDecorator copy = new RepeatedAlertDecorator(decoratedAlert.copy());
+        copy.lastTriggeredTime = lastTriggeredTime;
+        return copy;
     }
 
     @Override
@@ -0,0 +1,28 @@
+package com.alerts;
+
+/**
+ * Creates structured alerts without allocating, by overwriting one alert
+ * instance per thread.
+ *
+ * <p>An alert returned by this factory is only valid until the same thread
+ * creates the next one, so the factory is only for callers that consume each
+ * alert synchronously, e.g. count or render it, before the next is created.
+ * It must not back a {@link StreamingAlertEngine} whose sink hands alerts to
+ * an {@link AlertSuppressor}, the delivery pipeline or the alert store, which
+ * all keep the alerts they are given. Alerts created from condition text are
+ * allocated as usual.</p>
+ */
+class ReusableAlertFactory implements AlertFactory {
+    private final ThreadLocal<Alert> scratch =
+            ThreadLocal.withInitial(() -> new Alert(0, AlertCode.CUSTOM, 0, 0, 0));
+
+    @Override
+    public Alert createAlert(String patientId, String condition, long timestamp) {
+        return new Alert(patientId, condition, timestamp);
+    }
+
+    @Override
+    public Alert createAlert(int patientId, AlertCode code, double value, double reference, long timestamp) {
+        return scratch.get().set(patientId, code, value, reference, timestamp);
+    }
+}
@@ -0,0 +1,148 @@
+package com.alerts;
+
+import com.data_management.Patient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Incremental counterpart of the batch checks in {@link AlertGenerator}.
+ *
+ * <p>The engine runs the same rules as the batch checks, each expressed as an
+ * {@link AlertStrategy}, through an {@link AlertDispatcher}. The dispatcher
+ * remembers, per patient, how many records it has already consumed, so each
+ * call only walks the records added since the previous call, once, and alerts
+ * raised for older records are never raised again.</p>
+ */
+public class StreamingAlertEngine {
+    private static final AlertFactory PLAIN_ALERTS = new StructuredAlertFactory();
+
+    private final AlertDispatcher dispatcher;
+    private final AlertFactory alertFactory;
+    private final List<AlertStrategy> registered = new ArrayList<>();
+
+    /**
+     * Creates an engine with no patient state, running the blood pressure, blood
+     * saturation, combined, ECG and manual alert rules. The combined rules
+     * correlate readings within {@link CorrelationStrategy#DEFAULT_ALIGNMENT_TOLERANCE_MS}.
+     */
+    public StreamingAlertEngine() {
+        this(defaultStrategies());
+    }
+
+    /**
+     * Returns new instances of the rules a default engine runs, with no patient
+     * state.
+     *
+     * @return the default rules
+     */
+    public static List<AlertStrategy> defaultStrategies() {
+        List<AlertStrategy> strategies = new ArrayList<>();
+        strategies.add(new BloodPressureStrategy());
+        strategies.add(new BloodOxygenStrategy());
+        strategies.add(new HypotensiveHypoxemiaStrategy());
+        strategies.add(new TachycardicDesaturationStrategy());
+        strategies.add(new ECGStrategy());
+        strategies.add(new ManualAlertStrategy());
+        return strategies;
+    }
+
+    /**
+     * Creates an engine with no patient state, running the given rules.
+     *
+     * @param strategies the rules to run, e.g. compiled from a rule file
+     */
+    public StreamingAlertEngine(List<? extends AlertStrategy> strategies) {
+        this(strategies, PLAIN_ALERTS);
+    }
+
+    /**
+     * Creates an engine with no patient state, running the given rules and
+     * creating their alerts, and receiving their resolutions, through the
+     * given factory. Sinks may keep the alerts they are passed, so the factory
+     * must create a new alert per call unless every sink consumes each alert
+     * before the next one is raised.
+     *
+     * @param strategies   the rules to run
+     * @param alertFactory the factory the rules create alerts with
+     */
+    public StreamingAlertEngine(List<? extends AlertStrategy> strategies, AlertFactory alertFactory) {
+        this.dispatcher = new AlertDispatcher();
+        this.alertFactory = alertFactory;
+        dispatcher.replaceStrategies(strategies, alertFactory);
+    }
+
+    /**
+     * Adds a rule to the ones the engine runs. The rule only considers records
+     * added after it was registered, and is kept when the other rules are
+     * replaced.
+     *
+     * @param strategy the rule to add
+     */
+    public synchronized void register(AlertStrategy strategy) {
+        registered.add(strategy);
+        dispatcher.register(strategy, alertFactory);
+    }
+
+    /**
+     * Atomically replaces the rules the engine runs, except those added with
+     * {@link #register}, without pausing evaluations in progress. New rules
+     * only consider records added after the swap.
+     *
+     * @param strategies the rules to run from now on
+     */
+    public synchronized void replaceStrategies(List<? extends AlertStrategy> strategies) {
+        List<AlertStrategy> all = new ArrayList<>(strategies);
+        all.addAll(registered);
+        dispatcher.replaceStrategies(all, alertFactory);
+    }
+
+    /**
+     * Runs every rule over the records added to the patient since the last
+     * evaluation and passes the resulting alerts to the given sink.
+     *
+     * @param patient the patient whose new records should be evaluated
+     * @param sink    receives each alert as it is raised
+     */
+    public void evaluate(Patient patient, Consumer<Alert> sink) {
+        dispatcher.dispatch(patient, sink);
+    }
+
+    /**
+     * Returns whether a sample is abnormal for any of the rules the engine
+     * currently runs.
+     *
+     * @param recordType the type of the sample
+     * @param value      the measurement value
+     * @return {@code true} if a rule reports the value as abnormal
+     * @see AlertStrategy#isAbnormal
+     */
+    public boolean isAbnormal(String recordType, double value) {
+        return dispatcher.isAbnormal(recordType, value);
+    }
+
+    /**
+     * Adds a sample a rule derived while the patient is being evaluated, so the
+     * rules reading its type see it within the same evaluation.
+     *
+     * @param patientId  the patient the sample belongs to
+     * @param value      the derived value
+     * @param recordType the type of the derived sample
+     * @param timestamp  the time of the derived sample
+     * @see AlertDispatcher#derive
+     */
+    public void derive(int patientId, double value, String recordType, long timestamp) {
+        dispatcher.derive(patientId, value, recordType, timestamp);
+    }
+
+    /**
+     * Discards the rule state kept for a patient, so the next evaluation starts
+     * again from the patient's first record.
+     *
+     * @param patientId the unique identifier of the patient
+     */
+    public void reset(int patientId) {
+        dispatcher.reset(patientId);
+    }
+}
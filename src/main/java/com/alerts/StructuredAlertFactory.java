@@ -0,0 +1,22 @@
+package com.alerts;
+
+/**
+ * Creates alerts without changing their condition. Structured alerts keep their
+ * condition text unrendered until it is asked for.
+ */
+public class StructuredAlertFactory implements AlertFactory {
+    @Override
+    public Alert createAlert(String patientId, String condition, long timestamp) {
+        return new Alert(patientId, condition, timestamp);
+    }
+
+    @Override
+    public Alert createAlert(String patientId, String condition, int priority, long timestamp) {
+        return new Alert(patientId, condition, priority, timestamp);
+    }
+
+    @Override
+    public Alert createAlert(int patientId, AlertCode code, double value, double reference, long timestamp) {
+        return new Alert(patientId, code, value, reference, timestamp);
+    }
+}
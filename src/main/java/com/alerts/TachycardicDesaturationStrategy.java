@@ -0,0 +1,32 @@
+package com.alerts;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * Raises a combined alert while the latest heart rate is above the tachycardia
+ * threshold and the latest blood saturation is low, both taken within the
+ * alignment tolerance of each other.
+ *
+ * <p>Every reading that completes the combination is reported once; see
+ * {@link CorrelationStrategy}.</p>
+ */
+public class TachycardicDesaturationStrategy extends CorrelationStrategy {
+    static final double TACHYCARDIA_THRESHOLD = 100.0;
+
+    public TachycardicDesaturationStrategy() {
+        this(DEFAULT_ALIGNMENT_TOLERANCE_MS);
+    }
+
+    /**
+     * Creates the rule with the given alignment tolerance.
+     *
+     * @param toleranceMs how far apart, in milliseconds, the two readings may be
+     */
+    public TachycardicDesaturationStrategy(long toleranceMs) {
+        super(AlertCode.TACHYCARDIC_DESATURATION, toleranceMs,
+                new String[] {"HeartRate", "BloodSaturation"},
+                new DoublePredicate[] {
+                    heartRate -> heartRate > TACHYCARDIA_THRESHOLD,
+                    saturation -> saturation < HypotensiveHypoxemiaStrategy.SATURATION_LOW_THRESHOLD});
+    }
+}
@@ -0,0 +1,286 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers alerts to sinks off the evaluation threads.
+ *
+ * <p>Evaluation threads {@link #submit} alerts to a bounded ingress queue; a
+ * submit never blocks, and an alert that does not fit is rejected and counted.
+ * A dispatcher thread drains the ingress queue in batches and fans each alert
+ * out to one bounded queue per sink, applying the sink's
+ * {@link BackpressurePolicy} when that queue is full. Each sink has its own
+ * delivery thread that drains its queue in batches, so a slow sink delays only
+ * itself unless it uses {@link BackpressurePolicy#BLOCK}.</p>
+ *
+ * <p>With triage enabled, the default, the ingress queue and every sink queue
+ * are {@link TriageQueue}s with one lane per priority class: critical alerts
+ * overtake queued lower-priority alerts at both stages, while lower lanes
+ * still get one alert in every {@link #STARVATION_LIMIT} + 1 under load. Queue
+ * capacities and backpressure policies apply per lane, so a flood of
+ * low-priority alerts cannot crowd critical ones out. Order is preserved
+ * within a priority class.</p>
+ *
+ * <p>Sinks are added before {@link #start()}. {@link #close()} delivers every
+ * alert submitted before it was called and then closes the sinks.</p>
+ */
+public class AlertDeliveryPipeline implements AutoCloseable {
+    /** Default capacity of the ingress queue and of each sink queue. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    /** Default maximum number of alerts handed to a sink at once. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    /** Consecutive alerts taken from a more urgent lane before a waiting lower lane is served. */
+    public static final int STARVATION_LIMIT = 8;
+
+    private static final int PRIORITY_LANES = 3;
+
+    private final TriageQueue ingress;
+    private final int maxBatchSize;
+    private final int laneCount;
+    private final List<SinkChannel> channels = new ArrayList<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private Thread dispatcher;
+    private volatile boolean closed;
+
+    public AlertDeliveryPipeline() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param ingressCapacity the number of submitted alerts that may wait for
+     *                        the dispatcher
+     * @param maxBatchSize    the maximum number of alerts moved or delivered at once
+     */
+    public AlertDeliveryPipeline(int ingressCapacity, int maxBatchSize) {
+        this(ingressCapacity, maxBatchSize, true);
+    }
+
+    /**
+     * Creates a pipeline, optionally without priority triage.
+     *
+     * @param ingressCapacity the number of submitted alerts per priority lane
+     *                        that may wait for the dispatcher
+     * @param maxBatchSize    the maximum number of alerts moved or delivered at once
+     * @param triage          {@code true} to order queued alerts by priority,
+     *                        {@code false} for plain FIFO queues
+     */
+    public AlertDeliveryPipeline(int ingressCapacity, int maxBatchSize, boolean triage) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.laneCount = triage ? PRIORITY_LANES : 1;
+        this.ingress = new TriageQueue(laneCount, ingressCapacity, STARVATION_LIMIT);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Adds a sink that drops its oldest queued alerts when it falls behind.
+     *
+     * @param sink the sink to deliver to
+     * @return the sink's delivery metrics
+     */
+    public SinkMetrics addSink(AlertSink sink) {
+        return addSink(sink.getClass().getSimpleName(), sink, BackpressurePolicy.DROP_OLDEST, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Adds a sink.
+     *
+     * @param name          the name used in metrics and thread names
+     * @param sink          the sink to deliver to
+     * @param policy        what to do when the sink's queue is full
+     * @param queueCapacity the number of alerts per priority lane that may
+     *                      wait for the sink
+     * @return the sink's delivery metrics
+     * @throws IllegalStateException if the pipeline has been started
+     */
+    public synchronized SinkMetrics addSink(String name, AlertSink sink, BackpressurePolicy policy, int queueCapacity) {
+        if (dispatcher != null) {
+            throw new IllegalStateException("Sinks must be added before the pipeline is started");
+        }
+        SinkChannel channel = new SinkChannel(name, sink, policy, queueCapacity);
+        channels.add(channel);
+        return channel.metrics;
+    }
+
+    /**
+     * Starts the dispatcher and sink threads. Alerts submitted earlier are
+     * delivered once the pipeline starts.
+     */
+    public synchronized void start() {
+        if (dispatcher != null) {
+            return;
+        }
+        for (SinkChannel channel : channels) {
+            channel.thread.start();
+        }
+        dispatcher = new Thread(this::dispatch, "alert-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Queues an alert for delivery without blocking.
+     *
+     * @param alert the alert to deliver
+     * @return {@code false} if the alert was rejected because the ingress queue
+     *         is full or the pipeline is closed
+     */
+    public boolean submit(Alert alert) {
+        if (closed || alert == null || !ingress.offer(alert)) {
+            rejected.increment();
+            return false;
+        }
+        submitted.increment();
+        return true;
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    /**
+     * Returns how many alerts were rejected at submission.
+     *
+     * @return the rejected alert count
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the metrics of every sink, in the order the sinks were added.
+     *
+     * @return the sink metrics
+     */
+    public synchronized List<SinkMetrics> getSinkMetrics() {
+        List<SinkMetrics> metrics = new ArrayList<>();
+        for (SinkChannel channel : channels) {
+            metrics.add(channel.metrics);
+        }
+        return Collections.unmodifiableList(metrics);
+    }
+
+    /**
+     * Stops accepting alerts, waits until every accepted alert has been handed
+     * to the sinks, and closes them. Starts the pipeline first if needed. If
+     * interrupted while waiting, returns with the interrupt flag set and the
+     * remaining alerts still being delivered.
+     */
+    @Override
+    public void close() {
+        Thread dispatcherThread;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            start();
+            dispatcherThread = dispatcher;
+        }
+        ingress.finish();
+        try {
+            dispatcherThread.join();
+            for (SinkChannel channel : channels) {
+                channel.thread.join();
+                channel.sink.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch() {
+        List<Alert> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (ingress.drainTo(batch, maxBatchSize) >= 0) {
+                for (Alert alert : batch) {
+                    for (SinkChannel channel : channels) {
+                        channel.enqueue(alert);
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (SinkChannel channel : channels) {
+                channel.queue.finish();
+            }
+        }
+    }
+
+    /**
+     * The queue, delivery thread and metrics of one sink.
+     */
+    private final class SinkChannel {
+        private final AlertSink sink;
+        private final BackpressurePolicy policy;
+        private final TriageQueue queue;
+        private final SinkMetrics metrics;
+        private final Thread thread;
+
+        SinkChannel(String name, AlertSink sink, BackpressurePolicy policy, int capacity) {
+            this.sink = sink;
+            this.policy = policy;
+            this.queue = new TriageQueue(laneCount, capacity, STARVATION_LIMIT);
+            this.metrics = new SinkMetrics(name);
+            this.thread = new Thread(this::run, "alert-sink-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        void enqueue(Alert alert) throws InterruptedException {
+            switch (policy) {
+                case BLOCK:
+                    queue.put(alert);
+                    break;
+                case DROP_OLDEST:
+                    if (queue.offerDroppingOldest(alert)) {
+                        metrics.dropped.increment();
+                    }
+                    break;
+                default:
+                    if (!queue.offer(alert)) {
+                        metrics.dropped.increment();
+                    }
+                    break;
+            }
+            metrics.recordQueueDepth(queue.size());
+        }
+
+        private void run() {
+            List<Alert> batch = new ArrayList<>(maxBatchSize);
+            try {
+                while (queue.drainTo(batch, maxBatchSize) >= 0) {
+                    deliver(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void deliver(List<Alert> batch) {
+            long start = System.nanoTime();
+            try {
+                sink.deliver(batch);
+                metrics.delivered.add(batch.size());
+            } catch (Exception e) {
+                metrics.failedBatches.increment();
+                System.err.println("Alert sink " + metrics.getName() + " failed to deliver "
+                        + batch.size() + " alert(s): " + e.getMessage());
+            }
+            metrics.batches.increment();
+            metrics.deliveryNanos.add(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+
+import java.util.List;
+
+/**
+ * A destination that alerts are delivered to in batches by an
+ * {@link AlertDeliveryPipeline}.
+ *
+ * <p>Each sink is called from a single delivery thread, so implementations need
+ * not be thread-safe. A sink that fails should report the failure by throwing;
+ * the pipeline counts it and moves on to the next batch.</p>
+ */
+public interface AlertSink {
+    /**
+     * Delivers a batch of alerts.
+     *
+     * @param alerts the alerts, in the order they were triggered
+     * @throws Exception if the batch could not be delivered
+     */
+    void deliver(List<Alert> alerts) throws Exception;
+
+    /**
+     * Releases any resources held by the sink. Called once after the last batch.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,16 @@
+package com.alerts.delivery;
+
+/**
+ * What an {@link AlertDeliveryPipeline} does when a sink's queue is full.
+ */
+public enum BackpressurePolicy {
+    /** Discard the alert that does not fit. */
+    DROP_NEWEST,
+    /** Discard the oldest queued alert to make room. */
+    DROP_OLDEST,
+    /**
+     * Wait for the sink to catch up. This holds back delivery to every other
+     * sink, but never the evaluation threads submitting alerts.
+     */
+    BLOCK
+}
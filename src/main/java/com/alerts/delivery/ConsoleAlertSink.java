@@ -0,0 +1,24 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+
+import java.util.List;
+
+/**
+ * Prints alerts to standard output, one line per alert and one write per batch.
+ */
+public class ConsoleAlertSink implements AlertSink {
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Override
+    public void deliver(List<Alert> alerts) {
+        buffer.setLength(0);
+        for (Alert alert : alerts) {
+            buffer.append("ALERT TRIGGERED: Patient ID ").append(alert.getPatientId())
+                  .append(" - Condition: ").append(alert.getCondition())
+                  .append(" - Timestamp: ").append(alert.getTimestamp())
+                  .append(System.lineSeparator());
+        }
+        System.out.print(buffer);
+    }
+}
@@ -0,0 +1,56 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends alerts to a text file, keeping the file open between batches and
+ * flushing once per batch.
+ *
+ * <p>Output format:
+ * "Patient ID: {id}, Timestamp: {timestamp}, Condition: {condition}"</p>
+ */
+public class FileAlertSink implements AlertSink {
+    private final BufferedWriter writer;
+
+    /**
+     * Opens the alert file for appending, creating it and its parent directories
+     * if needed.
+     *
+     * @param file the file to append alerts to
+     * @throws IOException if the file cannot be opened
+     */
+    public FileAlertSink(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void deliver(List<Alert> alerts) throws IOException {
+        for (Alert alert : alerts) {
+            writer.write("Patient ID: " + alert.getPatientId()
+                    + ", Timestamp: " + alert.getTimestamp()
+                    + ", Condition: " + alert.getCondition());
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Error closing alert file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps delivered alerts in memory. Useful for testing.
+ */
+public class InMemoryAlertSink implements AlertSink {
+    private final List<Alert> alerts = new ArrayList<>();
+    private int batches;
+
+    @Override
+    public synchronized void deliver(List<Alert> batch) {
+        alerts.addAll(batch);
+        batches++;
+    }
+
+    /**
+     * Returns the alerts delivered so far.
+     *
+     * @return a copy of the delivered alerts, in delivery order
+     */
+    public synchronized List<Alert> getAlerts() {
+        return new ArrayList<>(alerts);
+    }
+
+    public synchronized int getBatchCount() {
+        return batches;
+    }
+}
@@ -0,0 +1,28 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.util.List;
+
+/**
+ * Delivers alerts through one of the simulator's {@link OutputStrategy}
+ * implementations, as records labelled {@code "Alert"} whose data is the alert
+ * condition.
+ */
+public class OutputStrategyAlertSink implements AlertSink {
+    private static final String LABEL = "Alert";
+
+    private final OutputStrategy outputStrategy;
+
+    public OutputStrategyAlertSink(OutputStrategy outputStrategy) {
+        this.outputStrategy = outputStrategy;
+    }
+
+    @Override
+    public void deliver(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            outputStrategy.output(alert.getPatientNumber(), alert.getTimestamp(), LABEL, alert.getCondition());
+        }
+    }
+}
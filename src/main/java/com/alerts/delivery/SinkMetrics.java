@@ -0,0 +1,66 @@
+package com.alerts.delivery;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery counters of one sink in an {@link AlertDeliveryPipeline}.
+ */
+public class SinkMetrics {
+    private final String name;
+    final LongAdder delivered = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+    final LongAdder batches = new LongAdder();
+    final LongAdder failedBatches = new LongAdder();
+    final LongAdder deliveryNanos = new LongAdder();
+    final AtomicLong maxQueueDepth = new AtomicLong();
+
+    SinkMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getFailedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * Returns the mean time the sink took to deliver one batch.
+     *
+     * @return the mean batch delivery time in milliseconds, or 0 before the first batch
+     */
+    public double getMeanBatchMillis() {
+        long count = batches.sum();
+        return count == 0 ? 0.0 : deliveryNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    void recordQueueDepth(int depth) {
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d delivered in %d batches (%.3f ms/batch), %d dropped, %d failed batches, max queue %d",
+                name, getDeliveredCount(), getBatchCount(), getMeanBatchMillis(), getDroppedCount(),
+                getFailedBatchCount(), getMaxQueueDepth());
+    }
+}
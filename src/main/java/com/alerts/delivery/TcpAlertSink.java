@@ -0,0 +1,18 @@
+package com.alerts.delivery;
+
+import com.cardio_generator.outputs.TcpOutputStrategy;
+
+/**
+ * Sends alerts to a TCP client as "patientId,timestamp,Alert,condition" lines.
+ * Alerts delivered before a client connects are discarded.
+ */
+public class TcpAlertSink extends OutputStrategyAlertSink {
+    /**
+     * Starts a TCP server for alert clients.
+     *
+     * @param port the port number to listen on
+     */
+    public TcpAlertSink(int port) {
+        super(new TcpOutputStrategy(port));
+    }
+}
@@ -0,0 +1,200 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded queue of alerts with one lane per priority class.
+ *
+ * <p>Priority-1 alerts go to the first lane, priority-2 and unprioritised alerts
+ * to the second, and everything else to the third. Alerts are taken from the
+ * most urgent non-empty lane, so a critical alert waits only behind other
+ * critical alerts however full the lower lanes are. To keep lower lanes from
+ * starving, after {@code starvationLimit} consecutive alerts taken while a lower
+ * lane was waiting, one alert is taken from the lower lanes instead, round
+ * robin. Each lane is FIFO and has its own capacity.</p>
+ *
+ * <p>A queue with a single lane is a plain FIFO queue. After {@link #finish()},
+ * consumers drain what is left and are then told the queue is finished.</p>
+ */
+final class TriageQueue {
+    private final ArrayDeque<Alert>[] lanes;
+    private final int laneCapacity;
+    private final int starvationLimit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int size;
+    private int urgentStreak;
+    private int nextLowerLane = 1;
+    private boolean finished;
+
+    // Generic arrays cannot be created; every element is an ArrayDeque<Alert> created below.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TriageQueue(int laneCount, int laneCapacity, int starvationLimit) {
+        if (laneCount < 1 || laneCapacity < 1) {
+            throw new IllegalArgumentException("Lane count and capacity must be positive");
+        }
+        this.lanes = new ArrayDeque[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ArrayDeque<>(Math.min(laneCapacity, 1024));
+        }
+        this.laneCapacity = laneCapacity;
+        this.starvationLimit = starvationLimit;
+    }
+
+    private int laneOf(Alert alert) {
+        if (lanes.length == 1) {
+            return 0;
+        }
+        int priority = alert.getPriority();
+        int lane = priority == 1 ? 0 : priority == 2 || priority == 0 ? 1 : 2;
+        return Math.min(lane, lanes.length - 1);
+    }
+
+    /**
+     * Adds an alert if its lane has room.
+     *
+     * @return {@code false} if the lane is full
+     */
+    boolean offer(Alert alert) {
+        lock.lock();
+        try {
+            ArrayDeque<Alert> lane = lanes[laneOf(alert)];
+            if (lane.size() >= laneCapacity) {
+                return false;
+            }
+            add(lane, alert);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an alert, dropping the oldest alert of its lane if the lane is full.
+     *
+     * @return {@code true} if an alert was dropped
+     */
+    boolean offerDroppingOldest(Alert alert) {
+        lock.lock();
+        try {
+            ArrayDeque<Alert> lane = lanes[laneOf(alert)];
+            boolean dropped = false;
+            if (lane.size() >= laneCapacity) {
+                lane.pollFirst();
+                size--;
+                dropped = true;
+            }
+            add(lane, alert);
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an alert, waiting for room in its lane.
+     */
+    void put(Alert alert) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            ArrayDeque<Alert> lane = lanes[laneOf(alert)];
+            while (lane.size() >= laneCapacity) {
+                notFull.await();
+            }
+            add(lane, alert);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(ArrayDeque<Alert> lane, Alert alert) {
+        lane.addLast(alert);
+        size++;
+        notEmpty.signal();
+    }
+
+    /**
+     * Waits for alerts and moves up to {@code max} of them to {@code batch} in
+     * triage order.
+     *
+     * @return the number of alerts moved, or -1 once the queue is finished and empty
+     */
+    int drainTo(List<Alert> batch, int max) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (finished) {
+                    return -1;
+                }
+                notEmpty.await();
+            }
+            int moved = 0;
+            while (moved < max && size > 0) {
+                batch.add(next());
+                size--;
+                moved++;
+            }
+            notFull.signalAll();
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Takes the next alert; the caller holds the lock and knows the queue is not empty. */
+    private Alert next() {
+        int top = 0;
+        while (lanes[top].isEmpty()) {
+            top++;
+        }
+        boolean lowerWaiting = false;
+        for (int i = top + 1; i < lanes.length && !lowerWaiting; i++) {
+            lowerWaiting = !lanes[i].isEmpty();
+        }
+        if (!lowerWaiting) {
+            urgentStreak = 0;
+            return lanes[top].pollFirst();
+        }
+        if (urgentStreak < starvationLimit) {
+            urgentStreak++;
+            return lanes[top].pollFirst();
+        }
+        urgentStreak = 0;
+        for (int i = 0; i < lanes.length; i++) {
+            int lane = nextLowerLane;
+            nextLowerLane = nextLowerLane + 1 < lanes.length ? nextLowerLane + 1 : 1;
+            if (lane > top && !lanes[lane].isEmpty()) {
+                return lanes[lane].pollFirst();
+            }
+        }
+        return lanes[top].pollFirst();
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the end of the stream. Alerts already queued are still drained.
+     */
+    void finish() {
+        lock.lock();
+        try {
+            finished = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.alerts.delivery;
+
+import com.cardio_generator.outputs.WebSocketOutputStrategy;
+
+/**
+ * Broadcasts alerts to all connected WebSocket clients as
+ * "patientId,timestamp,Alert,condition" messages.
+ */
+public class WebSocketAlertSink extends OutputStrategyAlertSink {
+    /**
+     * Starts a WebSocket server for alert clients.
+     *
+     * @param port the port number to listen on
+     */
+    public WebSocketAlertSink(int port) {
+        super(new WebSocketOutputStrategy(port));
+    }
+}
@@ -0,0 +1,95 @@
+package com.alerts.ecg;
+
+import com.alerts.AlertFactory;
+import com.alerts.AlertStrategy;
+import com.alerts.RecordSeries;
+import com.alerts.StreamingAlertEngine;
+import com.data_management.DataListener;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derives a "HeartRate" series from each patient's ECG.
+ *
+ * <p>New ECG samples are run through a per-patient {@link QrsDetector}, and at
+ * every detected beat the current heart rate is reported as a "HeartRate"
+ * sample timed at the beat. Registered with an engine, the samples go to
+ * {@link StreamingAlertEngine#derive}, so rules on heart rate, such as
+ * {@link com.alerts.TachycardicDesaturationStrategy}, see them within the same
+ * evaluation of the patient, and can also be written to the data storage. The
+ * strategy declares "HeartRate" as derived, so the stored samples are not
+ * evaluated again when the engine reads them back. The strategy raises no
+ * alerts itself.</p>
+ */
+public class HeartRateStrategy implements AlertStrategy {
+    /** The record type of the derived series. */
+    public static final String HEART_RATE = "HeartRate";
+
+    private static final String[] RECORD_TYPES = {"ECG"};
+    private static final String[] DERIVED_TYPES = {HEART_RATE};
+
+    private final DataListener derived;
+    private final double sampleRateHz;
+    private final Map<Integer, QrsDetector> detectors = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a strategy that reports each derived heart rate to the engine
+     * running it and writes it to the storage the engine evaluates.
+     *
+     * @param engine       the engine the strategy is registered with
+     * @param storage      the storage the derived series is written to
+     * @param sampleRateHz the ECG sample rate, at least {@link QrsDetector#MIN_SAMPLE_RATE_HZ}
+     */
+    public HeartRateStrategy(StreamingAlertEngine engine, DataStorage storage, double sampleRateHz) {
+        this((patientId, value, recordType, timestamp) -> {
+            engine.derive(patientId, value, recordType, timestamp);
+            storage.addPatientData(patientId, value, recordType, timestamp);
+        }, sampleRateHz);
+    }
+
+    /**
+     * Creates a strategy for ECG sampled at the given rate.
+     *
+     * @param derived      receives each derived heart rate, e.g.
+     *                     {@code engine::derive} of the engine running the strategy
+     * @param sampleRateHz the ECG sample rate, at least {@link QrsDetector#MIN_SAMPLE_RATE_HZ}
+     */
+    public HeartRateStrategy(DataListener derived, double sampleRateHz) {
+        if (!(sampleRateHz >= QrsDetector.MIN_SAMPLE_RATE_HZ)) {
+            throw new IllegalArgumentException("QRS detection needs at least "
+                    + QrsDetector.MIN_SAMPLE_RATE_HZ + " Hz, got " + sampleRateHz);
+        }
+        this.derived = derived;
+        this.sampleRateHz = sampleRateHz;
+    }
+
+    @Override
+    public String[] getRecordTypes() {
+        return RECORD_TYPES;
+    }
+
+    @Override
+    public String[] getDerivedTypes() {
+        return DERIVED_TYPES;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        RecordSeries ecg = series[0];
+        QrsDetector detector = detectors.computeIfAbsent(patient.getPatientId(), id -> new QrsDetector(sampleRateHz));
+        for (long i = ecg.getFirstNewIndex(); i < ecg.size(); i++) {
+            if (detector.process(ecg.getValue(i), ecg.getTimestamp(i)) && detector.getHeartRate() > 0) {
+                derived.onData(patient.getPatientId(), detector.getHeartRate(), HEART_RATE,
+                        detector.getLastBeatTimestamp());
+            }
+        }
+    }
+
+    @Override
+    public void reset(int patientId) {
+        detectors.remove(patientId);
+    }
+}
@@ -0,0 +1,260 @@
+package com.alerts.ecg;
+
+import com.alerts.window.RunningSumWindow;
+
+/**
+ * Streaming QRS detector for one ECG channel, after Pan and Tompkins.
+ *
+ * <p>Each sample passes through a 5-15 Hz band-pass filter (a high-pass and a
+ * low-pass Butterworth biquad), a five-point derivative, squaring and a 150 ms
+ * moving-window integrator. Local maxima of the integrated signal are
+ * classified as QRS complexes or noise against an adaptive threshold that sits a
+ * quarter of the way from the running noise peak level to the running signal
+ * peak level. Peaks within the 200 ms refractory period after a beat are
+ * ignored, and if no beat is found for 166% of the average RR interval, the
+ * largest noise peak since the last beat is accepted if it clears half the
+ * threshold. A beat is timed at the highest integrator peak of its
+ * refractory period and reported once that period is over. The thresholds are
+ * learnt from the first two seconds of signal, during which no beats are
+ * reported.</p>
+ *
+ * <p>All state lives in fixed primitive fields and one ring buffer sized by the
+ * sample rate, so a sample costs a constant number of arithmetic operations and
+ * no allocation. Detected beats are timed at the integrator peak, which lags
+ * the R wave by a constant delay; RR intervals and hence heart rates are
+ * unaffected. Instances are not thread-safe.</p>
+ */
+public class QrsDetector {
+    /** The lowest sample rate whose Nyquist frequency lies above the pass band. */
+    public static final double MIN_SAMPLE_RATE_HZ = 100;
+
+    private static final double BAND_LOW_HZ = 5.0;
+    private static final double BAND_HIGH_HZ = 15.0;
+    private static final double INTEGRATION_WINDOW_S = 0.150;
+    private static final double LEARNING_PERIOD_S = 2.0;
+    private static final long REFRACTORY_MS = 200;
+    private static final long MIN_RR_MS = 250;
+    private static final long MAX_RR_MS = 3000;
+    private static final int RR_AVERAGE_BEATS = 8;
+
+    private final Biquad highPass;
+    private final Biquad lowPass;
+    private final RunningSumWindow integrator;
+    private final int learningSamples;
+
+    // Derivative input history: x[n-1] .. x[n-4].
+    private double d1;
+    private double d2;
+    private double d3;
+    private double d4;
+
+    // Integrated signal at the two previous samples, for local maximum detection.
+    private double previous;
+    private double beforePrevious;
+    private long previousTimestamp;
+
+    private long samples;
+    private double learningMax;
+    private double learningSum;
+    private double signalPeak;
+    private double noisePeak;
+
+    private long lastBeat = Long.MIN_VALUE;
+    private boolean pending;
+    private long pendingTimestamp;
+    private double pendingPeak;
+    private double searchBackPeak;
+    private long searchBackTimestamp;
+
+    private final long[] rrIntervals = new long[RR_AVERAGE_BEATS];
+    private int rrCount;
+    private int rrNext;
+    private long rrSum;
+
+    /**
+     * Creates a detector for a signal sampled at the given rate.
+     *
+     * @param sampleRateHz the ECG sample rate, at least {@link #MIN_SAMPLE_RATE_HZ}
+     */
+    public QrsDetector(double sampleRateHz) {
+        if (!(sampleRateHz >= MIN_SAMPLE_RATE_HZ)) {
+            throw new IllegalArgumentException("QRS detection needs at least 100 Hz, got " + sampleRateHz);
+        }
+        this.highPass = Biquad.highPass(BAND_LOW_HZ, sampleRateHz);
+        this.lowPass = Biquad.lowPass(BAND_HIGH_HZ, sampleRateHz);
+        this.integrator = new RunningSumWindow((int) Math.round(INTEGRATION_WINDOW_S * sampleRateHz));
+        this.learningSamples = (int) Math.round(LEARNING_PERIOD_S * sampleRateHz);
+    }
+
+    /**
+     * Processes the next ECG sample.
+     *
+     * @param value     the ECG value
+     * @param timestamp the sample time in milliseconds
+     * @return {@code true} if a beat was detected; its time is then
+     *         {@link #getLastBeatTimestamp()}
+     */
+    public boolean process(double value, long timestamp) {
+        double filtered = lowPass.apply(highPass.apply(value));
+        double derivative = (2 * filtered + d1 - d3 - 2 * d4) / 8;
+        d4 = d3;
+        d3 = d2;
+        d2 = d1;
+        d1 = filtered;
+        integrator.add(derivative * derivative);
+        double integrated = integrator.getAverage();
+
+        boolean beat = false;
+        samples++;
+        if (samples <= learningSamples) {
+            learningMax = Math.max(learningMax, integrated);
+            learningSum += integrated;
+            if (samples == learningSamples) {
+                signalPeak = learningMax / 3;
+                noisePeak = learningSum / learningSamples / 2;
+            }
+        } else {
+            if (previous > beforePrevious && previous >= integrated) {
+                classifyPeak(previous, previousTimestamp);
+            }
+            beat = pending ? confirmBeat(timestamp) : searchBack(timestamp);
+        }
+
+        beforePrevious = previous;
+        previous = integrated;
+        previousTimestamp = timestamp;
+        return beat;
+    }
+
+    private void classifyPeak(double peak, long timestamp) {
+        if (pending) {
+            // Still within the refractory period of the pending beat.
+            if (peak > pendingPeak) {
+                pendingPeak = peak;
+                pendingTimestamp = timestamp;
+            }
+            return;
+        }
+        if (lastBeat != Long.MIN_VALUE && timestamp - lastBeat < REFRACTORY_MS) {
+            return;
+        }
+        if (peak > threshold()) {
+            pending = true;
+            pendingPeak = peak;
+            pendingTimestamp = timestamp;
+            return;
+        }
+        noisePeak = 0.125 * peak + 0.875 * noisePeak;
+        if (peak > searchBackPeak) {
+            searchBackPeak = peak;
+            searchBackTimestamp = timestamp;
+        }
+    }
+
+    private boolean confirmBeat(long now) {
+        if (now - pendingTimestamp < REFRACTORY_MS) {
+            return false;
+        }
+        pending = false;
+        signalPeak = 0.125 * pendingPeak + 0.875 * signalPeak;
+        recordBeat(pendingTimestamp);
+        return true;
+    }
+
+    private boolean searchBack(long now) {
+        if (rrCount == 0 || searchBackPeak <= 0 || (now - lastBeat) * 100 < rrSum / rrCount * 166) {
+            return false;
+        }
+        if (searchBackPeak > threshold() / 2) {
+            signalPeak = 0.25 * searchBackPeak + 0.75 * signalPeak;
+            recordBeat(searchBackTimestamp);
+            return true;
+        }
+        return false;
+    }
+
+    private double threshold() {
+        return noisePeak + 0.25 * (signalPeak - noisePeak);
+    }
+
+    private void recordBeat(long timestamp) {
+        if (lastBeat != Long.MIN_VALUE) {
+            long rr = timestamp - lastBeat;
+            if (rr >= MIN_RR_MS && rr <= MAX_RR_MS) {
+                if (rrCount == RR_AVERAGE_BEATS) {
+                    rrSum -= rrIntervals[rrNext];
+                } else {
+                    rrCount++;
+                }
+                rrIntervals[rrNext] = rr;
+                rrSum += rr;
+                rrNext = (rrNext + 1) % RR_AVERAGE_BEATS;
+            }
+        }
+        lastBeat = timestamp;
+        searchBackPeak = 0;
+    }
+
+    /**
+     * Returns the time of the latest detected beat.
+     *
+     * @return the beat time in milliseconds, or {@link Long#MIN_VALUE} before the first beat
+     */
+    public long getLastBeatTimestamp() {
+        return lastBeat;
+    }
+
+    /**
+     * Returns the heart rate from the average of the latest eight plausible RR
+     * intervals.
+     *
+     * @return the heart rate in beats per minute, or 0 before two beats were seen
+     */
+    public double getHeartRate() {
+        return rrCount == 0 ? 0 : 60_000.0 * rrCount / rrSum;
+    }
+
+    /** A second-order IIR section in direct form I, designed after the RBJ audio EQ cookbook. */
+    private static final class Biquad {
+        private final double b0;
+        private final double b1;
+        private final double b2;
+        private final double a1;
+        private final double a2;
+        private double x1;
+        private double x2;
+        private double y1;
+        private double y2;
+
+        private Biquad(double b0, double b1, double b2, double a0, double a1, double a2) {
+            this.b0 = b0 / a0;
+            this.b1 = b1 / a0;
+            this.b2 = b2 / a0;
+            this.a1 = a1 / a0;
+            this.a2 = a2 / a0;
+        }
+
+        static Biquad lowPass(double cutoffHz, double sampleRateHz) {
+            double w0 = 2 * Math.PI * cutoffHz / sampleRateHz;
+            double cos = Math.cos(w0);
+            double alpha = Math.sin(w0) / Math.sqrt(2);
+            return new Biquad((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+        }
+
+        static Biquad highPass(double cutoffHz, double sampleRateHz) {
+            double w0 = 2 * Math.PI * cutoffHz / sampleRateHz;
+            double cos = Math.cos(w0);
+            double alpha = Math.sin(w0) / Math.sqrt(2);
+            return new Biquad((1 + cos) / 2, -(1 + cos), (1 + cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+        }
+
+        double apply(double x) {
+            double y = b0 * x + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+            x2 = x1;
+            x1 = x;
+            y2 = y1;
+            y1 = y;
+            return y;
+        }
+    }
+}
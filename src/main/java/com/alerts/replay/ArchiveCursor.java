@@ -0,0 +1,264 @@
+package com.alerts.replay;
+
+import com.cardio_generator.outputs.DataStorageOutputStrategy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the records of one archived label file, as written by
+ * {@code FileOutputStrategy}, one line at a time.
+ *
+ * <p>Lines have the form {@code Patient ID: 1, Timestamp: 1700000000000,
+ * Label: ECG, Data: 0.25} and are parsed straight from the bytes read, without
+ * splitting them into strings. As in {@code FileDataReader}, a
+ * {@code BloodPressure} line with data {@code 120/80} yields a
+ * {@code BloodPressureSystolic} and a {@code BloodPressureDiastolic} record; a
+ * trailing percent sign on the data is ignored. Numbers are converted by
+ * {@link DecimalParser}. Lines that cannot be parsed are counted and
+ * skipped.</p>
+ */
+final class ArchiveCursor implements AutoCloseable {
+    private static final byte[] BLOOD_PRESSURE = "BloodPressure".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ALERT = "Alert".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRIGGERED = "triggered".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESOLVED = "resolved".getBytes(StandardCharsets.US_ASCII);
+    private static final String SYSTOLIC = "BloodPressureSystolic";
+    private static final String DIASTOLIC = "BloodPressureDiastolic";
+
+    private final InputStream in;
+    private final int fileIndex;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position;
+    private int limit;
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private long skippedLines;
+
+    /** The last label read and its record type, reused while the label does not change. */
+    private byte[] lastLabel = new byte[0];
+    private String lastRecordType;
+
+    int patientId;
+    long timestamp;
+    String recordType;
+    double value;
+    /** Whether the line also carried a diastolic reading. */
+    boolean paired;
+    double pairedValue;
+
+    ArchiveCursor(Path file, int fileIndex) throws IOException {
+        this.in = Files.newInputStream(file);
+        this.fileIndex = fileIndex;
+    }
+
+    int getFileIndex() {
+        return fileIndex;
+    }
+
+    long getSkippedLines() {
+        return skippedLines;
+    }
+
+    /**
+     * Moves to the next well-formed record.
+     *
+     * @return false at the end of the file
+     * @throws IOException if reading fails
+     */
+    boolean advance() throws IOException {
+        while (readLine()) {
+            if (parseLine()) {
+                return true;
+            }
+            if (lineLength > 0) {
+                skippedLines++;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the second record of the current line as the current one. */
+    void takePaired() {
+        paired = false;
+        recordType = DIASTOLIC;
+        value = pairedValue;
+    }
+
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return lineLength > 0;
+                }
+            }
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(start, position);
+            if (position < limit) {
+                position++;
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                return true;
+            }
+        }
+    }
+
+    private void append(int from, int to) {
+        int length = to - from;
+        if (lineLength + length > line.length) {
+            byte[] grown = new byte[Math.max(line.length * 2, lineLength + length)];
+            System.arraycopy(line, 0, grown, 0, lineLength);
+            line = grown;
+        }
+        System.arraycopy(buffer, from, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private boolean parseLine() {
+        int idStart = valueStart(0);
+        int idEnd = valueEnd(idStart);
+        int timestampStart = valueStart(idEnd);
+        int timestampEnd = valueEnd(timestampStart);
+        int labelStart = valueStart(timestampEnd);
+        int labelEnd = valueEnd(labelStart);
+        int dataStart = valueStart(labelEnd);
+        if (idStart < 0 || timestampStart < 0 || labelStart < 0 || dataStart < 0 || labelEnd == labelStart) {
+            return false;
+        }
+        long id = parseLong(idStart, idEnd);
+        long time = parseLong(timestampStart, timestampEnd);
+        if (id < 0 || id > Integer.MAX_VALUE || time < 0) {
+            return false;
+        }
+        int dataEnd = lineLength;
+        if (dataEnd > dataStart && line[dataEnd - 1] == '%') {
+            dataEnd--;
+        }
+
+        if (labelEquals(labelStart, labelEnd, BLOOD_PRESSURE)) {
+            int slash = indexOf((byte) '/', dataStart, dataEnd);
+            if (slash < 0) {
+                return false;
+            }
+            double systolic = DecimalParser.parse(line, dataStart, slash);
+            double diastolic = DecimalParser.parse(line, slash + 1, dataEnd);
+            if (Double.isNaN(systolic) || Double.isNaN(diastolic)) {
+                return false;
+            }
+            recordType = SYSTOLIC;
+            value = systolic;
+            paired = true;
+            pairedValue = diastolic;
+        } else if (labelEquals(labelStart, labelEnd, ALERT)) {
+            if (labelEquals(dataStart, dataEnd, TRIGGERED)) {
+                value = 1;
+            } else if (labelEquals(dataStart, dataEnd, RESOLVED)) {
+                value = 0;
+            } else {
+                return false;
+            }
+            recordType = recordType(labelStart, labelEnd);
+            paired = false;
+        } else {
+            double parsed = DecimalParser.parse(line, dataStart, dataEnd);
+            if (Double.isNaN(parsed)) {
+                return false;
+            }
+            recordType = recordType(labelStart, labelEnd);
+            value = parsed;
+            paired = false;
+        }
+        patientId = (int) id;
+        timestamp = time;
+        return true;
+    }
+
+    /** Returns the index after the next ": " at or after {@code from}, or -1. */
+    private int valueStart(int from) {
+        if (from < 0) {
+            return -1;
+        }
+        for (int i = from; i + 1 < lineLength; i++) {
+            if (line[i] == ':' && line[i + 1] == ' ') {
+                return i + 2;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns the index of the next ", " at or after {@code from}, or the line end. */
+    private int valueEnd(int from) {
+        if (from < 0) {
+            return -1;
+        }
+        for (int i = from; i + 1 < lineLength; i++) {
+            if (line[i] == ',' && line[i + 1] == ' ') {
+                return i;
+            }
+        }
+        return lineLength;
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean labelEquals(int from, int to, byte[] label) {
+        if (to - from != label.length) {
+            return false;
+        }
+        for (int i = 0; i < label.length; i++) {
+            if (line[from + i] != label[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String recordType(int from, int to) {
+        if (!labelEquals(from, to, lastLabel)) {
+            lastLabel = new byte[to - from];
+            System.arraycopy(line, from, lastLabel, 0, lastLabel.length);
+            String label = new String(lastLabel, StandardCharsets.US_ASCII);
+            lastRecordType = DataStorageOutputStrategy.recordType(label).intern();
+        }
+        return lastRecordType;
+    }
+
+    /** Parses a non-negative decimal integer, returning -1 if malformed. */
+    private long parseLong(int from, int to) {
+        if (from >= to || to - from > 18) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,204 @@
+package com.alerts.replay;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses ASCII decimal numbers into the same {@code double} that
+ * {@link Double#parseDouble} would return, without creating a string.
+ *
+ * <p>Numbers whose significant digits and power of ten are both exact doubles
+ * are converted with one multiplication or division. Others with up to 19
+ * significant digits use the Eisel-Lemire algorithm: the digits are multiplied
+ * by a 128-bit approximation of the power of ten, which determines the
+ * correctly rounded result unless the product lies too close to a halfway
+ * point. Such rare cases, longer numbers and powers of ten outside the
+ * precomputed range fall back to {@link Double#parseDouble}.</p>
+ */
+final class DecimalParser {
+    private static final int MIN_EXPONENT = -64;
+    private static final int MAX_EXPONENT = 64;
+    private static final int MAX_DIGITS = 19;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] EXACT_POWERS_OF_TEN = new double[23];
+    /** Normalized 128-bit mantissas of 5^q, high word first, for q from MIN_EXPONENT. */
+    private static final long[] POWERS_OF_FIVE = new long[2 * (MAX_EXPONENT - MIN_EXPONENT + 1)];
+
+    static {
+        EXACT_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < EXACT_POWERS_OF_TEN.length; i++) {
+            EXACT_POWERS_OF_TEN[i] = EXACT_POWERS_OF_TEN[i - 1] * 10;
+        }
+        BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+        for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; q++) {
+            BigInteger power = BigInteger.valueOf(5).pow(Math.abs(q));
+            BigInteger mantissa;
+            if (q >= 0) {
+                // Truncated to the top 128 bits.
+                int shift = power.bitLength() - 128;
+                mantissa = shift >= 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+            } else {
+                // The reciprocal, rounded up, so the product never underestimates.
+                int z = power.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                mantissa = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                while (mantissa.compareTo(two128) >= 0) {
+                    mantissa = mantissa.shiftRight(1);
+                }
+            }
+            int index = 2 * (q - MIN_EXPONENT);
+            POWERS_OF_FIVE[index] = mantissa.shiftRight(64).longValue();
+            POWERS_OF_FIVE[index + 1] = mantissa.longValue();
+        }
+    }
+
+    private DecimalParser() {
+    }
+
+    /**
+     * Parses {@code [-]digits[.digits][(e|E)[+|-]digits]}.
+     *
+     * @param bytes the ASCII characters
+     * @param from  the index of the first character
+     * @param to    the index after the last character
+     * @return the value, or NaN if the characters are not a decimal number
+     */
+    static double parse(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = i < to && bytes[i] == '-';
+        if (negative || (i < to && bytes[i] == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            byte c = bytes[i];
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (mantissa != 0 || c != '0') {
+                    if (++significantDigits > MAX_DIGITS) {
+                        return parseSlow(bytes, from, to);
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                if (fraction) {
+                    exponent--;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (i < to) {
+            if (bytes[i] != 'e' && bytes[i] != 'E') {
+                return Double.NaN;
+            }
+            i++;
+            boolean negativeExponent = i < to && bytes[i] == '-';
+            if (negativeExponent || (i < to && bytes[i] == '+')) {
+                i++;
+            }
+            if (i == to || to - i > 4) {
+                return i == to ? Double.NaN : parseSlow(bytes, from, to);
+            }
+            int explicit = 0;
+            for (; i < to; i++) {
+                int digit = bytes[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return Double.NaN;
+                }
+                explicit = explicit * 10 + digit;
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+
+        double result;
+        if (mantissa == 0) {
+            result = 0;
+        } else if (Long.compareUnsigned(mantissa, MAX_EXACT_MANTISSA) <= 0
+                && exponent >= -22 && exponent <= 22) {
+            result = exponent < 0
+                    ? mantissa / EXACT_POWERS_OF_TEN[-exponent]
+                    : mantissa * EXACT_POWERS_OF_TEN[exponent];
+        } else {
+            result = eiselLemire(mantissa, exponent);
+            if (Double.isNaN(result)) {
+                return parseSlow(bytes, from, to);
+            }
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Returns {@code mantissa * 10^exponent} correctly rounded, or NaN if that
+     * cannot be decided here.
+     */
+    private static double eiselLemire(long mantissa, int exponent) {
+        if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) {
+            return Double.NaN;
+        }
+        int index = 2 * (exponent - MIN_EXPONENT);
+        long powerHigh = POWERS_OF_FIVE[index];
+        long powerLow = POWERS_OF_FIVE[index + 1];
+
+        int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        long w = mantissa << leadingZeros;
+        long binaryExponent = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+        long high = unsignedMultiplyHigh(w, powerHigh);
+        long low = w * powerHigh;
+        if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + w, w) < 0) {
+            // The truncated product may be too small; add the low word of the power.
+            long carryHigh = unsignedMultiplyHigh(w, powerLow);
+            long carryLow = w * powerLow;
+            long mergedHigh = high;
+            long mergedLow = low + carryHigh;
+            if (Long.compareUnsigned(mergedLow, low) < 0) {
+                mergedHigh++;
+            }
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow == -1L && Long.compareUnsigned(carryLow + w, w) < 0) {
+                return Double.NaN;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+
+        long topBit = high >>> 63;
+        long result = high >>> (topBit + 9);
+        binaryExponent -= 1 ^ topBit;
+        if (low == 0 && (high & 0x1FF) == 0 && (result & 3) == 1) {
+            // Exactly halfway between two doubles.
+            return Double.NaN;
+        }
+        result += result & 1;
+        result >>>= 1;
+        if ((result >>> 53) > 0) {
+            result >>>= 1;
+            binaryExponent++;
+        }
+        if (binaryExponent <= 0 || binaryExponent >= 0x7FF) {
+            // Subnormal or infinite.
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(binaryExponent << 52 | (result & ((1L << 52) - 1)));
+    }
+
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    private static double parseSlow(byte[] bytes, int from, int to) {
+        try {
+            return Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.alerts.replay;
+
+import com.alerts.Alert;
+import com.alerts.AlertCode;
+import com.alerts.AlertDispatcher;
+import com.alerts.AlertStrategy;
+import com.alerts.AlertSuppressor;
+import com.alerts.StreamingAlertEngine;
+import com.alerts.StructuredAlertFactory;
+import com.alerts.rules.RuleCompiler;
+import com.data_management.Patient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays archived label files through the alert strategies, as fast as the
+ * CPU allows, to find out how many alerts a set of rules would have produced.
+ *
+ * <p>The files, one per label as written by {@code FileOutputStrategy}, are
+ * each read in order and merged by timestamp, so every patient's samples reach
+ * the strategies in the order they were generated, across labels. Each file is
+ * assumed to be in timestamp order, as written; a line that is slightly out of
+ * order is replayed where it stands. The merge drains a file for as long as it
+ * stays behind every other file, so the priority queue is only touched when the
+ * earliest file changes.</p>
+ *
+ * <p>Time is virtual: it is the timestamp of the sample being replayed.
+ * Samples are appended to an {@link AlertDispatcher} without being stored, and
+ * every evaluation interval of virtual time the strategies run over the samples
+ * each patient received, as a periodic evaluation would have. Alerts are then
+ * deduplicated by an {@link AlertSuppressor} on their own timestamps, unless
+ * suppression is disabled, and counted per rule and per patient; conditions
+ * the strategies resolve end their suppression episode.</p>
+ *
+ * <p>An engine holds no state between replays. It is not thread-safe.</p>
+ */
+public class ReplayEngine {
+    /** Default virtual time between evaluations of a patient's new samples. */
+    public static final long DEFAULT_EVALUATION_INTERVAL_MS = 1000;
+
+    private static final Comparator<ArchiveCursor> EARLIEST_FIRST = Comparator
+            .comparingLong((ArchiveCursor cursor) -> cursor.timestamp)
+            .thenComparingInt(ArchiveCursor::getFileIndex);
+
+    private final List<? extends AlertStrategy> strategies;
+    private final long evaluationIntervalMs;
+    private final boolean suppress;
+
+    /**
+     * Creates an engine replaying through the default rules, evaluating every
+     * second of virtual time, with alert suppression.
+     */
+    public ReplayEngine() {
+        this(StreamingAlertEngine.defaultStrategies(), DEFAULT_EVALUATION_INTERVAL_MS, true);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param strategies           the rules to replay through, e.g. compiled
+     *                             from a rule file
+     * @param evaluationIntervalMs virtual time between evaluations
+     * @param suppress             whether to deduplicate alerts before counting
+     *                             them as delivered
+     */
+    public ReplayEngine(List<? extends AlertStrategy> strategies, long evaluationIntervalMs, boolean suppress) {
+        if (evaluationIntervalMs <= 0) {
+            throw new IllegalArgumentException("Evaluation interval must be positive: " + evaluationIntervalMs);
+        }
+        this.strategies = new ArrayList<>(strategies);
+        this.evaluationIntervalMs = evaluationIntervalMs;
+        this.suppress = suppress;
+    }
+
+    /**
+     * Replays every regular file in a directory.
+     *
+     * @param directory the directory of archived label files
+     * @return the replay report
+     * @throws IOException if a file cannot be read
+     */
+    public ReplayReport replay(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        return replay(files);
+    }
+
+    /**
+     * Replays the given files, merged by timestamp.
+     *
+     * @param files the archived label files
+     * @return the replay report
+     * @throws IOException if a file cannot be read
+     */
+    public ReplayReport replay(List<Path> files) throws IOException {
+        Run run = new Run();
+        List<ArchiveCursor> cursors = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            PriorityQueue<ArchiveCursor> queue = new PriorityQueue<>(Math.max(1, files.size()), EARLIEST_FIRST);
+            for (Path file : files) {
+                ArchiveCursor cursor = new ArchiveCursor(file, cursors.size());
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            while (!queue.isEmpty()) {
+                ArchiveCursor cursor = queue.poll();
+                ArchiveCursor next = queue.peek();
+                boolean more;
+                do {
+                    run.accept(cursor);
+                    more = cursor.advance();
+                } while (more && (next == null || EARLIEST_FIRST.compare(cursor, next) < 0));
+                if (more) {
+                    queue.add(cursor);
+                }
+            }
+            run.evaluateDirty();
+        } finally {
+            run.reset();
+            for (ArchiveCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+        long wallTimeNanos = System.nanoTime() - start;
+
+        long skipped = 0;
+        for (ArchiveCursor cursor : cursors) {
+            skipped += cursor.getSkippedLines();
+        }
+        return new ReplayReport(run.samples, skipped, files.size(), run.firstTimestamp, run.lastTimestamp,
+                wallTimeNanos, run.alertsByRule, run.alertsByPatient);
+    }
+
+    /** A patient being replayed, and whether it received samples since its last evaluation. */
+    private static final class ReplayPatient {
+        final Patient patient;
+        boolean dirty;
+
+        ReplayPatient(int patientId) {
+            this.patient = new Patient(patientId);
+        }
+    }
+
+    /** The state of one replay. */
+    private final class Run implements Consumer<Alert> {
+        final AlertDispatcher dispatcher = new AlertDispatcher();
+        final AlertSuppressor suppressor = suppress ? new AlertSuppressor() : null;
+        final Map<Integer, ReplayPatient> patients = new HashMap<>();
+        final List<ReplayPatient> dirty = new ArrayList<>();
+        final Map<String, long[]> alertsByRule = new HashMap<>();
+        final Map<Integer, long[]> alertsByPatient = new HashMap<>();
+        ReplayPatient current;
+        long nextEvaluation = Long.MIN_VALUE;
+        long samples;
+        long firstTimestamp;
+        long lastTimestamp;
+
+        Run() {
+            dispatcher.replaceStrategies(strategies, new StructuredAlertFactory() {
+                @Override
+                public void resolve(int patientId, AlertCode code) {
+                    // A resolved condition starts a new episode, as in live delivery.
+                    if (suppressor != null) {
+                        suppressor.resolve(patientId, code);
+                    }
+                }
+            });
+        }
+
+        void accept(ArchiveCursor cursor) {
+            long timestamp = cursor.timestamp;
+            if (samples == 0) {
+                firstTimestamp = timestamp;
+            }
+            if (timestamp >= nextEvaluation) {
+                evaluateDirty();
+                nextEvaluation = Math.floorDiv(timestamp, evaluationIntervalMs) * evaluationIntervalMs
+                        + evaluationIntervalMs;
+            }
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+
+            ReplayPatient patient = current;
+            if (patient == null || patient.patient.getPatientId() != cursor.patientId) {
+                patient = patients.computeIfAbsent(cursor.patientId, ReplayPatient::new);
+                current = patient;
+            }
+            offer(patient, cursor.recordType, cursor.value, timestamp);
+            if (cursor.paired) {
+                cursor.takePaired();
+                offer(patient, cursor.recordType, cursor.value, timestamp);
+            }
+        }
+
+        private void offer(ReplayPatient patient, String recordType, double value, long timestamp) {
+            samples++;
+            if (dispatcher.offer(patient.patient, recordType, value, timestamp, this) && !patient.dirty) {
+                patient.dirty = true;
+                dirty.add(patient);
+            }
+        }
+
+        void evaluateDirty() {
+            for (ReplayPatient patient : dirty) {
+                patient.dirty = false;
+                dispatcher.flush(patient.patient, this);
+            }
+            dirty.clear();
+        }
+
+        /** Discards the state the strategies keep for the replayed patients. */
+        void reset() {
+            for (Integer patientId : patients.keySet()) {
+                dispatcher.reset(patientId);
+            }
+        }
+
+        @Override
+        public void accept(Alert alert) {
+            int delivered = suppressor == null || suppressor.process(alert) != null ? 1 : 0;
+            AlertCode code = alert.getCode();
+            String rule = code == AlertCode.CUSTOM
+                    ? AlertSuppressor.conditionCode(alert.getCondition())
+                    : code.name();
+            count(alertsByRule.computeIfAbsent(rule, r -> new long[2]), delivered);
+            int patientId = alert.getPatientNumber() >= 0
+                    ? alert.getPatientNumber() : Integer.parseInt(alert.getPatientId());
+            count(alertsByPatient.computeIfAbsent(patientId, p -> new long[2]), delivered);
+        }
+
+        private void count(long[] counts, int delivered) {
+            counts[0]++;
+            counts[1] += delivered;
+        }
+    }
+
+    /**
+     * Replays an archive directory and prints the report.
+     *
+     * @param args the archive directory, then optionally {@code rules:<file>}
+     *             to replay through the rules in a rule file instead of the
+     *             default ones, {@code interval:<ms>} to change the virtual time
+     *             between evaluations, and {@code nosuppress} to count alerts
+     *             without deduplication
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayEngine <directory> [rules:<file>] [interval:<ms>] [nosuppress]");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        List<AlertStrategy> strategies = StreamingAlertEngine.defaultStrategies();
+        long interval = DEFAULT_EVALUATION_INTERVAL_MS;
+        boolean suppress = true;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("rules:")) {
+                try {
+                    strategies = RuleCompiler.compile(Paths.get(arg.substring("rules:".length())));
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("Error reading rules from '" + arg + "': " + e.getMessage());
+                    return;
+                }
+            } else if (arg.startsWith("interval:")) {
+                try {
+                    interval = Long.parseLong(arg.substring("interval:".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid interval in '" + arg + "'. Using " + interval + " ms.");
+                }
+            } else if (arg.equals("nosuppress")) {
+                suppress = false;
+            }
+        }
+
+        try {
+            System.out.print(new ReplayEngine(strategies, interval, suppress).replay(directory).format());
+        } catch (IOException e) {
+            System.err.println("Error replaying " + directory + ": " + e.getMessage());
+        }
+    }
+}
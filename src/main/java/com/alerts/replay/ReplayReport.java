@@ -0,0 +1,172 @@
+package com.alerts.replay;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Summary of one replay: how much archived data was replayed, how fast, and how
+ * many alerts each rule and each patient would have produced.
+ *
+ * <p>Alerts are counted twice: as raised by the strategies, and as delivered
+ * after deduplication by an {@code AlertSuppressor}, i.e. what staff would
+ * actually have been notified of. Without suppression both counts are equal.
+ * Rules are keyed by alert code, or by condition text without its measurement
+ * for alerts that have no code.</p>
+ */
+public class ReplayReport {
+    private final long sampleCount;
+    private final long skippedLineCount;
+    private final int fileCount;
+    private final long firstTimestamp;
+    private final long lastTimestamp;
+    private final long wallTimeNanos;
+    private final SortedMap<String, long[]> alertsByRule;
+    private final SortedMap<Integer, long[]> alertsByPatient;
+
+    ReplayReport(long sampleCount, long skippedLineCount, int fileCount, long firstTimestamp, long lastTimestamp,
+                 long wallTimeNanos, Map<String, long[]> alertsByRule, Map<Integer, long[]> alertsByPatient) {
+        this.sampleCount = sampleCount;
+        this.skippedLineCount = skippedLineCount;
+        this.fileCount = fileCount;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+        this.wallTimeNanos = wallTimeNanos;
+        this.alertsByRule = new TreeMap<>(alertsByRule);
+        this.alertsByPatient = new TreeMap<>(alertsByPatient);
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getSkippedLineCount() {
+        return skippedLineCount;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    /**
+     * Returns the span of archived time replayed.
+     *
+     * @return the virtual duration in milliseconds, or 0 if nothing was replayed
+     */
+    public long getVirtualDurationMillis() {
+        return sampleCount == 0 ? 0 : lastTimestamp - firstTimestamp;
+    }
+
+    /**
+     * Returns the number of samples replayed per second of wall time.
+     *
+     * @return the replay throughput, or 0 if the run took no measurable time
+     */
+    public double getSamplesPerSecond() {
+        return wallTimeNanos == 0 ? 0 : sampleCount * 1_000_000_000.0 / wallTimeNanos;
+    }
+
+    /**
+     * Returns how many times faster than real time the archive was replayed.
+     *
+     * @return the ratio of virtual to wall time, or 0 if the run took no
+     *         measurable time
+     */
+    public double getSpeedup() {
+        return wallTimeNanos == 0 ? 0 : getVirtualDurationMillis() * 1_000_000.0 / wallTimeNanos;
+    }
+
+    public long getRaisedCount() {
+        return total(0);
+    }
+
+    public long getDeliveredCount() {
+        return total(1);
+    }
+
+    /**
+     * Returns the alerts raised per rule.
+     *
+     * @return the counts, ordered by rule
+     */
+    public SortedMap<String, Long> getRaisedByRule() {
+        return counts(alertsByRule, 0);
+    }
+
+    public SortedMap<String, Long> getDeliveredByRule() {
+        return counts(alertsByRule, 1);
+    }
+
+    /**
+     * Returns the alerts raised per patient.
+     *
+     * @return the counts, ordered by patient ID
+     */
+    public SortedMap<Integer, Long> getRaisedByPatient() {
+        return counts(alertsByPatient, 0);
+    }
+
+    public SortedMap<Integer, Long> getDeliveredByPatient() {
+        return counts(alertsByPatient, 1);
+    }
+
+    private long total(int column) {
+        long total = 0;
+        for (long[] counts : alertsByRule.values()) {
+            total += counts[column];
+        }
+        return total;
+    }
+
+    private static <K> SortedMap<K, Long> counts(SortedMap<K, long[]> alerts, int column) {
+        SortedMap<K, Long> counts = new TreeMap<>();
+        for (Map.Entry<K, long[]> entry : alerts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue()[column]);
+        }
+        return Collections.unmodifiableSortedMap(counts);
+    }
+
+    /**
+     * Renders the report as text: a summary line followed by one line per rule
+     * and one per patient with alerts.
+     *
+     * @return the formatted report
+     */
+    public String format() {
+        StringBuilder out = new StringBuilder(toString()).append(System.lineSeparator());
+        out.append("Alerts per rule (raised/delivered):").append(System.lineSeparator());
+        for (Map.Entry<String, long[]> entry : alertsByRule.entrySet()) {
+            out.append(String.format(Locale.ROOT, "  %-40s %10d %10d%n",
+                    entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        out.append("Alerts per patient (raised/delivered):").append(System.lineSeparator());
+        for (Map.Entry<Integer, long[]> entry : alertsByPatient.entrySet()) {
+            out.append(String.format(Locale.ROOT, "  %-40d %10d %10d%n",
+                    entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Replayed %d samples from %d file(s) covering %.1f s in %.2f ms (%.0f samples/sec, %.0fx real time):"
+                        + " %d alerts raised, %d delivered, %d lines skipped",
+                sampleCount, fileCount, getVirtualDurationMillis() / 1000.0, wallTimeNanos / 1_000_000.0,
+                getSamplesPerSecond(), getSpeedup(), getRaisedCount(), getDeliveredCount(), skippedLineCount);
+    }
+}
@@ -0,0 +1,41 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCode;
+import com.alerts.AlertFactory;
+import com.alerts.CorrelationStrategy;
+import com.data_management.Patient;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * Raises an alert while the latest samples of two record types both meet their
+ * bounds and were taken within the alignment tolerance of each other. Every
+ * reading that completes the combination is reported once; see
+ * {@link CorrelationStrategy}. In the condition, {@code {value}} is the value of
+ * the first type and {@code {average}} that of the second. A coded condition is
+ * raised and resolved as by {@code CorrelationStrategy}; a condition text is
+ * rendered when raised.
+ */
+final class CombinedRule extends CorrelationStrategy {
+    private final ConditionTemplate condition;
+
+    CombinedRule(String firstType, Comparison first, String secondType, Comparison second, long toleranceMs,
+                 ConditionTemplate condition) {
+        super(condition.getCode(), toleranceMs, distinct(firstType, secondType),
+                new DoublePredicate[] {first::matches, second::matches});
+        this.condition = condition;
+    }
+
+    private static String[] distinct(String firstType, String secondType) {
+        if (firstType.equals(secondType)) {
+            throw new IllegalArgumentException("A combined rule needs two different record types");
+        }
+        return new String[] {firstType, secondType};
+    }
+
+    @Override
+    protected void raiseAlert(Patient patient, double first, double second, long timestamp,
+                              AlertFactory alertFactory) {
+        condition.raise(alertFactory, patient.getPatientId(), first, second, timestamp);
+    }
+}
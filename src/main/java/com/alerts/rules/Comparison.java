@@ -0,0 +1,54 @@
+package com.alerts.rules;
+
+/**
+ * A comparison of a sample value against a fixed bound, resolved once when a
+ * rule is compiled.
+ */
+final class Comparison {
+    private final String operator;
+    private final double bound;
+    private final boolean above;
+    private final boolean inclusive;
+
+    private Comparison(String operator, double bound, boolean above, boolean inclusive) {
+        this.operator = operator;
+        this.bound = bound;
+        this.above = above;
+        this.inclusive = inclusive;
+    }
+
+    /**
+     * Parses an operator and bound.
+     *
+     * @param operator one of {@code >}, {@code >=}, {@code <} and {@code <=}
+     * @param bound    the value compared against
+     * @return the comparison
+     * @throws IllegalArgumentException if the operator is unknown
+     */
+    static Comparison of(String operator, double bound) {
+        switch (operator) {
+            case ">":
+                return new Comparison(operator, bound, true, false);
+            case ">=":
+                return new Comparison(operator, bound, true, true);
+            case "<":
+                return new Comparison(operator, bound, false, false);
+            case "<=":
+                return new Comparison(operator, bound, false, true);
+            default:
+                throw new IllegalArgumentException("Unknown comparison operator '" + operator + "'");
+        }
+    }
+
+    boolean matches(double value) {
+        if (above) {
+            return inclusive ? value >= bound : value > bound;
+        }
+        return inclusive ? value <= bound : value < bound;
+    }
+
+    @Override
+    public String toString() {
+        return operator + " " + bound;
+    }
+}
@@ -0,0 +1,132 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCode;
+import com.alerts.AlertFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The condition a rule raises: either an {@link AlertCode}, whose alerts are
+ * structured and rendered only when their text is asked for, or a condition
+ * text with optional {@code {value}} and {@code {average}} placeholders, split
+ * into literal parts when a rule is compiled, and an optional priority.
+ */
+final class ConditionTemplate {
+    private static final String VALUE = "{value}";
+    private static final String AVERAGE = "{average}";
+
+    private final AlertCode code;
+    private final int priority;
+    private final String[] literals;
+    /** For each placeholder, whether it is {@code {average}} rather than {@code {value}}. */
+    private final boolean[] averages;
+
+    private ConditionTemplate(AlertCode code, int priority, String[] literals, boolean[] averages) {
+        this.code = code;
+        this.priority = priority;
+        this.literals = literals;
+        this.averages = averages;
+    }
+
+    /**
+     * Returns the condition raising structured alerts with a code, which have
+     * the code's default priority.
+     */
+    static ConditionTemplate of(AlertCode code) {
+        if (code == AlertCode.CUSTOM) {
+            throw new IllegalArgumentException("CUSTOM is not a condition code; write the condition text instead");
+        }
+        return new ConditionTemplate(code, code.getDefaultPriority(), null, null);
+    }
+
+    static ConditionTemplate parse(String text) {
+        List<String> literals = new ArrayList<>();
+        List<Boolean> averages = new ArrayList<>();
+        int start = 0;
+        while (true) {
+            int value = text.indexOf(VALUE, start);
+            int average = text.indexOf(AVERAGE, start);
+            if (value < 0 && average < 0) {
+                break;
+            }
+            boolean isAverage = value < 0 || (average >= 0 && average < value);
+            int at = isAverage ? average : value;
+            literals.add(text.substring(start, at));
+            averages.add(isAverage);
+            start = at + (isAverage ? AVERAGE.length() : VALUE.length());
+        }
+        literals.add(text.substring(start));
+        boolean[] flags = new boolean[averages.size()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = averages.get(i);
+        }
+        return new ConditionTemplate(null, 0, literals.toArray(new String[0]), flags);
+    }
+
+    /**
+     * Returns this condition text with a priority.
+     *
+     * @throws IllegalArgumentException if this is a code, which has its own
+     *                                  priority, or the priority is not positive
+     */
+    ConditionTemplate withPriority(int priority) {
+        if (code != null) {
+            throw new IllegalArgumentException("The priority of " + code + " is fixed by the code");
+        }
+        if (priority <= 0) {
+            throw new IllegalArgumentException("Priority must be positive: " + priority);
+        }
+        return new ConditionTemplate(null, priority, literals, averages);
+    }
+
+    /** Returns the code of a coded condition, or {@link AlertCode#CUSTOM} for a text. */
+    AlertCode getCode() {
+        return code != null ? code : AlertCode.CUSTOM;
+    }
+
+    /**
+     * Raises an alert for this condition through the factory.
+     *
+     * @param value   the measurement, the {@code {value}} of a text
+     * @param average the value it was compared with, the {@code {average}} of a
+     *                text
+     */
+    void raise(AlertFactory alertFactory, int patientId, double value, double average, long timestamp) {
+        if (code != null) {
+            alertFactory.createAlert(patientId, code, value, average, timestamp);
+        } else {
+            alertFactory.createAlert(String.valueOf(patientId), render(value, average), priority, timestamp);
+        }
+    }
+
+    /** Reports that a coded condition cleared; conditions given as text are not tracked. */
+    void resolve(AlertFactory alertFactory, int patientId) {
+        if (code != null) {
+            alertFactory.resolve(patientId, code);
+        }
+    }
+
+    /**
+     * Renders the condition. The value is written like string concatenation of a
+     * {@code double}, the average with two decimals.
+     */
+    String render(double value, double average) {
+        if (code != null) {
+            return code.render(value, average);
+        }
+        if (averages.length == 0) {
+            return literals[0];
+        }
+        StringBuilder condition = new StringBuilder(literals[0]);
+        for (int i = 0; i < averages.length; i++) {
+            if (averages[i]) {
+                condition.append(String.format("%.2f", average));
+            } else {
+                condition.append(value);
+            }
+            condition.append(literals[i + 1]);
+        }
+        return condition.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package com.alerts.rules;
+
+import com.alerts.AlertFactory;
+import com.alerts.AlertStrategy;
+import com.alerts.RecordSeries;
+import com.alerts.window.MonotonicWindow;
+import com.data_management.Patient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raises an alert when a sample is lower than the highest sample of the
+ * preceding interval by at least a given amount.
+ */
+final class DropRule implements AlertStrategy {
+    private final String[] recordTypes;
+    private final double amount;
+    private final long intervalMs;
+    private final ConditionTemplate condition;
+    private final Map<Integer, MonotonicWindow> recentMaxima = new ConcurrentHashMap<>();
+
+    DropRule(String recordType, double amount, long intervalMs, ConditionTemplate condition) {
+        this.recordTypes = new String[] {recordType};
+        this.amount = amount;
+        this.intervalMs = intervalMs;
+        this.condition = condition;
+    }
+
+    @Override
+    public String[] getRecordTypes() {
+        return recordTypes;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        RecordSeries samples = series[0];
+        MonotonicWindow maxima = recentMaxima.computeIfAbsent(patient.getPatientId(), id -> MonotonicWindow.maximum());
+        for (long i = samples.getFirstNewIndex(); i < samples.size(); i++) {
+            double value = samples.getValue(i);
+            long timestamp = samples.getTimestamp(i);
+            maxima.evictBefore(timestamp - intervalMs);
+            if (!maxima.isEmpty() && maxima.peek() - value >= amount) {
+                condition.raise(alertFactory, patient.getPatientId(), value, maxima.peek(), timestamp);
+            }
+            maxima.add(timestamp, value);
+        }
+    }
+
+    @Override
+    public void reset(int patientId) {
+        recentMaxima.remove(patientId);
+    }
+}
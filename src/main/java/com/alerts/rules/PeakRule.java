@@ -0,0 +1,67 @@
+package com.alerts.rules;
+
+import com.alerts.AlertFactory;
+import com.alerts.AlertStrategy;
+import com.alerts.RecordSeries;
+import com.alerts.window.RunningSumWindow;
+import com.data_management.Patient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raises an alert when a sample deviates from the moving average of the latest
+ * samples by more than a factor, or, while that average is zero, exceeds a
+ * fixed limit.
+ */
+final class PeakRule implements AlertStrategy {
+    private final String[] recordTypes;
+    private final int windowSize;
+    private final double factor;
+    private final double baselineLimit;
+    private final ConditionTemplate condition;
+    private final ConditionTemplate baselineCondition;
+    private final Map<Integer, RunningSumWindow> windows = new ConcurrentHashMap<>();
+
+    PeakRule(String recordType, int windowSize, double factor, double baselineLimit,
+             ConditionTemplate condition, ConditionTemplate baselineCondition) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.recordTypes = new String[] {recordType};
+        this.windowSize = windowSize;
+        this.factor = factor;
+        this.baselineLimit = baselineLimit;
+        this.condition = condition;
+        this.baselineCondition = baselineCondition;
+    }
+
+    @Override
+    public String[] getRecordTypes() {
+        return recordTypes;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        RecordSeries samples = series[0];
+        RunningSumWindow window = windows.computeIfAbsent(patient.getPatientId(), id -> new RunningSumWindow(windowSize));
+        for (long i = samples.getFirstNewIndex(); i < samples.size(); i++) {
+            double value = samples.getValue(i);
+            window.add(value);
+            if (!window.isFull()) {
+                continue;
+            }
+            double average = window.getAverage();
+            if (average != 0 && Math.abs(value) > Math.abs(average * factor)) {
+                condition.raise(alertFactory, patient.getPatientId(), value, average, samples.getTimestamp(i));
+            } else if (average == 0 && Math.abs(value) > baselineLimit) {
+                baselineCondition.raise(alertFactory, patient.getPatientId(), value, average, samples.getTimestamp(i));
+            }
+        }
+    }
+
+    @Override
+    public void reset(int patientId) {
+        windows.remove(patientId);
+    }
+}
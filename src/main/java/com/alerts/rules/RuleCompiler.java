@@ -0,0 +1,267 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCode;
+import com.alerts.AlertStrategy;
+import com.alerts.CorrelationStrategy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiles alert rule definitions into {@link AlertStrategy} instances.
+ *
+ * <p>A rule file has one rule per line; blank lines and lines starting with
+ * {@code #} are ignored. Tokens are separated by whitespace:</p>
+ * <pre>
+ * threshold &lt;type&gt; &lt;op&gt; &lt;value&gt; &lt;condition&gt;
+ * trend &lt;type&gt; rising|falling &lt;readings&gt; &lt;change&gt; &lt;condition&gt;
+ * window &lt;type&gt; drop &lt;amount&gt; &lt;intervalMs&gt; &lt;condition&gt;
+ * window &lt;type&gt; peak &lt;samples&gt; &lt;factor&gt; &lt;baselineLimit&gt; &lt;condition&gt; &lt;baseline condition&gt;
+ * combined &lt;type&gt; &lt;op&gt; &lt;value&gt; &lt;type&gt; &lt;op&gt; &lt;value&gt; &lt;condition&gt; [within &lt;toleranceMs&gt;]
+ * </pre>
+ *
+ * <p>A condition is either the name of an {@link AlertCode}, e.g.
+ * {@code CRITICAL_SYSTOLIC_HIGH}, or a text in double quotes. Coded conditions
+ * raise structured alerts with the code's text and priority, rendered only when
+ * delivered, and threshold and combined rules resolve them when they no longer
+ * hold. A rule with text conditions may end in {@code priority <n>} to give its
+ * alerts a priority, 1 being the most urgent; without it they have none.</p>
+ *
+ * <p>Operators are {@code >}, {@code >=}, {@code <} and {@code <=}. Condition
+ * texts may contain {@code {value}}, the reading that raised the alert, and
+ * {@code {average}}, what it was compared with: the first reading of a trend,
+ * the highest reading of a drop interval, the moving average of a peak window,
+ * or the reading of the second type of a combined rule. Combined rules pair
+ * readings at most {@code toleranceMs} apart, by default
+ * {@link CorrelationStrategy#DEFAULT_ALIGNMENT_TOLERANCE_MS}. Each rule becomes
+ * its own strategy with its parameters held in final fields, so nothing is
+ * interpreted per sample.</p>
+ */
+public final class RuleCompiler {
+    /** Classpath location of the rules matching the built-in strategies. */
+    public static final String DEFAULT_RULES_RESOURCE = "/alert-rules.txt";
+
+    private static final String QUOTE = "\"";
+
+    private RuleCompiler() {
+    }
+
+    /**
+     * Compiles rule definitions.
+     *
+     * @param rules  the rule definitions
+     * @param source a name for the rules used in error messages
+     * @return one strategy per rule, in definition order
+     * @throws IOException              if the rules cannot be read
+     * @throws IllegalArgumentException if a rule is malformed; the message names
+     *                                  the source and line
+     */
+    public static List<AlertStrategy> compile(Reader rules, String source) throws IOException {
+        List<AlertStrategy> strategies = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(rules);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            try {
+                strategies.add(compileRule(tokenize(trimmed)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return Collections.unmodifiableList(strategies);
+    }
+
+    /**
+     * Compiles rule definitions held in a string.
+     *
+     * @param rules the rule definitions
+     * @return one strategy per rule, in definition order
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public static List<AlertStrategy> compile(String rules) {
+        try {
+            return compile(new StringReader(rules), "<rules>");
+        } catch (IOException e) {
+            throw new IllegalStateException("Reading from a string failed", e);
+        }
+    }
+
+    /**
+     * Compiles a rule file.
+     *
+     * @param file the rule file, in UTF-8
+     * @return one strategy per rule, in definition order
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public static List<AlertStrategy> compile(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return compile(reader, file.toString());
+        }
+    }
+
+    /**
+     * Compiles the default rules, which raise the same alerts as the built-in
+     * strategies.
+     *
+     * @return the default rules
+     */
+    public static List<AlertStrategy> compileDefaults() {
+        try (InputStream in = RuleCompiler.class.getResourceAsStream(DEFAULT_RULES_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + DEFAULT_RULES_RESOURCE);
+            }
+            return compile(new InputStreamReader(in, StandardCharsets.UTF_8), DEFAULT_RULES_RESOURCE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + DEFAULT_RULES_RESOURCE, e);
+        }
+    }
+
+    private static AlertStrategy compileRule(List<String> tokens) {
+        String kind = tokens.get(0);
+        int priority = 0;
+        if (tokens.size() > 2 && tokens.get(tokens.size() - 2).equals("priority")) {
+            priority = integer(tokens.get(tokens.size() - 1));
+            if (priority <= 0) {
+                throw new IllegalArgumentException("Priority must be positive: " + priority);
+            }
+            tokens = tokens.subList(0, tokens.size() - 2);
+        }
+        switch (kind) {
+            case "threshold":
+                expect(tokens, 5, "threshold <type> <op> <value> <condition>");
+                return new ThresholdRule(tokens.get(1), Comparison.of(tokens.get(2), number(tokens.get(3))),
+                        condition(tokens.get(4), priority));
+            case "trend":
+                expect(tokens, 6, "trend <type> rising|falling <readings> <change> <condition>");
+                return new TrendRule(tokens.get(1), direction(tokens.get(2)), integer(tokens.get(3)),
+                        number(tokens.get(4)), condition(tokens.get(5), priority));
+            case "window":
+                if (tokens.size() > 2 && tokens.get(2).equals("drop")) {
+                    expect(tokens, 6, "window <type> drop <amount> <intervalMs> <condition>");
+                    return new DropRule(tokens.get(1), number(tokens.get(3)), longInteger(tokens.get(4)),
+                            condition(tokens.get(5), priority));
+                }
+                if (tokens.size() > 2 && tokens.get(2).equals("peak")) {
+                    expect(tokens, 8, "window <type> peak <samples> <factor> <baselineLimit> <condition> <baseline condition>");
+                    return new PeakRule(tokens.get(1), integer(tokens.get(3)), number(tokens.get(4)),
+                            number(tokens.get(5)), condition(tokens.get(6), priority),
+                            condition(tokens.get(7), priority));
+                }
+                throw new IllegalArgumentException("Expected 'drop' or 'peak' after the window record type");
+            case "combined":
+                long tolerance = CorrelationStrategy.DEFAULT_ALIGNMENT_TOLERANCE_MS;
+                if (tokens.size() == 10 && tokens.get(8).equals("within")) {
+                    tolerance = longInteger(tokens.get(9));
+                    tokens = tokens.subList(0, 8);
+                }
+                expect(tokens, 8, "combined <type> <op> <value> <type> <op> <value> <condition> [within <toleranceMs>]");
+                return new CombinedRule(tokens.get(1), Comparison.of(tokens.get(2), number(tokens.get(3))),
+                        tokens.get(4), Comparison.of(tokens.get(5), number(tokens.get(6))), tolerance,
+                        condition(tokens.get(7), priority));
+            default:
+                throw new IllegalArgumentException("Unknown rule kind '" + kind + "'");
+        }
+    }
+
+    /** Returns the condition of a quoted text token, or of an unquoted code name. */
+    private static ConditionTemplate condition(String token, int priority) {
+        if (token.startsWith(QUOTE)) {
+            ConditionTemplate condition = ConditionTemplate.parse(token.substring(QUOTE.length()));
+            return priority == 0 ? condition : condition.withPriority(priority);
+        }
+        AlertCode code;
+        try {
+            code = AlertCode.valueOf(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown alert code '" + token + "'; quote condition texts");
+        }
+        ConditionTemplate condition = ConditionTemplate.of(code);
+        return priority == 0 ? condition : condition.withPriority(priority);
+    }
+
+    private static void expect(List<String> tokens, int count, String syntax) {
+        if (tokens.size() != count) {
+            throw new IllegalArgumentException("Expected " + syntax);
+        }
+    }
+
+    private static boolean direction(String token) {
+        if (token.equals("rising")) {
+            return true;
+        }
+        if (token.equals("falling")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Expected 'rising' or 'falling' but found '" + token + "'");
+    }
+
+    private static double number(String token) {
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: '" + token + "'");
+        }
+    }
+
+    private static int integer(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not an integer: '" + token + "'");
+        }
+    }
+
+    private static long longInteger(String token) {
+        try {
+            return Long.parseLong(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not an integer: '" + token + "'");
+        }
+    }
+
+    /**
+     * Splits a line on whitespace, keeping double-quoted text together. Quoted
+     * tokens keep their opening quote, so conditions can tell texts from codes.
+     */
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int end = line.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated quoted condition");
+                }
+                tokens.add(line.substring(i, end));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+                    end++;
+                }
+                tokens.add(line.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+}
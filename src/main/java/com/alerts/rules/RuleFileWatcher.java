@@ -0,0 +1,98 @@
+package com.alerts.rules;
+
+import com.alerts.AlertStrategy;
+import com.alerts.StreamingAlertEngine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads a rule file into a {@link StreamingAlertEngine} whenever the file
+ * changes.
+ *
+ * <p>The file is polled for a new modification time or size. A changed file is
+ * compiled completely before the engine's rules are swapped, so evaluation
+ * never sees a partial rule set and is never paused. If the new file cannot be
+ * read or compiled, the error is reported and the previous rules stay in
+ * effect.</p>
+ */
+public class RuleFileWatcher implements AutoCloseable {
+    private final Path file;
+    private final StreamingAlertEngine engine;
+    private final ScheduledExecutorService scheduler;
+    private FileTime lastModified;
+    private long lastSize = -1;
+    private volatile int reloadCount;
+
+    /**
+     * Creates a watcher. Call {@link #start} to begin polling.
+     *
+     * @param file   the rule file to watch
+     * @param engine the engine whose rules are replaced
+     */
+    public RuleFileWatcher(Path file, StreamingAlertEngine engine) {
+        this.file = file;
+        this.engine = engine;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rule-file-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the rule file now and then polls it for changes.
+     *
+     * @param pollInterval how often to check the file
+     * @param unit         the unit of {@code pollInterval}
+     */
+    public void start(long pollInterval, TimeUnit unit) {
+        reloadIfChanged();
+        scheduler.scheduleWithFixedDelay(this::reloadIfChanged, pollInterval, pollInterval, unit);
+    }
+
+    /**
+     * Reloads the rules if the file changed since it was last loaded.
+     *
+     * @return {@code true} if new rules were installed
+     */
+    public synchronized boolean reloadIfChanged() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            long size = Files.size(file);
+            if (modified.equals(lastModified) && size == lastSize) {
+                return false;
+            }
+            List<AlertStrategy> rules = RuleCompiler.compile(file);
+            engine.replaceStrategies(rules);
+            lastModified = modified;
+            lastSize = size;
+            reloadCount++;
+            System.out.println("Loaded " + rules.size() + " alert rules from " + file);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Keeping previous alert rules; cannot load " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns how many times rules were installed from the file.
+     *
+     * @return the reload count
+     */
+    public int getReloadCount() {
+        return reloadCount;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.alerts.rules;
+
+import com.alerts.AlertFactory;
+import com.alerts.AlertStrategy;
+import com.alerts.RecordSeries;
+import com.data_management.Patient;
+
+/**
+ * Raises an alert for every sample of one record type that crosses a bound. A
+ * coded condition is resolved by every sample that does not.
+ */
+final class ThresholdRule implements AlertStrategy {
+    private final String[] recordTypes;
+    private final Comparison comparison;
+    private final ConditionTemplate condition;
+
+    ThresholdRule(String recordType, Comparison comparison, ConditionTemplate condition) {
+        this.recordTypes = new String[] {recordType};
+        this.comparison = comparison;
+        this.condition = condition;
+    }
+
+    @Override
+    public String[] getRecordTypes() {
+        return recordTypes;
+    }
+
+    @Override
+    public boolean isAbnormal(String recordType, double value) {
+        return comparison.matches(value);
+    }
+
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        RecordSeries samples = series[0];
+        for (long i = samples.getFirstNewIndex(); i < samples.size(); i++) {
+            double value = samples.getValue(i);
+            if (comparison.matches(value)) {
+                condition.raise(alertFactory, patient.getPatientId(), value, 0, samples.getTimestamp(i));
+            } else {
+                condition.resolve(alertFactory, patient.getPatientId());
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.alerts.rules;
+
+import com.alerts.AlertFactory;
+import com.alerts.AlertStrategy;
+import com.alerts.RecordSeries;
+import com.data_management.Patient;
+
+/**
+ * Raises an alert when a number of consecutive samples of one record type each
+ * rise (or each fall) by more than a given change.
+ */
+final class TrendRule implements AlertStrategy {
+    private final String[] recordTypes;
+    private final boolean rising;
+    private final int readings;
+    private final double change;
+    private final ConditionTemplate condition;
+
+    TrendRule(String recordType, boolean rising, int readings, double change, ConditionTemplate condition) {
+        if (readings < 2) {
+            throw new IllegalArgumentException("A trend needs at least 2 readings: " + readings);
+        }
+        this.recordTypes = new String[] {recordType};
+        this.rising = rising;
+        this.readings = readings;
+        this.change = change;
+        this.condition = condition;
+    }
+
+    @Override
+    public String[] getRecordTypes() {
+        return recordTypes;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+        RecordSeries samples = series[0];
+        // Every window ending in a new sample; windows ending earlier were checked by a previous call.
+        long firstEnd = Math.max(samples.getFirstNewIndex(), samples.getOldestIndex() + readings - 1);
+        for (long end = firstEnd; end < samples.size(); end++) {
+            boolean trend = true;
+            for (long j = end - (readings - 1); j < end && trend; j++) {
+                double diff = samples.getValue(j + 1) - samples.getValue(j);
+                trend = rising ? diff > change : diff < -change;
+            }
+            if (trend) {
+                condition.raise(alertFactory, patient.getPatientId(), samples.getValue(end),
+                    samples.getValue(end - (readings - 1)), samples.getTimestamp(end));
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.alerts.store;
+
+import com.alerts.Alert;
+import com.alerts.AlertCode;
+import com.alerts.AlertDecorator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An append-only file of triggered alerts, so alert history survives restarts.
+ *
+ * <p>Each alert is one line:
+ * {@code timestamp<TAB>patientId<TAB>code<TAB>priority<TAB>value<TAB>reference<TAB>condition},
+ * with backslashes, tabs and line breaks in the text escaped, so replayed
+ * alerts keep their {@link AlertCode} and can be resolved like the original
+ * ones. Lines of the older {@code timestamp<TAB>patientId<TAB>condition} form
+ * are replayed as custom alerts. Writes are flushed once per appended batch. A
+ * truncated or malformed last line, e.g. after a crash, is skipped on
+ * replay.</p>
+ *
+ * <p>The log does not drop anything by itself. Once the file exceeds its size
+ * limit, {@link #needsCompaction()} tells the owner to rewrite it with
+ * {@link #compact}, which replaces the file atomically.</p>
+ */
+public class AlertLog implements AutoCloseable {
+    /** Default file size above which the log asks to be compacted. */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final Path file;
+    private final long maxBytes;
+    private BufferedWriter writer;
+    private long bytes;
+    private long compactAt;
+
+    /**
+     * Opens the log for appending, creating the file and its parent directories
+     * if needed.
+     *
+     * @param file the log file
+     * @throws IOException if the file cannot be opened
+     */
+    public AlertLog(Path file) throws IOException {
+        this(file, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Opens the log for appending, creating the file and its parent directories
+     * if needed.
+     *
+     * @param file     the log file
+     * @param maxBytes the file size above which the log asks to be compacted
+     * @throws IOException if the file cannot be opened
+     */
+    public AlertLog(Path file, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.compactAt = maxBytes;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = open(file);
+        this.bytes = Files.size(file);
+    }
+
+    private static BufferedWriter open(Path file) throws IOException {
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Appends alerts and flushes them to the file.
+     *
+     * @param alerts the alerts to append
+     * @throws IOException if writing fails
+     */
+    public synchronized void append(List<Alert> alerts) throws IOException {
+        write(writer, alerts);
+        writer.flush();
+        bytes = Files.size(file);
+    }
+
+    private static void write(BufferedWriter writer, List<Alert> alerts) throws IOException {
+        for (Alert alert : alerts) {
+            writer.write(Long.toString(alert.getTimestamp()));
+            writer.write('\t');
+            writer.write(escape(alert.getPatientId()));
+            writer.write('\t');
+            writer.write(alert.getCode().name());
+            writer.write('\t');
+            writer.write(Integer.toString(alert.getPriority()));
+            writer.write('\t');
+            writer.write(Double.toString(alert.getValue()));
+            writer.write('\t');
+            writer.write(Double.toString(alert.getReference()));
+            writer.write('\t');
+            writer.write(escape(alert.getCondition()));
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Returns whether the file has outgrown the size limit since it was opened
+     * or last compacted.
+     *
+     * @return {@code true} if the owner should call {@link #compact}
+     */
+    public synchronized boolean needsCompaction() {
+        return bytes > compactAt;
+    }
+
+    /**
+     * Replaces the log with the given alerts, e.g. those its owner still
+     * retains. The new content is written to a temporary file that then
+     * atomically replaces the log, so a crash leaves either the old or the new
+     * log. If the retained alerts alone exceed the size limit, the next
+     * compaction is deferred until the log has doubled.
+     *
+     * @param alerts the alerts to keep, oldest first
+     * @throws IOException if the log cannot be rewritten; it is then left as it
+     *                     was
+     */
+    public synchronized void compact(List<Alert> alerts) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter compacted = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            write(compacted, alerts);
+        }
+        writer.close();
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            writer = open(file);
+        }
+        bytes = Files.size(file);
+        compactAt = Math.max(maxBytes, 2 * bytes);
+    }
+
+    /**
+     * Reads every alert in the log, in the order they were appended.
+     *
+     * @param consumer receives each alert
+     * @return the number of alerts read
+     * @throws IOException if the file cannot be read
+     */
+    public int replay(Consumer<Alert> consumer) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Alert alert = parse(line.split("\t", -1));
+                if (alert != null) {
+                    consumer.accept(alert);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Returns the alert of a line split on tabs, or {@code null} if it is malformed. */
+    private static Alert parse(String[] fields) {
+        if (fields.length != 3 && fields.length != 7) {
+            return null;
+        }
+        try {
+            long timestamp = Long.parseLong(fields[0]);
+            String patientId = unescape(fields[1]);
+            String condition = unescape(fields[fields.length - 1]);
+            if (fields.length == 3) {
+                return new Alert(patientId, condition, timestamp);
+            }
+            AlertCode code = AlertCode.valueOf(fields[2]);
+            int priority = Integer.parseInt(fields[3]);
+            if (code == AlertCode.CUSTOM) {
+                return new Alert(patientId, condition, priority, timestamp);
+            }
+            Alert alert = new Alert(Integer.parseInt(patientId), code, Double.parseDouble(fields[4]),
+                    Double.parseDouble(fields[5]), timestamp);
+            String rendered = alert.getCondition();
+            if (!condition.endsWith(rendered)) {
+                // Written by a version that rendered the code differently: keep the text.
+                return new Alert(patientId, condition, priority, timestamp);
+            }
+            if (condition.length() > rendered.length()) {
+                // Decorator and source prefixes, e.g. "[Repeated] " or "ECG: ".
+                alert.withConditionPrefix(condition.substring(0, condition.length() - rendered.length()));
+            }
+            return alert.getPriority() == priority ? alert : new LoggedPriority(alert, priority);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Keeps the priority an alert was logged with, e.g. after escalation. */
+    private static final class LoggedPriority extends AlertDecorator {
+        private final int priority;
+
+        LoggedPriority(Alert alert, int priority) {
+            super(alert);
+            this.priority = priority;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public Alert copy() {
+            return new LoggedPriority(decoratedAlert.copy(), priority);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = c == '\\' ? "\\\\" : c == '\t' ? "\\t" : c == '\n' ? "\\n" : c == '\r' ? "\\r" : null;
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 8).append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped == null ? text : escaped.toString();
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder unescaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                unescaped.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+}
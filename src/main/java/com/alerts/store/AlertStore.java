@@ -0,0 +1,401 @@
+package com.alerts.store;
+
+import com.alerts.Alert;
+import com.alerts.AlertCode;
+import com.alerts.AlertSuppressor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded history of triggered alerts, indexed by patient and time.
+ *
+ * <p>Alerts are kept in three structures:</p>
+ * <ul>
+ *   <li>a global ring of the latest alerts in insertion order;</li>
+ *   <li>one ring per patient, ordered by alert timestamp, which drops alerts
+ *       older than the retention period and beyond the per-patient capacity, and
+ *       is searched by binary search for time-range queries;</li>
+ *   <li>an index of open critical alerts, holding the latest alert of each
+ *       critical (patient, condition) pair until it is resolved or falls out of
+ *       the retention period.</li>
+ * </ul>
+ *
+ * <p>Patients whose latest alert is older than the retention period, relative
+ * to the latest alert of any patient, are dropped together with their open
+ * critical alerts. This is checked every quarter of the retention period of
+ * alert time, so the store stays bounded however many patients pass through.</p>
+ *
+ * <p>If an {@link AlertLog} is attached, its history is replayed into the store
+ * when the store is created, and every alert added later is appended to it.
+ * Once the log outgrows its size limit it is rewritten with the alerts the
+ * store keeps in insertion order.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public class AlertStore {
+    /** Default number of alerts kept in insertion order. */
+    public static final int DEFAULT_CAPACITY = 100_000;
+    /** Default number of alerts kept per patient. */
+    public static final int DEFAULT_PATIENT_CAPACITY = 4096;
+    /** Default time alerts are kept per patient, relative to the patient's latest alert. */
+    public static final long DEFAULT_RETENTION_MS = 24 * 60 * 60 * 1000; // 24 hours
+
+    private static final int INITIAL_PATIENT_CAPACITY = 16;
+
+    private final int patientCapacity;
+    private final long retentionMs;
+    private final AlertLog log;
+
+    private final Alert[] ring;
+    private int ringHead;
+    private int ringSize;
+
+    private final Map<String, PatientAlerts> patients = new HashMap<>();
+    private final Map<String, Alert> openCritical = new LinkedHashMap<>();
+    private long latestTimestamp = Long.MIN_VALUE;
+    private long lastSweep = Long.MIN_VALUE;
+
+    public AlertStore() {
+        this(DEFAULT_CAPACITY, DEFAULT_PATIENT_CAPACITY, DEFAULT_RETENTION_MS);
+    }
+
+    /**
+     * Creates an in-memory store.
+     *
+     * @param capacity        the number of alerts kept in insertion order
+     * @param patientCapacity the number of alerts kept per patient
+     * @param retentionMs     how long alerts are kept per patient, relative to
+     *                        the patient's latest alert
+     */
+    public AlertStore(int capacity, int patientCapacity, long retentionMs) {
+        this(capacity, patientCapacity, retentionMs, null);
+    }
+
+    private AlertStore(int capacity, int patientCapacity, long retentionMs, AlertLog log) {
+        if (capacity <= 0 || patientCapacity <= 0) {
+            throw new IllegalArgumentException("Capacities must be positive");
+        }
+        this.ring = new Alert[capacity];
+        this.patientCapacity = patientCapacity;
+        this.retentionMs = retentionMs;
+        this.log = log;
+    }
+
+    /**
+     * Creates a store backed by an alert log. The alerts already in the log are
+     * loaded first, subject to the store's limits.
+     *
+     * @param capacity        the number of alerts kept in insertion order
+     * @param patientCapacity the number of alerts kept per patient
+     * @param retentionMs     how long alerts are kept per patient
+     * @param log             the log to replay and append to
+     * @return the store
+     * @throws IOException if the log cannot be read
+     */
+    public static AlertStore withLog(int capacity, int patientCapacity, long retentionMs, AlertLog log)
+            throws IOException {
+        AlertStore store = new AlertStore(capacity, patientCapacity, retentionMs, log);
+        log.replay(store::index);
+        return store;
+    }
+
+    /**
+     * Adds an alert.
+     *
+     * @param alert the triggered alert
+     */
+    public void add(Alert alert) {
+        addAll(Collections.singletonList(alert));
+    }
+
+    /**
+     * Adds alerts in the order given, appending them to the log in one write.
+     *
+     * @param alerts the triggered alerts
+     */
+    public synchronized void addAll(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            index(alert);
+        }
+        if (log != null && !alerts.isEmpty()) {
+            try {
+                log.append(alerts);
+            } catch (IOException e) {
+                System.err.println("Error appending to alert log " + log.getFile() + ": " + e.getMessage());
+            }
+            if (log.needsCompaction()) {
+                try {
+                    log.compact(getAll());
+                } catch (IOException e) {
+                    System.err.println("Error compacting alert log " + log.getFile() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private synchronized void index(Alert alert) {
+        if (ringSize == ring.length) {
+            ring[ringHead] = alert;
+            ringHead = (ringHead + 1) % ring.length;
+        } else {
+            ring[(ringHead + ringSize) % ring.length] = alert;
+            ringSize++;
+        }
+
+        patients.computeIfAbsent(alert.getPatientId(), id -> new PatientAlerts()).add(alert);
+        latestTimestamp = Math.max(latestTimestamp, alert.getTimestamp());
+        if (isCritical(alert)) {
+            openCritical.put(openKey(alert), alert);
+        }
+        if (lastSweep == Long.MIN_VALUE) {
+            lastSweep = latestTimestamp;
+        } else if (latestTimestamp - lastSweep >= Math.max(1, retentionMs / 4)) {
+            evictExpired();
+        }
+    }
+
+    /** Drops the patients and open critical alerts that fell out of the retention period. */
+    private void evictExpired() {
+        lastSweep = latestTimestamp;
+        patients.values().removeIf(alerts -> latestTimestamp - alerts.newest() > retentionMs);
+        openCritical.values().removeIf(alert -> latestTimestamp - alert.getTimestamp() > retentionMs);
+    }
+
+    /**
+     * Returns the retained alerts in the order they were added.
+     *
+     * @return a copy of the retained alerts, oldest first
+     */
+    public synchronized List<Alert> getAll() {
+        List<Alert> alerts = new ArrayList<>(ringSize);
+        for (int i = 0; i < ringSize; i++) {
+            alerts.add(ring[(ringHead + i) % ring.length]);
+        }
+        return alerts;
+    }
+
+    public synchronized int size() {
+        return ringSize;
+    }
+
+    /**
+     * Returns the number of patients with retained alerts.
+     *
+     * @return the patient count
+     */
+    public synchronized int getPatientCount() {
+        return patients.size();
+    }
+
+    /**
+     * Returns a patient's alerts within a time range, in timestamp order.
+     *
+     * @param patientId the patient
+     * @param startTime the start of the range, inclusive
+     * @param endTime   the end of the range, inclusive
+     * @return the matching alerts
+     */
+    public synchronized List<Alert> getAlerts(String patientId, long startTime, long endTime) {
+        PatientAlerts alerts = patients.get(patientId);
+        return alerts == null ? new ArrayList<>() : alerts.range(startTime, endTime);
+    }
+
+    /**
+     * Returns the open critical alerts of all patients: the latest alert of each
+     * critical condition that has been neither resolved nor outlived the
+     * retention period.
+     *
+     * @return the open critical alerts, in the order their conditions opened
+     */
+    public synchronized List<Alert> getOpenCriticalAlerts() {
+        List<Alert> open = new ArrayList<>(openCritical.size());
+        Iterator<Alert> iterator = openCritical.values().iterator();
+        while (iterator.hasNext()) {
+            Alert alert = iterator.next();
+            if (latestTimestamp - alert.getTimestamp() > retentionMs) {
+                iterator.remove();
+            } else {
+                open.add(alert);
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Closes an open critical condition.
+     *
+     * @param patientId the patient
+     * @param condition the condition code, or the full condition text of one of
+     *                  its alerts
+     */
+    public synchronized void resolve(String patientId, String condition) {
+        openCritical.remove(patientId + '|' + AlertSuppressor.conditionCode(stripDecorations(condition)));
+    }
+
+    /**
+     * Closes an open critical structured condition.
+     *
+     * @param patientId the patient
+     * @param code      the condition
+     */
+    public synchronized void resolve(String patientId, AlertCode code) {
+        openCritical.remove(patientId + '|' + code.name());
+    }
+
+    /**
+     * Removes every alert from memory. The alert log, if any, is kept.
+     */
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        ringHead = 0;
+        ringSize = 0;
+        patients.clear();
+        openCritical.clear();
+        latestTimestamp = Long.MIN_VALUE;
+        lastSweep = Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns whether an alert reports a critical condition, i.e. has priority 1.
+     * Custom alerts without a priority are critical if their condition text
+     * names a critical threshold crossing, hypotensive hypoxemia or a manual
+     * alert.
+     *
+     * @param alert the alert
+     * @return {@code true} if the alert is critical
+     */
+    public static boolean isCritical(Alert alert) {
+        int priority = alert.getPriority();
+        if (priority != 0) {
+            return priority == 1;
+        }
+        String condition = alert.getCondition();
+        return condition.contains("Critical")
+                || condition.contains("Hypotensive Hypoxemia")
+                || condition.contains("Manual Alert");
+    }
+
+    private static String openKey(Alert alert) {
+        if (alert.getCode() != AlertCode.CUSTOM) {
+            return alert.getPatientId() + '|' + alert.getCode().name();
+        }
+        return alert.getPatientId() + '|' + AlertSuppressor.conditionCode(stripDecorations(alert.getCondition()));
+    }
+
+    /** Removes the "[Priority n] " and "[Repeated] " prefixes added by decorators. */
+    private static String stripDecorations(String condition) {
+        while (condition.startsWith("[")) {
+            int end = condition.indexOf("] ");
+            if (end < 0) {
+                break;
+            }
+            condition = condition.substring(end + 2);
+        }
+        return condition;
+    }
+
+    /** The alerts of one patient in a ring ordered by timestamp. */
+    private final class PatientAlerts {
+        private Alert[] alerts = new Alert[Math.min(INITIAL_PATIENT_CAPACITY, patientCapacity)];
+        private long[] timestamps = new long[alerts.length];
+        private int head;
+        private int size;
+
+        void add(Alert alert) {
+            long timestamp = alert.getTimestamp();
+            if (size > 0 && timestamp < timestamp(0) && size == patientCapacity) {
+                // Older than everything kept and no room: it would be dropped first anyway.
+                return;
+            }
+            if (size == alerts.length) {
+                if (alerts.length < patientCapacity) {
+                    grow();
+                } else {
+                    removeOldest();
+                }
+            }
+            // Alerts mostly arrive in timestamp order, so insert by shifting from the tail.
+            int position = size;
+            while (position > 0 && timestamp(position - 1) > timestamp) {
+                set(position, alerts[slot(position - 1)], timestamp(position - 1));
+                position--;
+            }
+            set(position, alert, timestamp);
+            size++;
+
+            long newest = timestamp(size - 1);
+            while (size > 0 && newest - timestamp(0) > retentionMs) {
+                removeOldest();
+            }
+        }
+
+        /** Returns the latest timestamp; a patient's ring always keeps its newest alert. */
+        long newest() {
+            return timestamp(size - 1);
+        }
+
+        List<Alert> range(long startTime, long endTime) {
+            List<Alert> result = new ArrayList<>();
+            for (int i = lowerBound(startTime); i < size && timestamp(i) <= endTime; i++) {
+                result.add(alerts[slot(i)]);
+            }
+            return result;
+        }
+
+        /** Returns the first position whose timestamp is at least {@code time}. */
+        private int lowerBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (timestamp(middle) < time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private long timestamp(int position) {
+            return timestamps[slot(position)];
+        }
+
+        private void set(int position, Alert alert, long timestamp) {
+            int slot = slot(position);
+            alerts[slot] = alert;
+            timestamps[slot] = timestamp;
+        }
+
+        private void removeOldest() {
+            alerts[head] = null;
+            head = (head + 1) % alerts.length;
+            size--;
+        }
+
+        private int slot(int position) {
+            return (head + position) % alerts.length;
+        }
+
+        private void grow() {
+            int length = Math.min(alerts.length * 2, patientCapacity);
+            Alert[] grownAlerts = new Alert[length];
+            long[] grownTimestamps = new long[length];
+            for (int i = 0; i < size; i++) {
+                grownAlerts[i] = alerts[slot(i)];
+                grownTimestamps[i] = timestamp(i);
+            }
+            alerts = grownAlerts;
+            timestamps = grownTimestamps;
+            head = 0;
+        }
+    }
+}
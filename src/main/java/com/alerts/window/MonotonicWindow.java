@@ -0,0 +1,136 @@
+package com.alerts.window;
+
+/**
+ * The maximum (or minimum) of the values seen within a sliding time span.
+ *
+ * <p>Samples are kept in a monotonic deque backed by primitive ring buffers:
+ * whenever a sample is added, every queued sample it dominates is dropped from
+ * the tail, so the head is always the extreme of the window. Each sample is
+ * added and removed at most once, which makes both {@link #add} and
+ * {@link #evictBefore} O(1) amortised regardless of the window span. The deque
+ * grows on demand if many samples are queued at once.</p>
+ *
+ * <p>Samples must be added in non-decreasing timestamp order.</p>
+ */
+public class MonotonicWindow {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean maximum;
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    private MonotonicWindow(boolean maximum) {
+        this.maximum = maximum;
+    }
+
+    /**
+     * Creates a window that tracks the largest value.
+     *
+     * @return an empty maximum window
+     */
+    public static MonotonicWindow maximum() {
+        return new MonotonicWindow(true);
+    }
+
+    /**
+     * Creates a window that tracks the smallest value.
+     *
+     * @return an empty minimum window
+     */
+    public static MonotonicWindow minimum() {
+        return new MonotonicWindow(false);
+    }
+
+    /**
+     * Adds a sample, dropping the queued samples that can no longer be the
+     * extreme of any later window.
+     *
+     * @param timestamp the sample timestamp, not older than any sample added before
+     * @param value     the sample value
+     */
+    public void add(long timestamp, double value) {
+        while (size > 0 && dominates(value, values[slot(size - 1)])) {
+            size--;
+        }
+        if (size == values.length) {
+            grow();
+        }
+        int tail = slot(size);
+        timestamps[tail] = timestamp;
+        values[tail] = value;
+        size++;
+    }
+
+    private boolean dominates(double value, double queued) {
+        return maximum ? value >= queued : value <= queued;
+    }
+
+    /**
+     * Removes every sample older than the given timestamp.
+     *
+     * @param oldestTimestamp the earliest timestamp still inside the window
+     */
+    public void evictBefore(long oldestTimestamp) {
+        while (size > 0 && timestamps[head] < oldestTimestamp) {
+            head = slot(1);
+            size--;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the extreme value of the samples in the window.
+     *
+     * @return the maximum or minimum value
+     * @throws IllegalStateException if the window is empty
+     */
+    public double peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Window is empty");
+        }
+        return values[head];
+    }
+
+    /**
+     * Returns the timestamp of the sample holding the extreme value.
+     *
+     * @return the timestamp of {@link #peek()}
+     * @throws IllegalStateException if the window is empty
+     */
+    public long peekTimestamp() {
+        if (size == 0) {
+            throw new IllegalStateException("Window is empty");
+        }
+        return timestamps[head];
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private int slot(int offset) {
+        return (head + offset) & (values.length - 1);
+    }
+
+    private void grow() {
+        int length = values.length;
+        long[] newTimestamps = new long[length * 2];
+        double[] newValues = new double[length * 2];
+        for (int i = 0; i < size; i++) {
+            newTimestamps[i] = timestamps[slot(i)];
+            newValues[i] = values[slot(i)];
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        head = 0;
+    }
+}
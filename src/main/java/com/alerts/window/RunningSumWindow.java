@@ -0,0 +1,113 @@
+package com.alerts.window;
+
+/**
+ * A moving sum over the last {@code size} values, kept in a primitive ring
+ * buffer.
+ *
+ * <p>Adding a value is O(1): the value leaving the window is subtracted from
+ * the running sum and the new one is added. To keep floating point error from
+ * accumulating, the sum is recomputed from the buffer every time the ring wraps
+ * around, which is once every {@code size} values and therefore still O(1)
+ * amortised. A window holding only zeros always reports a sum of exactly
+ * zero.</p>
+ */
+public class RunningSumWindow {
+    private final double[] values;
+    private int next;
+    private int count;
+    private int nonZeroCount;
+    private double sum;
+
+    /**
+     * Creates an empty window.
+     *
+     * @param size the number of values the window covers; must be positive
+     */
+    public RunningSumWindow(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + size);
+        }
+        this.values = new double[size];
+    }
+
+    /**
+     * Adds a value, evicting the oldest one once the window is full.
+     *
+     * @param value the value to add
+     */
+    public void add(double value) {
+        if (count == values.length) {
+            double evicted = values[next];
+            sum -= evicted;
+            if (evicted != 0) {
+                nonZeroCount--;
+            }
+        } else {
+            count++;
+        }
+        values[next] = value;
+        sum += value;
+        if (value != 0) {
+            nonZeroCount++;
+        }
+        next++;
+        if (next == values.length) {
+            next = 0;
+            resum();
+        }
+    }
+
+    private void resum() {
+        // The ring has just wrapped, so slot 0 holds the oldest value.
+        double exact = 0;
+        for (int i = 0; i < count; i++) {
+            exact += values[i];
+        }
+        sum = exact;
+    }
+
+    /**
+     * Returns the sum of the values currently in the window.
+     *
+     * @return the sum, or 0 if the window is empty
+     */
+    public double getSum() {
+        return nonZeroCount == 0 ? 0 : sum;
+    }
+
+    /**
+     * Returns the average of the values currently in the window.
+     *
+     * @return the average, or 0 if the window is empty
+     */
+    public double getAverage() {
+        return count == 0 ? 0 : getSum() / count;
+    }
+
+    /**
+     * Returns how many values the window currently holds.
+     *
+     * @return a count between 0 and {@link #getSize()}
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public int getSize() {
+        return values.length;
+    }
+
+    public boolean isFull() {
+        return count == values.length;
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        next = 0;
+        count = 0;
+        nonZeroCount = 0;
+        sum = 0;
+    }
+}
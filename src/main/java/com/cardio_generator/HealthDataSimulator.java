@@ -10,8 +10,13 @@ import com.cardio_generator.generators.BloodPressureDataGenerator;
 import com.cardio_generator.generators.BloodSaturationDataGenerator;
 import com.cardio_generator.generators.BloodLevelsDataGenerator;
 import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientRandom;
+import com.cardio_generator.outputs.AsyncOutputStrategy;
+import com.cardio_generator.outputs.CollectorOutputStrategy;
 import com.cardio_generator.outputs.ConsoleOutputStrategy;
+import com.cardio_generator.outputs.DataStorageOutputStrategy;
 import com.cardio_generator.outputs.FileOutputStrategy;
+import com.cardio_generator.outputs.LatencyTrackingOutputStrategy;
 import com.cardio_generator.outputs.OutputStrategy;
 import com.cardio_generator.outputs.TcpOutputStrategy;
 import com.cardio_generator.outputs.WebSocketOutputStrategy;
@@ -25,7 +30,16 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 
+import com.alerts.AcuityScheduler;
+import com.alerts.AlertSuppressor;
+import com.alerts.StreamingAlertEngine;
+import com.alerts.ecg.HeartRateStrategy;
+import com.alerts.ecg.QrsDetector;
+import com.alerts.delivery.AlertDeliveryPipeline;
+import com.alerts.delivery.ConsoleAlertSink;
+import com.alerts.store.AlertStore;
 import com.data_management.DataStorage;
+import com.metrics.LatencyMetrics;
 
 /**
  * The main class responsible for simulating health data for multiple patients.
@@ -41,7 +55,11 @@ import com.data_management.DataStorage;
  *   <li>Configurable number of patients</li>
  *   <li>Multiple output strategies (console, file, WebSocket, TCP)</li>
  *   <li>Real-time data generation with configurable intervals</li>
- *   <li>Thread-safe execution using ScheduledExecutorService</li>
+ *   <li>Tick-driven execution on a few worker threads, sharded by patient</li>
+ *   <li>Reproducible values from a single seed</li>
+ *   <li>Simulated time, to generate days of data in seconds</li>
+ *   <li>Patient ranges split over several processes, with merged output</li>
+ *   <li>A load-generator mode emitting a target rate in a given mix of record types</li>
  * </ul></p>
  */
 public class HealthDataSimulator {
@@ -73,11 +91,62 @@ public class HealthDataSimulator {
     private void generateData() {
     }
 
-    /** Default number of patients to simulate data for. */
-    private static int patientCount = 50;
+    /** Last patient to simulate data for; set by the patient count, or by the patient range. */
+    private static int lastPatientId = 50;
+
+    /** First patient to simulate data for. */
+    private static int firstPatientId = 1;
+
+    /** Number of processes to split the patients over; 1 simulates in this process. */
+    private static int processCount = 1;
+
+    /** Port the collector of a multi-process run listens on; 0 for any free port. */
+    private static int collectorPort = 0;
+
+    /** The value of the --output option. */
+    private static String outputArgument = "console";
     
+    /** ECG samples per second per patient; 0 emits one sinusoid-based value per second. */
+    private static int ecgSampleRate = 0;
+
+    /** How generation tasks are scheduled: "tick", "virtual" or "executor". */
+    private static String schedulerType = "tick";
+
+    /** Seed of the generators' random number streams; the same seed reproduces the same values. */
+    private static long seed = PatientRandom.randomSeed();
+
+    /** Simulated milliseconds per real millisecond; 0 runs on the wall clock. */
+    private static double simulationSpeed = 0;
+
+    /** Simulated time to generate data for, in milliseconds; 0 runs until stopped. */
+    private static long simulationDurationMs = 0;
+
+    /** Simulated time the data starts at, in milliseconds since the epoch. */
+    private static long simulationStartMs = System.currentTimeMillis();
+
+    /** Simulated time generated as fast as possible when no duration is given. */
+    private static final long DEFAULT_FAST_DURATION_MS = TimeUnit.DAYS.toMillis(1);
+
+    /** Samples per second emitted in load-generator mode; 0 runs the regular schedule. */
+    private static double targetRate = 0;
+
+    /** Share of each record type in load-generator mode, by {@link LoadGenerator.RecordType} ordinal. */
+    private static double[] loadMix = LoadGenerator.parseMix(LoadGenerator.DEFAULT_MIX);
+
+    /** Worker threads of the tick scheduler. */
+    private static int workerThreads = Runtime.getRuntime().availableProcessors();
+
     /** Strategy for outputting generated data. */
     private static OutputStrategy outputStrategy = new ConsoleOutputStrategy();
+
+    /** Generation stages that are stopped, in this order, before the output is closed. */
+    private static final List<AutoCloseable> stages = new ArrayList<>();
+
+    /** Stages reading what was output, stopped in this order after the output is closed. */
+    private static final List<AutoCloseable> consumers = new ArrayList<>();
+
+    /** How long the storage keeps records in storage mode, in sample time. */
+    private static final long STORAGE_RETENTION_MS = TimeUnit.MINUTES.toMillis(10);
     
     /** Random number generator for task scheduling. */
     private static final Random random = new Random();
@@ -96,18 +165,74 @@ public class HealthDataSimulator {
      * @param args Command-line arguments:
      *             -h: Show help
      *             --patient-count <count>: Number of patients (default: 50)
-     *             --output <type>: Output strategy (console, file:<directory>, websocket:<port>, tcp:<port>)
+     *             --output <type>: Output strategy (console, file:<directory>, websocket:<port>, tcp:<port>, storage)
+     *             --ecg-rate <hz>: ECG sample rate, e.g. 250 or 500 (default: one value per second)
+     *             --scheduler <type>: tick (default), virtual (Java 21+) or executor
+     *             --threads <count>: Worker threads of the tick scheduler (default: one per processor)
+     *             --seed <seed>: Seed of the generated values (default: random)
+     *             --speed <factor>: Run in simulated time at this multiple of real time
+     *             --as-fast-as-possible: Run in simulated time as fast as the workers go
+     *             --duration <time>: Simulated time to generate, e.g. 90m or 24h
+     *             --start <epoch-ms>: Simulated time the data starts at (default: now)
+     *             --patient-range <first>:<last>: Simulate only these patients
+     *             --processes <count>: Split the patients over this many processes
+     *             --collector-port <port>: Port merging the output of the processes
+     *             --target-rate <samples/s>: Emit this many samples per second as a load generator
+     *             --mix <type>=<weight>,...: Share of each record type in load-generator mode
      * @throws IOException if there are issues with file operations
+     * @throws InterruptedException if interrupted while generating in simulated time
      */
-    public static void main(String[] args) throws IOException {
+    public static void main(String[] args) throws IOException, InterruptedException {
         HealthDataSimulator simulator = HealthDataSimulator.getInstance();
         simulator.startSimulation();
 
         parseArguments(args);
 
-        scheduler = Executors.newScheduledThreadPool(patientCount * 4);
+        System.err.println("Random seed: " + seed);
+        if (outputStrategy instanceof DataStorageOutputStrategy && processCount <= 1) {
+            if (simulationSpeed > 0) {
+                // Simulated timestamps are not wall-clock time, so latency since generation is not tracked.
+                DataStorage storage = new DataStorage();
+                outputStrategy = new DataStorageOutputStrategy(storage);
+                startAlertEvaluation(storage, null);
+            } else {
+                startAlertEvaluation(simulator.dataStorage, LatencyMetrics.getInstance());
+            }
+        }
+        if (targetRate > 0) {
+            runLoadGenerator();
+            closeOutput();
+            System.exit(0);
+        }
+        if (processCount > 1) {
+            System.exit(new SimulatorLauncher(args, firstPatientId, lastPatientId, processCount, seed,
+                    outputArgument, outputStrategy, collectorPort).run());
+        }
+        if (simulationSpeed > 0) {
+            runSimulation();
+            closeOutput();
+            System.exit(0);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(HealthDataSimulator::closeOutput));
+        outputStrategy = new LatencyTrackingOutputStrategy(outputStrategy);
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                System.err.print("Output latency since sample generation:\n" + LatencyMetrics.getInstance().report())));
 
-        List<Integer> patientIds = initializePatientIds(patientCount);
+        if (schedulerType.equals("virtual") && !VirtualThreads.isSupported()) {
+            System.err.println("Virtual threads require Java 21 or later. Using the tick scheduler.");
+            schedulerType = "tick";
+        }
+        if (schedulerType.equals("tick")) {
+            scheduleTicks();
+            return;
+        }
+        if (schedulerType.equals("virtual")) {
+            scheduleVirtualThreads();
+            return;
+        }
+        scheduler = Executors.newScheduledThreadPool((lastPatientId - firstPatientId + 1) * 4);
+        closeBeforeOutput(HealthDataSimulator::stopScheduler);
+        List<Integer> patientIds = initializePatientIds(firstPatientId, lastPatientId);
         Collections.shuffle(patientIds); // Randomize the order of patient IDs
 
         scheduleTasksForPatients(patientIds);
@@ -121,6 +246,16 @@ public class HealthDataSimulator {
      *   <li>-h: Displays help information</li>
      *   <li>--patient-count: Sets the number of patients</li>
      *   <li>--output: Configures the output strategy</li>
+     *   <li>--ecg-rate: Sets the ECG sample rate</li>
+     *   <li>--scheduler: Selects how generation tasks are scheduled</li>
+     *   <li>--threads: Sets the number of tick scheduler workers</li>
+     *   <li>--seed: Sets the seed of the generated values</li>
+     *   <li>--speed, --as-fast-as-possible: Run in simulated time</li>
+     *   <li>--duration: Sets the simulated time to generate</li>
+     *   <li>--start: Sets the simulated start time</li>
+     *   <li>--patient-range: Sets the patients to simulate</li>
+     *   <li>--processes, --collector-port: Split the patients over processes</li>
+     *   <li>--target-rate, --mix: Run as a load generator</li>
      * </ul></p>
      *
      * @param args The command-line arguments to parse
@@ -136,18 +271,160 @@ public class HealthDataSimulator {
                 case "--patient-count":
                     if (i + 1 < args.length) {
                         try {
-                            patientCount = Integer.parseInt(args[++i]);
+                            lastPatientId = Integer.parseInt(args[++i]);
                         } catch (NumberFormatException e) {
                             System.err
-                                    .println("Error: Invalid number of patients. Using default value: " + patientCount);
+                                    .println("Error: Invalid number of patients. Using default value: " + lastPatientId);
+                        }
+                    }
+                    break;
+                case "--ecg-rate":
+                    if (i + 1 < args.length) {
+                        try {
+                            ecgSampleRate = Integer.parseInt(args[++i]);
+                            if (ecgSampleRate < 0) {
+                                throw new NumberFormatException();
+                            }
+                        } catch (NumberFormatException e) {
+                            ecgSampleRate = 0;
+                            System.err.println("Error: Invalid ECG sample rate. Using one value per second.");
+                        }
+                    }
+                    break;
+                case "--scheduler":
+                    if (i + 1 < args.length) {
+                        String type = args[++i];
+                        if (type.equals("tick") || type.equals("virtual") || type.equals("executor")) {
+                            schedulerType = type;
+                        } else {
+                            System.err.println("Unknown scheduler type. Using default (tick).");
+                        }
+                    }
+                    break;
+                case "--threads":
+                    if (i + 1 < args.length) {
+                        try {
+                            workerThreads = Integer.parseInt(args[++i]);
+                            if (workerThreads <= 0) {
+                                throw new NumberFormatException();
+                            }
+                        } catch (NumberFormatException e) {
+                            workerThreads = Runtime.getRuntime().availableProcessors();
+                            System.err.println("Error: Invalid thread count. Using " + workerThreads + ".");
+                        }
+                    }
+                    break;
+                case "--seed":
+                    if (i + 1 < args.length) {
+                        try {
+                            seed = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid seed. Using a random seed.");
+                        }
+                    }
+                    break;
+                case "--patient-range":
+                    if (i + 1 < args.length) {
+                        String[] range = args[++i].split(":");
+                        try {
+                            int first = Integer.parseInt(range[0]);
+                            int last = Integer.parseInt(range[range.length - 1]);
+                            if (range.length != 2 || first < 1 || last < first) {
+                                throw new NumberFormatException();
+                            }
+                            firstPatientId = first;
+                            lastPatientId = last;
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid patient range. Use <first>:<last>, e.g. 1:1000.");
+                        }
+                    }
+                    break;
+                case "--processes":
+                    if (i + 1 < args.length) {
+                        try {
+                            processCount = Integer.parseInt(args[++i]);
+                            if (processCount <= 0) {
+                                throw new NumberFormatException();
+                            }
+                        } catch (NumberFormatException e) {
+                            processCount = 1;
+                            System.err.println("Error: Invalid process count. Using one process.");
+                        }
+                    }
+                    break;
+                case "--collector-port":
+                    if (i + 1 < args.length) {
+                        try {
+                            collectorPort = Integer.parseInt(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid collector port. Using any free port.");
+                        }
+                    }
+                    break;
+                case "--target-rate":
+                    if (i + 1 < args.length) {
+                        try {
+                            targetRate = Double.parseDouble(args[++i]);
+                            if (!(targetRate > 0) || Double.isInfinite(targetRate)) {
+                                throw new NumberFormatException();
+                            }
+                        } catch (NumberFormatException e) {
+                            targetRate = 0;
+                            System.err.println("Error: Invalid target rate. Running the regular schedule.");
+                        }
+                    }
+                    break;
+                case "--mix":
+                    if (i + 1 < args.length) {
+                        try {
+                            loadMix = LoadGenerator.parseMix(args[++i]);
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Error: Invalid mix, e.g. ECG=70,SATURATION=20,ALERT=10. Using the default mix.");
+                        }
+                    }
+                    break;
+                case "--speed":
+                    if (i + 1 < args.length) {
+                        try {
+                            simulationSpeed = Double.parseDouble(args[++i]);
+                            if (!(simulationSpeed > 0)) {
+                                throw new NumberFormatException();
+                            }
+                        } catch (NumberFormatException e) {
+                            simulationSpeed = 0;
+                            System.err.println("Error: Invalid speed. Running in real time.");
+                        }
+                    }
+                    break;
+                case "--as-fast-as-possible":
+                    simulationSpeed = Double.POSITIVE_INFINITY;
+                    break;
+                case "--duration":
+                    if (i + 1 < args.length) {
+                        try {
+                            simulationDurationMs = parseDuration(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid duration. Use e.g. 3600, 90m, 24h or 7d.");
+                        }
+                    }
+                    break;
+                case "--start":
+                    if (i + 1 < args.length) {
+                        try {
+                            simulationStartMs = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid start time. Starting at the current time.");
                         }
                     }
                     break;
                 case "--output":
                     if (i + 1 < args.length) {
                         String outputArg = args[++i];
+                        outputArgument = outputArg;
                         if (outputArg.equals("console")) {
                             outputStrategy = new ConsoleOutputStrategy();
+                        } else if (outputArg.equals("storage")) {
+                            outputStrategy = new DataStorageOutputStrategy(getInstance().dataStorage);
                         } else if (outputArg.startsWith("file:")) {
                             String baseDirectory = outputArg.substring(5);
                             Path outputPath = Paths.get(baseDirectory);
@@ -164,6 +441,15 @@ public class HealthDataSimulator {
                                 System.err.println(
                                         "Invalid port for WebSocket output. Please specify a valid port number.");
                             }
+                        } else if (outputArg.startsWith("collector:")) {
+                            int colon = outputArg.lastIndexOf(':');
+                            try {
+                                outputStrategy = new CollectorOutputStrategy(outputArg.substring(10, colon),
+                                        Integer.parseInt(outputArg.substring(colon + 1)));
+                            } catch (NumberFormatException | IOException e) {
+                                System.err.println("Cannot connect to collector " + outputArg.substring(10) + ": " + e);
+                                System.exit(1);
+                            }
                         } else if (outputArg.startsWith("tcp:")) {
                             try {
                                 int port = Integer.parseInt(outputArg.substring(4));
@@ -194,37 +480,303 @@ public class HealthDataSimulator {
         System.out.println("  -h                       Show help and exit.");
         System.out.println(
                 "  --patient-count <count>  Specify the number of patients to simulate data for (default: 50).");
+        System.out.println(
+                "  --ecg-rate <hz>          Generate realistic ECG at this sample rate, e.g. 250 or 500 (default: 1 value/s).");
+        System.out.println("  --scheduler <type>       'tick' to run all patients from a few worker threads (default),");
+        System.out.println("                           'virtual' for one virtual thread per patient and output (Java 21+),");
+        System.out.println("                           'executor' for one timer per patient and data type.");
+        System.out.println("  --threads <count>        Worker threads of the tick scheduler (default: one per processor).");
+        System.out.println("  --seed <seed>            Seed of the generated values, to reproduce a run (default: random).");
+        System.out.println("  --speed <factor>         Run in simulated time at this multiple of real time, e.g. 60.");
+        System.out.println("  --as-fast-as-possible    Run in simulated time as fast as the CPU allows.");
+        System.out.println("  --duration <time>        Simulated time to generate, e.g. 90m, 24h or 7d (default: until stopped,");
+        System.out.println("                           or 24h as fast as possible).");
+        System.out.println("  --start <epoch-ms>       Simulated time the data starts at (default: now).");
+        System.out.println("  --patient-range <f>:<l>  Simulate patients f to l only, e.g. 1001:2000.");
+        System.out.println("  --processes <count>      Split the patients over this many processes. With file output each");
+        System.out.println("                           writes its own subdirectory; other output is merged by a collector.");
+        System.out.println("  --collector-port <port>  Port the collector listens on (default: any free port).");
+        System.out.println("  --target-rate <n>        Run as a load generator emitting n samples per second in total,");
+        System.out.println("                           for --duration (default: until stopped), reporting every second.");
+        System.out.println("  --mix <type>=<w>,...     Share of ECG, SATURATION, BLOOD_PRESSURE, BLOOD_LEVELS and ALERT");
+        System.out.println("                           samples under --target-rate (default: as the regular schedule).");
         System.out.println("  --output <type>          Define the output method. Options are:");
         System.out.println("                             'console' for console output,");
         System.out.println("                             'file:<directory>' for file output,");
         System.out.println("                             'websocket:<port>' for WebSocket output,");
-        System.out.println("                             'tcp:<port>' for TCP socket output.");
+        System.out.println("                             'tcp:<port>' for TCP socket output,");
+        System.out.println("                             'collector:<host>:<port>' to stream to a collector,");
+        System.out.println("                             'storage' to add the values to this JVM's DataStorage and");
+        System.out.println("                             print the alerts they raise.");
         System.out.println("Example:");
         System.out.println("  java HealthDataSimulator --patient-count 100 --output websocket:8080");
         System.out.println(
                 "  This command simulates data for 100 patients and sends the output to WebSocket clients connected to port 8080.");
+        System.out.println("  java HealthDataSimulator --patient-count 500 --as-fast-as-possible --duration 24h --output file:data");
+        System.out.println("  This command writes a day of data for 500 patients to files in 'data' as fast as possible.");
+        System.out.println("  java HealthDataSimulator --patient-count 10000 --target-rate 500000 --duration 5m --output tcp:9000");
+        System.out.println("  This command sends 500,000 samples per second to a TCP client for five minutes.");
+    }
+
+    /**
+     * Parses a duration such as {@code 90m}, with a unit of s, m, h or d, or a
+     * plain number of seconds.
+     *
+     * @param value the duration
+     * @return the duration in milliseconds
+     * @throws NumberFormatException if the value is not a positive duration
+     */
+    static long parseDuration(String value) {
+        TimeUnit unit;
+        switch (value.isEmpty() ? ' ' : value.charAt(value.length() - 1)) {
+            case 's':
+                unit = TimeUnit.SECONDS;
+                break;
+            case 'm':
+                unit = TimeUnit.MINUTES;
+                break;
+            case 'h':
+                unit = TimeUnit.HOURS;
+                break;
+            case 'd':
+                unit = TimeUnit.DAYS;
+                break;
+            default:
+                return TimeUnit.SECONDS.toMillis(positive(Long.parseLong(value), value));
+        }
+        return unit.toMillis(positive(Long.parseLong(value.substring(0, value.length() - 1)), value));
+    }
+
+    private static long positive(long duration, String value) {
+        if (duration <= 0) {
+            throw new NumberFormatException("Duration must be positive: " + value);
+        }
+        return duration;
+    }
+
+    /**
+     * Emits samples at the target rate and mix on the wall clock with a
+     * {@link LoadGenerator}, reporting to standard error every second, and
+     * returns after the duration.
+     *
+     * @throws InterruptedException if interrupted before the end
+     */
+    private static void runLoadGenerator() throws InterruptedException {
+        if (processCount > 1) {
+            System.err.println("The load generator runs in one process. Ignoring --processes.");
+        }
+        if (ecgSampleRate > 0) {
+            System.err.println("The load generator emits one ECG value per call. Ignoring --ecg-rate.");
+        }
+        LoadGenerator load = new LoadGenerator(firstPatientId, lastPatientId, workerThreads, targetRate, loadMix, seed,
+                outputStrategy);
+        Runtime.getRuntime().addShutdownHook(new Thread(load::close));
+        load.run(simulationDurationMs, System.err);
+    }
+
+    /**
+     * Registers a generation stage to be stopped by {@link #closeOutput}
+     * before the output is closed, e.g. the threads feeding it or a queue in
+     * front of it that must be drained first.
+     *
+     * @param stage the stage to stop
+     */
+    private static synchronized void closeBeforeOutput(AutoCloseable stage) {
+        stages.add(stage);
+    }
+
+    /**
+     * Evaluates the data added to the storage for alerts as it arrives, each
+     * patient at the cadence of their acuity, and prints the alerts. The
+     * storage only keeps {@link #STORAGE_RETENTION_MS} of each patient's
+     * records, so it stays bounded however long the simulation runs; when
+     * generating faster than evaluation keeps up, older records are skipped.
+     * ECG at a rate QRS detection supports also yields a stored HeartRate
+     * series.
+     *
+     * @param storage the storage the output is added to
+     * @param metrics the metrics to record alert latency in, or {@code null}
+     *                not to track it
+     */
+    private static void startAlertEvaluation(DataStorage storage, LatencyMetrics metrics) {
+        storage.setRecordRetention(STORAGE_RETENTION_MS);
+        AlertDeliveryPipeline deliveryPipeline = new AlertDeliveryPipeline();
+        deliveryPipeline.addSink(new ConsoleAlertSink());
+        deliveryPipeline.start();
+        com.alerts.AlertGenerator alertGenerator =
+                new com.alerts.AlertGenerator(storage, new AlertSuppressor(), deliveryPipeline, new AlertStore(),
+                        metrics);
+        if (ecgSampleRate >= QrsDetector.MIN_SAMPLE_RATE_HZ) {
+            StreamingAlertEngine engine = alertGenerator.getStreamingEngine();
+            engine.register(new HeartRateStrategy(engine, storage, ecgSampleRate));
+        }
+        AcuityScheduler acuityScheduler = new AcuityScheduler(alertGenerator, storage);
+        acuityScheduler.start();
+        closeAfterOutput(acuityScheduler);
+        closeAfterOutput(deliveryPipeline);
+    }
+
+    /**
+     * Registers a stage reading what was output, to be stopped by
+     * {@link #closeOutput} once the output is closed.
+     *
+     * @param consumer the stage to stop
+     */
+    private static synchronized void closeAfterOutput(AutoCloseable consumer) {
+        consumers.add(consumer);
+    }
+
+    /**
+     * Stops the registered generation stages in order, then closes the output
+     * strategy if it holds resources, e.g. flushes a collector connection,
+     * and finally stops the stages reading the output.
+     */
+    private static synchronized void closeOutput() {
+        for (AutoCloseable stage : stages) {
+            try {
+                stage.close();
+            } catch (Exception e) {
+                System.err.println("Error stopping generation: " + e.getMessage());
+            }
+        }
+        stages.clear();
+        if (outputStrategy instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) outputStrategy).close();
+            } catch (Exception e) {
+                System.err.println("Error closing the output: " + e.getMessage());
+            }
+        }
+        for (AutoCloseable consumer : consumers) {
+            try {
+                consumer.close();
+            } catch (Exception e) {
+                System.err.println("Error stopping alert evaluation: " + e.getMessage());
+            }
+        }
+        consumers.clear();
     }
 
     /**
      * Creates a list of patient IDs for the simulation.
      * 
-     * @param patientCount The number of patients to create IDs for
-     * @return A list of patient IDs from 1 to patientCount
+     * @param firstPatientId The first patient ID
+     * @param lastPatientId The last patient ID
+     * @return A list of patient IDs from firstPatientId to lastPatientId
      */
-    private static List<Integer> initializePatientIds(int patientCount) {
+    private static List<Integer> initializePatientIds(int firstPatientId, int lastPatientId) {
         List<Integer> patientIds = new ArrayList<>();
-        for (int i = 1; i <= patientCount; i++) {
+        for (int i = firstPatientId; i <= lastPatientId; i++) {
             patientIds.add(i);
         }
         return patientIds;
     }
 
+    /**
+     * Schedules the same tasks as {@link #scheduleTasksForPatients} on a
+     * {@link TickScheduler}, which runs every patient from a few worker threads.
+     */
+    private static void scheduleTicks() {
+        TickScheduler ticks = newTickScheduler(SimulationClock.SYSTEM);
+        closeBeforeOutput(ticks);
+        ticks.start();
+    }
+
+    /**
+     * Generates data in simulated time on a {@link TickScheduler}, paced at
+     * the simulation speed, and returns once the duration has been generated.
+     * Samples are stamped with the simulated time.
+     *
+     * @throws InterruptedException if interrupted before the end
+     */
+    private static void runSimulation() throws InterruptedException {
+        if (!schedulerType.equals("tick")) {
+            System.err.println("Simulated time is only supported by the tick scheduler. Using it.");
+        }
+        long durationMs = simulationDurationMs;
+        if (durationMs == 0 && simulationSpeed == Double.POSITIVE_INFINITY) {
+            durationMs = DEFAULT_FAST_DURATION_MS;
+        }
+        long tickCount = durationMs == 0 ? Long.MAX_VALUE : durationMs / TickScheduler.DEFAULT_TICK_MS;
+
+        VirtualClock clock = new VirtualClock(simulationStartMs);
+        TickScheduler ticks = newTickScheduler(clock);
+        long started = System.nanoTime();
+        ticks.runSimulated(clock, simulationSpeed, tickCount);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.err.printf("Generated %.1f hours of data for %d patients in %.1f s%n",
+                tickCount * TickScheduler.DEFAULT_TICK_MS / 3_600_000.0, lastPatientId - firstPatientId + 1, seconds);
+    }
+
+    /**
+     * Creates a {@link TickScheduler} with the same tasks as
+     * {@link #scheduleTasksForPatients}, stamping samples with the given clock.
+     * The vital signs are generated in blocks of consecutive patients.
+     *
+     * @param clock the clock samples are stamped with
+     * @return the scheduler, not yet started
+     */
+    private static TickScheduler newTickScheduler(SimulationClock clock) {
+        ECGDataGenerator ecgDataGenerator =
+                new ECGDataGenerator(firstPatientId, lastPatientId, ecgSampleRate, seed, clock);
+        BloodSaturationDataGenerator bloodSaturationDataGenerator =
+                new BloodSaturationDataGenerator(firstPatientId, lastPatientId, seed, clock);
+        BloodPressureDataGenerator bloodPressureDataGenerator =
+                new BloodPressureDataGenerator(firstPatientId, lastPatientId, seed, clock);
+        BloodLevelsDataGenerator bloodLevelsDataGenerator =
+                new BloodLevelsDataGenerator(firstPatientId, lastPatientId, seed, clock);
+        AlertGenerator alertGenerator = new AlertGenerator(firstPatientId, lastPatientId, seed, clock);
+
+        TickScheduler ticks = new TickScheduler(firstPatientId, lastPatientId, workerThreads,
+                TickScheduler.DEFAULT_TICK_MS, seed);
+        ticks.addRangeTask((first, last) -> ecgDataGenerator.generateBlock(first, last, outputStrategy),
+                1, TimeUnit.SECONDS);
+        ticks.addRangeTask((first, last) -> bloodSaturationDataGenerator.generateBlock(first, last, outputStrategy),
+                1, TimeUnit.SECONDS);
+        ticks.addRangeTask((first, last) -> bloodPressureDataGenerator.generateBlock(first, last, outputStrategy),
+                1, TimeUnit.MINUTES);
+        ticks.addRangeTask((first, last) -> bloodLevelsDataGenerator.generateBlock(first, last, outputStrategy),
+                2, TimeUnit.MINUTES);
+        ticks.addTask(patientId -> alertGenerator.generate(patientId, outputStrategy), 20, TimeUnit.SECONDS);
+        return ticks;
+    }
+
+    /**
+     * Runs each patient's generation loop on its own virtual thread, and writes
+     * the output from a virtual thread so that blocking outputs do not hold up
+     * generation. On exit the patients' threads are stopped and the samples
+     * still queued are written before the output is closed.
+     */
+    private static void scheduleVirtualThreads() {
+        ECGDataGenerator ecgDataGenerator =
+                new ECGDataGenerator(firstPatientId, lastPatientId, ecgSampleRate, seed, SimulationClock.SYSTEM);
+        BloodSaturationDataGenerator bloodSaturationDataGenerator =
+                new BloodSaturationDataGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+        BloodPressureDataGenerator bloodPressureDataGenerator =
+                new BloodPressureDataGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+        BloodLevelsDataGenerator bloodLevelsDataGenerator =
+                new BloodLevelsDataGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+        AlertGenerator alertGenerator = new AlertGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+
+        AsyncOutputStrategy output = new AsyncOutputStrategy(outputStrategy, VirtualThreads.factory("output-writer-"));
+        PatientThreadScheduler threads = new PatientThreadScheduler(firstPatientId, lastPatientId,
+                VirtualThreads.factory("patient-"));
+        threads.addTask(patientId -> ecgDataGenerator.generate(patientId, output), 1, TimeUnit.SECONDS);
+        threads.addTask(patientId -> bloodSaturationDataGenerator.generate(patientId, output), 1, TimeUnit.SECONDS);
+        threads.addTask(patientId -> bloodPressureDataGenerator.generate(patientId, output), 1, TimeUnit.MINUTES);
+        threads.addTask(patientId -> bloodLevelsDataGenerator.generate(patientId, output), 2, TimeUnit.MINUTES);
+        threads.addTask(patientId -> alertGenerator.generate(patientId, output), 20, TimeUnit.SECONDS);
+        closeBeforeOutput(threads);
+        closeBeforeOutput(output);
+        threads.start();
+    }
+
     /**
      * Schedules data generation tasks for all patients.
      * 
      * <p>Creates and schedules tasks for:
      * <ul>
-     *   <li>ECG data (every second)</li>
+     *   <li>ECG data (every second, as one block of samples at the ECG rate)</li>
      *   <li>Blood saturation (every second)</li>
      *   <li>Blood pressure (every minute)</li>
      *   <li>Blood levels (every 2 minutes)</li>
@@ -234,11 +786,15 @@ public class HealthDataSimulator {
      * @param patientIds The list of patient IDs to schedule tasks for
      */
     private static void scheduleTasksForPatients(List<Integer> patientIds) {
-        ECGDataGenerator ecgDataGenerator = new ECGDataGenerator(patientCount);
-        BloodSaturationDataGenerator bloodSaturationDataGenerator = new BloodSaturationDataGenerator(patientCount);
-        BloodPressureDataGenerator bloodPressureDataGenerator = new BloodPressureDataGenerator(patientCount);
-        BloodLevelsDataGenerator bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount);
-        AlertGenerator alertGenerator = new AlertGenerator(patientCount);
+        ECGDataGenerator ecgDataGenerator =
+                new ECGDataGenerator(firstPatientId, lastPatientId, ecgSampleRate, seed, SimulationClock.SYSTEM);
+        BloodSaturationDataGenerator bloodSaturationDataGenerator =
+                new BloodSaturationDataGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+        BloodPressureDataGenerator bloodPressureDataGenerator =
+                new BloodPressureDataGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+        BloodLevelsDataGenerator bloodLevelsDataGenerator =
+                new BloodLevelsDataGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+        AlertGenerator alertGenerator = new AlertGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
 
         for (int patientId : patientIds) {
             scheduleTask(() -> ecgDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.SECONDS);
@@ -249,6 +805,19 @@ public class HealthDataSimulator {
         }
     }
 
+    /**
+     * Stops the executor running the generation tasks and waits for the tasks
+     * in progress to complete.
+     */
+    private static void stopScheduler() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Schedules a task to run at fixed intervals.
      * 
@@ -0,0 +1,360 @@
+package com.cardio_generator;
+
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBlock;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Emits samples at a target aggregate rate, in a given mix of record types,
+ * for capacity testing.
+ *
+ * <p>Patients are split into one range per worker thread. Each worker paces
+ * itself with a {@link RateController} at its share of the rate: whenever
+ * samples are due it picks the record type furthest below its share of the
+ * mix and generates it for the next few patients of its range, as a block
+ * where the generator supports it. What the generators actually emitted is
+ * counted on the way to the output and fed back to the controller, so types
+ * that emit more than one sample per patient, or alerts that emit only
+ * sometimes, still add up to the target.</p>
+ *
+ * <p>Every second a line is reported with the achieved against the target
+ * rate, how far the workers are behind schedule, the samples missed because
+ * the backlog grew beyond a second's worth, and the share of the workers' time
+ * spent inside the output, which shows backpressure from the sink.</p>
+ */
+public class LoadGenerator implements AutoCloseable {
+    /** The record types, with the samples one patient emits per call. */
+    public enum RecordType {
+        ECG(1), SATURATION(1), BLOOD_PRESSURE(2), BLOOD_LEVELS(3), ALERT(1);
+
+        final int samplesPerPatient;
+
+        RecordType(int samplesPerPatient) {
+            this.samplesPerPatient = samplesPerPatient;
+        }
+    }
+
+    /**
+     * The mix of the simulator's regular schedule: ECG and saturation every
+     * second, two pressure values a minute, three levels every two minutes
+     * and an alert state change roughly every 200 seconds.
+     */
+    public static final String DEFAULT_MIX = "ECG=1,SATURATION=1,BLOOD_PRESSURE=0.033,BLOOD_LEVELS=0.025,ALERT=0.005";
+
+    /** Most patients generated for in one call. */
+    private static final int MAX_CHUNK = 256;
+
+    private final double targetRate;
+    private final double[] mix;
+    private final OutputStrategy output;
+    private final List<Worker> workers = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final ECGDataGenerator ecg;
+    private final BloodSaturationDataGenerator saturation;
+    private final BloodPressureDataGenerator pressure;
+    private final BloodLevelsDataGenerator levels;
+    private final AlertGenerator alerts;
+    private volatile boolean running;
+
+    /**
+     * Creates a load generator.
+     *
+     * @param firstPatientId the first patient
+     * @param lastPatientId  the last patient, inclusive
+     * @param workerCount    the number of worker threads
+     * @param targetRate     the samples per second to emit in total
+     * @param mix            the share of samples of each record type, by
+     *                       {@link RecordType} ordinal; need not add up to 1
+     * @param seed           the seed of the generators
+     * @param output         the output the samples are written to
+     */
+    public LoadGenerator(int firstPatientId, int lastPatientId, int workerCount, double targetRate, double[] mix,
+            long seed, OutputStrategy output) {
+        if (!(targetRate > 0) || workerCount < 1 || lastPatientId < firstPatientId
+                || mix.length != RecordType.values().length) {
+            throw new IllegalArgumentException("Invalid load: " + targetRate + " samples/s on " + workerCount
+                    + " workers for patients " + firstPatientId + " to " + lastPatientId);
+        }
+        double total = 0;
+        for (double share : mix) {
+            if (share < 0) {
+                throw new IllegalArgumentException("Negative share in mix");
+            }
+            total += share;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Empty mix");
+        }
+        this.mix = new double[mix.length];
+        for (int i = 0; i < mix.length; i++) {
+            this.mix[i] = mix[i] / total;
+        }
+        this.targetRate = targetRate;
+        this.output = output;
+        ecg = new ECGDataGenerator(firstPatientId, lastPatientId, 0, seed, SimulationClock.SYSTEM);
+        saturation = new BloodSaturationDataGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+        pressure = new BloodPressureDataGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+        levels = new BloodLevelsDataGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+        alerts = new AlertGenerator(firstPatientId, lastPatientId, seed, SimulationClock.SYSTEM);
+
+        long patients = (long) lastPatientId - firstPatientId + 1;
+        int count = (int) Math.min(workerCount, patients);
+        for (int i = 0; i < count; i++) {
+            int first = (int) (firstPatientId + patients * i / count);
+            int last = (int) (firstPatientId + patients * (i + 1) / count) - 1;
+            workers.add(new Worker(first, last, targetRate / count));
+        }
+    }
+
+    /**
+     * Parses a mix such as {@code ECG=70,SATURATION=20,ALERT=10}. Types left
+     * out get no share.
+     *
+     * @param value the mix, as record type names with weights
+     * @return the weights by {@link RecordType} ordinal
+     * @throws IllegalArgumentException if a type or weight is invalid
+     */
+    public static double[] parseMix(String value) {
+        double[] mix = new double[RecordType.values().length];
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split("=");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Expected <type>=<weight>: " + part);
+            }
+            RecordType type = RecordType.valueOf(entry[0].trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            mix[type.ordinal()] = Double.parseDouble(entry[1].trim());
+        }
+        return mix;
+    }
+
+    /** Starts the workers. */
+    public synchronized void start() {
+        if (running || !threads.isEmpty()) {
+            throw new IllegalStateException("Load generator already started");
+        }
+        running = true;
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < workers.size(); i++) {
+            Worker worker = workers.get(i);
+            worker.start(startNanos);
+            Thread thread = new Thread(worker::run, "load-worker-" + (i + 1));
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Runs for the given time, reporting every second, then stops.
+     *
+     * @param durationMs how long to run, or 0 to run until interrupted
+     * @param report     where the report lines go
+     * @throws InterruptedException if interrupted
+     */
+    public void run(long durationMs, PrintStream report) throws InterruptedException {
+        start();
+        try {
+            Snapshot previous = snapshot();
+            long second = 0;
+            long started = System.nanoTime();
+            while (durationMs == 0 || TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < durationMs) {
+                long next = started + TimeUnit.SECONDS.toNanos(++second);
+                TimeUnit.NANOSECONDS.sleep(next - System.nanoTime());
+                Snapshot current = snapshot();
+                report.println(second + "s: " + current.since(previous, targetRate));
+                previous = current;
+            }
+            Snapshot total = snapshot();
+            report.println("total: " + total.since(new Snapshot(started), targetRate));
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Returns the counters of all workers now.
+     *
+     * @return the counters
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(System.nanoTime());
+        for (Worker worker : workers) {
+            snapshot.emitted += worker.rate.getEmitted();
+            snapshot.missed += worker.rate.getMissed();
+            snapshot.sinkNanos += worker.sinkNanos;
+            snapshot.lagNanos = Math.max(snapshot.lagNanos, worker.rate.getLagNanos());
+        }
+        snapshot.workers = workers.size();
+        return snapshot;
+    }
+
+    /**
+     * Stops the workers and waits for them to finish. If interrupted while
+     * waiting, returns with the interrupt flag set.
+     */
+    @Override
+    public void close() {
+        running = false;
+        List<Thread> started;
+        synchronized (this) {
+            started = new ArrayList<>(threads);
+        }
+        try {
+            for (Thread thread : started) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Counters of the load generator at one moment. */
+    public static final class Snapshot {
+        final long nanoTime;
+        long emitted;
+        long missed;
+        long sinkNanos;
+        long lagNanos;
+        int workers;
+
+        Snapshot(long nanoTime) {
+            this.nanoTime = nanoTime;
+        }
+
+        public long getEmitted() {
+            return emitted;
+        }
+
+        public long getMissed() {
+            return missed;
+        }
+
+        /** Formats the rates between an earlier snapshot and this one. */
+        String since(Snapshot earlier, double targetRate) {
+            double seconds = (nanoTime - earlier.nanoTime) / 1e9;
+            double achieved = (emitted - earlier.emitted) / seconds;
+            double sinkBusy = workers == 0 ? 0 : (sinkNanos - earlier.sinkNanos) / (seconds * 1e9 * workers);
+            return String.format(Locale.ROOT,
+                    "%,.0f/s of %,.0f/s (%.1f%%), lag %d ms, missed %,d, sink busy %.0f%%%s",
+                    achieved, targetRate, 100 * achieved / targetRate, TimeUnit.NANOSECONDS.toMillis(lagNanos),
+                    missed - earlier.missed, 100 * sinkBusy,
+                    achieved < 0.99 * targetRate ? " - BELOW TARGET" : "");
+        }
+    }
+
+    /** Emits one share of the rate for one range of patients. */
+    private final class Worker implements OutputStrategy {
+        final int first;
+        final int last;
+        final double rateShare;
+        final long[] typeCounts = new long[RecordType.values().length];
+        final int[] cursors = new int[RecordType.values().length];
+        RateController rate;
+        long samples;
+        volatile long sinkNanos;
+
+        Worker(int first, int last, double rateShare) {
+            this.first = first;
+            this.last = last;
+            this.rateShare = rateShare;
+            Arrays.fill(cursors, first);
+        }
+
+        void start(long startNanos) {
+            // Keep at most a second of backlog, and at least one chunk.
+            rate = new RateController(rateShare, Math.max(MAX_CHUNK, (long) rateShare), startNanos);
+        }
+
+        void run() {
+            while (running) {
+                long now = System.nanoTime();
+                long permits = rate.permits(now);
+                if (permits == 0) {
+                    LockSupport.parkNanos(Math.min(rate.nanosUntilNext(now), TimeUnit.MILLISECONDS.toNanos(1)));
+                    continue;
+                }
+                long before = samples;
+                while (samples - before < permits && running) {
+                    emit(nextType(), permits - (samples - before));
+                }
+                rate.emitted(samples - before);
+            }
+        }
+
+        /** Returns the record type furthest below its share of what was emitted. */
+        RecordType nextType() {
+            long total = 0;
+            for (long count : typeCounts) {
+                total += count;
+            }
+            RecordType next = null;
+            double largestDeficit = Double.NEGATIVE_INFINITY;
+            for (RecordType type : RecordType.values()) {
+                double deficit = mix[type.ordinal()] * (total + 1) - typeCounts[type.ordinal()];
+                if (mix[type.ordinal()] > 0 && deficit > largestDeficit) {
+                    largestDeficit = deficit;
+                    next = type;
+                }
+            }
+            return next;
+        }
+
+        /** Generates a type for the next patients of the range, aiming at the given number of samples. */
+        void emit(RecordType type, long wanted) {
+            int cursor = cursors[type.ordinal()];
+            long patients = (wanted + type.samplesPerPatient - 1) / type.samplesPerPatient;
+            int chunkLast = (int) Math.min(last, cursor + Math.min(MAX_CHUNK, patients) - 1);
+            cursors[type.ordinal()] = chunkLast == last ? first : chunkLast + 1;
+
+            long before = samples;
+            switch (type) {
+                case ECG:
+                    ecg.generateBlock(cursor, chunkLast, this);
+                    break;
+                case SATURATION:
+                    saturation.generateBlock(cursor, chunkLast, this);
+                    break;
+                case BLOOD_PRESSURE:
+                    pressure.generateBlock(cursor, chunkLast, this);
+                    break;
+                case BLOOD_LEVELS:
+                    levels.generateBlock(cursor, chunkLast, this);
+                    break;
+                default:
+                    for (int patientId = cursor; patientId <= chunkLast; patientId++) {
+                        alerts.generate(patientId, this);
+                    }
+                    break;
+            }
+            // Alerts may emit nothing; count the attempt so that other types get their turn.
+            typeCounts[type.ordinal()] += Math.max(1, samples - before);
+        }
+
+        @Override
+        public void output(int patientId, long timestamp, String label, String data) {
+            long start = System.nanoTime();
+            output.output(patientId, timestamp, label, data);
+            sinkNanos += System.nanoTime() - start;
+            samples++;
+        }
+
+        @Override
+        public void outputBlock(SampleBlock block) {
+            long start = System.nanoTime();
+            output.outputBlock(block);
+            sinkNanos += System.nanoTime() - start;
+            samples += block.size();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.cardio_generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs periodic per-patient tasks with one thread per patient, meant for
+ * virtual threads.
+ *
+ * <p>Each patient's thread loops over its own schedule: it sleeps until the
+ * earliest task is due, runs every task that is, and moves each one period
+ * on. Tasks start at a random phase within their period, as in
+ * {@link TickScheduler}, and a thread that falls behind runs the missed periods
+ * back to back. A task that blocks, e.g. on a slow output, only holds up its
+ * own patient; with virtual threads it does not hold a platform thread
+ * either.</p>
+ *
+ * <p>Tasks run on the patient's thread only, so they may keep per-patient
+ * state without synchronization. An exception thrown by a task is reported
+ * and does not stop the patient's loop.</p>
+ */
+public class PatientThreadScheduler implements AutoCloseable {
+    private final int firstPatientId;
+    private final int lastPatientId;
+    private final ThreadFactory threadFactory;
+    private final List<IntConsumer> tasks = new ArrayList<>();
+    private final List<Long> periodsMs = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * Creates a scheduler for patients 1 to {@code patientCount}.
+     *
+     * @param patientCount  the number of patients
+     * @param threadFactory creates the thread of each patient, e.g.
+     *                      {@link VirtualThreads#factory}
+     */
+    public PatientThreadScheduler(int patientCount, ThreadFactory threadFactory) {
+        this(1, patientCount, threadFactory);
+    }
+
+    /**
+     * Creates a scheduler for patients {@code firstPatientId} to
+     * {@code lastPatientId}.
+     *
+     * @param firstPatientId the first patient
+     * @param lastPatientId  the last patient, inclusive
+     * @param threadFactory  creates the thread of each patient
+     */
+    public PatientThreadScheduler(int firstPatientId, int lastPatientId, ThreadFactory threadFactory) {
+        this.firstPatientId = firstPatientId;
+        this.lastPatientId = lastPatientId;
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Adds a task to run for every patient once per period. Must be called
+     * before {@link #start}.
+     *
+     * @param task     the task, given the patient ID
+     * @param period   the time between runs for one patient
+     * @param timeUnit the unit of the period
+     */
+    public synchronized void addTask(IntConsumer task, long period, TimeUnit timeUnit) {
+        if (running) {
+            throw new IllegalStateException("Tasks must be added before the scheduler starts");
+        }
+        tasks.add(task);
+        periodsMs.add(Math.max(1, timeUnit.toMillis(period)));
+    }
+
+    /** Starts one thread per patient. */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Scheduler already started");
+        }
+        running = true;
+        IntConsumer[] taskArray = tasks.toArray(new IntConsumer[0]);
+        long[] periods = new long[periodsMs.size()];
+        for (int i = 0; i < periods.length; i++) {
+            periods[i] = periodsMs.get(i);
+        }
+        for (int patientId = firstPatientId; patientId <= lastPatientId; patientId++) {
+            int id = patientId;
+            Thread thread = threadFactory.newThread(() -> runPatient(id, taskArray, periods));
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops every patient's thread and waits for them to finish the tasks in
+     * progress. If interrupted while waiting, returns with the interrupt flag
+     * set, leaving the remaining threads to stop on their own.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        threads.clear();
+    }
+
+    private void runPatient(int patientId, IntConsumer[] tasks, long[] periods) {
+        long[] next = new long[tasks.length];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < next.length; i++) {
+            next[i] = now + ThreadLocalRandom.current().nextLong(periods[i]);
+        }
+        while (running) {
+            long earliest = Long.MAX_VALUE;
+            for (long due : next) {
+                earliest = Math.min(earliest, due);
+            }
+            long wait = earliest - System.currentTimeMillis();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            now = System.currentTimeMillis();
+            for (int i = 0; i < tasks.length && running; i++) {
+                if (next[i] <= now) {
+                    try {
+                        tasks[i].accept(patientId);
+                    } catch (RuntimeException e) {
+                        System.err.println("Task failed for patient " + patientId + ": " + e);
+                    }
+                    next[i] += periods[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.cardio_generator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces emission at a target rate, closing the loop on what was actually
+ * emitted.
+ *
+ * <p>The controller tracks how many samples are due since it started and how
+ * many have been accounted for. {@link #permits} returns the difference, and
+ * the caller reports what it really emitted with {@link #emitted}, so a call
+ * that produced more or fewer samples than asked for is made up on the next
+ * round. When the emitter falls behind, the backlog is kept up to a limit;
+ * samples beyond it are counted as missed and not caught up, so a stalled sink
+ * does not cause a burst far above the target rate once it recovers.</p>
+ *
+ * <p>A controller is used by one thread; its counters may be read by others.</p>
+ */
+public class RateController {
+    private final double samplesPerNano;
+    private final long maxBacklog;
+    private final long startNanos;
+    private long accounted;
+    private volatile long emitted;
+    private volatile long missed;
+    private volatile long lagNanos;
+
+    /**
+     * Creates a controller starting now.
+     *
+     * @param ratePerSecond the target rate in samples per second
+     * @param maxBacklog    the most samples that may be behind schedule
+     * @param startNanos    the {@link System#nanoTime} the schedule starts at
+     */
+    public RateController(double ratePerSecond, long maxBacklog, long startNanos) {
+        if (!(ratePerSecond > 0) || maxBacklog < 1) {
+            throw new IllegalArgumentException("Invalid rate " + ratePerSecond + " or backlog " + maxBacklog);
+        }
+        this.samplesPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxBacklog = maxBacklog;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Returns how many samples are due and not yet emitted, and updates the
+     * lag and the missed samples.
+     *
+     * @param nowNanos the current {@link System#nanoTime}
+     * @return the number of samples to emit now, 0 if on schedule
+     */
+    public long permits(long nowNanos) {
+        long due = (long) ((nowNanos - startNanos) * samplesPerNano);
+        long backlog = due - accounted;
+        if (backlog > maxBacklog) {
+            missed += backlog - maxBacklog;
+            accounted += backlog - maxBacklog;
+            backlog = maxBacklog;
+        }
+        lagNanos = backlog > 1 ? (long) (backlog / samplesPerNano) : 0;
+        return Math.max(0, backlog);
+    }
+
+    /**
+     * Returns the time until the next sample is due.
+     *
+     * @param nowNanos the current {@link System#nanoTime}
+     * @return the nanoseconds to wait, at least 1
+     */
+    public long nanosUntilNext(long nowNanos) {
+        long dueAt = startNanos + (long) ((accounted + 1) / samplesPerNano);
+        return Math.max(1, dueAt - nowNanos);
+    }
+
+    /**
+     * Accounts for samples that were emitted.
+     *
+     * @param count the number of samples
+     */
+    public void emitted(long count) {
+        accounted += count;
+        emitted += count;
+    }
+
+    public long getEmitted() {
+        return emitted;
+    }
+
+    /** Returns the samples dropped from the backlog because the emitter fell too far behind. */
+    public long getMissed() {
+        return missed;
+    }
+
+    /** Returns how far emission was behind schedule at the last {@link #permits} call. */
+    public long getLagNanos() {
+        return lagNanos;
+    }
+}
@@ -0,0 +1,22 @@
+package com.cardio_generator;
+
+/**
+ * The time generators stamp their samples with.
+ *
+ * <p>The simulator normally runs on {@link #SYSTEM}, the wall clock. In
+ * simulated time it runs on a {@link VirtualClock} that the
+ * {@link TickScheduler} moves on tick by tick, so that samples carry the
+ * time they were simulated at however fast they are generated.</p>
+ */
+@FunctionalInterface
+public interface SimulationClock {
+    /** The wall clock. */
+    SimulationClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Returns the current time.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    long currentTimeMillis();
+}
@@ -0,0 +1,148 @@
+package com.cardio_generator;
+
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the simulator as several local processes, each owning a disjoint range
+ * of patients, to use more cores and memory than one JVM can.
+ *
+ * <p>Every process is started with the launcher's arguments, its own
+ * {@code --patient-range} and the launcher's seed; patients keep their IDs and
+ * random streams, so together the processes generate the same values as one
+ * process would. With file output each process writes its own directory,
+ * {@code <directory>/patients-<first>-<last>}. Any other output is merged: the
+ * processes stream their data to a {@link StreamCollector}, which writes it to
+ * the launcher's output.</p>
+ */
+public class SimulatorLauncher {
+    /** Options, each taking one value, that the launcher sets itself for each process. */
+    private static final List<String> REPLACED_OPTIONS =
+            Arrays.asList("--processes", "--patient-count", "--patient-range", "--output", "--seed", "--collector-port");
+
+    private final String[] arguments;
+    private final int firstPatientId;
+    private final int lastPatientId;
+    private final int processCount;
+    private final long seed;
+    private final String outputArgument;
+    private final OutputStrategy output;
+    private final int collectorPort;
+
+    /**
+     * Creates a launcher.
+     *
+     * @param arguments      the simulator's command-line arguments
+     * @param firstPatientId the first patient to simulate
+     * @param lastPatientId  the last patient to simulate, inclusive
+     * @param processCount   the number of processes
+     * @param seed           the seed every process is given
+     * @param outputArgument the value of {@code --output}
+     * @param output         the output the collector writes to, unless the
+     *                       output is a file directory
+     * @param collectorPort  the port of the collector, or 0 for any free port
+     */
+    public SimulatorLauncher(String[] arguments, int firstPatientId, int lastPatientId, int processCount, long seed,
+            String outputArgument, OutputStrategy output, int collectorPort) {
+        this.arguments = arguments.clone();
+        this.firstPatientId = firstPatientId;
+        this.lastPatientId = lastPatientId;
+        this.processCount = processCount;
+        this.seed = seed;
+        this.outputArgument = outputArgument;
+        this.output = output;
+        this.collectorPort = collectorPort;
+    }
+
+    /**
+     * Splits patients into ranges differing in size by at most one patient.
+     *
+     * @param firstPatientId the first patient
+     * @param lastPatientId  the last patient, inclusive
+     * @param parts          the number of ranges
+     * @return the first and last patient of each non-empty range, in order
+     */
+    static List<int[]> partition(int firstPatientId, int lastPatientId, int parts) {
+        long count = (long) lastPatientId - firstPatientId + 1;
+        List<int[]> ranges = new ArrayList<>();
+        for (int i = 0; i < parts; i++) {
+            int first = (int) (firstPatientId + count * i / parts);
+            int last = (int) (firstPatientId + count * (i + 1) / parts) - 1;
+            if (first <= last) {
+                ranges.add(new int[] {first, last});
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns the arguments of the process simulating one range.
+     *
+     * @param range  the first and last patient of the process
+     * @param output the process's {@code --output} value
+     * @return the arguments
+     */
+    List<String> processArguments(int[] range, String output) {
+        List<String> result = new ArrayList<>();
+        boolean threadsGiven = false;
+        for (int i = 0; i < arguments.length; i++) {
+            if (REPLACED_OPTIONS.contains(arguments[i])) {
+                i++; // skip the value
+                continue;
+            }
+            threadsGiven |= arguments[i].equals("--threads");
+            result.add(arguments[i]);
+        }
+        if (!threadsGiven) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / processCount);
+            result.addAll(Arrays.asList("--threads", Integer.toString(threads)));
+        }
+        result.addAll(Arrays.asList("--patient-range", range[0] + ":" + range[1], "--seed", Long.toString(seed),
+                "--output", output));
+        return result;
+    }
+
+    /**
+     * Starts the processes and waits for them to exit. The processes are
+     * stopped if the launcher is.
+     *
+     * @return the highest exit code of the processes
+     * @throws IOException          if a process or the collector cannot be started
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int run() throws IOException, InterruptedException {
+        boolean toFiles = outputArgument.startsWith("file:");
+        StreamCollector collector = toFiles ? null : new StreamCollector(collectorPort, output);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> processes.forEach(Process::destroy)));
+
+        for (int[] range : partition(firstPatientId, lastPatientId, processCount)) {
+            String processOutput = toFiles
+                    ? outputArgument + "/patients-" + range[0] + "-" + range[1]
+                    : "collector:localhost:" + collector.getPort();
+            List<String> command = new ArrayList<>(Arrays.asList(java, "-cp", System.getProperty("java.class.path"),
+                    HealthDataSimulator.class.getName()));
+            command.addAll(processArguments(range, processOutput));
+            processes.add(new ProcessBuilder(command).inheritIO().start());
+            System.err.println("Started patients " + range[0] + " to " + range[1] + " as process "
+                    + processes.get(processes.size() - 1).pid());
+        }
+
+        int exitCode = 0;
+        for (Process process : processes) {
+            exitCode = Math.max(exitCode, process.waitFor());
+        }
+        if (collector != null) {
+            collector.close();
+            System.err.println("Collected " + collector.getLineCount() + " values from " + processes.size()
+                    + " processes");
+        }
+        return exitCode;
+    }
+}
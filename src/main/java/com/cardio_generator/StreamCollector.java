@@ -0,0 +1,123 @@
+package com.cardio_generator;
+
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merges the data streamed by several simulator processes into one output
+ * strategy.
+ *
+ * <p>The collector listens on a TCP port. Every simulator that connects, with
+ * a {@link com.cardio_generator.outputs.CollectorOutputStrategy}, gets a
+ * reader thread that parses its "patientId,timestamp,label,data" lines and
+ * passes them to the output strategy, so the output must accept calls from
+ * several threads, as every strategy of the simulator does. Lines from
+ * different simulators are interleaved as they arrive; the simulators may run
+ * on this machine or on others.</p>
+ */
+public class StreamCollector implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final OutputStrategy output;
+    private final List<Thread> readers = new ArrayList<>();
+    private final AtomicLong lines = new AtomicLong();
+    private final Thread acceptor;
+
+    /**
+     * Starts listening and accepting simulators.
+     *
+     * @param port   the port to listen on, or 0 for any free port
+     * @param output the strategy the merged data is written to
+     * @throws IOException if the port cannot be opened
+     */
+    public StreamCollector(int port, OutputStrategy output) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.output = output;
+        this.acceptor = new Thread(this::accept, "collector-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Returns the number of lines collected so far. */
+    public long getLineCount() {
+        return lines.get();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread reader = new Thread(() -> read(socket), "collector-read-" + socket.getPort());
+                synchronized (readers) {
+                    readers.add(reader);
+                }
+                reader.start();
+            } catch (SocketException e) {
+                return; // closed
+            } catch (IOException e) {
+                System.err.println("Error accepting a simulator: " + e.getMessage());
+            }
+        }
+    }
+
+    private void read(Socket socket) {
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(",", 4);
+                if (fields.length < 4) {
+                    System.err.println("Skipping malformed line from " + socket.getRemoteSocketAddress() + ": " + line);
+                    continue;
+                }
+                try {
+                    output.output(Integer.parseInt(fields[0]), Long.parseLong(fields[1]), fields[2], fields[3]);
+                    lines.incrementAndGet();
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping malformed line from " + socket.getRemoteSocketAddress() + ": " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Lost simulator " + socket.getRemoteSocketAddress() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops accepting simulators and waits until every connected one has
+     * closed its stream and its data has been written. If interrupted while
+     * waiting, returns with the interrupt flag set.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the collector: " + e.getMessage());
+        }
+        try {
+            acceptor.join();
+            List<Thread> connected;
+            synchronized (readers) {
+                connected = new ArrayList<>(readers);
+            }
+            for (Thread reader : connected) {
+                reader.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
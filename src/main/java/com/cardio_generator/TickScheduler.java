@@ -0,0 +1,374 @@
+package com.cardio_generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs periodic per-patient tasks from a few worker threads, driven by a
+ * fixed tick.
+ *
+ * <p>Patients are split into shards of consecutive IDs, one per worker. Each
+ * shard keeps, for every task, a timer wheel with one slot per tick of the
+ * task's period; a patient sits in the slot of its phase, drawn at random so
+ * that the load of a task is spread evenly over its period. On each tick a
+ * worker looks up the current slot of every task and runs the task over the
+ * patients in it in a tight loop. Patients never move between slots, so a
+ * tick costs nothing beyond the tasks that are due, and however many patients
+ * are simulated there is one timer entry per shard.</p>
+ *
+ * <p>Tasks added with {@link #addRangeTask} are instead given, on each tick,
+ * a range of consecutive patients: a shard's patients are cut into one range
+ * per tick of the period, so that the task can run over them in a single loop
+ * on its primitive arrays, as a {@link com.cardio_generator.generators.BlockDataGenerator}
+ * does.</p>
+ *
+ * <p>A shard is ticked by one worker at a time, and each tick sees the writes
+ * of the previous one, so tasks may keep per-patient state without
+ * synchronization. Workers that fall behind run the missed ticks back to back.
+ * An exception thrown by a task is reported and does not stop the other
+ * patients or later ticks.</p>
+ *
+ * <p>Instead of on the wall clock, the scheduler can also run in simulated
+ * time with {@link #runSimulated}: the shards then tick in lockstep, and
+ * between ticks a {@link VirtualClock} is moved on by one tick, either paced
+ * at a multiple of real time or as fast as the workers go.</p>
+ */
+public class TickScheduler implements AutoCloseable {
+    /** Default time between ticks. */
+    public static final long DEFAULT_TICK_MS = 100;
+
+    private final Random random;
+    private final long tickMs;
+    private final List<Shard> shards = new ArrayList<>();
+    private ScheduledExecutorService workers;
+    private List<Thread> simulation;
+
+    /**
+     * Creates a scheduler for patients 1 to {@code patientCount}.
+     *
+     * @param patientCount the number of patients
+     * @param shardCount   the number of worker threads, each owning a range of
+     *                     patients
+     * @param tickMs       the time between ticks, in milliseconds
+     */
+    public TickScheduler(int patientCount, int shardCount, long tickMs) {
+        this(patientCount, shardCount, tickMs, new Random().nextLong());
+    }
+
+    /**
+     * Creates a scheduler whose patients' phases are drawn from the given
+     * seed, so that in simulated time the same tasks run at the same times.
+     *
+     * @param patientCount the number of patients
+     * @param shardCount   the number of worker threads
+     * @param tickMs       the time between ticks, in milliseconds
+     * @param seed         the seed of the phases
+     */
+    public TickScheduler(int patientCount, int shardCount, long tickMs, long seed) {
+        this(1, patientCount, shardCount, tickMs, seed);
+    }
+
+    /**
+     * Creates a scheduler for patients {@code firstPatientId} to
+     * {@code lastPatientId}, e.g. the range of one of several simulator
+     * processes.
+     *
+     * @param firstPatientId the first patient
+     * @param lastPatientId  the last patient, inclusive
+     * @param shardCount     the number of worker threads
+     * @param tickMs         the time between ticks, in milliseconds
+     * @param seed           the seed of the phases
+     */
+    public TickScheduler(int firstPatientId, int lastPatientId, int shardCount, long tickMs, long seed) {
+        int patientCount = lastPatientId - firstPatientId + 1;
+        if (firstPatientId < 1 || patientCount < 0 || shardCount <= 0 || tickMs <= 0) {
+            throw new IllegalArgumentException("Invalid scheduler size: patients " + firstPatientId + " to "
+                    + lastPatientId + ", " + shardCount + " shards, " + tickMs + " ms ticks");
+        }
+        this.tickMs = tickMs;
+        this.random = new Random(seed);
+        int shardSize = (patientCount + shardCount - 1) / shardCount;
+        for (int first = firstPatientId; first <= lastPatientId; first += shardSize) {
+            shards.add(new Shard(first, Math.min(lastPatientId, first + shardSize - 1)));
+        }
+    }
+
+    /**
+     * Adds a task to run for every patient once per period. Must be called
+     * before {@link #start}.
+     *
+     * @param task     the task, given the patient ID
+     * @param period   the time between runs for one patient; rounded to whole
+     *                 ticks, at least one
+     * @param timeUnit the unit of the period
+     */
+    public synchronized void addTask(IntConsumer task, long period, TimeUnit timeUnit) {
+        if (workers != null || simulation != null) {
+            throw new IllegalStateException("Tasks must be added before the scheduler starts");
+        }
+        int periodTicks = (int) Math.max(1, Math.round((double) timeUnit.toMillis(period) / tickMs));
+        for (Shard shard : shards) {
+            shard.wheels.add(new TaskWheel(task, periodTicks, shard.first, shard.last, random));
+        }
+    }
+
+    /**
+     * Adds a task to run over every patient once per period, given a range of
+     * patients at a time. Must be called before {@link #start}.
+     *
+     * @param task     the task, given the first and last patient of a range
+     * @param period   the time between runs for one patient; rounded to whole
+     *                 ticks, at least one
+     * @param timeUnit the unit of the period
+     */
+    public synchronized void addRangeTask(RangeTask task, long period, TimeUnit timeUnit) {
+        if (workers != null || simulation != null) {
+            throw new IllegalStateException("Tasks must be added before the scheduler starts");
+        }
+        int periodTicks = (int) Math.max(1, Math.round((double) timeUnit.toMillis(period) / tickMs));
+        for (Shard shard : shards) {
+            shard.wheels.add(new RangeWheel(task, periodTicks, shard.first, shard.last));
+        }
+    }
+
+    /** A task run over a range of consecutive patients. */
+    @FunctionalInterface
+    public interface RangeTask {
+        /**
+         * Runs the task for patients {@code firstPatientId} to
+         * {@code lastPatientId}, inclusive.
+         *
+         * @param firstPatientId the first patient of the range
+         * @param lastPatientId  the last patient of the range
+         */
+        void run(int firstPatientId, int lastPatientId);
+    }
+
+    /** Starts one worker per shard, ticking at the tick interval. */
+    public synchronized void start() {
+        if (workers != null || simulation != null) {
+            throw new IllegalStateException("Scheduler already started");
+        }
+        workers = Executors.newScheduledThreadPool(Math.max(1, shards.size()), new WorkerThreadFactory());
+        for (Shard shard : shards) {
+            workers.scheduleAtFixedRate(shard::tick, 0, tickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs the given number of ticks in simulated time on one worker per
+     * shard, and returns once they have run.
+     *
+     * <p>The clock shows the time of a tick while it runs, starting from the
+     * clock's current time and moving on by the tick interval after every
+     * shard has finished the tick. With a finite speed, tick {@code n} starts
+     * no earlier than {@code n * tickMs / speed} milliseconds after the call;
+     * with {@link Double#POSITIVE_INFINITY} the ticks run back to back.</p>
+     *
+     * @param clock the clock the tasks read the time from
+     * @param speed simulated milliseconds per real millisecond, positive
+     * @param ticks the number of ticks to run
+     * @throws InterruptedException if interrupted or closed before the ticks
+     *                              have run
+     */
+    public void runSimulated(VirtualClock clock, double speed, long ticks) throws InterruptedException {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be positive: " + speed);
+        }
+        long startTime = clock.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        long[] completed = new long[1];
+        CyclicBarrier barrier = new CyclicBarrier(Math.max(1, shards.size()), () -> {
+            // Runs on the last worker to finish a tick, before any starts the next.
+            long tick = ++completed[0];
+            clock.set(startTime + tick * tickMs);
+            if (speed != Double.POSITIVE_INFINITY && tick < ticks) {
+                long due = startNanos + (long) (tick * tickMs * 1_000_000 / speed);
+                for (long wait; (wait = due - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted(); ) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+        });
+
+        List<Thread> threads = new ArrayList<>();
+        synchronized (this) {
+            if (workers != null || simulation != null) {
+                throw new IllegalStateException("Scheduler already started");
+            }
+            simulation = threads;
+            WorkerThreadFactory threadFactory = new WorkerThreadFactory();
+            for (Shard shard : shards) {
+                threads.add(threadFactory.newThread(() -> runLockstep(shard, barrier, ticks)));
+            }
+            threads.forEach(Thread::start);
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } finally {
+            close();
+        }
+        if (completed[0] < ticks && !shards.isEmpty()) {
+            throw new InterruptedException("Simulation stopped after " + completed[0] + " of " + ticks + " ticks");
+        }
+    }
+
+    private static void runLockstep(Shard shard, CyclicBarrier barrier, long ticks) {
+        try {
+            for (long i = 0; i < ticks; i++) {
+                shard.tick();
+                barrier.await();
+            }
+        } catch (InterruptedException | BrokenBarrierException e) {
+            // Closed, or another worker was: stop with the other shards.
+            barrier.reset();
+        }
+    }
+
+    /** Stops the workers and waits for the ticks in progress to complete. */
+    @Override
+    public synchronized void close() {
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (simulation != null) {
+            simulation.forEach(Thread::interrupt);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public long getTickMillis() {
+        return tickMs;
+    }
+
+    /** Runs the given number of ticks on the calling thread, one shard after the other. */
+    void runTicks(int count) {
+        for (int i = 0; i < count; i++) {
+            for (Shard shard : shards) {
+                shard.tick();
+            }
+        }
+    }
+
+    /** A range of patients and the wheels of their tasks, ticked by one worker. */
+    private static final class Shard {
+        final int first;
+        final int last;
+        final List<Wheel> wheels = new ArrayList<>();
+        long tick;
+
+        Shard(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        void tick() {
+            long current = tick++;
+            for (int w = 0; w < wheels.size(); w++) {
+                wheels.get(w).run(current);
+            }
+        }
+    }
+
+    /** A task's schedule over the patients of one shard. */
+    private interface Wheel {
+        void run(long tick);
+    }
+
+    /** The patients of one shard due for a task, by tick within the task's period. */
+    private static final class TaskWheel implements Wheel {
+        final IntConsumer task;
+        final int[][] slots;
+
+        TaskWheel(IntConsumer task, int periodTicks, int first, int last, Random random) {
+            this.task = task;
+            int[] phases = new int[last - first + 1];
+            int[] counts = new int[periodTicks];
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = random.nextInt(periodTicks);
+                counts[phases[i]]++;
+            }
+            slots = new int[periodTicks][];
+            for (int s = 0; s < periodTicks; s++) {
+                slots[s] = new int[counts[s]];
+                counts[s] = 0;
+            }
+            for (int i = 0; i < phases.length; i++) {
+                slots[phases[i]][counts[phases[i]]++] = first + i;
+            }
+        }
+
+        @Override
+        public void run(long tick) {
+            int[] due = slots[(int) (tick % slots.length)];
+            for (int patientId : due) {
+                try {
+                    task.accept(patientId);
+                } catch (RuntimeException e) {
+                    System.err.println("Task failed for patient " + patientId + ": " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The range of a shard's patients due for a range task, by tick within
+     * the task's period. Ranges differ in size by at most one patient.
+     */
+    private static final class RangeWheel implements Wheel {
+        final RangeTask task;
+        final int[] firsts;
+
+        RangeWheel(RangeTask task, int periodTicks, int first, int last) {
+            this.task = task;
+            int count = last - first + 1;
+            firsts = new int[periodTicks + 1];
+            for (int s = 0; s <= periodTicks; s++) {
+                firsts[s] = first + (int) ((long) s * count / periodTicks);
+            }
+        }
+
+        @Override
+        public void run(long tick) {
+            int slot = (int) (tick % (firsts.length - 1));
+            int first = firsts[slot];
+            int last = firsts[slot + 1] - 1;
+            if (first > last) {
+                return;
+            }
+            try {
+                task.run(first, last);
+            } catch (RuntimeException e) {
+                System.err.println("Task failed for patients " + first + " to " + last + ": " + e);
+            }
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "tick-worker-" + count.incrementAndGet());
+        }
+    }
+}
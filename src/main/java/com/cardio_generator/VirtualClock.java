@@ -0,0 +1,34 @@
+package com.cardio_generator;
+
+/**
+ * A clock that only moves when it is set, for simulated time.
+ *
+ * <p>The time is a volatile field, so a time set by one thread is read by
+ * tasks on any other.</p>
+ */
+public class VirtualClock implements SimulationClock {
+    private volatile long currentTimeMillis;
+
+    /**
+     * Creates a clock showing the given time.
+     *
+     * @param startTimeMillis the time in milliseconds since the epoch
+     */
+    public VirtualClock(long startTimeMillis) {
+        this.currentTimeMillis = startTimeMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    /**
+     * Sets the time.
+     *
+     * @param timeMillis the time in milliseconds since the epoch
+     */
+    public void set(long timeMillis) {
+        currentTimeMillis = timeMillis;
+    }
+}
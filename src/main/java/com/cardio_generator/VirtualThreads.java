@@ -0,0 +1,76 @@
+package com.cardio_generator;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads when running on Java 21 or later.
+ *
+ * <p>The project is compiled for Java 11, so the virtual thread API is looked
+ * up reflectively once; on older runtimes {@link #isSupported} returns false
+ * and callers fall back to platform threads.</p>
+ */
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL = lookup("java.lang.Thread", "ofVirtual");
+    private static final Method NAME = lookup("java.lang.Thread$Builder", "name", String.class, long.class);
+    private static final Method FACTORY = lookup("java.lang.Thread$Builder", "factory");
+    private static final Method IS_VIRTUAL = lookup("java.lang.Thread", "isVirtual");
+
+    private VirtualThreads() {
+    }
+
+    private static Method lookup(String className, String methodName, Class<?>... parameterTypes) {
+        try {
+            return Class.forName(className).getMethod(methodName, parameterTypes);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the runtime supports virtual threads.
+     *
+     * @return true on Java 21 or later
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && NAME != null && FACTORY != null;
+    }
+
+    /**
+     * Returns a factory of virtual threads named {@code prefix0},
+     * {@code prefix1} and so on.
+     *
+     * @param prefix the thread name prefix
+     * @return the thread factory
+     * @throws UnsupportedOperationException if the runtime has no virtual threads
+     */
+    public static ThreadFactory factory(String prefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later, running on "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not accessible", e);
+        }
+    }
+
+    /**
+     * Returns whether a thread is virtual.
+     *
+     * @param thread the thread
+     * @return true if the thread is a virtual thread
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
+import com.cardio_generator.SimulationClock;
 import com.cardio_generator.outputs.OutputStrategy;
 
 /**
@@ -13,18 +12,24 @@ import com.cardio_generator.outputs.OutputStrategy;
  */
 public class AlertGenerator implements PatientDataGenerator {
 
-    /** Random number generator for determining alert states. */
-    private static final Random RANDOM_GENERATOR = new Random();
-    
     /** Probability that an active alert will be resolved in the next period. */
     private static final double ALERT_RESOLUTION_PROBABILITY = 0.9;
     
     /** Average rate of alert triggers per period. */
     private static final double ALERT_TRIGGER_RATE = 0.1;
     
-    /** Array tracking alert states for each patient. */
+    /** Array tracking alert states for each patient, indexed from the first patient. */
     private final boolean[] alertStates; // false = resolved, true = pressed
 
+    /** The first patient alerts are generated for. */
+    private final int firstPatientId;
+
+    /** Random number streams for determining alert states, one per patient. */
+    private final PatientRandom random;
+
+    /** Clock the alerts are stamped with. */
+    private final SimulationClock clock;
+
     /**
      * Creates a new alert generator for the specified number of patients.
      *
@@ -32,7 +37,45 @@ public class AlertGenerator implements PatientDataGenerator {
      * @throws IllegalArgumentException if patientCount is less than 1
      */
     public AlertGenerator(int patientCount) {
-        alertStates = new boolean[patientCount + 1];
+        this(patientCount, PatientRandom.randomSeed());
+    }
+
+    /**
+     * Creates a new alert generator whose alerts are reproduced by the same seed.
+     *
+     * @param patientCount the number of patients to generate alerts for
+     * @param seed the seed of the random number streams
+     */
+    public AlertGenerator(int patientCount, long seed) {
+        this(patientCount, seed, SimulationClock.SYSTEM);
+    }
+
+    /**
+     * Creates a new alert generator stamping alerts with the given clock.
+     *
+     * @param patientCount the number of patients to generate alerts for
+     * @param seed the seed of the random number streams
+     * @param clock the clock alerts are stamped with
+     */
+    public AlertGenerator(int patientCount, long seed, SimulationClock clock) {
+        this(1, patientCount, seed, clock);
+    }
+
+    /**
+     * Creates a new alert generator for a range of patients, stamping alerts
+     * with the given clock. A patient's alerts are the same whichever range
+     * it is generated in.
+     *
+     * @param firstPatientId the first patient to generate alerts for
+     * @param lastPatientId the last patient to generate alerts for, inclusive
+     * @param seed the seed of the random number streams
+     * @param clock the clock alerts are stamped with
+     */
+    public AlertGenerator(int firstPatientId, int lastPatientId, long seed, SimulationClock clock) {
+        this.firstPatientId = firstPatientId;
+        alertStates = new boolean[Math.max(0, lastPatientId - firstPatientId + 1)];
+        random = new PatientRandom(seed, "Alert", firstPatientId, lastPatientId);
+        this.clock = clock;
     }
 
     /**
@@ -49,7 +92,7 @@ public class AlertGenerator implements PatientDataGenerator {
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
-            if (alertStates[patientId]) {
+            if (alertStates[patientId - firstPatientId]) {
                 handleActiveAlert(patientId, outputStrategy);
             } else {
                 handleInactiveAlert(patientId, outputStrategy);
@@ -70,9 +113,9 @@ public class AlertGenerator implements PatientDataGenerator {
      * @param outputStrategy the strategy to use for outputting the alert data
      */
     private void handleActiveAlert(int patientId, OutputStrategy outputStrategy) {
-        if (RANDOM_GENERATOR.nextDouble() < ALERT_RESOLUTION_PROBABILITY) {
-            alertStates[patientId] = false;
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "resolved");
+        if (random.nextDouble(patientId) < ALERT_RESOLUTION_PROBABILITY) {
+            alertStates[patientId - firstPatientId] = false;
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "Alert", "resolved");
         }
     }
 
@@ -87,11 +130,11 @@ public class AlertGenerator implements PatientDataGenerator {
      */
     private void handleInactiveAlert(int patientId, OutputStrategy outputStrategy) {
         double probability = calculateAlertProbability();
-        boolean alertTriggered = RANDOM_GENERATOR.nextDouble() < probability;
+        boolean alertTriggered = random.nextDouble(patientId) < probability;
 
         if (alertTriggered) {
-            alertStates[patientId] = true;
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "triggered");
+            alertStates[patientId - firstPatientId] = true;
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "Alert", "triggered");
         }
     }
 
@@ -0,0 +1,30 @@
+package com.cardio_generator.generators;
+
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBlock;
+
+/**
+ * A patient data generator that can also generate for a range of patients at
+ * once.
+ *
+ * <p>Generating a block runs one loop per data type over the patients'
+ * primitive state arrays and fills a {@link SampleBlock}, which is written
+ * with one {@link OutputStrategy#outputBlock} call. This saves the task
+ * dispatch, exception handler and text formatting that
+ * {@link #generate} costs for every single sample.</p>
+ */
+public interface BlockDataGenerator extends PatientDataGenerator {
+    /**
+     * Generates the data {@link #generate} would for each patient from
+     * {@code firstPatientId} to {@code lastPatientId}, and writes it as one
+     * block per data type.
+     *
+     * <p>As with {@link #generate}, a patient must not be generated for by
+     * two threads at once; disjoint ranges may be generated concurrently.</p>
+     *
+     * @param firstPatientId the first patient of the range
+     * @param lastPatientId the last patient of the range, inclusive
+     * @param outputStrategy the strategy the blocks are written to
+     */
+    void generateBlock(int firstPatientId, int lastPatientId, OutputStrategy outputStrategy);
+}
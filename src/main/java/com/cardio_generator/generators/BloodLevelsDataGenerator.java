@@ -1,26 +1,50 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
+import com.cardio_generator.SimulationClock;
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBlock;
 
-public class BloodLevelsDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+public class BloodLevelsDataGenerator implements BlockDataGenerator {
+    private final PatientRandom random;
+    private final SimulationClock clock;
     private final double[] baselineCholesterol;
     private final double[] baselineWhiteCells;
     private final double[] baselineRedCells;
+    /** The first patient, at index 0 of the baseline arrays. */
+    private final int firstPatientId;
 
     public BloodLevelsDataGenerator(int patientCount) {
+        this(patientCount, PatientRandom.randomSeed());
+    }
+
+    public BloodLevelsDataGenerator(int patientCount, long seed) {
+        this(patientCount, seed, SimulationClock.SYSTEM);
+    }
+
+    public BloodLevelsDataGenerator(int patientCount, long seed, SimulationClock clock) {
+        this(1, patientCount, seed, clock);
+    }
+
+    /**
+     * Creates a generator for patients {@code firstPatientId} to
+     * {@code lastPatientId}, whose values do not depend on the range.
+     */
+    public BloodLevelsDataGenerator(int firstPatientId, int lastPatientId, long seed, SimulationClock clock) {
+        random = new PatientRandom(seed, "BloodLevels", firstPatientId, lastPatientId);
+        this.clock = clock;
+        this.firstPatientId = firstPatientId;
         // Initialize arrays to store baseline values for each patient
-        baselineCholesterol = new double[patientCount + 1];
-        baselineWhiteCells = new double[patientCount + 1];
-        baselineRedCells = new double[patientCount + 1];
+        int count = Math.max(0, lastPatientId - firstPatientId + 1);
+        baselineCholesterol = new double[count];
+        baselineWhiteCells = new double[count];
+        baselineRedCells = new double[count];
 
         // Generate baseline values for each patient
-        for (int i = 1; i <= patientCount; i++) {
-            baselineCholesterol[i] = 150 + random.nextDouble() * 50; // Initial random baseline
-            baselineWhiteCells[i] = 4 + random.nextDouble() * 6; // Initial random baseline
-            baselineRedCells[i] = 4.5 + random.nextDouble() * 1.5; // Initial random baseline
+        for (int i = 0; i < count; i++) {
+            int patientId = firstPatientId + i;
+            baselineCholesterol[i] = 150 + random.nextDouble(patientId) * 50; // Initial random baseline
+            baselineWhiteCells[i] = 4 + random.nextDouble(patientId) * 6; // Initial random baseline
+            baselineRedCells[i] = 4.5 + random.nextDouble(patientId) * 1.5; // Initial random baseline
         }
     }
 
@@ -28,18 +52,48 @@ public class BloodLevelsDataGenerator implements PatientDataGenerator {
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
             // Generate values around the baseline for realism
-            double cholesterol = baselineCholesterol[patientId] + (random.nextDouble() - 0.5) * 10; // Small variation
-            double whiteCells = baselineWhiteCells[patientId] + (random.nextDouble() - 0.5) * 1; // Small variation
-            double redCells = baselineRedCells[patientId] + (random.nextDouble() - 0.5) * 0.2; // Small variation
+            int index = patientId - firstPatientId;
+            double cholesterol = baselineCholesterol[index] + (random.nextDouble(patientId) - 0.5) * 10; // Small variation
+            double whiteCells = baselineWhiteCells[index] + (random.nextDouble(patientId) - 0.5) * 1; // Small variation
+            double redCells = baselineRedCells[index] + (random.nextDouble(patientId) - 0.5) * 0.2; // Small variation
 
             // Output the generated values
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Cholesterol", Double.toString(cholesterol));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "WhiteBloodCells",
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "Cholesterol", Double.toString(cholesterol));
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "WhiteBloodCells",
                     Double.toString(whiteCells));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "RedBloodCells", Double.toString(redCells));
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "RedBloodCells", Double.toString(redCells));
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood levels data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
+
+    @Override
+    public void generateBlock(int firstPatientId, int lastPatientId, OutputStrategy outputStrategy) {
+        try {
+            long now = clock.currentTimeMillis();
+            outputStrategy.outputBlock(around(baselineCholesterol, 10, "Cholesterol", firstPatientId, lastPatientId, now));
+            outputStrategy.outputBlock(around(baselineWhiteCells, 1, "WhiteBloodCells", firstPatientId, lastPatientId, now));
+            outputStrategy.outputBlock(around(baselineRedCells, 0.2, "RedBloodCells", firstPatientId, lastPatientId, now));
+        } catch (Exception e) {
+            System.err.println("An error occurred while generating blood levels data for patients "
+                    + firstPatientId + " to " + lastPatientId);
+            e.printStackTrace();
+        }
+    }
+
+    /** Fills a block with values varying around each patient's baseline. */
+    private SampleBlock around(double[] baseline, double variation, String label, int first, int last, long now) {
+        SampleBlock block = new SampleBlock(label, "", last - first + 1);
+        int start = block.append(last - first + 1);
+        int[] patientIds = block.patientIds();
+        long[] timestamps = block.timestamps();
+        double[] values = block.values();
+        for (int patientId = first, i = start; patientId <= last; patientId++, i++) {
+            patientIds[i] = patientId;
+            timestamps[i] = now;
+            values[i] = baseline[patientId - firstPatientId] + (random.nextDouble(patientId) - 0.5) * variation;
+        }
+        return block;
+    }
 }
@@ -1,46 +1,109 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
+import com.cardio_generator.SimulationClock;
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBlock;
 
-public class BloodPressureDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
-
+public class BloodPressureDataGenerator implements BlockDataGenerator {
+    private final PatientRandom random;
+    private final SimulationClock clock;
     private int[] lastSystolicValues;
     private int[] lastDiastolicValues;
+    /** The first patient, at index 0 of the value arrays. */
+    private final int firstPatientId;
 
     public BloodPressureDataGenerator(int patientCount) {
-        lastSystolicValues = new int[patientCount + 1];
-        lastDiastolicValues = new int[patientCount + 1];
+        this(patientCount, PatientRandom.randomSeed());
+    }
+
+    public BloodPressureDataGenerator(int patientCount, long seed) {
+        this(patientCount, seed, SimulationClock.SYSTEM);
+    }
+
+    public BloodPressureDataGenerator(int patientCount, long seed, SimulationClock clock) {
+        this(1, patientCount, seed, clock);
+    }
+
+    /**
+     * Creates a generator for patients {@code firstPatientId} to
+     * {@code lastPatientId}, whose values do not depend on the range.
+     */
+    public BloodPressureDataGenerator(int firstPatientId, int lastPatientId, long seed, SimulationClock clock) {
+        random = new PatientRandom(seed, "BloodPressure", firstPatientId, lastPatientId);
+        this.clock = clock;
+        this.firstPatientId = firstPatientId;
+        int count = Math.max(0, lastPatientId - firstPatientId + 1);
+        lastSystolicValues = new int[count];
+        lastDiastolicValues = new int[count];
 
         // Initialize with baseline values for each patient
-        for (int i = 1; i <= patientCount; i++) {
-            lastSystolicValues[i] = 110 + random.nextInt(20); // Random baseline between 110 and 130
-            lastDiastolicValues[i] = 70 + random.nextInt(15); // Random baseline between 70 and 85
+        for (int i = 0; i < count; i++) {
+            lastSystolicValues[i] = 110 + random.nextInt(firstPatientId + i, 20); // Random baseline between 110 and 130
+            lastDiastolicValues[i] = 70 + random.nextInt(firstPatientId + i, 15); // Random baseline between 70 and 85
         }
     }
 
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
-            int systolicVariation = random.nextInt(5) - 2; // -2, -1, 0, 1, or 2
-            int diastolicVariation = random.nextInt(5) - 2;
-            int newSystolicValue = lastSystolicValues[patientId] + systolicVariation;
-            int newDiastolicValue = lastDiastolicValues[patientId] + diastolicVariation;
+            int systolicVariation = random.nextInt(patientId, 5) - 2; // -2, -1, 0, 1, or 2
+            int diastolicVariation = random.nextInt(patientId, 5) - 2;
+            int index = patientId - firstPatientId;
+            int newSystolicValue = lastSystolicValues[index] + systolicVariation;
+            int newDiastolicValue = lastDiastolicValues[index] + diastolicVariation;
             // Ensure the blood pressure stays within a realistic and safe range
             newSystolicValue = Math.min(Math.max(newSystolicValue, 90), 180);
             newDiastolicValue = Math.min(Math.max(newDiastolicValue, 60), 120);
-            lastSystolicValues[patientId] = newSystolicValue;
-            lastDiastolicValues[patientId] = newDiastolicValue;
+            lastSystolicValues[index] = newSystolicValue;
+            lastDiastolicValues[index] = newDiastolicValue;
 
-            outputStrategy.output(patientId, System.currentTimeMillis(), "SystolicPressure",
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "SystolicPressure",
                     Double.toString(newSystolicValue));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "DiastolicPressure",
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "DiastolicPressure",
                     Double.toString(newDiastolicValue));
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood pressure data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
+
+    @Override
+    public void generateBlock(int firstPatientId, int lastPatientId, OutputStrategy outputStrategy) {
+        try {
+            long now = clock.currentTimeMillis();
+            int count = lastPatientId - firstPatientId + 1;
+            SampleBlock systolic = new SampleBlock("SystolicPressure", "", count);
+            SampleBlock diastolic = new SampleBlock("DiastolicPressure", "", count);
+            systolic.append(count);
+            diastolic.append(count);
+            int[] systolicIds = systolic.patientIds();
+            long[] systolicTimes = systolic.timestamps();
+            double[] systolicValues = systolic.values();
+            int[] diastolicIds = diastolic.patientIds();
+            long[] diastolicTimes = diastolic.timestamps();
+            double[] diastolicValues = diastolic.values();
+            for (int patientId = firstPatientId, i = 0; patientId <= lastPatientId; patientId++, i++) {
+                // Same draws, in the same order per patient, as generate.
+                int index = patientId - this.firstPatientId;
+                int newSystolicValue = lastSystolicValues[index] + random.nextInt(patientId, 5) - 2;
+                int newDiastolicValue = lastDiastolicValues[index] + random.nextInt(patientId, 5) - 2;
+                newSystolicValue = Math.min(Math.max(newSystolicValue, 90), 180);
+                newDiastolicValue = Math.min(Math.max(newDiastolicValue, 60), 120);
+                lastSystolicValues[index] = newSystolicValue;
+                lastDiastolicValues[index] = newDiastolicValue;
+                systolicIds[i] = patientId;
+                systolicTimes[i] = now;
+                systolicValues[i] = newSystolicValue;
+                diastolicIds[i] = patientId;
+                diastolicTimes[i] = now;
+                diastolicValues[i] = newDiastolicValue;
+            }
+            outputStrategy.outputBlock(systolic);
+            outputStrategy.outputBlock(diastolic);
+        } catch (Exception e) {
+            System.err.println("An error occurred while generating blood pressure data for patients "
+                    + firstPatientId + " to " + lastPatientId);
+            e.printStackTrace();
+        }
+    }
 }
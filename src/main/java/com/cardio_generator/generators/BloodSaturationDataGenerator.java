@@ -1,8 +1,8 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
+import com.cardio_generator.SimulationClock;
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBlock;
 
 /**
  * Generates simulated blood oxygen saturation data for patients.
@@ -19,13 +19,19 @@ import com.cardio_generator.outputs.OutputStrategy;
  *   <li>Handles errors gracefully</li>
  * </ul></p>
  */
-public class BloodSaturationDataGenerator implements PatientDataGenerator {
-    /** Random number generator for creating variations in saturation values. */
-    private static final Random random = new Random();
+public class BloodSaturationDataGenerator implements BlockDataGenerator {
+    /** Random number streams for creating variations in saturation values, one per patient. */
+    private final PatientRandom random;
+
+    /** Clock the values are stamped with. */
+    private final SimulationClock clock;
     
-    /** Array storing the last recorded saturation value for each patient. */
+    /** Array storing the last recorded saturation value for each patient, indexed from the first patient. */
     private int[] lastSaturationValues;
 
+    /** The first patient data is generated for. */
+    private final int firstPatientId;
+
     /**
      * Creates a new blood saturation data generator for the specified number of patients.
      *
@@ -35,11 +41,52 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
      * @param patientCount The number of patients to generate data for
      */
     public BloodSaturationDataGenerator(int patientCount) {
-        lastSaturationValues = new int[patientCount + 1];
+        this(patientCount, PatientRandom.randomSeed());
+    }
+
+    /**
+     * Creates a new blood saturation data generator whose values are
+     * reproduced by the same seed.
+     *
+     * @param patientCount The number of patients to generate data for
+     * @param seed The seed of the random number streams
+     */
+    public BloodSaturationDataGenerator(int patientCount, long seed) {
+        this(patientCount, seed, SimulationClock.SYSTEM);
+    }
+
+    /**
+     * Creates a new blood saturation data generator stamping values with the
+     * given clock.
+     *
+     * @param patientCount The number of patients to generate data for
+     * @param seed The seed of the random number streams
+     * @param clock The clock values are stamped with
+     */
+    public BloodSaturationDataGenerator(int patientCount, long seed, SimulationClock clock) {
+        this(1, patientCount, seed, clock);
+    }
+
+    /**
+     * Creates a new blood saturation data generator for a range of patients,
+     * stamping values with the given clock. A patient's values are the same
+     * whichever range it is generated in.
+     *
+     * @param firstPatientId The first patient to generate data for
+     * @param lastPatientId The last patient to generate data for, inclusive
+     * @param seed The seed of the random number streams
+     * @param clock The clock values are stamped with
+     */
+    public BloodSaturationDataGenerator(int firstPatientId, int lastPatientId, long seed, SimulationClock clock) {
+        random = new PatientRandom(seed, "Saturation", firstPatientId, lastPatientId);
+        this.clock = clock;
+        this.firstPatientId = firstPatientId;
+        lastSaturationValues = new int[Math.max(0, lastPatientId - firstPatientId + 1)];
 
         // Initialize with baseline saturation values for each patient
-        for (int i = 1; i <= patientCount; i++) {
-            lastSaturationValues[i] = 95 + random.nextInt(6); // Initializes with a value between 95 and 100
+        for (int i = 0; i < lastSaturationValues.length; i++) {
+            // Initializes with a value between 95 and 100
+            lastSaturationValues[i] = 95 + random.nextInt(firstPatientId + i, 6);
         }
     }
 
@@ -64,17 +111,53 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
             // Simulate blood saturation values
-            int variation = random.nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
-            int newSaturationValue = lastSaturationValues[patientId] + variation;
+            int variation = random.nextInt(patientId, 3) - 1; // -1, 0, or 1 to simulate small fluctuations
+            int index = patientId - firstPatientId;
+            int newSaturationValue = lastSaturationValues[index] + variation;
 
             // Ensure the saturation stays within a realistic and healthy range
             newSaturationValue = Math.min(Math.max(newSaturationValue, 90), 100);
-            lastSaturationValues[patientId] = newSaturationValue;
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Saturation",
+            lastSaturationValues[index] = newSaturationValue;
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "Saturation",
                     Double.toString(newSaturationValue) + "%");
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood saturation data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
+
+    /**
+     * Generates a new blood saturation value for each patient of a range, in
+     * one loop over the saturation array, and outputs them as one block.
+     *
+     * @param firstPatientId The first patient of the range
+     * @param lastPatientId The last patient of the range, inclusive
+     * @param outputStrategy The strategy to use for outputting the generated data
+     */
+    @Override
+    public void generateBlock(int firstPatientId, int lastPatientId, OutputStrategy outputStrategy) {
+        try {
+            long now = clock.currentTimeMillis();
+            int count = lastPatientId - firstPatientId + 1;
+            SampleBlock block = new SampleBlock("Saturation", "%", count);
+            block.append(count);
+            int[] patientIds = block.patientIds();
+            long[] timestamps = block.timestamps();
+            double[] values = block.values();
+            for (int patientId = firstPatientId, i = 0; patientId <= lastPatientId; patientId++, i++) {
+                int index = patientId - this.firstPatientId;
+                int newSaturationValue = lastSaturationValues[index] + random.nextInt(patientId, 3) - 1;
+                newSaturationValue = Math.min(Math.max(newSaturationValue, 90), 100);
+                lastSaturationValues[index] = newSaturationValue;
+                patientIds[i] = patientId;
+                timestamps[i] = now;
+                values[i] = newSaturationValue;
+            }
+            outputStrategy.outputBlock(block);
+        } catch (Exception e) {
+            System.err.println("An error occurred while generating blood saturation data for patients "
+                    + firstPatientId + " to " + lastPatientId);
+            e.printStackTrace();
+        }
+    }
 }
@@ -1,39 +1,296 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
+import com.cardio_generator.SimulationClock;
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBlock;
 
-public class ECGDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+/**
+ * Generates simulated ECG data for patients.
+ *
+ * <p>By default one value per call is produced by summing sinusoids at the
+ * current time of the clock. Created with a sample rate, the generator instead
+ * synthesises a realistic ECG at that rate: each call emits, as one block, all
+ * samples due for the patient since the previous call, so a single task per
+ * patient scheduled every second sustains hundreds of hertz.</p>
+ *
+ * <p>High-rate samples are read from a PQRST beat template precomputed at the
+ * sample rate, so no trigonometry is done per sample. Between beats the signal
+ * is isoelectric. Every patient has its own resting heart rate, and each RR
+ * interval varies with a respiratory sinus arrhythmia and random beat-to-beat
+ * variability; beat amplitudes vary slightly, and baseline wander and noise are
+ * added from precomputed tables.</p>
+ */
+public class ECGDataGenerator implements BlockDataGenerator {
     private double[] lastEcgValues;
     private static final double PI = Math.PI;
 
+    // Offset from the R peak in seconds, width in seconds and amplitude in mV of each wave.
+    private static final double[][] PQRST_WAVES = {
+        {-0.20, 0.025, 0.15},
+        {-0.03, 0.010, -0.15},
+        {0.00, 0.012, 1.20},
+        {0.03, 0.010, -0.25},
+        {0.25, 0.040, 0.30},
+    };
+    /** Time from the start of a beat template to its R peak. */
+    private static final double TEMPLATE_R_OFFSET_S = 0.25;
+    private static final double TEMPLATE_LENGTH_S = 0.65;
+    private static final double RESPIRATION_PERIOD_S = 4.0;
+    private static final double RESPIRATORY_ARRHYTHMIA = 0.05;
+    private static final double BEAT_TO_BEAT_VARIABILITY = 0.02;
+    private static final double BASELINE_WANDER_MV = 0.05;
+    private static final double NOISE_MV = 0.02;
+    private static final int NOISE_TABLE_SIZE = 4096;
+
+    private final int sampleRateHz;
+    private final PatientRandom random;
+    private final SimulationClock clock;
+    private final double[] beatTemplate;
+    private final double[] wanderTable;
+    private final double[] noiseTable;
+    private double[] restingRrSeconds;
+    private long[] startTimestamps;
+    private long[] samplesEmitted;
+    private int[] samplesIntoBeat;
+    private int[] currentRrSamples;
+    private double[] beatAmplitudes;
+    private int[] noiseCursors;
+    /** The first patient, at index 0 of the per-patient arrays. */
+    private final int firstPatientId;
+
     public ECGDataGenerator(int patientCount) {
-        lastEcgValues = new double[patientCount + 1];
-        // Initialize the last ECG value for each patient
-        for (int i = 1; i <= patientCount; i++) {
-            lastEcgValues[i] = 0; // Initial ECG value can be set to 0
+        this(patientCount, 0);
+    }
+
+    public ECGDataGenerator(int patientCount, int sampleRateHz) {
+        this(patientCount, sampleRateHz, PatientRandom.randomSeed());
+    }
+
+    /**
+     * Creates a generator emitting ECG at the given sample rate.
+     *
+     * @param patientCount the number of patients to generate data for
+     * @param sampleRateHz the samples per second, e.g. 250 or 500; 0 produces
+     *                     one sinusoid-based value per call
+     * @param seed         the seed of the random number streams; the same seed
+     *                     gives the same samples
+     */
+    public ECGDataGenerator(int patientCount, int sampleRateHz, long seed) {
+        this(patientCount, sampleRateHz, seed, SimulationClock.SYSTEM);
+    }
+
+    /**
+     * Creates a generator emitting ECG at the given sample rate, due up to the
+     * time of the given clock.
+     *
+     * @param patientCount the number of patients to generate data for
+     * @param sampleRateHz the samples per second; 0 produces one value per call
+     * @param seed         the seed of the random number streams
+     * @param clock        the clock samples are due and stamped by
+     */
+    public ECGDataGenerator(int patientCount, int sampleRateHz, long seed, SimulationClock clock) {
+        this(1, patientCount, sampleRateHz, seed, clock);
+    }
+
+    /**
+     * Creates a generator for patients {@code firstPatientId} to
+     * {@code lastPatientId}, emitting ECG at the given sample rate. A
+     * patient's samples are the same whichever range it is generated in.
+     *
+     * @param firstPatientId the first patient to generate data for
+     * @param lastPatientId  the last patient to generate data for, inclusive
+     * @param sampleRateHz   the samples per second; 0 produces one value per call
+     * @param seed           the seed of the random number streams
+     * @param clock          the clock samples are due and stamped by
+     */
+    public ECGDataGenerator(int firstPatientId, int lastPatientId, int sampleRateHz, long seed,
+                            SimulationClock clock) {
+        if (sampleRateHz < 0) {
+            throw new IllegalArgumentException("Sample rate must not be negative: " + sampleRateHz);
+        }
+        this.firstPatientId = firstPatientId;
+        int patientCount = Math.max(0, lastPatientId - firstPatientId + 1);
+        lastEcgValues = new double[patientCount]; // Initial ECG values are 0
+        this.sampleRateHz = sampleRateHz;
+        this.random = new PatientRandom(seed, "ECG", firstPatientId, lastPatientId);
+        this.clock = clock;
+        if (sampleRateHz == 0) {
+            this.beatTemplate = null;
+            this.wanderTable = null;
+            this.noiseTable = null;
+            return;
+        }
+
+        this.beatTemplate = beatTemplate(sampleRateHz);
+        this.wanderTable = new double[(int) (RESPIRATION_PERIOD_S * sampleRateHz)];
+        for (int i = 0; i < wanderTable.length; i++) {
+            wanderTable[i] = BASELINE_WANDER_MV * Math.sin(2 * PI * i / wanderTable.length);
+        }
+        this.noiseTable = new double[NOISE_TABLE_SIZE];
+        for (int i = 0; i < noiseTable.length; i++) {
+            noiseTable[i] = NOISE_MV * random.nextGaussian(0);
+        }
+
+        restingRrSeconds = new double[patientCount];
+        startTimestamps = new long[patientCount];
+        samplesEmitted = new long[patientCount];
+        samplesIntoBeat = new int[patientCount];
+        currentRrSamples = new int[patientCount];
+        beatAmplitudes = new double[patientCount];
+        noiseCursors = new int[patientCount];
+        for (int i = 0; i < patientCount; i++) {
+            int patientId = firstPatientId + i;
+            restingRrSeconds[i] = 60.0 / (60.0 + random.nextDouble(patientId) * 20.0); // 60 to 80 bpm
+            startTimestamps[i] = Long.MIN_VALUE;
+            samplesIntoBeat[i] = random.nextInt(patientId, sampleRateHz);
+            currentRrSamples[i] = (int) (restingRrSeconds[i] * sampleRateHz);
+            beatAmplitudes[i] = 1.0;
+            noiseCursors[i] = random.nextInt(patientId, NOISE_TABLE_SIZE);
+        }
+    }
+
+    /** Samples one PQRST beat at the given rate, starting before the P wave. */
+    private static double[] beatTemplate(int sampleRateHz) {
+        double[] template = new double[(int) (TEMPLATE_LENGTH_S * sampleRateHz)];
+        for (int i = 0; i < template.length; i++) {
+            double t = (double) i / sampleRateHz - TEMPLATE_R_OFFSET_S;
+            double value = 0;
+            for (double[] wave : PQRST_WAVES) {
+                double d = (t - wave[0]) / wave[1];
+                value += wave[2] * Math.exp(-0.5 * d * d);
+            }
+            template[i] = value;
         }
+        return template;
+    }
+
+    public int getSampleRate() {
+        return sampleRateHz;
     }
 
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
         // TODO Check how realistic this data is and make it more realistic if necessary
         try {
-            double ecgValue = simulateEcgWaveform(patientId, lastEcgValues[patientId]);
-            outputStrategy.output(patientId, System.currentTimeMillis(), "ECG", Double.toString(ecgValue));
-            lastEcgValues[patientId] = ecgValue;
+            if (sampleRateHz > 0) {
+                generateSamples(patientId, clock.currentTimeMillis(), outputStrategy);
+                return;
+            }
+            double ecgValue = simulateEcgWaveform(patientId, lastEcgValues[patientId - firstPatientId]);
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "ECG", Double.toString(ecgValue));
+            lastEcgValues[patientId - firstPatientId] = ecgValue;
         } catch (Exception e) {
             System.err.println("An error occurred while generating ECG data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
 
+    /**
+     * Generates for each patient of a range what {@link #generate} would, and
+     * outputs all their samples as one block.
+     *
+     * @param firstPatientId the first patient of the range
+     * @param lastPatientId  the last patient of the range, inclusive
+     * @param outputStrategy the strategy the block is written to
+     */
+    @Override
+    public void generateBlock(int firstPatientId, int lastPatientId, OutputStrategy outputStrategy) {
+        try {
+            long now = clock.currentTimeMillis();
+            int count = lastPatientId - firstPatientId + 1;
+            SampleBlock block = new SampleBlock("ECG", "", sampleRateHz > 0 ? count * sampleRateHz : count);
+            for (int patientId = firstPatientId; patientId <= lastPatientId; patientId++) {
+                if (sampleRateHz > 0) {
+                    fillSamples(patientId, now, block);
+                } else {
+                    int index = patientId - this.firstPatientId;
+                    double ecgValue = simulateEcgWaveform(patientId, lastEcgValues[index]);
+                    lastEcgValues[index] = ecgValue;
+                    block.add(patientId, now, ecgValue);
+                }
+            }
+            outputStrategy.outputBlock(block);
+        } catch (Exception e) {
+            System.err.println("An error occurred while generating ECG data for patients "
+                    + firstPatientId + " to " + lastPatientId);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Emits every sample of a patient due up to the given time. The first call
+     * for a patient emits the second of signal leading up to it.
+     *
+     * @param patientId      the patient to generate samples for
+     * @param untilTimestamp the time up to which samples are due, in milliseconds
+     * @param outputStrategy the strategy the samples are written to
+     * @return the number of samples emitted
+     */
+    public int generateSamples(int patientId, long untilTimestamp, OutputStrategy outputStrategy) {
+        SampleBlock block = new SampleBlock("ECG", "", sampleRateHz);
+        int count = fillSamples(patientId, untilTimestamp, block);
+        outputStrategy.outputBlock(block);
+        return count;
+    }
+
+    /** Adds every sample of a patient due up to the given time to a block. */
+    private int fillSamples(int patientId, long untilTimestamp, SampleBlock block) {
+        if (sampleRateHz == 0) {
+            throw new IllegalStateException("Generator was created without a sample rate");
+        }
+        int index = patientId - firstPatientId;
+        if (startTimestamps[index] == Long.MIN_VALUE) {
+            startTimestamps[index] = untilTimestamp - 1000;
+        }
+        long start = startTimestamps[index];
+        long due = (untilTimestamp - start) * sampleRateHz / 1000;
+        long emitted = samplesEmitted[index];
+        int inBeat = samplesIntoBeat[index];
+        int rr = currentRrSamples[index];
+        double amplitude = beatAmplitudes[index];
+        int noise = noiseCursors[index];
+
+        int i = block.append((int) Math.max(0, due - emitted));
+        int[] patientIds = block.patientIds();
+        long[] timestamps = block.timestamps();
+        double[] values = block.values();
+        for (long n = emitted; n < due; n++, i++) {
+            if (inBeat >= rr) {
+                inBeat = 0;
+                rr = nextRrSamples(patientId, n);
+                amplitude = 1.0 + 0.05 * random.nextGaussian(patientId);
+            }
+            double value = wanderTable[(int) (n % wanderTable.length)] + noiseTable[noise];
+            if (inBeat < beatTemplate.length) {
+                value += amplitude * beatTemplate[inBeat];
+            }
+            noise = (noise + 1) & (NOISE_TABLE_SIZE - 1);
+            inBeat++;
+            patientIds[i] = patientId;
+            timestamps[i] = start + n * 1000 / sampleRateHz;
+            values[i] = value;
+        }
+
+        samplesEmitted[index] = Math.max(emitted, due);
+        samplesIntoBeat[index] = inBeat;
+        currentRrSamples[index] = rr;
+        beatAmplitudes[index] = amplitude;
+        noiseCursors[index] = noise;
+        return (int) Math.max(0, due - emitted);
+    }
+
+    /** Draws the next RR interval, modulated by breathing and random variability. */
+    private int nextRrSamples(int patientId, long sampleIndex) {
+        double breathing = Math.sin(2 * PI * sampleIndex / (RESPIRATION_PERIOD_S * sampleRateHz));
+        double rr = restingRrSeconds[patientId - firstPatientId]
+                * (1 + RESPIRATORY_ARRHYTHMIA * breathing + BEAT_TO_BEAT_VARIABILITY * random.nextGaussian(patientId));
+        return (int) Math.max(0.25 * sampleRateHz, rr * sampleRateHz);
+    }
+
     private double simulateEcgWaveform(int patientId, double lastEcgValue) {
         // Simplified ECG waveform generation based on sinusoids
-        double hr = 60.0 + random.nextDouble() * 20.0; // Simulate heart rate variability between 60 and 80 bpm
-        double t = System.currentTimeMillis() / 1000.0; // Use system time to simulate continuous time
+        double hr = 60.0 + random.nextDouble(patientId) * 20.0; // Simulate heart rate variability between 60 and 80 bpm
+        double t = clock.currentTimeMillis() / 1000.0; // Use the clock to simulate continuous time
         double ecgFrequency = hr / 60.0; // Convert heart rate to Hz
 
         // Simulate different components of the ECG signal
@@ -41,6 +298,6 @@ public class ECGDataGenerator implements PatientDataGenerator {
         double qrsComplex = 0.5 * Math.sin(2 * PI * 3 * ecgFrequency * t); // QRS is higher frequency
         double tWave = 0.2 * Math.sin(2 * PI * 2 * ecgFrequency * t + PI / 4); // T wave is offset
 
-        return pWave + qrsComplex + tWave + random.nextDouble() * 0.05; // Add small noise
+        return pWave + qrsComplex + tWave + random.nextDouble(patientId) * 0.05; // Add small noise
     }
 }
@@ -0,0 +1,144 @@
+package com.cardio_generator.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Independent, reproducible random number streams, one per patient.
+ *
+ * <p>Each patient's stream is a SplitMix64 generator whose whole state is one
+ * {@code long} in an array indexed by patient ID, counted from the first
+ * patient of the range the streams cover, so drawing a number is an add and a
+ * few multiplies on memory no other patient's task writes. The streams are
+ * derived from a single seed and a stream name, so a generator
+ * created with the same seed produces the same values for each patient
+ * whatever order, or on whichever threads, the patients are run, and
+ * whatever range of patients, e.g. a process's share, the streams cover.
+ * Patient ID 0 is a stream of its own, for state shared by all patients such
+ * as precomputed tables.</p>
+ *
+ * <p>A patient's stream must only be used by one thread at a time, as is the
+ * case for a patient's tasks under every scheduler of the simulator.</p>
+ */
+public final class PatientRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private final long[] states;
+    /** The patient whose stream is at index 0 of {@code states}. */
+    private final int firstPatientId;
+    /** The state of the shared stream, patient ID 0. */
+    private long sharedState;
+
+    /**
+     * Creates the shared stream and the streams of patients 1 to
+     * {@code patientCount}.
+     *
+     * @param seed         the seed all streams are derived from
+     * @param stream       the name of the streams, e.g. the data type, so that
+     *                     generators sharing a seed draw different values
+     * @param patientCount the number of patients
+     */
+    public PatientRandom(long seed, String stream, int patientCount) {
+        this(seed, stream, 1, patientCount);
+    }
+
+    /**
+     * Creates the shared stream and the streams of patients
+     * {@code firstPatientId} to {@code lastPatientId}. A patient's stream
+     * draws the same values whichever range it is created in.
+     *
+     * @param seed           the seed all streams are derived from
+     * @param stream         the name of the streams
+     * @param firstPatientId the first patient, at least 1
+     * @param lastPatientId  the last patient, inclusive
+     */
+    public PatientRandom(long seed, String stream, int firstPatientId, int lastPatientId) {
+        if (firstPatientId < 1 || lastPatientId < firstPatientId - 1) {
+            throw new IllegalArgumentException("Invalid patient range: " + firstPatientId + " to " + lastPatientId);
+        }
+        this.firstPatientId = firstPatientId;
+        states = new long[lastPatientId - firstPatientId + 1];
+        long base = mix64(seed ^ mix64(stream.hashCode()));
+        sharedState = mix64(base);
+        for (int i = 0; i < states.length; i++) {
+            states[i] = mix64(base + (long) (firstPatientId + i) * GOLDEN_GAMMA);
+        }
+    }
+
+    /**
+     * Returns a seed drawn at random, for runs that need not be reproduced.
+     *
+     * @return the seed
+     */
+    public static long randomSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Returns the next 64 random bits of a patient's stream.
+     *
+     * @param patientId the patient, or 0 for the shared stream
+     * @return the random bits
+     */
+    public long nextLong(int patientId) {
+        if (patientId == 0) {
+            sharedState += GOLDEN_GAMMA;
+            return mix64(sharedState);
+        }
+        int index = patientId - firstPatientId;
+        long state = states[index] + GOLDEN_GAMMA;
+        states[index] = state;
+        return mix64(state);
+    }
+
+    /**
+     * Returns the next double of a patient's stream, uniform in [0, 1).
+     *
+     * @param patientId the patient, or 0 for the shared stream
+     * @return the random double
+     */
+    public double nextDouble(int patientId) {
+        return (nextLong(patientId) >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Returns the next int of a patient's stream in [0, bound). The bias of
+     * the multiply-shift reduction is below 2^-32 times the bound, far under
+     * what the simulated values can show.
+     *
+     * @param patientId the patient, or 0 for the shared stream
+     * @param bound     the exclusive upper bound, positive
+     * @return the random int
+     */
+    public int nextInt(int patientId, int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive: " + bound);
+        }
+        return (int) (((nextLong(patientId) >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Returns the next standard normally distributed double of a patient's
+     * stream, by the polar method.
+     *
+     * @param patientId the patient, or 0 for the shared stream
+     * @return the random double, with mean 0 and standard deviation 1
+     */
+    public double nextGaussian(int patientId) {
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2 * nextDouble(patientId) - 1;
+            v = 2 * nextDouble(patientId) - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        return u * Math.sqrt(-2 * Math.log(s) / s);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
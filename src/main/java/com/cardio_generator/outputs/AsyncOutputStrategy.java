@@ -0,0 +1,152 @@
+package com.cardio_generator.outputs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands samples to a writer thread that passes them to another output
+ * strategy, so generators do not block on a slow output such as a file opened
+ * per write or a socket.
+ *
+ * <p>Samples wait in a bounded queue and are written in the order they were
+ * queued. A {@link SampleBlock} is queued whole, as one entry, and handed to
+ * the other strategy's {@link OutputStrategy#outputBlock} unchanged, so its
+ * samples are not formatted on the generator's thread. When the queue is
+ * full, {@link #output} blocks until the writer has caught up, which on a
+ * virtual thread costs no platform thread. The writer thread comes from the
+ * given factory, e.g. a virtual thread factory.</p>
+ */
+public class AsyncOutputStrategy implements OutputStrategy, AutoCloseable {
+    /** Default number of samples or blocks that may wait to be written. */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    private static final int MAX_BATCH = 256;
+
+    private final OutputStrategy delegate;
+    private final BlockingQueue<Sample> queue;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public AsyncOutputStrategy(OutputStrategy delegate, ThreadFactory threadFactory) {
+        this(delegate, DEFAULT_CAPACITY, threadFactory);
+    }
+
+    /**
+     * Creates the strategy and starts its writer thread.
+     *
+     * @param delegate      the strategy the writer passes samples to
+     * @param capacity      the number of samples or blocks that may wait to be
+     *                      written
+     * @param threadFactory creates the writer thread
+     */
+    public AsyncOutputStrategy(OutputStrategy delegate, int capacity, ThreadFactory threadFactory) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = threadFactory.newThread(this::write);
+        writer.start();
+    }
+
+    /**
+     * Queues a sample for writing, waiting while the queue is full. A sample
+     * output after {@link #close} is discarded.
+     */
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        if (closed) {
+            return;
+        }
+        enqueue(new Sample(patientId, timestamp, label, data, null));
+    }
+
+    /**
+     * Queues a block for writing as one entry, waiting while the queue is
+     * full. A block output after {@link #close} is discarded.
+     */
+    @Override
+    public void outputBlock(SampleBlock block) {
+        if (closed || block.size() == 0) {
+            return;
+        }
+        enqueue(new Sample(0, 0, block.getLabel(), null, block));
+    }
+
+    private void enqueue(Sample sample) {
+        try {
+            while (!queue.offer(sample, 100, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        List<Sample> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Sample first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Stop once what is queued has been written.
+                closed = true;
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            for (Sample sample : batch) {
+                try {
+                    if (sample.block != null) {
+                        delegate.outputBlock(sample.block);
+                    } else {
+                        delegate.output(sample.patientId, sample.timestamp, sample.label, sample.data);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println(sample.block != null
+                            ? "Error writing block of " + sample.label + ": " + e
+                            : "Error writing sample of patient " + sample.patientId + ": " + e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stops accepting samples and waits until the queued ones are written. If
+     * interrupted while waiting, returns with the interrupt flag set; the
+     * writer still drains the queue in the background.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** A queued sample, or a queued block when {@code block} is set. */
+    private static final class Sample {
+        final int patientId;
+        final long timestamp;
+        final String label;
+        final String data;
+        final SampleBlock block;
+
+        Sample(int patientId, long timestamp, String label, String data, SampleBlock block) {
+            this.patientId = patientId;
+            this.timestamp = timestamp;
+            this.label = label;
+            this.data = data;
+            this.block = block;
+        }
+    }
+}
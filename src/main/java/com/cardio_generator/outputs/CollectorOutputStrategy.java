@@ -0,0 +1,113 @@
+package com.cardio_generator.outputs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams patient data to a {@link com.cardio_generator.StreamCollector} over
+ * a TCP connection, in the CSV format of {@link TcpOutputStrategy}:
+ * "patientId,timestamp,label,data".
+ *
+ * <p>Unlike {@link TcpOutputStrategy}, which serves data to whichever client
+ * connects and drops it until one has, this strategy connects to the collector
+ * when it is created, so no sample is lost. Lines are buffered and flushed
+ * after every block and at least every {@link #FLUSH_INTERVAL_MS}
+ * milliseconds. If the collector goes away, further data is discarded.</p>
+ */
+public class CollectorOutputStrategy implements OutputStrategy, AutoCloseable {
+    /** Longest time a line waits in the buffer. */
+    public static final long FLUSH_INTERVAL_MS = 100;
+
+    private final Socket socket;
+    private final Writer out;
+    private final ScheduledExecutorService flusher;
+    private boolean failed;
+
+    /**
+     * Connects to a collector.
+     *
+     * @param host the host of the collector
+     * @param port the port the collector listens on
+     * @throws IOException if the collector cannot be reached
+     */
+    public CollectorOutputStrategy(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "collector-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void output(int patientId, long timestamp, String label, String data) {
+        if (failed) {
+            return;
+        }
+        try {
+            out.write(patientId + "," + timestamp + "," + label + "," + data + "\n");
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /** Writes the whole block, then flushes it. */
+    @Override
+    public synchronized void outputBlock(SampleBlock block) {
+        if (failed) {
+            return;
+        }
+        int[] patientIds = block.patientIds();
+        long[] timestamps = block.timestamps();
+        StringBuilder lines = new StringBuilder(block.size() * 40);
+        for (int i = 0; i < block.size(); i++) {
+            lines.append(patientIds[i]).append(',').append(timestamps[i]).append(',')
+                    .append(block.getLabel()).append(',').append(block.data(i)).append('\n');
+        }
+        try {
+            out.append(lines);
+            out.flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private synchronized void flush() {
+        if (failed) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        failed = true;
+        System.err.println("Lost connection to collector: " + e.getMessage());
+    }
+
+    /** Flushes what is buffered and closes the connection. */
+    @Override
+    public synchronized void close() throws IOException {
+        flusher.shutdown();
+        try {
+            if (!failed) {
+                out.flush();
+            }
+        } finally {
+            failed = true;
+            socket.close();
+        }
+    }
+}
@@ -5,4 +5,14 @@ public class ConsoleOutputStrategy implements OutputStrategy {
     public void output(int patientId, long timestamp, String label, String data) {
         System.out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
     }
+
+    /** Prints the whole block with one write. */
+    @Override
+    public void outputBlock(SampleBlock block) {
+        StringBuilder lines = new StringBuilder(block.size() * 80);
+        for (int i = 0; i < block.size(); i++) {
+            FileOutputStrategy.appendLine(lines, block, i);
+        }
+        System.out.print(lines);
+    }
 }
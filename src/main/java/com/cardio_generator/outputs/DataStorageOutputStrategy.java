@@ -0,0 +1,76 @@
+package com.cardio_generator.outputs;
+
+import com.data_management.DataStorage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes patient data straight into a {@link DataStorage} in the same JVM, so
+ * the simulator can feed the alert side without formatting and re-parsing
+ * text.
+ *
+ * <p>The simulator's labels are mapped to the record types the alert
+ * strategies read: "Saturation" is stored as "BloodSaturation",
+ * "SystolicPressure" and "DiastolicPressure" as "BloodPressureSystolic" and
+ * "BloodPressureDiastolic", and "Alert" as "ManualAlert" with 1 when triggered
+ * and 0 when resolved. Other labels are stored as they are. A
+ * {@link SampleBlock}, which the tick scheduler produces per tick for each
+ * range of patients, is stored as one batch from its primitive arrays; single
+ * samples are parsed from their text. The storage is safe for concurrent use,
+ * so the simulator's threads write to it directly.</p>
+ */
+public class DataStorageOutputStrategy implements OutputStrategy {
+    private static final Map<String, String> RECORD_TYPES = new HashMap<>();
+
+    static {
+        RECORD_TYPES.put("Saturation", "BloodSaturation");
+        RECORD_TYPES.put("SystolicPressure", "BloodPressureSystolic");
+        RECORD_TYPES.put("DiastolicPressure", "BloodPressureDiastolic");
+        RECORD_TYPES.put("Alert", "ManualAlert");
+    }
+
+    private final DataStorage storage;
+
+    /**
+     * Creates a strategy writing to a storage.
+     *
+     * @param storage the storage the samples are added to
+     */
+    public DataStorageOutputStrategy(DataStorage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Returns the record type a label is stored as.
+     *
+     * @param label the label of the simulator's samples
+     * @return the record type
+     */
+    public static String recordType(String label) {
+        return RECORD_TYPES.getOrDefault(label, label);
+    }
+
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        double value;
+        if (label.equals("Alert")) {
+            value = data.equals("triggered") ? 1 : 0;
+        } else {
+            try {
+                value = Double.parseDouble(data.endsWith("%") ? data.substring(0, data.length() - 1) : data);
+            } catch (NumberFormatException e) {
+                System.err.println("Cannot store non-numeric " + label + " data '" + data + "' of patient " + patientId);
+                return;
+            }
+        }
+        storage.addPatientData(patientId, value, recordType(label), timestamp);
+    }
+
+    /** Stores the block's values as they are, in one batch. */
+    @Override
+    public void outputBlock(SampleBlock block) {
+        String recordType = recordType(block.getLabel());
+        storage.addPatientData(recordType, block.patientIds(), block.values(), block.timestamps(), block.size());
+    }
+}
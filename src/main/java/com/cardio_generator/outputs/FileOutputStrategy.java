@@ -2,6 +2,7 @@ package com.cardio_generator.outputs;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -23,6 +24,12 @@ import java.util.concurrent.ConcurrentHashMap;
  *   <li>Thread-safe file handling</li>
  * </ul></p>
  *
+ * <p>Writes to the same file are serialized on a lock per label, so the lines
+ * of blocks written concurrently, e.g. by the shards of a tick scheduler, are
+ * never interleaved: a buffered writer flushes a large block in several
+ * chunks, and appends from other threads could otherwise land in
+ * between.</p>
+ *
  * <p>Output format:
  * "Patient ID: {id}, Timestamp: {timestamp}, Label: {label}, Data: {data}"</p>
  */
@@ -31,8 +38,8 @@ public class FileOutputStrategy implements OutputStrategy {
     /** The base directory where output files will be stored. */
     private final String baseDirectory;
     
-    /** Maps data labels to their corresponding file paths. */
-    private final ConcurrentHashMap<String, String> fileMap = new ConcurrentHashMap<>();
+    /** Maps data labels to their corresponding files. */
+    private final ConcurrentHashMap<String, LabelFile> fileMap = new ConcurrentHashMap<>();
 
     /**
      * Initializes a new file-based output strategy.
@@ -65,26 +72,88 @@ public class FileOutputStrategy implements OutputStrategy {
      */
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
+        LabelFile file = prepareFile(label);
+        if (file == null) {
+            return;
+        }
+
+        // Write the data to the file
+        synchronized (file) {
+            try (PrintWriter out = new PrintWriter(
+                    Files.newBufferedWriter(file.path, StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
+            } catch (IOException e) {
+                System.err.println("Error writing to file " + file.path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Appends a block of samples to the file of its label, opening the file
+     * once for the whole block. The lines are formatted before the label's
+     * lock is taken.
+     *
+     * @param block the samples to write
+     */
+    @Override
+    public void outputBlock(SampleBlock block) {
+        if (block.size() == 0) {
+            return;
+        }
+        LabelFile file = prepareFile(block.getLabel());
+        if (file == null) {
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder(block.size() * 80);
+        for (int i = 0; i < block.size(); i++) {
+            appendLine(lines, block, i);
+        }
+        synchronized (file) {
+            try (Writer out = Files.newBufferedWriter(file.path, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND)) {
+                out.append(lines);
+            } catch (IOException e) {
+                System.err.println("Error writing to file " + file.path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Appends the line of one sample of a block, in the format of {@link #output}. */
+    static void appendLine(StringBuilder lines, SampleBlock block, int i) {
+        lines.append("Patient ID: ").append(block.patientIds()[i])
+                .append(", Timestamp: ").append(block.timestamps()[i])
+                .append(", Label: ").append(block.getLabel())
+                .append(", Data: ").append(block.data(i))
+                .append(System.lineSeparator());
+    }
+
+    /**
+     * Creates the base directory if it doesn't exist and returns the file
+     * of a label, or null if the directory cannot be created.
+     */
+    private LabelFile prepareFile(String label) {
         try {
             // Create the directory if it doesn't exist
             Files.createDirectories(Paths.get(baseDirectory));
         } catch (IOException e) {
             System.err.println("Error creating base directory: " + e.getMessage());
-            return;
+            return null;
         }
 
         // Get or create the file path for this label
-        String filePath = fileMap.computeIfAbsent(label, k -> {
+        return fileMap.computeIfAbsent(label, k -> {
             Path path = Paths.get(baseDirectory, label + ".txt");
-            return path.toString();
+            return new LabelFile(path);
         });
+    }
 
-        // Write the data to the file
-        try (PrintWriter out = new PrintWriter(
-                Files.newBufferedWriter(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
-            out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
-        } catch (IOException e) {
-            System.err.println("Error writing to file " + filePath + ": " + e.getMessage());
+    /** The file of one label, and the lock its writes are serialized on. */
+    private static final class LabelFile {
+        final Path path;
+
+        LabelFile(Path path) {
+            this.path = path;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.cardio_generator.outputs;
+
+import com.metrics.LatencyMetrics;
+
+/**
+ * Wraps another output strategy and records, per label, how long after its
+ * generation timestamp each sample has been written.
+ *
+ * <p>The latency is recorded once the wrapped strategy returns, so it includes
+ * the time spent formatting and writing the sample.</p>
+ *
+ * <p>Closing the wrapper closes the wrapped strategy if it holds resources.</p>
+ */
+public class LatencyTrackingOutputStrategy implements OutputStrategy, AutoCloseable {
+    private final OutputStrategy delegate;
+    private final LatencyMetrics metrics;
+
+    public LatencyTrackingOutputStrategy(OutputStrategy delegate) {
+        this(delegate, LatencyMetrics.getInstance());
+    }
+
+    public LatencyTrackingOutputStrategy(OutputStrategy delegate, LatencyMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        delegate.output(patientId, timestamp, label, data);
+        metrics.record(LatencyMetrics.Stage.OUTPUT, label, timestamp);
+    }
+
+    @Override
+    public void outputBlock(SampleBlock block) {
+        delegate.outputBlock(block);
+        long[] timestamps = block.timestamps();
+        for (int i = 0; i < block.size(); i++) {
+            metrics.record(LatencyMetrics.Stage.OUTPUT, block.getLabel(), timestamps[i]);
+        }
+    }
+
+    /** Closes the wrapped strategy if it is {@link AutoCloseable}, reporting errors instead of throwing them. */
+    @Override
+    public void close() {
+        if (delegate instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) delegate).close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("Error closing the output: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -28,4 +28,21 @@ public interface OutputStrategy {
      * @param data The actual data value to be recorded
      */
     void output(int patientId, long timestamp, String label, String data);
+
+    /**
+     * Outputs a block of samples.
+     *
+     * <p>By default each sample is passed to {@link #output} in turn.
+     * Strategies that can write a block at once, e.g. in one file write,
+     * override this.</p>
+     *
+     * @param block The samples, which must not be kept after this returns
+     */
+    default void outputBlock(SampleBlock block) {
+        int[] patientIds = block.patientIds();
+        long[] timestamps = block.timestamps();
+        for (int i = 0; i < block.size(); i++) {
+            output(patientIds[i], timestamps[i], block.getLabel(), block.data(i));
+        }
+    }
 }
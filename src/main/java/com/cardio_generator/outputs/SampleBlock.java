@@ -0,0 +1,112 @@
+package com.cardio_generator.outputs;
+
+import java.util.Arrays;
+
+/**
+ * A block of numeric samples of one label, held as parallel primitive arrays.
+ *
+ * <p>Generators fill a block for a range of patients in one loop and hand it
+ * to {@link OutputStrategy#outputBlock} as a whole, so no sample is boxed or
+ * formatted until a sink needs its text. Sample {@code i} belongs to patient
+ * {@code patientIds()[i]}, was taken at {@code timestamps()[i]} and has the
+ * value {@code values()[i]}; its text is the value followed by the unit, the
+ * same as the generator would output for a single sample.</p>
+ *
+ * <p>Generators fill a new block for every call and do not touch it once it
+ * is output, so a sink may keep a block after {@code outputBlock} returns,
+ * e.g. to queue it for another thread, as long as it does not modify it. A
+ * block is not thread-safe while it is being filled.</p>
+ */
+public final class SampleBlock {
+    private final String label;
+    private final String unit;
+    private int[] patientIds;
+    private long[] timestamps;
+    private double[] values;
+    private int size;
+
+    /**
+     * Creates an empty block.
+     *
+     * @param label    the label of every sample
+     * @param unit     appended to each value's text, e.g. "%"; empty for none
+     * @param capacity the number of samples the block holds before growing
+     */
+    public SampleBlock(String label, String unit, int capacity) {
+        this.label = label;
+        this.unit = unit;
+        this.patientIds = new int[Math.max(1, capacity)];
+        this.timestamps = new long[patientIds.length];
+        this.values = new double[patientIds.length];
+    }
+
+    /**
+     * Makes room for {@code count} more samples and counts them into the
+     * block. The caller fills the returned index onwards of each array.
+     *
+     * @param count the number of samples to add
+     * @return the index of the first added sample
+     */
+    public int append(int count) {
+        int start = size;
+        int required = size + count;
+        if (required > patientIds.length) {
+            int capacity = Math.max(required, patientIds.length * 2);
+            patientIds = Arrays.copyOf(patientIds, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        size = required;
+        return start;
+    }
+
+    /**
+     * Adds one sample.
+     *
+     * @param patientId the patient
+     * @param timestamp the time of the sample, in milliseconds since the epoch
+     * @param value     the value
+     */
+    public void add(int patientId, long timestamp, double value) {
+        int i = append(1);
+        patientIds[i] = patientId;
+        timestamps[i] = timestamp;
+        values[i] = value;
+    }
+
+    /** Removes every sample, keeping the arrays. */
+    public void clear() {
+        size = 0;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] patientIds() {
+        return patientIds;
+    }
+
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    public double[] values() {
+        return values;
+    }
+
+    /**
+     * Returns the text of a sample, as passed to {@link OutputStrategy#output}.
+     *
+     * @param i the index of the sample
+     * @return the value followed by the unit
+     */
+    public String data(int i) {
+        String value = Double.toString(values[i]);
+        return unit.isEmpty() ? value : value + unit;
+    }
+}
@@ -0,0 +1,20 @@
+package com.data_management;
+
+/**
+ * Receives every measurement added to a {@link DataStorage}.
+ *
+ * <p>Listeners are called on the thread that adds the data, after the record
+ * has been stored, so they must be quick and must not block.</p>
+ */
+public interface DataListener {
+    /**
+     * Called after a measurement was added.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param measurementValue the value of the health metric
+     * @param recordType       the type of record, e.g., "HeartRate"
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since the Unix epoch
+     */
+    void onData(int patientId, double measurementValue, String recordType, long timestamp);
+}
@@ -1,29 +1,73 @@
 package com.data_management;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import com.alerts.AlertGenerator;
+import com.alerts.AlertSuppressor;
+import com.alerts.BaselineDeviationStrategy;
+import com.alerts.delivery.AlertDeliveryPipeline;
+import com.alerts.delivery.ConsoleAlertSink;
+import com.alerts.EvaluationReport;
+import com.alerts.StreamingAlertEngine;
+import com.alerts.ecg.HeartRateStrategy;
+import com.alerts.rules.RuleFileWatcher;
+import com.alerts.store.AlertLog;
+import com.alerts.store.AlertStore;
+import com.metrics.LatencyMetrics;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages storage and retrieval of patient data within a healthcare monitoring
  * system.
  * This class serves as a repository for all patient records, organized by
  * patient IDs.
+ *
+ * <p>Data may be added from several threads while other threads read it: the
+ * patients are kept in a concurrent map, and each {@link Patient} synchronizes
+ * its own records. With a record retention set, each patient's records older
+ * than the retention before a measurement added for them are discarded as it
+ * arrives, so a storage fed continuously stays bounded.</p>
  */
 public class DataStorage {
     private static DataStorage instance;
     private Map<Integer, Patient> patients;
+    private final List<DataListener> listeners = new CopyOnWriteArrayList<>();
+    private final LatencyMetrics metrics;
+    private volatile long recordRetentionMs;
 
+    /**
+     * Creates a storage that does not track latency.
+     */
     public DataStorage() {
-        this.patients = new HashMap<>();
+        this(null);
+    }
+
+    /**
+     * Creates a storage recording the latency of every added measurement.
+     *
+     * @param metrics the metrics to record {@link LatencyMetrics.Stage#STORED}
+     *                latency in, or {@code null} not to track latency
+     */
+    public DataStorage(LatencyMetrics metrics) {
+        this.patients = new ConcurrentHashMap<>();
+        this.metrics = metrics;
     }
 
+    /**
+     * Returns the storage shared by the process, which records latency in
+     * {@link LatencyMetrics#getInstance()}.
+     *
+     * @return the shared storage
+     */
     public static synchronized DataStorage getInstance() {
         if (instance == null) {
-            instance = new DataStorage();
+            instance = new DataStorage(LatencyMetrics.getInstance());
         }
         return instance;
     }
@@ -44,6 +88,83 @@ public class DataStorage {
     public void addPatientData(int patientId, double measurementValue, String recordType, long timestamp) {
         Patient patient = patients.computeIfAbsent(patientId, Patient::new);
         patient.addRecord(measurementValue, recordType, timestamp);
+        discardExpired(patient, timestamp);
+        if (metrics != null) {
+            metrics.record(LatencyMetrics.Stage.STORED, recordType, timestamp);
+        }
+        for (DataListener listener : listeners) {
+            listener.onData(patientId, measurementValue, recordType, timestamp);
+        }
+    }
+
+    /**
+     * Adds a batch of measurements of one record type, as parallel arrays,
+     * without creating a string or object per measurement on the way in.
+     * Each is stored and passed to the listeners as by {@link #addPatientData}.
+     *
+     * @param recordType the type of every record, e.g. "BloodSaturation"
+     * @param patientIds the patient of each measurement
+     * @param values     the value of each measurement
+     * @param timestamps the time of each measurement, in milliseconds since the
+     *                   Unix epoch
+     * @param count      the number of measurements, from index 0
+     */
+    public void addPatientData(String recordType, int[] patientIds, double[] values, long[] timestamps, int count) {
+        Patient patient = null;
+        for (int i = 0; i < count; i++) {
+            if (patient == null || patient.getPatientId() != patientIds[i]) {
+                patient = patients.computeIfAbsent(patientIds[i], Patient::new);
+            }
+            patient.addRecord(values[i], recordType, timestamps[i]);
+            discardExpired(patient, timestamps[i]);
+            if (metrics != null) {
+                metrics.record(LatencyMetrics.Stage.STORED, recordType, timestamps[i]);
+            }
+            for (DataListener listener : listeners) {
+                listener.onData(patientIds[i], values[i], recordType, timestamps[i]);
+            }
+        }
+    }
+
+    private void discardExpired(Patient patient, long timestamp) {
+        long retention = recordRetentionMs;
+        if (retention > 0) {
+            patient.discardRecordsBefore(timestamp - retention);
+        }
+    }
+
+    /**
+     * Sets how long records are kept: adding a measurement discards the
+     * patient's records older than the retention before it. Readers that consume records incrementally skip
+     * records discarded before they got to them.
+     *
+     * @param retentionMs the retention in milliseconds, or 0 to keep every
+     *                    record, which is the default
+     */
+    public void setRecordRetention(long retentionMs) {
+        if (retentionMs < 0) {
+            throw new IllegalArgumentException("Retention must not be negative");
+        }
+        this.recordRetentionMs = retentionMs;
+    }
+
+    /**
+     * Registers a listener that is told about every measurement added from now
+     * on.
+     *
+     * @param listener the listener to add
+     */
+    public void addDataListener(DataListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addDataListener}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeDataListener(DataListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -85,12 +206,59 @@ public class DataStorage {
      * Initializes the system, reads data into storage, and continuously monitors
      * and evaluates patient data.
      * 
-     * @param args command line arguments
+     * @param args command line arguments: {@code dataDir:<directory>} to load
+     *             data from, and {@code parallel} or {@code parallel:<threads>} to
+     *             evaluate patients on a fork-join pool, and {@code nosuppress}
+     *             to trigger repeated alerts without deduplication, and
+     *             {@code rules:<file>} to run the alert rules in a rule file
+     *             instead of the built-in ones, reloading it when it changes, and
+     *             {@code alertLog:<file>} to keep alert history in a log that is
+     *             replayed on the next start, and {@code ecgRate:<hz>} to
+     *             derive a HeartRate series from ECG sampled at that rate, and
+     *             {@code baseline} to flag deviations from each patient's own
+     *             baseline. With any of {@code rules:}, {@code ecgRate:} and
+     *             {@code baseline}, serial evaluation runs through the
+     *             streaming engine like parallel evaluation does.
      */
     public static void main(String[] args) {
-        DataStorage storage = DataStorage.getInstance();
-        if (args.length > 0 && args[0].startsWith("dataDir:")) {
-            String dataPath = args[0].substring("dataDir:".length());
+        // Archived samples are as old as the archive, so their latency is not tracked.
+        DataStorage storage = new DataStorage();
+        String dataPath = null;
+        String rulesPath = null;
+        String alertLogPath = null;
+        int parallelism = 0;
+        double ecgRate = 0;
+        boolean suppress = true;
+        boolean baseline = false;
+        for (String arg : args) {
+            if (arg.startsWith("dataDir:")) {
+                dataPath = arg.substring("dataDir:".length());
+            } else if (arg.equals("parallel")) {
+                parallelism = Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith("alertLog:")) {
+                alertLogPath = arg.substring("alertLog:".length());
+            } else if (arg.startsWith("rules:")) {
+                rulesPath = arg.substring("rules:".length());
+            } else if (arg.startsWith("ecgRate:")) {
+                try {
+                    ecgRate = Double.parseDouble(arg.substring("ecgRate:".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid ECG rate in '" + arg + "'. Heart rate is not derived.");
+                }
+            } else if (arg.equals("nosuppress")) {
+                suppress = false;
+            } else if (arg.equals("baseline")) {
+                baseline = true;
+            } else if (arg.startsWith("parallel:")) {
+                try {
+                    parallelism = Integer.parseInt(arg.substring("parallel:".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid thread count in '" + arg + "'. Evaluating serially.");
+                }
+            }
+        }
+
+        if (dataPath != null) {
             System.out.println("Attempting to read data from directory: " + dataPath);
             DataReader reader = new FileDataReader(dataPath);
             try {
@@ -105,19 +273,83 @@ public class DataStorage {
 
         }
 
-        AlertGenerator alertGenerator = new AlertGenerator(storage);
+        AlertSuppressor suppressor = suppress ? new AlertSuppressor() : null;
+        AlertDeliveryPipeline deliveryPipeline = new AlertDeliveryPipeline();
+        deliveryPipeline.addSink(new ConsoleAlertSink());
+        deliveryPipeline.start();
+        AlertLog alertLog = null;
+        AlertStore alertStore = new AlertStore();
+        if (alertLogPath != null) {
+            try {
+                alertLog = new AlertLog(Paths.get(alertLogPath));
+                alertStore = AlertStore.withLog(AlertStore.DEFAULT_CAPACITY, AlertStore.DEFAULT_PATIENT_CAPACITY,
+                        AlertStore.DEFAULT_RETENTION_MS, alertLog);
+                System.out.println("Loaded " + alertStore.size() + " alerts from " + alertLogPath);
+            } catch (IOException e) {
+                System.err.println("Error opening alert log " + alertLogPath + ": " + e.getMessage());
+            }
+        }
+        AlertGenerator alertGenerator = new AlertGenerator(storage, suppressor, deliveryPipeline, alertStore);
+        boolean deriveHeartRate = false;
+        if (ecgRate > 0) {
+            StreamingAlertEngine engine = alertGenerator.getStreamingEngine();
+            try {
+                engine.register(new HeartRateStrategy(engine, storage, ecgRate));
+                deriveHeartRate = true;
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage() + ". Heart rate is not derived.");
+            }
+        }
+        if (baseline) {
+            alertGenerator.getStreamingEngine().register(new BaselineDeviationStrategy());
+        }
+        // Rules only the streaming engine runs need serial evaluation to go through it too.
+        boolean streaming = baseline || deriveHeartRate || rulesPath != null;
+        RuleFileWatcher ruleWatcher = null;
+        if (rulesPath != null) {
+            ruleWatcher = new RuleFileWatcher(Paths.get(rulesPath), alertGenerator.getStreamingEngine());
+            ruleWatcher.start(5, TimeUnit.SECONDS);
+        }
         System.out.println("\nEvaluating patient data for alerts...");
         List<Patient> patients = storage.getAllPatients();
         if (patients.isEmpty()) {
             System.out.println("No patient data in storage to evaluate.");
+        } else if (parallelism > 0) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                EvaluationReport report = alertGenerator.evaluateAll(patients, pool);
+                System.out.println(report);
+            } finally {
+                pool.shutdown();
+            }
         } else {
             for (Patient patient : patients) {
                 System.out.println("Evaluating data for patient: " + patient.getPatientId());
-                alertGenerator.evaluateData(patient);
+                if (streaming) {
+                    alertGenerator.evaluateNewData(patient);
+                } else {
+                    alertGenerator.evaluateData(patient);
+                }
             }
         }
 
+        if (ruleWatcher != null) {
+            ruleWatcher.close();
+        }
+        deliveryPipeline.close();
         System.out.println("\nAlert evaluation complete. Triggered alerts (if any) were printed above.");
+        System.out.println("Alert delivery: " + deliveryPipeline.getSinkMetrics().get(0));
+        if (alertLog != null) {
+            try {
+                alertLog.close();
+            } catch (IOException e) {
+                System.err.println("Error closing alert log " + alertLogPath + ": " + e.getMessage());
+            }
+        }
+        if (suppressor != null) {
+            System.out.println("Suppressed " + suppressor.getSuppressedCount() + " repeated alert(s), escalated "
+                    + suppressor.getEscalatedCount() + ".");
+        }
 
     }
 }
@@ -10,13 +10,31 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import com.metrics.LatencyMetrics;
+
 
 public class FileDataReader implements DataReader {
 
     private String outputDirectory;
+    private final LatencyMetrics metrics;
 
     public FileDataReader(String outputDirectory) {
+        this(outputDirectory, null);
+    }
+
+    /**
+     * Creates a reader that also records how long after their generation the
+     * samples are read. This is only meaningful while a running simulator is
+     * writing the files, not for archived ones.
+     *
+     * @param outputDirectory the directory of the simulator's output files
+     * @param metrics         the metrics to record
+     *                        {@link LatencyMetrics.Stage#READ} latency in, or
+     *                        {@code null} not to track latency
+     */
+    public FileDataReader(String outputDirectory, LatencyMetrics metrics) {
         this.outputDirectory = outputDirectory;
+        this.metrics = metrics;
     }
 
     @Override
@@ -49,6 +67,9 @@ public class FileDataReader implements DataReader {
 
             int patientId = Integer.parseInt(patientIdStr);
             long timestamp = Long.parseLong(timestampStr);
+            if (metrics != null) {
+                metrics.record(LatencyMetrics.Stage.READ, label, timestamp);
+            }
 
             if ("BloodPressure".equals(label)) {
                 String[] bpValues = dataStr.split("/");
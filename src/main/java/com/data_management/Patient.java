@@ -9,10 +9,20 @@ import java.util.Comparator;
  * This class stores patient-specific data, allowing for the addition and
  * retrieval
  * of medical records based on specified criteria.
+ *
+ * <p>A patient may be written to and read from different threads: every method
+ * synchronizes on the patient, so a caller can also hold its lock to read the
+ * record count and the records consistently. Records older than a cutoff can
+ * be discarded with {@link #discardRecordsBefore} to bound memory; record
+ * positions keep counting discarded records, so they stay valid cursors.</p>
  */
 public class Patient {
     private int patientId;
     private List<PatientRecord> patientRecords;
+    /** Index in {@code patientRecords} of the oldest record not discarded. */
+    private int firstRecord;
+    /** Number of discarded records already removed from {@code patientRecords}. */
+    private int removedRecords;
 
     /**
      * Constructs a new Patient with a specified ID.
@@ -36,7 +46,7 @@ public class Patient {
      * @param timestamp        the time at which the measurement was taken, in
      *                         milliseconds since UNIX epoch
      */
-    public void addRecord(double measurementValue, String recordType, long timestamp) {
+    public synchronized void addRecord(double measurementValue, String recordType, long timestamp) {
         PatientRecord record = new PatientRecord(this.patientId, measurementValue, recordType, timestamp);
         this.patientRecords.add(record);
     }
@@ -52,9 +62,9 @@ public class Patient {
      * @return a list of PatientRecord objects that fall within the specified time
      *         range
      */
-    public List<PatientRecord> getRecords(long startTime, long endTime) {
+    public synchronized List<PatientRecord> getRecords(long startTime, long endTime) {
         List<PatientRecord> recordsInRange = new ArrayList<>();
-        for (PatientRecord record : this.patientRecords) {
+        for (PatientRecord record : retainedRecords()) {
             if (record.getTimestamp() >= startTime && record.getTimestamp() <= endTime) {
                 recordsInRange.add(record);
             }
@@ -66,8 +76,54 @@ public class Patient {
      * Retrieves all records for this patient.
      * @return a list of all PatientRecord objects for this patient.
      */
-    public List<PatientRecord> getAllRecords() {
-        return new ArrayList<>(this.patientRecords);
+    public synchronized List<PatientRecord> getAllRecords() {
+        return new ArrayList<>(retainedRecords());
+    }
+
+    /**
+     * Returns the number of records added for this patient, including discarded
+     * ones. Records are only ever appended, so the count can be used as a cursor
+     * by incremental readers.
+     *
+     * @return the number of records added so far
+     */
+    public synchronized int getRecordCount() {
+        return removedRecords + this.patientRecords.size();
+    }
+
+    /**
+     * Retrieves the records added since the given position, in arrival order.
+     * Records discarded in the meantime are skipped.
+     *
+     * @param fromIndex the number of records the caller has already consumed
+     * @return a list of the PatientRecord objects added after {@code fromIndex}
+     */
+    public synchronized List<PatientRecord> getRecordsFrom(int fromIndex) {
+        int start = Math.max(fromIndex - removedRecords, firstRecord);
+        return new ArrayList<>(this.patientRecords.subList(start, this.patientRecords.size()));
+    }
+
+    /**
+     * Discards the oldest records, in arrival order, up to the first one taken
+     * at or after the cutoff.
+     *
+     * @param cutoff the time before which records are discarded, in
+     *               milliseconds since UNIX epoch
+     */
+    public synchronized void discardRecordsBefore(long cutoff) {
+        while (firstRecord < patientRecords.size() && patientRecords.get(firstRecord).getTimestamp() < cutoff) {
+            patientRecords.set(firstRecord++, null);
+        }
+        // Shift the list only once half of it is discarded, so each record is moved a constant number of times.
+        if (firstRecord > patientRecords.size() / 2) {
+            patientRecords.subList(0, firstRecord).clear();
+            removedRecords += firstRecord;
+            firstRecord = 0;
+        }
+    }
+
+    private List<PatientRecord> retainedRecords() {
+        return firstRecord == 0 ? patientRecords : patientRecords.subList(firstRecord, patientRecords.size());
     }
 
     public int getPatientId() {
@@ -0,0 +1,163 @@
+package com.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingest-to-alert latency of samples, per pipeline stage and record type.
+ *
+ * <p>Every sample keeps the timestamp its generator gave it all the way through
+ * the pipeline: through the {@code OutputStrategy}, the {@code DataReader}, the
+ * {@code PatientRecord} in {@code DataStorage} and the {@code Alert} raised for
+ * it. Each stage records how long after that timestamp the sample reached it, in
+ * milliseconds, into a {@link LatencyHistogram} for the stage and record type
+ * (for alerts, the alert code).</p>
+ *
+ * <p>Latency is only meaningful for samples stamped with the wall clock as they
+ * are generated. Components that record it take the metrics as an optional
+ * argument, and are given none when reading archives or simulated time.</p>
+ *
+ * <p>Recording looks up the histogram in a concurrent map and increments one
+ * counter, so it can stay on in production. Reading the wall clock would cost
+ * more than the rest of that on some systems, so the current time is taken from
+ * a volatile field that a daemon thread refreshes every millisecond, the same
+ * resolution the generation timestamps have. The thread is started by the first
+ * sample recorded in the process, so processes that track nothing never run
+ * it.</p>
+ */
+public class LatencyMetrics {
+    /** The pipeline stages at which latency is recorded. */
+    public enum Stage {
+        /** The sample was handed to an output strategy. */
+        OUTPUT,
+        /** The sample was parsed by a data reader. */
+        READ,
+        /** The sample was added to the data storage. */
+        STORED,
+        /** An alert was triggered for the sample. */
+        ALERTED
+    }
+
+    private static final LatencyMetrics INSTANCE = new LatencyMetrics();
+
+    // Generic arrays cannot be created; every element is a ConcurrentHashMap created below.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Map<String, LatencyHistogram>[] histograms = new Map[Stage.values().length];
+
+    public LatencyMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Returns the metrics shared by the whole process.
+     *
+     * @return the process-wide metrics
+     */
+    public static LatencyMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records that a sample reached a stage now.
+     *
+     * @param stage       the stage reached
+     * @param type        the record type of the sample, or the alert code
+     * @param generatedAt the generation timestamp of the sample, in
+     *                    milliseconds since the Unix epoch
+     */
+    public void record(Stage stage, String type, long generatedAt) {
+        histogram(stage, type).record(Clock.currentTimeMillis - generatedAt);
+    }
+
+    /**
+     * Returns the histogram of one stage and type, creating it if needed.
+     *
+     * @param stage the stage
+     * @param type  the record type or alert code
+     * @return the live histogram
+     */
+    public LatencyHistogram histogram(Stage stage, String type) {
+        Map<String, LatencyHistogram> byType = histograms[stage.ordinal()];
+        LatencyHistogram histogram = byType.get(type);
+        if (histogram == null) {
+            histogram = byType.computeIfAbsent(type, t -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns a histogram of one stage over all types.
+     *
+     * @param stage the stage
+     * @return a merged copy
+     */
+    public LatencyHistogram histogram(Stage stage) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms[stage.ordinal()].values()) {
+            merged.add(histogram);
+        }
+        return merged;
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public void reset() {
+        for (Map<String, LatencyHistogram> byType : histograms) {
+            byType.clear();
+        }
+    }
+
+    /**
+     * Formats p50, p99 and p99.9 latencies of every stage that saw samples, per
+     * type and over all types.
+     *
+     * @return one line per stage and type
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(String.format("%-8s %-24s %10s %8s %8s %8s %8s%n",
+                "stage", "type", "count", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (Stage stage : Stage.values()) {
+            Map<String, LatencyHistogram> byType = new TreeMap<>(histograms[stage.ordinal()]);
+            if (byType.isEmpty()) {
+                continue;
+            }
+            for (Map.Entry<String, LatencyHistogram> entry : byType.entrySet()) {
+                appendLine(report, stage, entry.getKey(), entry.getValue());
+            }
+            if (byType.size() > 1) {
+                appendLine(report, stage, "(all)", histogram(stage));
+            }
+        }
+        return report.toString();
+    }
+
+    /** The millisecond clock, whose thread starts when the class is first used. */
+    private static final class Clock {
+        static volatile long currentTimeMillis = System.currentTimeMillis();
+
+        static {
+            Thread clock = new Thread(() -> {
+                try {
+                    while (true) {
+                        currentTimeMillis = System.currentTimeMillis();
+                        Thread.sleep(1);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "latency-metrics-clock");
+            clock.setDaemon(true);
+            clock.start();
+        }
+    }
+
+    private static void appendLine(StringBuilder report, Stage stage, String type, LatencyHistogram histogram) {
+        report.append(String.format("%-8s %-24s %10d %8d %8d %8d %8d%n", stage, type, histogram.getCount(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9), histogram.getMax()));
+    }
+}
@@ -0,0 +1,104 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AcuitySchedulerTest {
+
+    private DataStorage storage;
+    private AlertGenerator generator;
+    private AcuityScheduler scheduler;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        storage = new DataStorage();
+        generator = new AlertGenerator(storage, null);
+        now = 1_000_000;
+        scheduler = new AcuityScheduler(generator, storage, 1000, 30_000, 60_000, () -> now);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    void testStablePatientIsEvaluatedAtStableCadence() {
+        storage.addPatientData(1, 97, "BloodSaturation", now);
+        assertEquals(1, scheduler.runDue(now));
+
+        now += 1000;
+        storage.addPatientData(1, 98, "BloodSaturation", now);
+        assertEquals(0, scheduler.runDue(now));
+        assertEquals(0, scheduler.runDue(now + 28_999));
+        assertEquals(1, scheduler.runDue(now + 29_000));
+    }
+
+    @Test
+    void testAbnormalValueSwitchesToAcuteCadence() {
+        storage.addPatientData(1, 97, "BloodSaturation", now);
+        scheduler.runDue(now);
+
+        now += 500;
+        storage.addPatientData(1, 88, "BloodSaturation", now);
+        assertTrue(scheduler.isAcute(1));
+        assertEquals(0, scheduler.runDue(now));
+        assertEquals(1, scheduler.runDue(now + 500));
+        assertFalse(generator.getTriggeredAlerts().isEmpty());
+    }
+
+    @Test
+    void testPatientsWithoutNewDataAreNotEvaluated() {
+        for (int patient = 1; patient <= 100; patient++) {
+            storage.addPatientData(patient, 97, "BloodSaturation", now);
+        }
+        assertEquals(100, scheduler.runDue(now));
+
+        now += 60_000;
+        storage.addPatientData(7, 97, "BloodSaturation", now);
+        assertEquals(1, scheduler.runDue(now));
+        assertEquals(101, scheduler.getEvaluationCount());
+    }
+
+    @Test
+    void testAlertKeepsPatientAcute() {
+        storage.addPatientData(1, 1, "ManualAlert", now);
+        scheduler.runDue(now);
+        assertTrue(scheduler.isAcute(1));
+
+        now += 61_000;
+        assertFalse(scheduler.isAcute(1));
+    }
+
+    @Test
+    void testAbnormalValuesFollowTheRules() {
+        storage.addPatientData(1, 45, "HeartRate", now);
+        assertFalse(scheduler.isAcute(1), "No rule reads a low heart rate on its own.");
+
+        generator.getStreamingEngine().register(new AlertStrategy() {
+            @Override
+            public String[] getRecordTypes() {
+                return new String[] {"Temperature"};
+            }
+
+            @Override
+            public boolean isAbnormal(String recordType, double value) {
+                return value > 39;
+            }
+
+            @Override
+            public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+            }
+        });
+        storage.addPatientData(2, 38, "Temperature", now);
+        assertFalse(scheduler.isAcute(2));
+        storage.addPatientData(2, 40, "Temperature", now);
+        assertTrue(scheduler.isAcute(2));
+    }
+}
@@ -0,0 +1,139 @@
+package com.alerts;
+
+import com.data_management.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class AlertDispatcherTest {
+
+    private AlertDispatcher dispatcher;
+    private Patient patient;
+    private List<Alert> alerts;
+
+    /** Records how it was called and raises one alert per new sample. */
+    private static class RecordingStrategy implements AlertStrategy {
+        private final String[] recordTypes;
+        int calls;
+        int newSamples;
+
+        RecordingStrategy(String... recordTypes) {
+            this.recordTypes = recordTypes;
+        }
+
+        @Override
+        public String[] getRecordTypes() {
+            return recordTypes;
+        }
+
+        @Override
+        public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+            calls++;
+            for (RecordSeries s : series) {
+                for (long i = s.getFirstNewIndex(); i < s.size(); i++) {
+                    newSamples++;
+                    alertFactory.createAlert(String.valueOf(patient.getPatientId()), s.getRecordType(), s.getTimestamp(i));
+                }
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new AlertDispatcher(16);
+        patient = new Patient(7);
+        alerts = new ArrayList<>();
+    }
+
+    @Test
+    void testRoutesOnlyRegisteredRecordTypes() {
+        RecordingStrategy ecg = new RecordingStrategy("ECG");
+        RecordingStrategy saturation = new RecordingStrategy("BloodSaturation");
+        dispatcher.register(ecg, Alert::new);
+        dispatcher.register(saturation, Alert::new);
+
+        patient.addRecord(0.5, "ECG", 1000L);
+        patient.addRecord(0.6, "ECG", 2000L);
+        patient.addRecord(75.0, "HeartRate", 2000L);
+        dispatcher.dispatch(patient, alerts::add);
+
+        assertEquals(1, ecg.calls);
+        assertEquals(2, ecg.newSamples);
+        assertEquals(0, saturation.calls, "A strategy without new samples of its types should not be called.");
+        assertEquals(2, alerts.size());
+    }
+
+    @Test
+    void testOnlyNewSamplesAreDispatched() {
+        RecordingStrategy ecg = new RecordingStrategy("ECG");
+        dispatcher.register(ecg, Alert::new);
+
+        patient.addRecord(0.5, "ECG", 1000L);
+        dispatcher.dispatch(patient, alerts::add);
+        dispatcher.dispatch(patient, alerts::add);
+        patient.addRecord(0.6, "ECG", 2000L);
+        dispatcher.dispatch(patient, alerts::add);
+
+        assertEquals(2, ecg.calls);
+        assertEquals(2, ecg.newSamples);
+        assertEquals(2000L, alerts.get(1).getTimestamp());
+    }
+
+    @Test
+    void testMultiTypeStrategyGetsSeriesInDeclaredOrder() {
+        List<String> seen = new ArrayList<>();
+        dispatcher.register(new AlertStrategy() {
+            @Override
+            public String[] getRecordTypes() {
+                return new String[] {"BloodPressureSystolic", "BloodPressureDiastolic"};
+            }
+
+            @Override
+            public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+                seen.add(series[0].getRecordType() + "=" + series[0].size());
+                seen.add(series[1].getRecordType() + "=" + series[1].size());
+            }
+        }, Alert::new);
+
+        patient.addRecord(80.0, "BloodPressureDiastolic", 1000L);
+        dispatcher.dispatch(patient, alerts::add);
+
+        assertEquals(List.of("BloodPressureSystolic=0", "BloodPressureDiastolic=1"), seen);
+    }
+
+    @Test
+    void testLargeBacklogIsDispatchedBeforeSeriesWraps() {
+        RecordingStrategy ecg = new RecordingStrategy("ECG");
+        dispatcher.register(ecg, Alert::new);
+
+        for (int i = 0; i < 100; i++) {
+            patient.addRecord(0.5, "ECG", 1000L * i);
+        }
+        dispatcher.dispatch(patient, alerts::add);
+
+        assertEquals(100, ecg.newSamples, "Every sample should be seen even though the series holds only 16.");
+        assertEquals(100, alerts.size());
+    }
+
+    @Test
+    void testStrategyCanBeCalledWithPlainRecordList() {
+        BloodPressureStrategy strategy = new BloodPressureStrategy();
+        Patient bpPatient = new Patient(1);
+        bpPatient.addRecord(100.0, "BloodPressureSystolic", 1000L);
+        bpPatient.addRecord(115.0, "BloodPressureSystolic", 2000L);
+        bpPatient.addRecord(130.0, "BloodPressureSystolic", 3000L);
+
+        List<Alert> created = new ArrayList<>();
+        strategy.checkAlert(bpPatient, bpPatient.getAllRecords(), (id, condition, timestamp) -> {
+            Alert alert = new Alert(id, condition, timestamp);
+            created.add(alert);
+            return alert;
+        });
+
+        assertEquals(1, created.size());
+        assertEquals("Systolic Increasing Trend", created.get(0).getCondition());
+    }
+}
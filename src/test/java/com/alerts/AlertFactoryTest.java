@@ -33,4 +33,51 @@ public class AlertFactoryTest {
         assertEquals("ECG: Irregular Rhythm", alert.getCondition());
         assertEquals(1000L, alert.getTimestamp());
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testStructuredAlertRendersConditionOnDemand() {
+        AlertFactory factory = new BloodPressureAlertFactory();
+        Alert alert = factory.createAlert(123, AlertCode.CRITICAL_SYSTOLIC_HIGH, 181.0, 180.0, 1000L);
+
+        assertEquals(AlertCode.CRITICAL_SYSTOLIC_HIGH, alert.getCode());
+        assertEquals(123, alert.getPatientNumber());
+        assertEquals(181.0, alert.getValue());
+        assertEquals(1, alert.getPriority());
+        assertEquals("123", alert.getPatientId());
+        assertEquals("Blood Pressure: Critical Systolic High: 181.0", alert.getCondition());
+    }
+
+    @Test
+    public void testStructuredAlertMatchesLegacyText() {
+        Alert alert = new StructuredAlertFactory().createAlert(7, AlertCode.ABNORMAL_ECG_PEAK, 2.5, 0.3456, 1000L);
+        assertEquals("Abnormal ECG Peak: 2.5 (Avg: " + String.format("%.2f", 0.3456) + ")", alert.getCondition());
+
+        Alert legacy = new Alert("7", "Low Oxygen", 1000L);
+        assertEquals(AlertCode.CUSTOM, legacy.getCode());
+        assertEquals(7, legacy.getPatientNumber());
+        assertEquals(0, legacy.getPriority());
+    }
+
+    @Test
+    public void testReusableAlertFactoryReusesInstance() {
+        AlertFactory factory = new ReusableAlertFactory();
+        Alert first = factory.createAlert(1, AlertCode.LOW_BLOOD_SATURATION, 90.0, 92.0, 1000L);
+        Alert kept = first.copy();
+        Alert second = factory.createAlert(2, AlertCode.MANUAL_ALERT, 1.0, 0, 2000L);
+
+        assertSame(first, second);
+        assertEquals("Manual Alert Triggered", second.getCondition());
+        assertEquals("1", kept.getPatientId());
+        assertEquals("Low Blood Saturation: 90.0", kept.getCondition());
+        assertEquals(1000L, kept.getTimestamp());
+    }
+
+    @Test
+    public void testPriorityDecoratorOverridesDefaultPriority() {
+        Alert alert = new Alert(1, AlertCode.LOW_BLOOD_SATURATION, 90.0, 92.0, 1000L);
+        Alert escalated = new PriorityAlertDecorator(alert, 1);
+        assertEquals(2, alert.getPriority());
+        assertEquals(1, escalated.getPriority());
+        assertEquals(AlertCode.LOW_BLOOD_SATURATION, escalated.copy().getCode());
+    }
+}
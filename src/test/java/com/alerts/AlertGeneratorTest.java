@@ -6,8 +6,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import com.alerts.AlertGenerator;
+import com.alerts.store.AlertStore;
+import com.metrics.LatencyMetrics;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 class AlertGeneratorTest {
 
@@ -281,4 +287,135 @@ class AlertGeneratorTest {
         alertGenerator.evaluateData(patient);
         assertTrue(alertGenerator.getTriggeredAlerts().isEmpty(), "Should not trigger any alerts for normal data.");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testReadingBackInRangeEndsSuppressedEpisode() {
+        AlertGenerator generator = new AlertGenerator(dataStorage, new AlertSuppressor());
+        long time = 1700000000000L;
+        patient.addRecord(91.0, "BloodSaturation", time);
+        patient.addRecord(90.5, "BloodSaturation", time + 1000);
+        generator.evaluateNewData(patient);
+        assertEquals(1, generator.getTriggeredAlerts().size(), "The repeat is suppressed");
+
+        patient.addRecord(93.0, "BloodSaturation", time + 2000);
+        patient.addRecord(91.0, "BloodSaturation", time + 3000);
+        generator.evaluateNewData(patient);
+
+        List<Alert> alerts = generator.getTriggeredAlerts();
+        assertEquals(2, alerts.size(), "A new episode after the reading cleared");
+        assertEquals("Low Blood Saturation: 91.0", alerts.get(1).getCondition());
+    }
+
+    @Test
+    void testClearedManualAlertEndsSuppressedEpisode() {
+        AlertGenerator generator = new AlertGenerator(dataStorage, new AlertSuppressor());
+        long time = 1700000000000L;
+        patient.addRecord(1.0, "ManualAlert", time);
+        patient.addRecord(0.0, "ManualAlert", time + 1000);
+        patient.addRecord(1.0, "ManualAlert", time + 2000);
+        generator.evaluateNewData(patient);
+
+        assertEquals(2, generator.getTriggeredAlerts().size());
+    }
+
+    @Test
+    void testClearedCriticalConditionIsNoLongerOpenInStore() {
+        AlertGenerator generator = new AlertGenerator(dataStorage, new AlertSuppressor());
+        long time = 1700000000000L;
+        patient.addRecord(185.0, "BloodPressureSystolic", time);
+        generator.evaluateNewData(patient);
+        assertEquals(1, generator.getAlertStore().getOpenCriticalAlerts().size());
+
+        patient.addRecord(130.0, "BloodPressureSystolic", time + 60000);
+        generator.evaluateNewData(patient);
+        assertTrue(generator.getAlertStore().getOpenCriticalAlerts().isEmpty());
+    }
+
+    // --- Parallel Evaluation Tests ---
+    @Test
+    void testEvaluateAllMatchesSerialEvaluation() {
+        List<Patient> patients = new ArrayList<>();
+        List<Patient> copies = new ArrayList<>();
+        long time = 1700000000000L;
+        for (int id = 1; id <= 500; id++) {
+            Patient p = new Patient(id);
+            Patient copy = new Patient(id);
+            for (int i = 0; i < 12; i++) {
+                double systolic = id % 7 == 0 ? 185.0 : 120.0 + (i % 3);
+                p.addRecord(systolic, "BloodPressureSystolic", time + i * 1000);
+                copy.addRecord(systolic, "BloodPressureSystolic", time + i * 1000);
+                double ecg = (id % 5 == 0 && i == 11) ? 4.0 : 0.5;
+                p.addRecord(ecg, "ECG", time + i * 1000);
+                copy.addRecord(ecg, "ECG", time + i * 1000);
+            }
+            patients.add(p);
+            copies.add(copy);
+        }
+
+        AlertGenerator serial = new AlertGenerator(dataStorage);
+        for (Patient p : copies) {
+            serial.evaluateNewData(p);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            EvaluationReport report = alertGenerator.evaluateAll(patients, pool);
+            assertEquals(500, report.getPatientCount());
+            assertEquals(serial.getTriggeredAlerts().size(), report.getAlertCount());
+        } finally {
+            pool.shutdown();
+        }
+
+        Set<String> expected = new HashSet<>();
+        for (Alert a : serial.getTriggeredAlerts()) {
+            expected.add(a.getPatientId() + "|" + a.getCondition() + "|" + a.getTimestamp());
+        }
+        Set<String> actual = new HashSet<>();
+        for (Alert a : alertGenerator.getTriggeredAlerts()) {
+            actual.add(a.getPatientId() + "|" + a.getCondition() + "|" + a.getTimestamp());
+        }
+        assertEquals(expected, actual);
+        assertEquals(alertGenerator.getTriggeredAlerts().size(), actual.size());
+    }
+
+    @Test
+    void testEvaluateAllAppliesResolutionsInOrder() {
+        Patient p = new Patient(1);
+        Patient copy = new Patient(1);
+        for (Patient target : new Patient[] {p, copy}) {
+            target.addRecord(200.0, "BloodPressureSystolic", 1000L);
+            target.addRecord(120.0, "BloodPressureSystolic", 2000L);
+            target.addRecord(210.0, "BloodPressureSystolic", 60000L);
+        }
+
+        AlertGenerator serial = new AlertGenerator(dataStorage, new AlertSuppressor());
+        serial.evaluateNewData(copy);
+        AlertGenerator parallel = new AlertGenerator(dataStorage, new AlertSuppressor());
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            parallel.evaluateAll(List.of(p), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(2, serial.getTriggeredAlerts().size(), "The reading in range ends the first episode");
+        assertEquals(serial.getTriggeredAlerts().size(), parallel.getTriggeredAlerts().size());
+        assertEquals(210.0, parallel.getTriggeredAlerts().get(1).getValue());
+        assertEquals(serial.getAlertStore().getOpenCriticalAlerts().size(),
+                parallel.getAlertStore().getOpenCriticalAlerts().size());
+        assertEquals(1, parallel.getAlertStore().getOpenCriticalAlerts().size(), "Only the 210 reading is open");
+    }
+
+    @Test
+    void testAlertLatencyIsRecordedOnlyInInjectedMetrics() {
+        LatencyMetrics metrics = new LatencyMetrics();
+        AlertGenerator tracked = new AlertGenerator(dataStorage, null, null, new AlertStore(), metrics);
+        patient.addRecord(181.0, "BloodPressureSystolic", System.currentTimeMillis());
+        tracked.evaluateNewData(patient);
+        alertGenerator.evaluateNewData(patient);
+
+        assertEquals(1, tracked.getTriggeredAlerts().size());
+        assertEquals(1, alertGenerator.getTriggeredAlerts().size());
+        assertEquals(1, metrics.histogram(LatencyMetrics.Stage.ALERTED).getCount(),
+                "Only the generator given the metrics records latency");
+    }
+}
@@ -0,0 +1,117 @@
+package com.alerts;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertSuppressorTest {
+
+    private static final long MINUTE = 60 * 1000;
+
+    @Test
+    void testRepeatsAreSuppressedUntilRenotifyInterval() {
+        AlertSuppressor suppressor = new AlertSuppressor(5 * MINUTE, 3, 15 * MINUTE, 16);
+
+        assertNotNull(suppressor.process(new Alert("1", "Critical Systolic High: 181.0", 0)));
+        assertNull(suppressor.process(new Alert("1", "Critical Systolic High: 185.0", MINUTE)));
+        assertNull(suppressor.process(new Alert("1", "Critical Systolic High: 190.0", 4 * MINUTE)));
+
+        Alert repeated = suppressor.process(new Alert("1", "Critical Systolic High: 188.0", 5 * MINUTE));
+        assertTrue(repeated instanceof RepeatedAlertDecorator);
+        assertEquals("[Repeated] Critical Systolic High: 188.0", repeated.getCondition());
+        assertEquals(2, suppressor.getSuppressedCount());
+    }
+
+    @Test
+    void testDifferentPatientsAndConditionsAreIndependent() {
+        AlertSuppressor suppressor = new AlertSuppressor(5 * MINUTE, 3, 15 * MINUTE, 16);
+
+        assertNotNull(suppressor.process(new Alert("1", "Low Blood Saturation: 90.0", 0)));
+        assertNotNull(suppressor.process(new Alert("2", "Low Blood Saturation: 90.0", 0)));
+        assertNotNull(suppressor.process(new Alert("1", "Rapid Blood Saturation Drop", 0)));
+        assertEquals(3, suppressor.size());
+    }
+
+    @Test
+    void testEscalatesAfterRepeatedRenotifications() {
+        AlertSuppressor suppressor = new AlertSuppressor(MINUTE, 2, 15 * MINUTE, 16);
+
+        suppressor.process(new Alert("1", "Manual Alert Triggered", 0));
+        assertFalse(suppressor.process(new Alert("1", "Manual Alert Triggered", MINUTE)) instanceof PriorityAlertDecorator);
+        assertFalse(suppressor.process(new Alert("1", "Manual Alert Triggered", 2 * MINUTE)) instanceof PriorityAlertDecorator);
+
+        Alert escalated = suppressor.process(new Alert("1", "Manual Alert Triggered", 3 * MINUTE));
+        assertTrue(escalated instanceof PriorityAlertDecorator);
+        assertEquals(1, ((PriorityAlertDecorator) escalated).getPriorityLevel());
+        assertEquals(1, suppressor.getEscalatedCount());
+    }
+
+    @Test
+    void testResolveAndQuietPeriodStartNewEpisode() {
+        AlertSuppressor suppressor = new AlertSuppressor(5 * MINUTE, 3, 15 * MINUTE, 16);
+
+        suppressor.process(new Alert("1", "Critical Diastolic Low: 55.0", 0));
+        suppressor.resolve("1", "Critical Diastolic Low");
+        Alert afterResolve = suppressor.process(new Alert("1", "Critical Diastolic Low: 54.0", MINUTE));
+        assertFalse(afterResolve instanceof RepeatedAlertDecorator);
+
+        Alert afterQuiet = suppressor.process(new Alert("1", "Critical Diastolic Low: 54.0", 20 * MINUTE));
+        assertNotNull(afterQuiet);
+        assertFalse(afterQuiet instanceof RepeatedAlertDecorator);
+    }
+
+    @Test
+    void testFullTableFailsOpenAndPurgeReclaimsEntries() {
+        AlertSuppressor suppressor = new AlertSuppressor(5 * MINUTE, 3, 15 * MINUTE, 4);
+        for (int patient = 0; patient < 4; patient++) {
+            suppressor.process(new Alert(String.valueOf(patient), "Low Blood Saturation: 90.0", 0));
+        }
+
+        assertNotNull(suppressor.process(new Alert("9", "Low Blood Saturation: 90.0", 0)));
+        assertNotNull(suppressor.process(new Alert("9", "Low Blood Saturation: 90.0", 0)));
+        assertEquals(2, suppressor.getOverflowCount());
+
+        assertEquals(4, suppressor.purgeExpired(16 * MINUTE));
+        assertEquals(0, suppressor.size());
+        suppressor.process(new Alert("9", "Low Blood Saturation: 90.0", 16 * MINUTE));
+        assertNull(suppressor.process(new Alert("9", "Low Blood Saturation: 90.0", 16 * MINUTE)));
+    }
+
+    @Test
+    void testStaleEntriesArePurgedAsAlertTimePasses() {
+        AlertSuppressor suppressor = new AlertSuppressor(5 * MINUTE, 3, 15 * MINUTE, 4);
+        for (int patient = 0; patient < 4; patient++) {
+            suppressor.process(new Alert(String.valueOf(patient), "Low Blood Saturation: 90.0", 0));
+        }
+
+        assertNotNull(suppressor.process(new Alert("9", "Low Blood Saturation: 90.0", 16 * MINUTE)));
+        assertEquals(1, suppressor.size());
+        assertEquals(0, suppressor.getOverflowCount());
+        assertNull(suppressor.process(new Alert("9", "Low Blood Saturation: 90.0", 16 * MINUTE)));
+    }
+
+    @Test
+    void testConditionCodeDropsMeasurement() {
+        assertEquals("Abnormal ECG Peak", AlertSuppressor.conditionCode("Abnormal ECG Peak: 2.5 (Avg: 0.30)"));
+        assertEquals("Blood Pressure: Critical Systolic High",
+                AlertSuppressor.conditionCode("Blood Pressure: Critical Systolic High: 181.0"));
+        assertEquals("Systolic Increasing Trend", AlertSuppressor.conditionCode("Systolic Increasing Trend"));
+    }
+
+    @Test
+    void testStaleEntriesArePurgedIncrementally() {
+        AlertSuppressor suppressor = new AlertSuppressor(5 * MINUTE, 3, 15 * MINUTE, 1024);
+        for (int patient = 0; patient < 1024; patient++) {
+            suppressor.process(new Alert(patient, AlertCode.LOW_BLOOD_SATURATION, 90, 92, 0));
+        }
+
+        suppressor.process(new Alert(5000, AlertCode.LOW_BLOOD_SATURATION, 90, 92, 16 * MINUTE));
+        assertTrue(suppressor.size() > 1000, "One alert only checks a bounded part of the table");
+
+        // 2048 slots and 1024 removals, 16 of either per alert.
+        for (int i = 0; i < (2048 + 1024) / 16; i++) {
+            suppressor.process(new Alert(5000, AlertCode.LOW_BLOOD_SATURATION, 90, 92, 16 * MINUTE));
+        }
+        assertEquals(1, suppressor.size(), "A full sweep has passed every slot");
+        assertEquals(0, suppressor.getOverflowCount());
+    }
+}
@@ -0,0 +1,114 @@
+package com.alerts;
+
+import com.data_management.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaselineDeviationStrategyTest {
+
+    private AlertDispatcher dispatcher;
+    private List<Alert> alerts;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new AlertDispatcher();
+        dispatcher.register(new BaselineDeviationStrategy(), new StructuredAlertFactory());
+        alerts = new ArrayList<>();
+    }
+
+    /** Adds readings alternating around the baseline, like the simulator's bounded noise. */
+    private static void addNoisyReadings(Patient patient, String recordType, double baseline, double noise,
+                                         int count, long start) {
+        for (int i = 0; i < count; i++) {
+            double offset = (i % 2 == 0 ? 1 : -1) * noise * ((i % 5) / 4.0);
+            patient.addRecord(baseline + offset, recordType, start + i * 1000L);
+        }
+    }
+
+    @Test
+    void testOutlierAgainstOwnBaselineRaisesAlert() {
+        Patient patient = new Patient(1);
+        addNoisyReadings(patient, "Cholesterol", 160, 5, 50, 0);
+        dispatcher.dispatch(patient, alerts::add);
+        assertTrue(alerts.isEmpty());
+
+        patient.addRecord(200, "Cholesterol", 60_000);
+        dispatcher.dispatch(patient, alerts::add);
+        assertEquals(1, alerts.size());
+        assertEquals(AlertCode.CHOLESTEROL_BASELINE_DEVIATION, alerts.get(0).getCode());
+        assertEquals(200.0, alerts.get(0).getValue());
+        assertEquals(160, alerts.get(0).getReference(), 5, "The reference is the baseline mean.");
+        assertTrue(alerts.get(0).getCondition().startsWith("Cholesterol Baseline Deviation: 200.0 (Baseline: "));
+    }
+
+    @Test
+    void testBaselinesArePerPatient() {
+        Patient low = new Patient(1);
+        Patient high = new Patient(2);
+        addNoisyReadings(low, "WhiteBloodCells", 4.5, 0.5, 50, 0);
+        addNoisyReadings(high, "WhiteBloodCells", 9.5, 0.5, 50, 0);
+        low.addRecord(9.5, "WhiteBloodCells", 60_000);
+        high.addRecord(9.5, "WhiteBloodCells", 60_000);
+
+        dispatcher.dispatch(low, alerts::add);
+        dispatcher.dispatch(high, alerts::add);
+        assertEquals(1, alerts.size());
+        assertEquals("1", alerts.get(0).getPatientId());
+    }
+
+    @Test
+    void testNoAlertsDuringWarmUp() {
+        Patient patient = new Patient(1);
+        addNoisyReadings(patient, "RedBloodCells", 5, 0.1, 10, 0);
+        patient.addRecord(8, "RedBloodCells", 60_000);
+        dispatcher.dispatch(patient, alerts::add);
+        assertTrue(alerts.isEmpty());
+    }
+
+    @Test
+    void testDeviationsOfDifferentTypesAreSeparateConditions() {
+        AlertSuppressor suppressor = new AlertSuppressor();
+        Patient patient = new Patient(1);
+        addNoisyReadings(patient, "Cholesterol", 160, 5, 50, 0);
+        addNoisyReadings(patient, "BloodSaturation", 97, 1, 50, 0);
+        patient.addRecord(200, "Cholesterol", 60_000);
+        patient.addRecord(85, "BloodSaturation", 61_000);
+        dispatcher.dispatch(patient, alert -> {
+            Alert delivered = suppressor.process(alert);
+            if (delivered != null) {
+                alerts.add(delivered);
+            }
+        });
+
+        assertEquals(2, alerts.size(), "A cholesterol deviation should not suppress a saturation deviation.");
+        assertNotEquals(alerts.get(0).getCode(), alerts.get(1).getCode());
+    }
+
+    @Test
+    void testTypesWithoutCodeAreKeptApartByCondition() {
+        dispatcher = new AlertDispatcher();
+        dispatcher.register(new BaselineDeviationStrategy(new String[] {"Temperature", "Lactate"}, 0.05, 4, 20),
+                new StructuredAlertFactory());
+        AlertSuppressor suppressor = new AlertSuppressor();
+        Patient patient = new Patient(1);
+        addNoisyReadings(patient, "Temperature", 37, 0.2, 50, 0);
+        addNoisyReadings(patient, "Lactate", 1, 0.1, 50, 0);
+        patient.addRecord(40, "Temperature", 60_000);
+        patient.addRecord(4, "Lactate", 61_000);
+        dispatcher.dispatch(patient, alert -> {
+            Alert delivered = suppressor.process(alert);
+            if (delivered != null) {
+                alerts.add(delivered);
+            }
+        });
+
+        assertEquals(2, alerts.size());
+        assertTrue(alerts.get(0).getCondition().startsWith("Temperature Baseline Deviation: 40.0"));
+        assertTrue(alerts.get(1).getCondition().startsWith("Lactate Baseline Deviation: 4.0"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.alerts;
+
+import com.data_management.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoublePredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorrelationStrategyTest {
+
+    private static final long MINUTE = 60 * 1000;
+
+    private Patient patient;
+    private AlertDispatcher dispatcher;
+    private List<Alert> alerts;
+
+    @BeforeEach
+    void setUp() {
+        patient = new Patient(1);
+        dispatcher = new AlertDispatcher();
+        alerts = new ArrayList<>();
+    }
+
+    private void evaluate() {
+        dispatcher.dispatch(patient, alerts::add);
+    }
+
+    @Test
+    void testAlignedReadingsRaiseCombinedAlert() {
+        dispatcher.register(new HypotensiveHypoxemiaStrategy(), new StructuredAlertFactory());
+        patient.addRecord(85.0, "BloodPressureSystolic", 0);
+        patient.addRecord(95.0, "BloodSaturation", 10_000);
+        patient.addRecord(90.0, "BloodSaturation", 20_000);
+        evaluate();
+
+        assertEquals(1, alerts.size());
+        assertEquals(AlertCode.HYPOTENSIVE_HYPOXEMIA, alerts.get(0).getCode());
+        assertEquals(20_000, alerts.get(0).getTimestamp());
+        assertEquals(85.0, alerts.get(0).getValue());
+    }
+
+    @Test
+    void testStaleReadingIsNotCorrelated() {
+        dispatcher.register(new HypotensiveHypoxemiaStrategy(MINUTE), new StructuredAlertFactory());
+        patient.addRecord(85.0, "BloodPressureSystolic", 0);
+        evaluate();
+        patient.addRecord(90.0, "BloodSaturation", 2 * MINUTE);
+        evaluate();
+        assertTrue(alerts.isEmpty());
+
+        patient.addRecord(84.0, "BloodPressureSystolic", 2 * MINUTE + 1000);
+        evaluate();
+        assertEquals(1, alerts.size());
+    }
+
+    @Test
+    void testTachycardiaWithDesaturation() {
+        dispatcher.register(new TachycardicDesaturationStrategy(), new StructuredAlertFactory());
+        patient.addRecord(120.0, "HeartRate", 0);
+        patient.addRecord(91.0, "BloodSaturation", 1000);
+        patient.addRecord(80.0, "HeartRate", 2000);
+        patient.addRecord(90.0, "BloodSaturation", 3000);
+        evaluate();
+
+        assertEquals(1, alerts.size());
+        assertEquals("Tachycardic Desaturation Alert: 120.0 bpm", alerts.get(0).getCondition());
+    }
+
+    @Test
+    void testCorrelatesMoreThanTwoSeries() {
+        dispatcher.register(new CorrelationStrategy(AlertCode.CUSTOM, 1000,
+                new String[] {"A", "B", "C"},
+                new DoublePredicate[] {v -> v > 0, v -> v > 0, v -> v > 0}),
+                new StructuredAlertFactory());
+        patient.addRecord(1.0, "A", 0);
+        patient.addRecord(1.0, "B", 700);
+        patient.addRecord(1.0, "C", 1500);
+        patient.addRecord(1.0, "A", 1600);
+        evaluate();
+
+        assertEquals(1, alerts.size());
+        assertEquals(1600, alerts.get(0).getTimestamp());
+    }
+}
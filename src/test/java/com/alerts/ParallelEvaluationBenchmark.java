@@ -0,0 +1,46 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how {@link AlertGenerator#evaluateAll} scales with the number of
+ * fork-join workers. Not run as part of the test suite; start it with
+ * {@code java -cp target/classes:target/test-classes com.alerts.ParallelEvaluationBenchmark [patients] [maxThreads]}.
+ */
+public class ParallelEvaluationBenchmark {
+    private static final int RECORDS_PER_TYPE = 600;
+
+    public static void main(String[] args) {
+        int patientCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        PrintStream out = System.out;
+        // Alerts are logged to stdout by the generator; keep the benchmark output readable.
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        out.printf("%d patients, %d records each, %d available processors%n",
+                patientCount, RECORDS_PER_TYPE * 4, Runtime.getRuntime().availableProcessors());
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            List<Patient> patients = SyntheticPatients.create(patientCount, RECORDS_PER_TYPE, false);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                // Warm up on a separate population so the JIT has compiled the hot path.
+                List<Patient> warmUp = SyntheticPatients.create(patientCount / 10, RECORDS_PER_TYPE, false);
+                new AlertGenerator(new DataStorage()).evaluateAll(warmUp, pool);
+                EvaluationReport report = new AlertGenerator(new DataStorage()).evaluateAll(patients, pool);
+                if (threads == 1) {
+                    baseline = report.getWallTimeMillis();
+                }
+                out.printf("%s, speedup %.2fx%n", report, baseline / report.getWallTimeMillis());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
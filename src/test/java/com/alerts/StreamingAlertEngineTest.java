@@ -0,0 +1,152 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+class StreamingAlertEngineTest {
+
+    private AlertGenerator batchGenerator;
+    private AlertGenerator streamingGenerator;
+    private Patient batchPatient;
+    private Patient streamingPatient;
+
+    @BeforeEach
+    void setUp() {
+        DataStorage dataStorage = new DataStorage();
+        batchGenerator = new AlertGenerator(dataStorage);
+        streamingGenerator = new AlertGenerator(dataStorage);
+        batchPatient = new Patient(1);
+        streamingPatient = new Patient(1);
+    }
+
+    private void addRecord(double value, String recordType, long timestamp) {
+        batchPatient.addRecord(value, recordType, timestamp);
+        streamingPatient.addRecord(value, recordType, timestamp);
+    }
+
+    /** Runs the batch check after every record, which is what streaming evaluation must reproduce. */
+    private void evaluateBoth() {
+        batchGenerator.evaluateData(batchPatient);
+        streamingGenerator.evaluateNewData(streamingPatient);
+    }
+
+    private static Set<String> keys(List<Alert> alerts) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Alert alert : alerts) {
+            keys.add(alert.getPatientId() + "|" + alert.getCondition() + "|" + alert.getTimestamp());
+        }
+        return keys;
+    }
+
+    private static List<String> keyList(List<Alert> alerts) {
+        List<String> keys = new ArrayList<>();
+        for (Alert alert : alerts) {
+            keys.add(alert.getPatientId() + "|" + alert.getCondition() + "|" + alert.getTimestamp());
+        }
+        return keys;
+    }
+
+    @Test
+    void testEquivalentToBatchOnRandomizedFeed() {
+        Random random = new Random(42);
+        long time = 1700000000000L;
+        double systolic = 120, diastolic = 80, saturation = 97;
+
+        for (int i = 0; i < 400; i++) {
+            time += 1000 + random.nextInt(30000);
+            switch (random.nextInt(6)) {
+                case 0:
+                    systolic = Math.min(Math.max(systolic + random.nextInt(41) - 20, 70), 200);
+                    addRecord(systolic, "BloodPressureSystolic", time);
+                    break;
+                case 1:
+                    diastolic = Math.min(Math.max(diastolic + random.nextInt(41) - 20, 40), 140);
+                    addRecord(diastolic, "BloodPressureDiastolic", time);
+                    break;
+                case 2:
+                    saturation = Math.min(Math.max(saturation + random.nextInt(7) - 3, 85), 100);
+                    addRecord(saturation, "BloodSaturation", time);
+                    break;
+                case 3:
+                case 4:
+                    double ecg = random.nextInt(20) == 0 ? 3.0 : 0.5 + random.nextDouble() * 0.2 - 0.1;
+                    addRecord(ecg, "ECG", time);
+                    break;
+                default:
+                    addRecord(random.nextInt(4) == 0 ? 1.0 : 0.0, "ManualAlert", time);
+                    break;
+            }
+            evaluateBoth();
+        }
+
+        Set<String> batchKeys = keys(batchGenerator.getTriggeredAlerts());
+        List<String> streamingKeys = keyList(streamingGenerator.getTriggeredAlerts());
+        assertFalse(batchKeys.isEmpty(), "The feed should exercise at least some rules.");
+        assertEquals(batchKeys, new LinkedHashSet<>(streamingKeys));
+        assertEquals(streamingKeys.size(), new LinkedHashSet<>(streamingKeys).size(),
+                "Streaming evaluation should never raise the same alert twice.");
+    }
+
+    @Test
+    void testTrendAlertsAreNotReEmitted() {
+        long time = 1700000000000L;
+        addRecord(100.0, "BloodPressureSystolic", time);
+        addRecord(115.0, "BloodPressureSystolic", time + 1000);
+        addRecord(130.0, "BloodPressureSystolic", time + 2000);
+        streamingGenerator.evaluateNewData(streamingPatient);
+        assertEquals(1, streamingGenerator.getTriggeredAlerts().size());
+
+        addRecord(131.0, "BloodPressureSystolic", time + 3000);
+        streamingGenerator.evaluateNewData(streamingPatient);
+        streamingGenerator.evaluateNewData(streamingPatient);
+        assertEquals(1, streamingGenerator.getTriggeredAlerts().size(),
+                "Earlier trend windows must not be reported again on later evaluations.");
+    }
+
+    @Test
+    void testChunkedEvaluationMatchesPerRecordEvaluation() {
+        long time = 1700000000000L;
+        for (int i = 0; i < 30; i++) {
+            addRecord(i % 10 == 9 ? 2.5 : 0.5, "ECG", time + i * 1000);
+            addRecord(98.0 - (i % 8), "BloodSaturation", time + i * 1000 + 500);
+            if (i % 7 == 6) {
+                streamingGenerator.evaluateNewData(streamingPatient);
+            }
+        }
+        streamingGenerator.evaluateNewData(streamingPatient);
+
+        AlertGenerator perRecord = new AlertGenerator(new DataStorage());
+        Patient replayed = new Patient(1);
+        for (PatientRecord record : batchPatient.getAllRecords()) {
+            replayed.addRecord(record.getMeasurementValue(), record.getRecordType(), record.getTimestamp());
+            perRecord.evaluateNewData(replayed);
+        }
+
+        // Rules run one after another within an evaluation, so only the order of alerts may differ.
+        List<String> expected = keyList(perRecord.getTriggeredAlerts());
+        List<String> actual = keyList(streamingGenerator.getTriggeredAlerts());
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testNoNewRecordsRaisesNothing() {
+        streamingGenerator.evaluateNewData(streamingPatient);
+        addRecord(181.0, "BloodPressureSystolic", 1700000000000L);
+        streamingGenerator.evaluateNewData(streamingPatient);
+        streamingGenerator.evaluateNewData(streamingPatient);
+        assertEquals(1, streamingGenerator.getTriggeredAlerts().size());
+    }
+}
@@ -0,0 +1,54 @@
+package com.alerts;
+
+import com.data_management.Patient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Builds patient populations for the alert benchmarks. */
+public final class SyntheticPatients {
+    private SyntheticPatients() {
+    }
+
+    /**
+     * Creates patients with one record per second of blood pressure, saturation
+     * and ECG, drifting within the same ranges and step sizes as the simulator's
+     * generators. The same arguments always produce the same records.
+     *
+     * @param patientCount   the number of patients, with IDs from 1
+     * @param recordsPerType the number of records of each type per patient
+     * @param withEvents     whether to add ECG peaks every 50 seconds and a
+     *                       "ManualAlert" series with occasional alerts, so the
+     *                       rules raise and resolve alerts
+     * @return the patients
+     */
+    public static List<Patient> create(int patientCount, int recordsPerType, boolean withEvents) {
+        Random random = new Random(1);
+        List<Patient> patients = new ArrayList<>(patientCount);
+        long start = 1700000000000L;
+        for (int id = 1; id <= patientCount; id++) {
+            Patient patient = new Patient(id);
+            double systolic = 110 + random.nextInt(20);
+            double diastolic = 70 + random.nextInt(15);
+            double saturation = 95 + random.nextInt(6);
+            for (int i = 0; i < recordsPerType; i++) {
+                long timestamp = start + i * 1000L;
+                systolic = Math.min(Math.max(systolic + random.nextInt(5) - 2, 90), 180);
+                diastolic = Math.min(Math.max(diastolic + random.nextInt(5) - 2, 60), 120);
+                saturation = Math.min(Math.max(saturation + random.nextInt(3) - 1, 90), 100);
+                patient.addRecord(systolic, "BloodPressureSystolic", timestamp);
+                patient.addRecord(diastolic, "BloodPressureDiastolic", timestamp);
+                patient.addRecord(saturation, "BloodSaturation", timestamp);
+                if (withEvents) {
+                    patient.addRecord(random.nextGaussian() * 0.2 + (i % 50 == 0 ? 2.0 : 0.0), "ECG", timestamp);
+                    patient.addRecord(random.nextInt(200) == 0 ? 1.0 : 0.0, "ManualAlert", timestamp);
+                } else {
+                    patient.addRecord(0.5 + random.nextDouble() * 0.1, "ECG", timestamp);
+                }
+            }
+            patients.add(patient);
+        }
+        return patients;
+    }
+}
@@ -0,0 +1,103 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+class AlertDeliveryPipelineTest {
+
+    @Test
+    void testDeliversEveryAlertToEverySinkInOrder() throws InterruptedException {
+        AlertDeliveryPipeline pipeline = new AlertDeliveryPipeline(1024, 16);
+        InMemoryAlertSink first = new InMemoryAlertSink();
+        InMemoryAlertSink second = new InMemoryAlertSink();
+        SinkMetrics firstMetrics = pipeline.addSink("first", first, BackpressurePolicy.BLOCK, 64);
+        pipeline.addSink("second", second, BackpressurePolicy.BLOCK, 64);
+        pipeline.start();
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(pipeline.submit(new Alert("1", "Alert " + i, i)));
+        }
+        pipeline.close();
+
+        List<Alert> delivered = first.getAlerts();
+        assertEquals(500, delivered.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, delivered.get(i).getTimestamp());
+        }
+        assertEquals(500, second.getAlerts().size());
+        assertEquals(500, firstMetrics.getDeliveredCount());
+        assertEquals(0, firstMetrics.getDroppedCount());
+        assertTrue(first.getBatchCount() <= 500);
+    }
+
+    @Test
+    void testSubmitDoesNotBlockWhenIngressIsFull() throws InterruptedException {
+        AlertDeliveryPipeline pipeline = new AlertDeliveryPipeline(4, 4);
+        pipeline.addSink(new InMemoryAlertSink());
+
+        // Not started yet, so nothing drains the ingress queue.
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (pipeline.submit(new Alert("1", "Alert", i))) {
+                accepted++;
+            }
+        }
+        assertEquals(4, accepted);
+        assertEquals(6, pipeline.getRejectedCount());
+        pipeline.close();
+        assertEquals(4, pipeline.getSinkMetrics().get(0).getDeliveredCount());
+    }
+
+    @Test
+    void testSlowSinkDropsOldestWithoutHoldingBackOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        InMemoryAlertSink slow = new InMemoryAlertSink() {
+            @Override
+            public void deliver(List<Alert> batch) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.deliver(batch);
+            }
+        };
+        InMemoryAlertSink fast = new InMemoryAlertSink();
+        AlertDeliveryPipeline pipeline = new AlertDeliveryPipeline(1024, 1);
+        SinkMetrics slowMetrics = pipeline.addSink("slow", slow, BackpressurePolicy.DROP_OLDEST, 8);
+        pipeline.addSink("fast", fast, BackpressurePolicy.BLOCK, 1024);
+        pipeline.start();
+
+        for (int i = 0; i < 100; i++) {
+            pipeline.submit(new Alert("1", "Alert", i));
+        }
+        while (fast.getAlerts().size() < 100) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        pipeline.close();
+
+        List<Alert> slowAlerts = slow.getAlerts();
+        assertEquals(100, slowMetrics.getDroppedCount() + slowAlerts.size());
+        assertTrue(slowMetrics.getDroppedCount() > 0);
+        assertEquals(99, slowAlerts.get(slowAlerts.size() - 1).getTimestamp());
+    }
+
+    @Test
+    void testFailingSinkIsCountedAndDeliveryContinues() throws InterruptedException {
+        AlertDeliveryPipeline pipeline = new AlertDeliveryPipeline(16, 16);
+        SinkMetrics metrics = pipeline.addSink("failing", alerts -> {
+            throw new IllegalStateException("sink down");
+        }, BackpressurePolicy.BLOCK, 16);
+        pipeline.start();
+        pipeline.submit(new Alert("1", "Alert", 0));
+        pipeline.close();
+
+        assertEquals(1, metrics.getFailedBatchCount());
+        assertEquals(0, metrics.getDeliveredCount());
+    }
+}
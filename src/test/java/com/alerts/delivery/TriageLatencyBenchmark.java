@@ -0,0 +1,84 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+import com.alerts.AlertCode;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures how long priority-1 alerts take to reach a slow sink while a flood
+ * of priority-2 alerts keeps its queue full, with and without triage. Not run
+ * as part of the test suite; start it with
+ * {@code java -cp target/classes:target/test-classes com.alerts.delivery.TriageLatencyBenchmark [critical] [floodPerCritical]}.
+ *
+ * <p>Alert timestamps carry the {@link System#nanoTime()} of submission, so the
+ * sink can compute each alert's end-to-end delivery latency.</p>
+ */
+public class TriageLatencyBenchmark {
+    private static final int QUEUE_CAPACITY = 4_096;
+    private static final int BATCH_SIZE = 64;
+    private static final long SINK_COST_NANOS = 2_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int criticalCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int floodPerCritical = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        for (int round = 1; round <= 3; round++) {
+            System.out.printf("round %d: FIFO %s | triage %s%n", round,
+                    run(false, criticalCount, floodPerCritical),
+                    run(true, criticalCount, floodPerCritical));
+        }
+    }
+
+    private static String run(boolean triage, int criticalCount, int floodPerCritical) throws InterruptedException {
+        LatencySink sink = new LatencySink(criticalCount);
+        AlertDeliveryPipeline pipeline = new AlertDeliveryPipeline(QUEUE_CAPACITY, BATCH_SIZE, triage);
+        pipeline.addSink("slow", sink, BackpressurePolicy.BLOCK, QUEUE_CAPACITY);
+        pipeline.start();
+
+        for (int i = 0; i < criticalCount; i++) {
+            for (int j = 0; j < floodPerCritical; j++) {
+                pipeline.submit(new Alert(j, AlertCode.LOW_BLOOD_SATURATION, 90, 92, System.nanoTime()));
+            }
+            while (!pipeline.submit(new Alert(i, AlertCode.CRITICAL_SYSTOLIC_HIGH, 190, 180, System.nanoTime()))) {
+                Thread.onSpinWait();
+            }
+        }
+        pipeline.close();
+        return sink.summary();
+    }
+
+    /** Spends a fixed time per alert and records the latency of priority-1 alerts. */
+    private static final class LatencySink implements AlertSink {
+        private final long[] latencies;
+        private int count;
+
+        LatencySink(int capacity) {
+            this.latencies = new long[capacity];
+        }
+
+        @Override
+        public void deliver(List<Alert> batch) {
+            for (Alert alert : batch) {
+                long deadline = System.nanoTime() + SINK_COST_NANOS;
+                while (System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                if (alert.getPriority() == 1 && count < latencies.length) {
+                    latencies[count++] = System.nanoTime() - alert.getTimestamp();
+                }
+            }
+        }
+
+        String summary() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            if (count == 0) {
+                return "no critical alerts delivered";
+            }
+            return String.format("p50 %.2f ms, p99 %.2f ms (%d delivered)",
+                    sorted[count / 2] / 1e6, sorted[(int) (count * 0.99)] / 1e6, count);
+        }
+    }
+}
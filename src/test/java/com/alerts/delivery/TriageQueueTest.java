@@ -0,0 +1,74 @@
+package com.alerts.delivery;
+
+import com.alerts.Alert;
+import com.alerts.AlertCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriageQueueTest {
+
+    private static Alert critical(long timestamp) {
+        return new Alert(1, AlertCode.CRITICAL_SYSTOLIC_HIGH, 190, 180, timestamp);
+    }
+
+    private static Alert routine(long timestamp) {
+        return new Alert(1, AlertCode.LOW_BLOOD_SATURATION, 90, 92, timestamp);
+    }
+
+    @Test
+    void testCriticalAlertsOvertakeQueuedLowerPriorities() throws InterruptedException {
+        TriageQueue queue = new TriageQueue(3, 16, 8);
+        queue.offer(routine(1));
+        queue.offer(routine(2));
+        queue.offer(critical(3));
+
+        List<Alert> batch = new ArrayList<>();
+        assertEquals(3, queue.drainTo(batch, 10));
+        assertEquals(3, batch.get(0).getTimestamp());
+        assertEquals(1, batch.get(1).getTimestamp());
+        assertEquals(2, batch.get(2).getTimestamp());
+    }
+
+    @Test
+    void testLowerLaneIsServedAfterStarvationLimit() throws InterruptedException {
+        TriageQueue queue = new TriageQueue(3, 16, 2);
+        queue.offer(routine(100));
+        for (int i = 0; i < 5; i++) {
+            queue.offer(critical(i));
+        }
+
+        List<Alert> batch = new ArrayList<>();
+        queue.drainTo(batch, 10);
+        assertEquals(100, batch.get(2).getTimestamp());
+        assertEquals(AlertCode.CRITICAL_SYSTOLIC_HIGH, batch.get(3).getCode());
+    }
+
+    @Test
+    void testLanesHaveSeparateCapacities() {
+        TriageQueue queue = new TriageQueue(3, 2, 8);
+        assertTrue(queue.offer(routine(1)));
+        assertTrue(queue.offer(routine(2)));
+        assertFalse(queue.offer(routine(3)));
+        assertTrue(queue.offer(critical(4)));
+
+        assertTrue(queue.offerDroppingOldest(routine(5)));
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    void testSingleLaneIsFifoAndFinishedQueueDrainsFirst() throws InterruptedException {
+        TriageQueue queue = new TriageQueue(1, 16, 8);
+        queue.offer(routine(1));
+        queue.offer(critical(2));
+        queue.finish();
+
+        List<Alert> batch = new ArrayList<>();
+        assertEquals(2, queue.drainTo(batch, 10));
+        assertEquals(1, batch.get(0).getTimestamp());
+        assertEquals(-1, queue.drainTo(batch, 10));
+    }
+}
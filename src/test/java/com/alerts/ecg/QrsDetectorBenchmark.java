@@ -0,0 +1,42 @@
+package com.alerts.ecg;
+
+/**
+ * Measures how many ECG samples per second the QRS detector processes on one
+ * thread, feeding one-second blocks to each of many patients in turn as a live
+ * 500 Hz feed would. Keeping up with 1,000 patients at 500 Hz needs 500,000
+ * samples per second. Not run as part of the test suite; start it with
+ * {@code java -cp target/classes:target/test-classes com.alerts.ecg.QrsDetectorBenchmark [patients] [seconds]}.
+ */
+public class QrsDetectorBenchmark {
+    private static final double RATE = 500;
+
+    public static void main(String[] args) {
+        int patientCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int block = (int) RATE;
+        double[] ecg = SyntheticEcg.generate(RATE, 72, seconds, 0.03, 42);
+        double required = patientCount * RATE;
+
+        for (int round = 1; round <= 5; round++) {
+            QrsDetector[] detectors = new QrsDetector[patientCount];
+            for (int p = 0; p < patientCount; p++) {
+                detectors[p] = new QrsDetector(RATE);
+            }
+            long beats = 0;
+            long start = System.nanoTime();
+            for (int from = 0; from + block <= ecg.length; from += block) {
+                for (QrsDetector detector : detectors) {
+                    for (int i = from; i < from + block; i++) {
+                        if (detector.process(ecg[i], (long) (i * 2))) {
+                            beats++;
+                        }
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            double samplesPerSecond = (double) patientCount * (ecg.length / block * block) * 1e9 / elapsed;
+            System.out.printf("round %d: %.1f M samples/s, %.1fx the %d-patient 500 Hz load (%d beats)%n",
+                    round, samplesPerSecond / 1e6, samplesPerSecond / required, patientCount, beats);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.alerts.ecg;
+
+import com.alerts.Alert;
+import com.alerts.AlertCode;
+import com.alerts.AlertDispatcher;
+import com.alerts.AlertFactory;
+import com.alerts.AlertStrategy;
+import com.alerts.RecordSeries;
+import com.alerts.StreamingAlertEngine;
+import com.alerts.StructuredAlertFactory;
+import com.alerts.TachycardicDesaturationStrategy;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrsDetectorTest {
+
+    private static final double RATE = 500;
+
+    private static int countBeats(QrsDetector detector, double[] ecg) {
+        int beats = 0;
+        for (int i = 0; i < ecg.length; i++) {
+            if (detector.process(ecg[i], Math.round(i * 1000 / RATE))) {
+                beats++;
+            }
+        }
+        return beats;
+    }
+
+    @Test
+    void testDetectsEveryBeatAfterLearning() {
+        double[] ecg = SyntheticEcg.generate(RATE, 75, 20, 0.02, 1);
+        QrsDetector detector = new QrsDetector(RATE);
+
+        // 25 beats in 20 s, minus the two learnt over.
+        int beats = countBeats(detector, ecg);
+        assertTrue(beats >= 22 && beats <= 23, "beats: " + beats);
+        assertEquals(75, detector.getHeartRate(), 1.0);
+    }
+
+    @Test
+    void testFollowsTachycardia() {
+        double[] ecg = SyntheticEcg.generate(RATE, 130, 20, 0.05, 2);
+        QrsDetector detector = new QrsDetector(RATE);
+        countBeats(detector, ecg);
+        assertEquals(130, detector.getHeartRate(), 2.0);
+    }
+
+    @Test
+    void testRejectsLowSampleRate() {
+        assertThrows(IllegalArgumentException.class, () -> new QrsDetector(1));
+    }
+
+    @Test
+    void testDerivedHeartRateIsEvaluatedInTheSameDispatch() {
+        Patient patient = new Patient(7);
+        double[] ecg = SyntheticEcg.generate(RATE, 130, 10, 0.02, 3);
+        for (int i = 0; i < ecg.length; i++) {
+            long timestamp = Math.round(i * 1000 / RATE);
+            patient.addRecord(ecg[i], "ECG", timestamp);
+            if (i % (int) RATE == 0) {
+                patient.addRecord(90.0, "BloodSaturation", timestamp);
+            }
+        }
+        AlertDispatcher dispatcher = new AlertDispatcher();
+        List<Double> heartRates = new ArrayList<>();
+        dispatcher.register(new TachycardicDesaturationStrategy(), new StructuredAlertFactory());
+        dispatcher.register(new HeartRateStrategy(dispatcher::derive, RATE), new StructuredAlertFactory());
+        dispatcher.register(new AlertStrategy() {
+            @Override
+            public String[] getRecordTypes() {
+                return new String[] {HeartRateStrategy.HEART_RATE};
+            }
+
+            @Override
+            public void checkAlert(Patient p, RecordSeries[] series, AlertFactory alertFactory) {
+                for (long i = series[0].getFirstNewIndex(); i < series[0].size(); i++) {
+                    heartRates.add(series[0].getValue(i));
+                }
+            }
+        }, new StructuredAlertFactory());
+        List<Alert> alerts = new ArrayList<>();
+        dispatcher.dispatch(patient, alerts::add);
+
+        assertFalse(heartRates.isEmpty());
+        for (double heartRate : heartRates.subList(2, heartRates.size())) {
+            assertEquals(130, heartRate, 3.0);
+        }
+        assertFalse(alerts.isEmpty(), "Derived heart rates should be correlated in the same dispatch.");
+        for (Alert alert : alerts) {
+            assertEquals(AlertCode.TACHYCARDIC_DESATURATION, alert.getCode());
+        }
+        assertEquals(ecg.length + 10, patient.getRecordCount(), "Derived samples are not stored as records.");
+    }
+
+    @Test
+    void testStoredHeartRateIsNotEvaluatedAgain() {
+        DataStorage storage = new DataStorage();
+        double[] ecg = SyntheticEcg.generate(RATE, 130, 10, 0.02, 3);
+        for (int i = 0; i < ecg.length; i++) {
+            storage.addPatientData(7, ecg[i], "ECG", Math.round(i * 1000 / RATE));
+        }
+        List<Double> heartRates = new ArrayList<>();
+        StreamingAlertEngine engine = new StreamingAlertEngine(new ArrayList<>());
+        engine.register(new HeartRateStrategy(engine, storage, RATE));
+        engine.register(new AlertStrategy() {
+            @Override
+            public String[] getRecordTypes() {
+                return new String[] {HeartRateStrategy.HEART_RATE};
+            }
+
+            @Override
+            public void checkAlert(Patient p, RecordSeries[] series, AlertFactory alertFactory) {
+                for (long i = series[0].getFirstNewIndex(); i < series[0].size(); i++) {
+                    heartRates.add(series[0].getValue(i));
+                }
+            }
+        });
+        Patient patient = storage.getPatient(7);
+        engine.evaluate(patient, alert -> { });
+        int derived = heartRates.size();
+        assertTrue(derived > 0);
+
+        List<Double> stored = new ArrayList<>();
+        for (PatientRecord record : patient.getAllRecords()) {
+            if (record.getRecordType().equals(HeartRateStrategy.HEART_RATE)) {
+                stored.add(record.getMeasurementValue());
+            }
+        }
+        assertEquals(heartRates, stored, "Derived heart rates should be written to the storage.");
+
+        // Reading the stored heart rates back must not evaluate them a second time.
+        engine.evaluate(patient, alert -> { });
+        assertEquals(derived, heartRates.size());
+    }
+}
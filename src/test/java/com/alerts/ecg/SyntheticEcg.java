@@ -0,0 +1,42 @@
+package com.alerts.ecg;
+
+import java.util.Random;
+
+/** Builds ECG test signals from Gaussian P, Q, R, S and T waves. */
+final class SyntheticEcg {
+    // Offset from the R peak in seconds, width in seconds and amplitude in mV of each wave.
+    private static final double[][] WAVES = {
+        {-0.20, 0.025, 0.15},
+        {-0.03, 0.010, -0.15},
+        {0.00, 0.012, 1.20},
+        {0.03, 0.010, -0.25},
+        {0.25, 0.040, 0.30},
+    };
+
+    private SyntheticEcg() {
+    }
+
+    /**
+     * Generates {@code seconds} of ECG at a constant heart rate.
+     *
+     * @return the samples, the first taken at time zero
+     */
+    static double[] generate(double sampleRateHz, double heartRate, double seconds, double noise, long seed) {
+        Random random = new Random(seed);
+        int count = (int) (seconds * sampleRateHz);
+        double[] samples = new double[count];
+        double period = 60.0 / heartRate;
+        for (int i = 0; i < count; i++) {
+            double t = i / sampleRateHz;
+            // Time relative to the nearest R peak, which falls half a period into each beat.
+            double phase = t % period - period / 2;
+            double value = 0;
+            for (double[] wave : WAVES) {
+                double d = (phase - wave[0]) / wave[1];
+                value += wave[2] * Math.exp(-0.5 * d * d);
+            }
+            samples[i] = value + noise * random.nextGaussian();
+        }
+        return samples;
+    }
+}
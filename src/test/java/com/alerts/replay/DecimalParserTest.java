@@ -0,0 +1,80 @@
+package com.alerts.replay;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+class DecimalParserTest {
+
+    private static double parse(String text) {
+        byte[] bytes = ("x" + text + "y").getBytes(StandardCharsets.US_ASCII);
+        return DecimalParser.parse(bytes, 1, bytes.length - 1);
+    }
+
+    private static void assertParsesLikeJdk(String text) {
+        assertEquals(Double.doubleToRawLongBits(Double.parseDouble(text)), Double.doubleToRawLongBits(parse(text)),
+                () -> "Parsing " + text);
+    }
+
+    @Test
+    void testParsesSimpleDecimals() {
+        assertEquals(0.0, parse("0"));
+        assertEquals(-0.0, parse("-0.0"));
+        assertEquals(97.5, parse("97.5"));
+        assertEquals(-12.0, parse("-12"));
+        assertEquals(120.0, parse("+120."));
+        assertEquals(0.001, parse(".001"));
+        assertEquals(1.5e-7, parse("1.5E-7"));
+    }
+
+    @Test
+    void testRejectsMalformedNumbers() {
+        assertTrue(Double.isNaN(parse("")));
+        assertTrue(Double.isNaN(parse("-")));
+        assertTrue(Double.isNaN(parse("1.2.3")));
+        assertTrue(Double.isNaN(parse("12a")));
+        assertTrue(Double.isNaN(parse("1e")));
+        assertTrue(Double.isNaN(parse("triggered")));
+    }
+
+    @Test
+    void testMatchesJdkForShortestRepresentations() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            double value = random.nextGaussian() * Math.pow(10, random.nextInt(30) - 15);
+            assertParsesLikeJdk(Double.toString(value));
+        }
+    }
+
+    @Test
+    void testMatchesJdkForRandomDigitStrings() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int digits = 1 + random.nextInt(22);
+            StringBuilder text = new StringBuilder();
+            for (int d = 0; d < digits; d++) {
+                text.append((char) ('0' + random.nextInt(10)));
+            }
+            text.insert(random.nextInt(digits + 1), '.');
+            if (random.nextBoolean()) {
+                text.append('e').append(random.nextInt(80) - 40);
+            }
+            assertParsesLikeJdk(text.toString());
+        }
+    }
+
+    @Test
+    void testMatchesJdkNearHalfwayPoints() {
+        // 2^53 + 1 and neighbours lie exactly halfway between two doubles.
+        for (long m = (1L << 53) - 4; m <= (1L << 53) + 8; m++) {
+            assertParsesLikeJdk(Long.toString(m));
+            assertParsesLikeJdk(m + "0e-1");
+        }
+        assertParsesLikeJdk("9007199254740993");
+        assertParsesLikeJdk("1.00000000000000011102230246251565404236316680908203125");
+        assertParsesLikeJdk(String.format(Locale.ROOT, "%.17f", 0.1));
+    }
+}
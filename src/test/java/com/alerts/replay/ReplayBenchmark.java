@@ -0,0 +1,75 @@
+package com.alerts.replay;
+
+import com.cardio_generator.generators.ECGDataGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Measures how many archived samples per second the replay engine pushes
+ * through the default rules on one thread. The archive holds 250 Hz ECG from
+ * {@link ECGDataGenerator} plus blood pressure and saturation every ten seconds
+ * for each patient, in the format written by {@code FileOutputStrategy}. Not
+ * run as part of the test suite; start it with
+ * {@code java -cp target/classes:target/test-classes com.alerts.replay.ReplayBenchmark [patients] [minutes]}.
+ */
+public class ReplayBenchmark {
+    private static final int ECG_RATE = 250;
+    private static final long START = 1_700_000_000_000L;
+
+    public static void main(String[] args) throws IOException {
+        int patientCount = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int minutes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path archive = Files.createTempDirectory("replay-benchmark");
+        try {
+            writeArchive(archive, patientCount, minutes * 60);
+            ReplayEngine engine = new ReplayEngine();
+            for (int round = 1; round <= 5; round++) {
+                ReplayReport report = engine.replay(archive);
+                System.out.printf("round %d: %.1f M samples/s, %.0fx real time, %d alerts raised%n",
+                        round, report.getSamplesPerSecond() / 1e6, report.getSpeedup(), report.getRaisedCount());
+            }
+        } finally {
+            try (var files = Files.list(archive)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(archive);
+        }
+    }
+
+    private static void writeArchive(Path archive, int patientCount, int seconds) throws IOException {
+        ECGDataGenerator ecg = new ECGDataGenerator(patientCount, ECG_RATE);
+        Random random = new Random(42);
+        try (BufferedWriter ecgFile = Files.newBufferedWriter(archive.resolve("ECG.txt"));
+             BufferedWriter systolicFile = Files.newBufferedWriter(archive.resolve("SystolicPressure.txt"));
+             BufferedWriter diastolicFile = Files.newBufferedWriter(archive.resolve("DiastolicPressure.txt"));
+             BufferedWriter saturationFile = Files.newBufferedWriter(archive.resolve("Saturation.txt"))) {
+            for (int second = 1; second <= seconds; second++) {
+                long now = START + second * 1000L;
+                for (int patient = 1; patient <= patientCount; patient++) {
+                    ecg.generateSamples(patient, now, (id, timestamp, label, data) -> write(ecgFile, id, timestamp, label, data));
+                    if (second % 10 == 0) {
+                        write(systolicFile, patient, now, "SystolicPressure", (100 + random.nextInt(60)) + ".0");
+                        write(diastolicFile, patient, now, "DiastolicPressure", (60 + random.nextInt(30)) + ".0");
+                        write(saturationFile, patient, now, "Saturation", (90 + random.nextInt(10)) + ".0%");
+                    }
+                }
+            }
+        }
+    }
+
+    private static void write(BufferedWriter out, int patientId, long timestamp, String label, String data) {
+        try {
+            out.write("Patient ID: " + patientId + ", Timestamp: " + timestamp + ", Label: " + label + ", Data: " + data);
+            out.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
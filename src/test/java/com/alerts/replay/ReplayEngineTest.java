@@ -0,0 +1,167 @@
+package com.alerts.replay;
+
+import com.alerts.AlertFactory;
+import com.alerts.AlertStrategy;
+import com.alerts.BloodOxygenStrategy;
+import com.alerts.BloodPressureStrategy;
+import com.alerts.ManualAlertStrategy;
+import com.alerts.RecordSeries;
+import com.data_management.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+class ReplayEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    /** Records, per call, which evaluation intervals the new samples fell into. */
+    private static class IntervalRecordingStrategy implements AlertStrategy {
+        final List<TreeSet<Long>> calls = new ArrayList<>();
+        int samples;
+
+        @Override
+        public String[] getRecordTypes() {
+            return new String[] {"A", "B"};
+        }
+
+        @Override
+        public void checkAlert(Patient patient, RecordSeries[] series, AlertFactory alertFactory) {
+            TreeSet<Long> intervals = new TreeSet<>();
+            for (RecordSeries s : series) {
+                for (long i = s.getFirstNewIndex(); i < s.size(); i++) {
+                    intervals.add(s.getTimestamp(i) / 1000);
+                    samples++;
+                }
+            }
+            calls.add(intervals);
+        }
+    }
+
+    private void write(String name, String... lines) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(tempDir.resolve(name))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static String line(int patientId, long timestamp, String label, String data) {
+        return "Patient ID: " + patientId + ", Timestamp: " + timestamp + ", Label: " + label + ", Data: " + data;
+    }
+
+    @Test
+    void testMergesFilesByTimestampAndEvaluatesPerInterval() throws IOException {
+        List<String> a = new ArrayList<>();
+        List<String> b = new ArrayList<>();
+        for (long t = 0; t < 5000; t += 250) {
+            a.add(line(1, t, "A", "1.0"));
+            b.add(line(1, t + 100, "B", "2.0"));
+        }
+        write("A.txt", a.toArray(new String[0]));
+        write("B.txt", b.toArray(new String[0]));
+
+        IntervalRecordingStrategy strategy = new IntervalRecordingStrategy();
+        ReplayReport report = new ReplayEngine(List.of(strategy), 1000, true).replay(tempDir);
+
+        assertEquals(40, report.getSampleCount());
+        assertEquals(40, strategy.samples);
+        assertEquals(5, strategy.calls.size(), "One evaluation per second of virtual time");
+        for (int i = 0; i < strategy.calls.size(); i++) {
+            assertEquals(List.of((long) i), new ArrayList<>(strategy.calls.get(i)));
+        }
+        assertEquals(0, report.getFirstTimestamp());
+        assertEquals(4850, report.getLastTimestamp());
+    }
+
+    @Test
+    void testSplitsBloodPressureAndIgnoresPercentSigns() throws IOException {
+        write("BloodPressure.txt", line(1, 1000, "BloodPressure", "185/70"));
+        write("Saturation.txt", line(2, 2000, "Saturation", "89.5%"));
+
+        ReplayReport report = new ReplayEngine(List.of(new BloodPressureStrategy(), new BloodOxygenStrategy()),
+                1000, true).replay(tempDir);
+
+        assertEquals(3, report.getSampleCount());
+        assertEquals(1L, report.getRaisedByRule().get("CRITICAL_SYSTOLIC_HIGH"));
+        assertEquals(1L, report.getRaisedByRule().get("LOW_BLOOD_SATURATION"));
+        assertEquals(1L, report.getRaisedByPatient().get(1));
+        assertEquals(1L, report.getRaisedByPatient().get(2));
+    }
+
+    @Test
+    void testMapsSimulatorLabelsToRecordTypes() throws IOException {
+        write("SystolicPressure.txt", line(1, 1000, "SystolicPressure", "185.0"));
+        write("DiastolicPressure.txt", line(1, 1000, "DiastolicPressure", "55.0"));
+        write("Alert.txt",
+                line(2, 1500, "Alert", "triggered"),
+                line(2, 2500, "Alert", "resolved"),
+                line(2, 3500, "Alert", "triggered"));
+
+        ReplayReport report = new ReplayEngine(List.of(new BloodPressureStrategy(), new ManualAlertStrategy()),
+                1000, true).replay(tempDir);
+
+        assertEquals(5, report.getSampleCount());
+        assertEquals(0, report.getSkippedLineCount(), "Alert lines should not be skipped as non-numeric.");
+        assertEquals(1L, report.getRaisedByRule().get("CRITICAL_SYSTOLIC_HIGH"));
+        assertEquals(1L, report.getRaisedByRule().get("CRITICAL_DIASTOLIC_LOW"));
+        assertEquals(2L, report.getRaisedByRule().get("MANUAL_ALERT"));
+        assertEquals(2L, report.getDeliveredByPatient().get(2), "A resolved alert should be delivered again.");
+    }
+
+    @Test
+    void testCountsRaisedAndDeliveredAlerts() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lines.add(line(1, 1000L * i, "Saturation", "88.0"));
+        }
+        write("Saturation.txt", lines.toArray(new String[0]));
+
+        ReplayReport suppressed = new ReplayEngine(List.of(new BloodOxygenStrategy()), 1000, true).replay(tempDir);
+        assertEquals(10, suppressed.getRaisedCount());
+        assertEquals(1, suppressed.getDeliveredCount(), "Repeats within the re-notify interval are suppressed");
+        assertEquals(1L, suppressed.getDeliveredByPatient().get(1));
+
+        ReplayReport unsuppressed = new ReplayEngine(List.of(new BloodOxygenStrategy()), 1000, false).replay(tempDir);
+        assertEquals(10, unsuppressed.getDeliveredCount());
+    }
+
+    @Test
+    void testSkipsMalformedLines() throws IOException {
+        write("Saturation.txt",
+                line(1, 1000, "Saturation", "97.0"),
+                "garbage",
+                line(1, 2000, "Saturation", "n/a"),
+                "",
+                line(1, 3000, "Saturation", "96.0"));
+
+        ReplayReport report = new ReplayEngine().replay(tempDir);
+
+        assertEquals(2, report.getSampleCount());
+        assertEquals(2, report.getSkippedLineCount());
+    }
+
+    @Test
+    void testRepeatedReplaysStartFromScratch() throws IOException {
+        write("Saturation.txt",
+                line(1, 1000, "Saturation", "99.0"),
+                line(1, 2000, "Saturation", "93.0"));
+
+        ReplayEngine engine = new ReplayEngine(List.of(new BloodOxygenStrategy()), 1000, true);
+        ReplayReport first = engine.replay(tempDir);
+        ReplayReport second = engine.replay(tempDir);
+
+        assertEquals(1L, first.getRaisedByRule().get("RAPID_BLOOD_SATURATION_DROP"));
+        assertEquals(first.getRaisedByRule(), second.getRaisedByRule());
+    }
+}
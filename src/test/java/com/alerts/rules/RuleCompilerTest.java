@@ -0,0 +1,188 @@
+package com.alerts.rules;
+
+import com.alerts.Alert;
+import com.alerts.AlertCode;
+import com.alerts.AlertStrategy;
+import com.alerts.StreamingAlertEngine;
+import com.alerts.StructuredAlertFactory;
+import com.data_management.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+class RuleCompilerTest {
+
+    private static List<String> keys(List<Alert> alerts) {
+        List<String> keys = new ArrayList<>();
+        for (Alert alert : alerts) {
+            keys.add(alert.getPatientId() + "|" + alert.getCode() + "|" + alert.getPriority() + "|"
+                    + alert.getCondition() + "|" + alert.getTimestamp());
+        }
+        Collections.sort(keys);
+        return keys;
+    }
+
+    @Test
+    void testDefaultRulesMatchBuiltInStrategies() {
+        StreamingAlertEngine builtIn = new StreamingAlertEngine();
+        StreamingAlertEngine compiled = new StreamingAlertEngine(RuleCompiler.compileDefaults());
+        Patient builtInPatient = new Patient(1);
+        Patient compiledPatient = new Patient(1);
+        List<Alert> builtInAlerts = new ArrayList<>();
+        List<Alert> compiledAlerts = new ArrayList<>();
+
+        Random random = new Random(7);
+        long time = 1700000000000L;
+        double systolic = 120, diastolic = 80, saturation = 97;
+        String[] types = {"BloodPressureSystolic", "BloodPressureDiastolic", "BloodSaturation", "ECG", "ManualAlert"};
+        for (int i = 0; i < 2000; i++) {
+            time += 1000 + random.nextInt(30000);
+            int type = random.nextInt(types.length);
+            double value;
+            switch (type) {
+                case 0:
+                    value = systolic = Math.min(Math.max(systolic + random.nextInt(41) - 20, 70), 200);
+                    break;
+                case 1:
+                    value = diastolic = Math.min(Math.max(diastolic + random.nextInt(41) - 20, 40), 140);
+                    break;
+                case 2:
+                    value = saturation = Math.min(Math.max(saturation + random.nextInt(7) - 3, 85), 100);
+                    break;
+                case 3:
+                    value = random.nextInt(20) == 0 ? 3.0 : random.nextInt(30) == 0 ? 0.0 : 0.5;
+                    break;
+                default:
+                    value = random.nextInt(4) == 0 ? 1.0 : 0.0;
+                    break;
+            }
+            builtInPatient.addRecord(value, types[type], time);
+            compiledPatient.addRecord(value, types[type], time);
+            if (random.nextInt(5) == 0) {
+                builtIn.evaluate(builtInPatient, builtInAlerts::add);
+                compiled.evaluate(compiledPatient, compiledAlerts::add);
+            }
+        }
+        builtIn.evaluate(builtInPatient, builtInAlerts::add);
+        compiled.evaluate(compiledPatient, compiledAlerts::add);
+
+        assertFalse(builtInAlerts.isEmpty());
+        assertEquals(keys(builtInAlerts), keys(compiledAlerts));
+    }
+
+    @Test
+    void testMalformedRuleNamesLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> RuleCompiler.compile("# comment\n\nthreshold ECG >> 1 \"Bad\"\n"));
+        assertTrue(e.getMessage().startsWith("<rules>:3:"), e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("trend ECG up 3 10 \"Bad\""));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("window ECG peak 10 \"Bad\""));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("threshold ECG > 1 \"Unterminated"));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("alarm ECG > 1 \"Unknown\""));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("threshold ECG > 1 NO_SUCH_CODE"));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("threshold ECG > 1 CUSTOM"));
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleCompiler.compile("threshold ECG > 1 ABNORMAL_ECG_PEAK priority 1"));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("threshold ECG > 1 \"Peak\" priority 0"));
+    }
+
+    @Test
+    void testConditionTemplates() {
+        List<AlertStrategy> rules = RuleCompiler.compile("threshold HeartRate >= 120 \"Tachycardia: {value} bpm\"");
+        StreamingAlertEngine engine = new StreamingAlertEngine(rules);
+        Patient patient = new Patient(3);
+        patient.addRecord(119.0, "HeartRate", 1000L);
+        patient.addRecord(120.0, "HeartRate", 2000L);
+        List<Alert> alerts = new ArrayList<>();
+        engine.evaluate(patient, alerts::add);
+
+        assertEquals(1, alerts.size());
+        assertEquals("Tachycardia: 120.0 bpm", alerts.get(0).getCondition());
+        assertEquals(2000L, alerts.get(0).getTimestamp());
+    }
+
+    @Test
+    void testCodedConditionsAreStructuredAndResolved() {
+        List<AlertStrategy> rules = RuleCompiler.compile(
+                "threshold BloodPressureSystolic > 180 CRITICAL_SYSTOLIC_HIGH\n"
+                + "threshold HeartRate >= 120 \"Tachycardia: {value} bpm\" priority 1\n");
+        List<AlertCode> resolved = new ArrayList<>();
+        StreamingAlertEngine engine = new StreamingAlertEngine(rules, new StructuredAlertFactory() {
+            @Override
+            public void resolve(int patientId, AlertCode code) {
+                resolved.add(code);
+            }
+        });
+        Patient patient = new Patient(3);
+        patient.addRecord(185.0, "BloodPressureSystolic", 1000L);
+        patient.addRecord(125.0, "HeartRate", 1000L);
+        patient.addRecord(150.0, "BloodPressureSystolic", 2000L);
+        List<Alert> alerts = new ArrayList<>();
+        engine.evaluate(patient, alerts::add);
+
+        assertEquals(2, alerts.size());
+        Alert systolic = alerts.get(0).getCode() == AlertCode.CUSTOM ? alerts.get(1) : alerts.get(0);
+        Alert heartRate = systolic == alerts.get(0) ? alerts.get(1) : alerts.get(0);
+        assertEquals(AlertCode.CRITICAL_SYSTOLIC_HIGH, systolic.getCode());
+        assertEquals(185.0, systolic.getValue());
+        assertEquals(1, systolic.getPriority());
+        assertEquals("Critical Systolic High: 185.0", systolic.getCondition());
+        assertEquals(1, heartRate.getPriority());
+        assertEquals("Tachycardia: 125.0 bpm", heartRate.getCondition());
+        assertEquals(List.of(AlertCode.CRITICAL_SYSTOLIC_HIGH), resolved);
+    }
+
+    @Test
+    void testReplacingRulesAppliesOnlyToNewRecords() {
+        StreamingAlertEngine engine = new StreamingAlertEngine(
+                RuleCompiler.compile("threshold BloodPressureSystolic > 180 \"High: {value}\""));
+        Patient patient = new Patient(1);
+        List<Alert> alerts = new ArrayList<>();
+        patient.addRecord(160.0, "BloodPressureSystolic", 1000L);
+        patient.addRecord(185.0, "BloodPressureSystolic", 2000L);
+        engine.evaluate(patient, alerts::add);
+        assertEquals(1, alerts.size());
+
+        engine.replaceStrategies(RuleCompiler.compile("threshold BloodPressureSystolic > 150 \"High: {value}\""));
+        engine.evaluate(patient, alerts::add);
+        assertEquals(1, alerts.size(), "Records evaluated before the swap must not be re-evaluated.");
+
+        patient.addRecord(155.0, "BloodPressureSystolic", 3000L);
+        engine.evaluate(patient, alerts::add);
+        assertEquals(2, alerts.size());
+        assertEquals("High: 155.0", alerts.get(1).getCondition());
+    }
+
+    @Test
+    void testWatcherReloadsChangedFileAndKeepsRulesOnError(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("rules.txt");
+        Files.writeString(file, "threshold ECG > 2 \"Peak: {value}\"\n");
+        StreamingAlertEngine engine = new StreamingAlertEngine(new ArrayList<>());
+        RuleFileWatcher watcher = new RuleFileWatcher(file, engine);
+
+        assertTrue(watcher.reloadIfChanged());
+        assertFalse(watcher.reloadIfChanged(), "An unchanged file should not be reloaded.");
+
+        Files.writeString(file, "threshold ECG > > 1\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        assertFalse(watcher.reloadIfChanged());
+        assertEquals(1, watcher.getReloadCount());
+
+        Patient patient = new Patient(1);
+        patient.addRecord(3.0, "ECG", 1000L);
+        List<Alert> alerts = new ArrayList<>();
+        engine.evaluate(patient, alerts::add);
+        assertEquals(1, alerts.size(), "The previous rules should stay in effect after a bad reload.");
+        watcher.close();
+    }
+}
@@ -0,0 +1,47 @@
+package com.alerts.rules;
+
+import com.alerts.StreamingAlertEngine;
+import com.alerts.SyntheticPatients;
+import com.data_management.Patient;
+
+import java.util.List;
+
+/**
+ * Compares the throughput of the rules compiled from the default rule file with
+ * the hand-written strategies they replace. Not run as part of the test suite;
+ * start it with
+ * {@code java -cp target/classes:target/test-classes com.alerts.rules.RuleEngineBenchmark [patients] [rounds]}.
+ */
+public class RuleEngineBenchmark {
+    private static final int RECORDS_PER_TYPE = 600;
+
+    public static void main(String[] args) {
+        int patientCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long records = (long) patientCount * RECORDS_PER_TYPE * 5;
+
+        for (int round = 1; round <= rounds; round++) {
+            long builtIn = run(new StreamingAlertEngine(), createPatients(patientCount));
+            long compiled = run(new StreamingAlertEngine(RuleCompiler.compileDefaults()), createPatients(patientCount));
+            System.out.printf("round %d: built-in %.1f M records/s, compiled rules %.1f M records/s%n",
+                    round, records * 1e3 / builtIn, records * 1e3 / compiled);
+        }
+    }
+
+    private static long run(StreamingAlertEngine engine, List<Patient> patients) {
+        long[] alerts = new long[1];
+        long start = System.nanoTime();
+        for (Patient patient : patients) {
+            engine.evaluate(patient, alert -> alerts[0]++);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (alerts[0] < 0) {
+            throw new AssertionError();
+        }
+        return elapsed;
+    }
+
+    private static List<Patient> createPatients(int patientCount) {
+        return SyntheticPatients.create(patientCount, RECORDS_PER_TYPE, true);
+    }
+}
@@ -0,0 +1,160 @@
+package com.alerts.store;
+
+import com.alerts.Alert;
+import com.alerts.AlertCode;
+import com.alerts.PriorityAlertDecorator;
+import com.alerts.RepeatedAlertDecorator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class AlertStoreTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    @Test
+    void testTimeRangeQueryPerPatient() {
+        AlertStore store = new AlertStore();
+        store.add(new Alert("1", "Low Blood Saturation: 91.0", 3000));
+        store.add(new Alert("2", "Low Blood Saturation: 90.0", 2000));
+        store.add(new Alert("1", "Rapid Blood Saturation Drop", 1000));
+        store.add(new Alert("1", "Manual Alert Triggered", 5000));
+
+        List<Alert> alerts = store.getAlerts("1", 1000, 3000);
+        assertEquals(2, alerts.size());
+        assertEquals(1000, alerts.get(0).getTimestamp(), "Alerts should be in timestamp order.");
+        assertEquals(3000, alerts.get(1).getTimestamp());
+        assertTrue(store.getAlerts("3", 0, Long.MAX_VALUE).isEmpty());
+
+        // Insertion order is kept for the full history.
+        assertEquals(3000, store.getAll().get(0).getTimestamp());
+    }
+
+    @Test
+    void testCapacityAndRetentionLimits() {
+        AlertStore store = new AlertStore(5, 3, HOUR);
+        for (int i = 0; i < 8; i++) {
+            store.add(new Alert("1", "ECG: " + i, i * 1000L));
+        }
+        assertEquals(5, store.size());
+        assertEquals(3000, store.getAll().get(0).getTimestamp());
+        assertEquals(3, store.getAlerts("1", 0, Long.MAX_VALUE).size());
+
+        store.add(new Alert("1", "ECG: late", 2 * HOUR));
+        assertEquals(1, store.getAlerts("1", 0, Long.MAX_VALUE).size(),
+                "Alerts older than the retention period should be dropped.");
+    }
+
+    @Test
+    void testOpenCriticalAlerts() {
+        AlertStore store = new AlertStore();
+        store.add(new Alert("1", "Critical Systolic High: 181.0", 1000));
+        store.add(new Alert("1", "Critical Systolic High: 190.0", 2000));
+        store.add(new Alert("2", "Low Blood Saturation: 90.0", 2000));
+        store.add(new PriorityAlertDecorator(new Alert("3", "Rapid Blood Saturation Drop", 3000), 1));
+
+        List<Alert> open = store.getOpenCriticalAlerts();
+        assertEquals(2, open.size());
+        assertEquals(2000, open.get(0).getTimestamp(), "Only the latest alert of a condition is open.");
+
+        store.resolve("1", "Critical Systolic High");
+        store.resolve("3", "Rapid Blood Saturation Drop");
+        assertTrue(store.getOpenCriticalAlerts().isEmpty());
+    }
+
+    @Test
+    void testHistoryIsReplayedFromLog(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("alerts.log");
+        try (AlertLog log = new AlertLog(file)) {
+            AlertStore store = AlertStore.withLog(100, 100, HOUR, log);
+            store.addAll(Arrays.asList(
+                    new Alert("1", "Critical Diastolic Low: 55.0", 1000),
+                    new Alert("2", "Odd\tcondition\nwith breaks", 2000)));
+        }
+
+        try (AlertLog log = new AlertLog(file)) {
+            AlertStore restored = AlertStore.withLog(100, 100, HOUR, log);
+            List<Alert> alerts = restored.getAll();
+            assertEquals(2, alerts.size());
+            assertEquals("Critical Diastolic Low: 55.0", alerts.get(0).getCondition());
+            assertEquals("Odd\tcondition\nwith breaks", alerts.get(1).getCondition());
+            assertEquals(1, restored.getOpenCriticalAlerts().size());
+
+            restored.add(new Alert("1", "Manual Alert Triggered", 3000));
+        }
+        try (AlertLog log = new AlertLog(file)) {
+            assertEquals(3, AlertStore.withLog(100, 100, HOUR, log).size(), "Replayed alerts must not be logged twice.");
+        }
+    }
+
+    @Test
+    void testPatientsPastRetentionAreEvicted() {
+        AlertStore store = new AlertStore(10, 10, HOUR);
+        for (int patient = 0; patient < 100; patient++) {
+            store.add(new Alert(patient, AlertCode.CRITICAL_SYSTOLIC_HIGH, 181.0, 0, patient * HOUR));
+        }
+        assertTrue(store.getPatientCount() <= 3, "Patients without recent alerts should be dropped.");
+        assertEquals(2, store.getOpenCriticalAlerts().size(), "Only alerts within the retention period stay open.");
+        assertTrue(store.getAlerts("0", 0, Long.MAX_VALUE).isEmpty());
+        assertEquals(1, store.getAlerts("99", 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void testLogKeepsAlertCodes(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("alerts.log");
+        try (AlertLog log = new AlertLog(file)) {
+            AlertStore store = AlertStore.withLog(100, 100, HOUR, log);
+            store.addAll(Arrays.asList(
+                    new Alert(1, AlertCode.CRITICAL_SYSTOLIC_HIGH, 181.0, 0, 1000),
+                    new PriorityAlertDecorator(new RepeatedAlertDecorator(
+                            new Alert(2, AlertCode.LOW_BLOOD_SATURATION, 91.0, 0, 2000)), 1)));
+        }
+        // A line written before codes were logged.
+        Files.writeString(file, "3000\t3\tManual Alert Triggered\n", StandardOpenOption.APPEND);
+
+        try (AlertLog log = new AlertLog(file)) {
+            AlertStore restored = AlertStore.withLog(100, 100, HOUR, log);
+            List<Alert> alerts = restored.getAll();
+            assertEquals(3, alerts.size());
+            assertEquals(AlertCode.CRITICAL_SYSTOLIC_HIGH, alerts.get(0).getCode());
+            assertEquals(181.0, alerts.get(0).getValue());
+            assertEquals("Critical Systolic High: 181.0", alerts.get(0).getCondition());
+            assertEquals(AlertCode.LOW_BLOOD_SATURATION, alerts.get(1).getCode());
+            assertEquals(1, alerts.get(1).getPriority(), "An escalated priority should be kept.");
+            assertEquals("[Priority 1] [Repeated] Low Blood Saturation: 91.0", alerts.get(1).getCondition());
+            assertEquals(AlertCode.CUSTOM, alerts.get(2).getCode());
+            assertEquals(3, restored.getOpenCriticalAlerts().size());
+
+            restored.resolve("1", AlertCode.CRITICAL_SYSTOLIC_HIGH);
+            restored.resolve("2", AlertCode.LOW_BLOOD_SATURATION);
+            assertEquals(1, restored.getOpenCriticalAlerts().size(),
+                    "Replayed structured alerts should be resolvable by their code.");
+        }
+    }
+
+    @Test
+    void testLogIsCompactedToRetainedAlerts(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("alerts.log");
+        try (AlertLog log = new AlertLog(file, 4096)) {
+            AlertStore store = AlertStore.withLog(10, 10, HOUR, log);
+            for (int i = 0; i < 1000; i++) {
+                store.add(new Alert(i % 5, AlertCode.CRITICAL_DIASTOLIC_LOW, 55.0, 0, i * 1000L));
+            }
+            assertTrue(Files.size(file) <= 2 * 4096, "The log should not grow past its limit: " + Files.size(file));
+        }
+        try (AlertLog log = new AlertLog(file)) {
+            List<Alert> replayed = new ArrayList<>();
+            log.replay(replayed::add);
+            assertTrue(replayed.size() >= 10 && replayed.size() < 1000);
+            assertEquals(999_000L, replayed.get(replayed.size() - 1).getTimestamp());
+        }
+    }
+}
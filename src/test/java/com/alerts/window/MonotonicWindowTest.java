@@ -0,0 +1,64 @@
+package com.alerts.window;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+class MonotonicWindowTest {
+
+    @Test
+    void testMaximumWithEviction() {
+        MonotonicWindow window = MonotonicWindow.maximum();
+        window.add(0L, 5.0);
+        window.add(10L, 3.0);
+        window.add(20L, 4.0);
+        assertEquals(5.0, window.peek());
+
+        window.evictBefore(5L);
+        assertEquals(4.0, window.peek());
+        assertEquals(20L, window.peekTimestamp());
+
+        window.evictBefore(21L);
+        assertTrue(window.isEmpty());
+    }
+
+    @Test
+    void testMinimum() {
+        MonotonicWindow window = MonotonicWindow.minimum();
+        window.add(0L, 5.0);
+        window.add(1L, 3.0);
+        window.add(2L, 4.0);
+        assertEquals(3.0, window.peek());
+        window.evictBefore(2L);
+        assertEquals(4.0, window.peek());
+    }
+
+    @Test
+    void testMatchesBruteForceOverLongDecreasingRun() {
+        Random random = new Random(11);
+        long span = 250;
+        int n = 5000;
+        long[] timestamps = new long[n];
+        double[] values = new double[n];
+        MonotonicWindow window = MonotonicWindow.maximum();
+        for (int i = 0; i < n; i++) {
+            timestamps[i] = i * 2L;
+            // A long decreasing stretch forces the deque to grow beyond its initial capacity.
+            values[i] = i < 2000 ? -i : random.nextInt(100);
+            window.add(timestamps[i], values[i]);
+            window.evictBefore(timestamps[i] - span);
+
+            double expected = Double.NEGATIVE_INFINITY;
+            for (int j = i; j >= 0 && timestamps[j] >= timestamps[i] - span; j--) {
+                expected = Math.max(expected, values[j]);
+            }
+            assertEquals(expected, window.peek());
+        }
+    }
+
+    @Test
+    void testPeekOnEmptyWindowThrows() {
+        assertThrows(IllegalStateException.class, () -> MonotonicWindow.maximum().peek());
+    }
+}
@@ -0,0 +1,62 @@
+package com.alerts.window;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+class RunningSumWindowTest {
+
+    @Test
+    void testAverageOfPartialAndFullWindow() {
+        RunningSumWindow window = new RunningSumWindow(3);
+        window.add(1.0);
+        window.add(2.0);
+        assertFalse(window.isFull());
+        assertEquals(1.5, window.getAverage(), 1e-12);
+
+        window.add(3.0);
+        window.add(10.0); // evicts 1.0
+        assertTrue(window.isFull());
+        assertEquals(15.0, window.getSum(), 1e-12);
+        assertEquals(5.0, window.getAverage(), 1e-12);
+    }
+
+    @Test
+    void testMatchesBruteForceSum() {
+        Random random = new Random(3);
+        int size = 7;
+        RunningSumWindow window = new RunningSumWindow(size);
+        double[] history = new double[1000];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = random.nextGaussian() * 100;
+            window.add(history[i]);
+            double expected = 0;
+            for (int j = Math.max(0, i - size + 1); j <= i; j++) {
+                expected += history[j];
+            }
+            assertEquals(expected, window.getSum(), 1e-9);
+        }
+    }
+
+    @Test
+    void testWindowOfZerosSumsToExactlyZero() {
+        RunningSumWindow window = new RunningSumWindow(4);
+        window.add(0.1);
+        window.add(0.7);
+        window.add(0.3);
+        for (int i = 0; i < 4; i++) {
+            window.add(0.0);
+        }
+        assertEquals(0.0, window.getAverage());
+    }
+
+    @Test
+    void testClear() {
+        RunningSumWindow window = new RunningSumWindow(2);
+        window.add(5.0);
+        window.clear();
+        assertEquals(0, window.getCount());
+        assertEquals(0.0, window.getSum());
+    }
+}
@@ -20,4 +20,16 @@ public class HealthDataSimulatorTest {
         simulator.startSimulation();
         simulator.stopSimulation();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testParseDuration() {
+        assertEquals(90_000, HealthDataSimulator.parseDuration("90"));
+        assertEquals(30_000, HealthDataSimulator.parseDuration("30s"));
+        assertEquals(5_400_000, HealthDataSimulator.parseDuration("90m"));
+        assertEquals(86_400_000, HealthDataSimulator.parseDuration("24h"));
+        assertEquals(604_800_000, HealthDataSimulator.parseDuration("7d"));
+        assertThrows(NumberFormatException.class, () -> HealthDataSimulator.parseDuration("5x"));
+        assertThrows(NumberFormatException.class, () -> HealthDataSimulator.parseDuration("0h"));
+        assertThrows(NumberFormatException.class, () -> HealthDataSimulator.parseDuration(""));
+    }
+}
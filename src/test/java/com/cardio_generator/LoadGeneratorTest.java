@@ -0,0 +1,42 @@
+package com.cardio_generator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.cardio_generator.outputs.OutputStrategy;
+
+class LoadGeneratorTest {
+
+    @Test
+    void testEmitsTheTargetRateInTheMix() throws InterruptedException {
+        Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+        OutputStrategy output = (patientId, timestamp, label, data) ->
+                counts.computeIfAbsent(label, l -> new LongAdder()).increment();
+        double[] mix = LoadGenerator.parseMix("ECG=50,Saturation=30,blood-pressure=20");
+        LoadGenerator load = new LoadGenerator(1, 1000, 2, 20_000, mix, 42, output);
+
+        load.start();
+        TimeUnit.MILLISECONDS.sleep(1000);
+        load.close();
+
+        long emitted = load.snapshot().getEmitted();
+        assertEquals(20_000, emitted, 2000);
+        long total = counts.values().stream().mapToLong(LongAdder::sum).sum();
+        assertEquals(emitted, total);
+        assertEquals(0.5, counts.get("ECG").sum() / (double) total, 0.02);
+        assertEquals(0.3, counts.get("Saturation").sum() / (double) total, 0.02);
+        long pressure = counts.get("SystolicPressure").sum() + counts.get("DiastolicPressure").sum();
+        assertEquals(0.2, pressure / (double) total, 0.02);
+        assertNull(counts.get("Alert"));
+    }
+
+    @Test
+    void testRejectsAnUnknownRecordType() {
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseMix("ECG=1,Temperature=1"));
+    }
+}
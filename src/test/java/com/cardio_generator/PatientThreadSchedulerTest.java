@@ -0,0 +1,64 @@
+package com.cardio_generator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+class PatientThreadSchedulerTest {
+
+    @Test
+    void testRunsEachPatientOnItsOwnThread() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(5);
+        AtomicIntegerArray runs = new AtomicIntegerArray(6);
+        Set<String> threadsByPatient = ConcurrentHashMap.newKeySet();
+        PatientThreadScheduler scheduler = new PatientThreadScheduler(5, Executors.defaultThreadFactory());
+        scheduler.addTask(patientId -> {
+            threadsByPatient.add(patientId + "@" + Thread.currentThread().getName());
+            if (runs.incrementAndGet(patientId) == 3) {
+                done.countDown();
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        scheduler.start();
+        try {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.close();
+        }
+
+        assertEquals(5, threadsByPatient.size(), "Each patient stays on one thread: " + threadsByPatient);
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopThePatient() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(3);
+        PatientThreadScheduler scheduler = new PatientThreadScheduler(1, Executors.defaultThreadFactory());
+        scheduler.addTask(patientId -> {
+            done.countDown();
+            throw new IllegalStateException("boom");
+        }, 5, TimeUnit.MILLISECONDS);
+        scheduler.start();
+        try {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    void testVirtualThreadsMatchTheRuntime() {
+        boolean java21 = Runtime.version().feature() >= 21;
+        assertEquals(java21, VirtualThreads.isSupported());
+        if (java21) {
+            assertTrue(VirtualThreads.isVirtual(VirtualThreads.factory("test-").newThread(() -> { })));
+        } else {
+            assertThrows(UnsupportedOperationException.class, () -> VirtualThreads.factory("test-"));
+            assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.cardio_generator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+class RateControllerTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testPermitsWhatIsDueAndNotEmitted() {
+        RateController rate = new RateController(1000, 10_000, 0);
+
+        assertEquals(0, rate.permits(0));
+        assertEquals(500, rate.permits(SECOND / 2));
+        rate.emitted(300);
+        assertEquals(200, rate.permits(SECOND / 2));
+        rate.emitted(250); // more than permitted
+        assertEquals(450, rate.permits(SECOND));
+        assertEquals(550, rate.getEmitted());
+    }
+
+    @Test
+    void testWaitsForTheNextSample() {
+        RateController rate = new RateController(1000, 10_000, 0);
+        rate.emitted(10);
+
+        assertEquals(0, rate.permits(TimeUnit.MILLISECONDS.toNanos(10) - 1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1) + 1,
+                rate.nanosUntilNext(TimeUnit.MILLISECONDS.toNanos(10)), 1);
+    }
+
+    @Test
+    void testDropsBacklogBeyondTheLimit() {
+        RateController rate = new RateController(1000, 100, 0);
+
+        assertEquals(100, rate.permits(SECOND));
+        assertEquals(900, rate.getMissed());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rate.getLagNanos(), TimeUnit.MICROSECONDS.toNanos(1));
+        rate.emitted(100);
+        assertEquals(0, rate.permits(SECOND));
+        assertEquals(0, rate.getLagNanos());
+    }
+}
@@ -0,0 +1,35 @@
+package com.cardio_generator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+class SimulatorLauncherTest {
+
+    @Test
+    void testPartitionCoversEveryPatientOnceInEvenRanges() {
+        List<int[]> ranges = SimulatorLauncher.partition(1, 10, 3);
+
+        assertEquals(3, ranges.size());
+        assertArrayEquals(new int[] {1, 3}, ranges.get(0));
+        assertArrayEquals(new int[] {4, 6}, ranges.get(1));
+        assertArrayEquals(new int[] {7, 10}, ranges.get(2));
+        assertEquals(2, SimulatorLauncher.partition(5, 6, 4).size(), "Empty ranges are left out");
+    }
+
+    @Test
+    void testProcessArgumentsReplaceRangeSeedAndOutput() {
+        String[] arguments = {"--patient-count", "1000", "--processes", "4", "--as-fast-as-possible",
+            "--seed", "1", "--output", "tcp:8080", "--ecg-rate", "250"};
+        SimulatorLauncher launcher = new SimulatorLauncher(arguments, 1, 1000, 4, 42, "tcp:8080", null, 0);
+
+        List<String> processArguments = launcher.processArguments(new int[] {251, 500}, "collector:localhost:9000");
+
+        assertEquals("--as-fast-as-possible", processArguments.get(0));
+        assertEquals(List.of("--ecg-rate", "250"), processArguments.subList(1, 3));
+        assertEquals("--threads", processArguments.get(3));
+        assertEquals(List.of("--patient-range", "251:500", "--seed", "42", "--output", "collector:localhost:9000"),
+                processArguments.subList(5, processArguments.size()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.cardio_generator;
+
+import com.cardio_generator.outputs.CollectorOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBlock;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class StreamCollectorTest {
+
+    @Test
+    void testMergesTheStreamsOfSeveralSimulators() throws IOException, InterruptedException {
+        List<String> merged = Collections.synchronizedList(new ArrayList<>());
+        OutputStrategy output = (patientId, timestamp, label, data) ->
+                merged.add(patientId + "," + timestamp + "," + label + "," + data);
+        StreamCollector collector = new StreamCollector(0, output);
+
+        CollectorOutputStrategy first = new CollectorOutputStrategy("localhost", collector.getPort());
+        CollectorOutputStrategy second = new CollectorOutputStrategy("localhost", collector.getPort());
+        first.output(1, 1000, "Alert", "triggered");
+        SampleBlock block = new SampleBlock("Saturation", "%", 2);
+        block.add(501, 1000, 97);
+        block.add(502, 1000, 95);
+        second.outputBlock(block);
+        first.close();
+        second.close();
+        collector.close();
+
+        assertEquals(3, collector.getLineCount());
+        merged.sort(null);
+        assertEquals(List.of("1,1000,Alert,triggered", "501,1000,Saturation,97.0%", "502,1000,Saturation,95.0%"),
+                merged);
+    }
+}
@@ -0,0 +1,52 @@
+package com.cardio_generator;
+
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the simulator's five generators for many patients from a
+ * {@link TickScheduler}, discarding the output, and reports how many values
+ * per second were generated against how many the schedule asks for, along
+ * with the number of live threads. Not run as part of the test suite; start it
+ * with {@code java -cp target/classes:target/test-classes com.cardio_generator.TickSchedulerBenchmark [patients] [threads] [seconds]}.
+ */
+public class TickSchedulerBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int patientCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        LongAdder values = new LongAdder();
+        OutputStrategy discard = (patientId, timestamp, label, data) -> values.increment();
+        ECGDataGenerator ecg = new ECGDataGenerator(patientCount);
+        BloodSaturationDataGenerator saturation = new BloodSaturationDataGenerator(patientCount);
+        BloodPressureDataGenerator pressure = new BloodPressureDataGenerator(patientCount);
+        BloodLevelsDataGenerator levels = new BloodLevelsDataGenerator(patientCount);
+        AlertGenerator alerts = new AlertGenerator(patientCount);
+
+        // ECG and saturation once a second, two pressure values a minute, three levels
+        // every two minutes and at most one alert every 20 seconds.
+        double expected = patientCount * (2 + 2 / 60.0 + 3 / 120.0);
+        try (TickScheduler scheduler = new TickScheduler(patientCount, threads, TickScheduler.DEFAULT_TICK_MS)) {
+            scheduler.addTask(id -> ecg.generate(id, discard), 1, TimeUnit.SECONDS);
+            scheduler.addTask(id -> saturation.generate(id, discard), 1, TimeUnit.SECONDS);
+            scheduler.addTask(id -> pressure.generate(id, discard), 1, TimeUnit.MINUTES);
+            scheduler.addTask(id -> levels.generate(id, discard), 2, TimeUnit.MINUTES);
+            scheduler.addTask(id -> alerts.generate(id, discard), 20, TimeUnit.SECONDS);
+            scheduler.start();
+            for (int second = 1; second <= seconds; second++) {
+                long before = values.sum();
+                Thread.sleep(1000);
+                System.out.printf("second %d: %d values (about %.0f scheduled), %d live threads%n",
+                        second, values.sum() - before, expected, Thread.activeCount());
+            }
+        }
+    }
+}
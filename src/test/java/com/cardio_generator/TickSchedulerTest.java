@@ -0,0 +1,194 @@
+package com.cardio_generator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+
+class TickSchedulerTest {
+
+    @Test
+    void testRunsEveryPatientOncePerPeriod() {
+        TickScheduler scheduler = new TickScheduler(1000, 4, 100);
+        AtomicIntegerArray everySecond = new AtomicIntegerArray(1001);
+        AtomicIntegerArray everyMinute = new AtomicIntegerArray(1001);
+        scheduler.addTask(everySecond::incrementAndGet, 1, TimeUnit.SECONDS);
+        scheduler.addTask(everyMinute::incrementAndGet, 1, TimeUnit.MINUTES);
+
+        scheduler.runTicks(1200); // two minutes
+
+        assertEquals(0, everySecond.get(0));
+        for (int patientId = 1; patientId <= 1000; patientId++) {
+            assertEquals(120, everySecond.get(patientId), "Patient " + patientId);
+            assertEquals(2, everyMinute.get(patientId), "Patient " + patientId);
+        }
+    }
+
+    @Test
+    void testSpreadsPatientsOverThePeriod() {
+        TickScheduler scheduler = new TickScheduler(10_000, 2, 100);
+        int[] perTick = new int[10];
+        int[] tick = new int[1];
+        scheduler.addTask(patientId -> perTick[tick[0]]++, 1, TimeUnit.SECONDS);
+
+        for (tick[0] = 0; tick[0] < 10; tick[0]++) {
+            scheduler.runTicks(1);
+        }
+
+        for (int count : perTick) {
+            assertTrue(count > 700 && count < 1300, "Uneven tick load: " + count);
+        }
+    }
+
+    @Test
+    void testShardsCoverAllPatients() {
+        TickScheduler scheduler = new TickScheduler(10, 3, 100);
+        AtomicIntegerArray runs = new AtomicIntegerArray(11);
+        scheduler.addTask(runs::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+
+        scheduler.runTicks(1);
+
+        assertEquals(3, scheduler.getShardCount());
+        for (int patientId = 1; patientId <= 10; patientId++) {
+            assertEquals(1, runs.get(patientId));
+        }
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopOtherPatients() {
+        TickScheduler scheduler = new TickScheduler(3, 1, 100);
+        AtomicIntegerArray runs = new AtomicIntegerArray(4);
+        scheduler.addTask(patientId -> {
+            runs.incrementAndGet(patientId);
+            if (patientId == 2) {
+                throw new IllegalStateException("boom");
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+
+        scheduler.runTicks(2);
+
+        assertEquals(2, runs.get(1));
+        assertEquals(2, runs.get(2));
+        assertEquals(2, runs.get(3));
+    }
+
+    @Test
+    void testWorkersRunAllPatientsOnAFewThreads() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(100);
+        AtomicIntegerArray runs = new AtomicIntegerArray(101);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        try (TickScheduler scheduler = new TickScheduler(100, 4, 5)) {
+            scheduler.addTask(patientId -> {
+                threads.add(Thread.currentThread().getName());
+                if (runs.incrementAndGet(patientId) == 3) {
+                    done.countDown();
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+            scheduler.start();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertThrows(IllegalStateException.class, () -> scheduler.addTask(patientId -> { }, 1, TimeUnit.SECONDS));
+        }
+        assertTrue(threads.size() <= 4, "Threads used: " + threads);
+    }
+
+    @Test
+    void testSimulatedTimeMovesOneTickAtATimeAcrossShards() throws InterruptedException {
+        TickScheduler scheduler = new TickScheduler(1000, 4, 100);
+        VirtualClock clock = new VirtualClock(1_000_000);
+        AtomicIntegerArray runs = new AtomicIntegerArray(1001);
+        AtomicLongArray lastSeen = new AtomicLongArray(1001);
+        AtomicIntegerArray outOfStep = new AtomicIntegerArray(1);
+        scheduler.addTask(patientId -> {
+            long now = clock.currentTimeMillis();
+            long previous = lastSeen.getAndSet(patientId, now);
+            if ((now - 1_000_000) % 100 != 0 || (previous != 0 && now - previous != 1000)) {
+                outOfStep.incrementAndGet(0);
+            }
+            runs.incrementAndGet(patientId);
+        }, 1, TimeUnit.SECONDS);
+
+        scheduler.runSimulated(clock, Double.POSITIVE_INFINITY, 600); // one simulated minute
+
+        assertEquals(1_060_000, clock.currentTimeMillis());
+        assertEquals(0, outOfStep.get(0));
+        for (int patientId = 1; patientId <= 1000; patientId++) {
+            assertEquals(60, runs.get(patientId), "Patient " + patientId);
+        }
+    }
+
+    @Test
+    void testSimulatedTimeIsPacedBySpeed() throws InterruptedException {
+        TickScheduler scheduler = new TickScheduler(10, 2, 100);
+        scheduler.addTask(patientId -> { }, 1, TimeUnit.SECONDS);
+
+        long started = System.nanoTime();
+        scheduler.runSimulated(new VirtualClock(0), 10, 20); // two simulated seconds at 10x
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(elapsedMs >= 190, "Ran in " + elapsedMs + " ms");
+        assertThrows(IllegalArgumentException.class, () -> new TickScheduler(1, 1, 100).runSimulated(new VirtualClock(0), 0, 1));
+    }
+
+    @Test
+    void testSameSeedReproducesSimulatedData() throws InterruptedException {
+        assertEquals(simulate(42), simulate(42));
+        assertNotEquals(simulate(42), simulate(43));
+    }
+
+    private static List<String> simulate(long seed) throws InterruptedException {
+        VirtualClock clock = new VirtualClock(1_700_000_000_000L);
+        BloodSaturationDataGenerator generator = new BloodSaturationDataGenerator(20, seed, clock);
+        List<String> samples = new ArrayList<>();
+        TickScheduler scheduler = new TickScheduler(20, 1, 100, seed);
+        scheduler.addTask(patientId -> generator.generate(patientId,
+                (id, timestamp, label, data) -> samples.add(id + "," + timestamp + "," + data)), 1, TimeUnit.SECONDS);
+        scheduler.runSimulated(clock, Double.POSITIVE_INFINITY, 100);
+        return samples;
+    }
+
+    @Test
+    void testRangeTasksCoverEachPatientOncePerPeriodInEvenRanges() {
+        TickScheduler scheduler = new TickScheduler(1003, 3, 100);
+        AtomicIntegerArray runs = new AtomicIntegerArray(1004);
+        List<Integer> rangeSizes = new ArrayList<>();
+        scheduler.addRangeTask((first, last) -> {
+            rangeSizes.add(last - first + 1);
+            for (int patientId = first; patientId <= last; patientId++) {
+                runs.incrementAndGet(patientId);
+            }
+        }, 1, TimeUnit.SECONDS);
+
+        scheduler.runTicks(20); // two periods
+
+        assertEquals(0, runs.get(0));
+        for (int patientId = 1; patientId <= 1003; patientId++) {
+            assertEquals(2, runs.get(patientId), "Patient " + patientId);
+        }
+        assertEquals(60, rangeSizes.size());
+        for (int size : rangeSizes) {
+            assertTrue(size == 33 || size == 34, "Range size: " + size);
+        }
+    }
+
+    @Test
+    void testRunsOnlyTheGivenPatientRange() {
+        TickScheduler scheduler = new TickScheduler(101, 200, 3, 100, 1);
+        AtomicIntegerArray runs = new AtomicIntegerArray(201);
+        scheduler.addTask(runs::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+
+        scheduler.runTicks(1);
+
+        for (int patientId = 0; patientId <= 200; patientId++) {
+            assertEquals(patientId > 100 ? 1 : 0, runs.get(patientId), "Patient " + patientId);
+        }
+    }
+}
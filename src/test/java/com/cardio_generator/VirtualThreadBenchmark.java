@@ -0,0 +1,172 @@
+package com.cardio_generator;
+
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.outputs.AsyncOutputStrategy;
+import com.cardio_generator.outputs.FileOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Compares the simulator's scheduling modes at the same load: the original
+ * {@code ScheduledThreadPoolExecutor} with four threads and five timers per
+ * patient, the {@link TickScheduler}, and one virtual thread per patient with
+ * output written from a virtual thread. Every mode writes through a
+ * {@link FileOutputStrategy}, which opens the file for each value, and reports
+ * values written per second, peak platform threads and heap in use. The
+ * virtual thread mode is skipped before Java 21. Not run as part of the test
+ * suite; start it with
+ * {@code java -cp target/classes:target/test-classes com.cardio_generator.VirtualThreadBenchmark [patients] [seconds]}.
+ */
+public class VirtualThreadBenchmark {
+    private static final Random random = new Random();
+
+    private interface Mode {
+        AutoCloseable start(int patientCount, OutputStrategy output) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int patientCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        run("executor", patientCount, seconds, VirtualThreadBenchmark::startExecutor);
+        run("tick", patientCount, seconds, VirtualThreadBenchmark::startTicks);
+        if (VirtualThreads.isSupported()) {
+            run("virtual", patientCount, seconds, VirtualThreadBenchmark::startVirtualThreads);
+        } else {
+            System.out.println("virtual: skipped, virtual threads require Java 21 (running "
+                    + System.getProperty("java.version") + ")");
+        }
+    }
+
+    private static void run(String name, int patientCount, int seconds, Mode mode) throws Exception {
+        Path directory = Files.createTempDirectory("simulator-benchmark");
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        LongAdder written = new LongAdder();
+        FileOutputStrategy file = new FileOutputStrategy(directory.toString());
+        OutputStrategy counting = (patientId, timestamp, label, data) -> {
+            file.output(patientId, timestamp, label, data);
+            written.increment();
+        };
+        try {
+            threadBean.resetPeakThreadCount();
+            AutoCloseable running;
+            try {
+                running = mode.start(patientCount, counting);
+            } catch (OutOfMemoryError e) {
+                System.out.println(name + ": failed to start, " + e.getMessage());
+                return;
+            }
+            try {
+                Thread.sleep(5000); // warm up and let every task start
+                long before = written.sum();
+                Thread.sleep(seconds * 1000L);
+                double perSecond = (written.sum() - before) / (double) seconds;
+                System.gc();
+                Runtime runtime = Runtime.getRuntime();
+                long heapMb = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+                System.out.printf("%s: %.0f values/s, peak %d platform threads, %d MB heap in use%n",
+                        name, perSecond, threadBean.getPeakThreadCount(), heapMb);
+            } finally {
+                running.close();
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(VirtualThreadBenchmark::delete);
+            }
+        }
+    }
+
+    private static AutoCloseable startExecutor(int patientCount, OutputStrategy output) {
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(patientCount * 4);
+        Generators generators = new Generators(patientCount);
+        for (int patientId = 1; patientId <= patientCount; patientId++) {
+            int id = patientId;
+            executor.scheduleAtFixedRate(() -> generators.ecg.generate(id, output), random.nextInt(5), 1, TimeUnit.SECONDS);
+            executor.scheduleAtFixedRate(() -> generators.saturation.generate(id, output), random.nextInt(5), 1, TimeUnit.SECONDS);
+            executor.scheduleAtFixedRate(() -> generators.pressure.generate(id, output), random.nextInt(5), 60, TimeUnit.SECONDS);
+            executor.scheduleAtFixedRate(() -> generators.levels.generate(id, output), random.nextInt(5), 120, TimeUnit.SECONDS);
+            executor.scheduleAtFixedRate(() -> generators.alerts.generate(id, output), random.nextInt(5), 20, TimeUnit.SECONDS);
+        }
+        // Threads are only created as tasks come due; start them all as the simulator eventually does.
+        ((ThreadPoolExecutor) executor).prestartAllCoreThreads();
+        return () -> {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        };
+    }
+
+    private static AutoCloseable startTicks(int patientCount, OutputStrategy output) {
+        Generators generators = new Generators(patientCount);
+        TickScheduler scheduler = new TickScheduler(patientCount, Runtime.getRuntime().availableProcessors(),
+                TickScheduler.DEFAULT_TICK_MS);
+        generators.addTo(scheduler::addTask, output);
+        scheduler.start();
+        return scheduler;
+    }
+
+    private static AutoCloseable startVirtualThreads(int patientCount, OutputStrategy output) {
+        Generators generators = new Generators(patientCount);
+        AsyncOutputStrategy async = new AsyncOutputStrategy(output, VirtualThreads.factory("output-writer-"));
+        PatientThreadScheduler scheduler = new PatientThreadScheduler(patientCount, VirtualThreads.factory("patient-"));
+        generators.addTo(scheduler::addTask, async);
+        scheduler.start();
+        return () -> {
+            scheduler.close();
+            async.close();
+        };
+    }
+
+    private interface TaskAdder {
+        void add(IntConsumer task, long period, TimeUnit unit);
+    }
+
+    private static final class Generators {
+        final ECGDataGenerator ecg;
+        final BloodSaturationDataGenerator saturation;
+        final BloodPressureDataGenerator pressure;
+        final BloodLevelsDataGenerator levels;
+        final AlertGenerator alerts;
+
+        Generators(int patientCount) {
+            ecg = new ECGDataGenerator(patientCount);
+            saturation = new BloodSaturationDataGenerator(patientCount);
+            pressure = new BloodPressureDataGenerator(patientCount);
+            levels = new BloodLevelsDataGenerator(patientCount);
+            alerts = new AlertGenerator(patientCount);
+        }
+
+        void addTo(TaskAdder scheduler, OutputStrategy output) {
+            scheduler.add(id -> ecg.generate(id, output), 1, TimeUnit.SECONDS);
+            scheduler.add(id -> saturation.generate(id, output), 1, TimeUnit.SECONDS);
+            scheduler.add(id -> pressure.generate(id, output), 1, TimeUnit.MINUTES);
+            scheduler.add(id -> levels.generate(id, output), 2, TimeUnit.MINUTES);
+            scheduler.add(id -> alerts.generate(id, output), 20, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.delete(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + path + ": " + e.getMessage());
+        }
+    }
+}
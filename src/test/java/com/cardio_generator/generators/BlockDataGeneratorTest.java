@@ -0,0 +1,78 @@
+package com.cardio_generator.generators;
+
+import com.cardio_generator.VirtualClock;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBlock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockDataGeneratorTest {
+
+    @Test
+    void testBlocksMatchPerPatientGeneration() {
+        assertBlocksMatch(clock -> new BloodSaturationDataGenerator(50, 3, clock));
+        assertBlocksMatch(clock -> new BloodPressureDataGenerator(50, 3, clock));
+        assertBlocksMatch(clock -> new BloodLevelsDataGenerator(50, 3, clock));
+        assertBlocksMatch(clock -> new ECGDataGenerator(50, 0, 3, clock));
+        assertBlocksMatch(clock -> new ECGDataGenerator(50, 250, 3, clock));
+    }
+
+    @Test
+    void testBlockHoldsOneSamplePerPatientOfTheRange() {
+        BloodSaturationDataGenerator generator = new BloodSaturationDataGenerator(10, 1, new VirtualClock(5000));
+        List<SampleBlock> blocks = new ArrayList<>();
+        generator.generateBlock(3, 7, new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                fail("Blocks are written as a whole");
+            }
+
+            @Override
+            public void outputBlock(SampleBlock block) {
+                blocks.add(block);
+            }
+        });
+
+        assertEquals(1, blocks.size());
+        SampleBlock block = blocks.get(0);
+        assertEquals("Saturation", block.getLabel());
+        assertEquals(5, block.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(3 + i, block.patientIds()[i]);
+            assertEquals(5000, block.timestamps()[i]);
+            assertTrue(block.data(i).endsWith(".0%"), block.data(i));
+        }
+    }
+
+    /**
+     * Generates ten rounds for every patient, once per patient and once in
+     * blocks of a few patients, and compares the sample texts per patient.
+     */
+    private static void assertBlocksMatch(Function<VirtualClock, BlockDataGenerator> factory) {
+        VirtualClock perPatientClock = new VirtualClock(1_000_000);
+        VirtualClock blockClock = new VirtualClock(1_000_000);
+        BlockDataGenerator perPatient = factory.apply(perPatientClock);
+        BlockDataGenerator blocks = factory.apply(blockClock);
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        for (int round = 1; round <= 10; round++) {
+            perPatientClock.set(1_000_000 + round * 1000);
+            blockClock.set(1_000_000 + round * 1000);
+            for (int patientId = 1; patientId <= 50; patientId++) {
+                perPatient.generate(patientId, (id, time, label, data) -> expected.add(id + "," + time + "," + label + "," + data));
+            }
+            for (int first = 1; first <= 50; first += 7) {
+                blocks.generateBlock(first, Math.min(50, first + 6),
+                        (id, time, label, data) -> actual.add(id + "," + time + "," + label + "," + data));
+            }
+        }
+        expected.sort(null);
+        actual.sort(null);
+        assertEquals(expected, actual, perPatient.getClass().getSimpleName());
+    }
+}
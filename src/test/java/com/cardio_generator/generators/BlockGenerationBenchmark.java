@@ -0,0 +1,89 @@
+package com.cardio_generator.generators;
+
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBlock;
+
+/**
+ * Compares generating the simulator's vital signs one patient at a time with
+ * generating them in blocks, on one thread, and reports samples per second.
+ *
+ * <p>Three ways are measured over the same patients: {@code per-call} runs
+ * {@link PatientDataGenerator#generate} for each patient into an output that
+ * discards the text; {@code block} runs {@link BlockDataGenerator#generateBlock}
+ * over ranges of patients into an output that reads the values of each block;
+ * {@code block-text} does the same but lets the default
+ * {@link OutputStrategy#outputBlock} format each sample, as a sink that only
+ * takes text would. Not run as part of the test suite; start it with
+ * {@code java -cp target/classes:target/test-classes com.cardio_generator.generators.BlockGenerationBenchmark [patients] [range] [rounds]}.</p>
+ */
+public class BlockGenerationBenchmark {
+    private static long samples;
+    private static double checksum;
+
+    public static void main(String[] args) {
+        int patientCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int rangeSize = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        BlockDataGenerator[] generators = {
+            new ECGDataGenerator(patientCount, 0, 1),
+            new BloodSaturationDataGenerator(patientCount, 1),
+            new BloodPressureDataGenerator(patientCount, 1),
+            new BloodLevelsDataGenerator(patientCount, 1),
+        };
+        OutputStrategy discardText = (patientId, timestamp, label, data) -> {
+            samples++;
+            checksum += data.length();
+        };
+        OutputStrategy readValues = new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void outputBlock(SampleBlock block) {
+                double[] values = block.values();
+                for (int i = 0; i < block.size(); i++) {
+                    checksum += values[i];
+                }
+                samples += block.size();
+            }
+        };
+
+        for (int pass = 0; pass < 3; pass++) {
+            boolean report = pass == 2; // the first two passes warm up
+            measure("per-call", rounds, report, () -> {
+                for (BlockDataGenerator generator : generators) {
+                    for (int patientId = 1; patientId <= patientCount; patientId++) {
+                        generator.generate(patientId, discardText);
+                    }
+                }
+            });
+            measure("block", rounds, report, () -> eachRange(generators, patientCount, rangeSize, readValues));
+            measure("block-text", rounds, report, () -> eachRange(generators, patientCount, rangeSize, discardText));
+        }
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    private static void eachRange(BlockDataGenerator[] generators, int patientCount, int rangeSize,
+            OutputStrategy output) {
+        for (BlockDataGenerator generator : generators) {
+            for (int first = 1; first <= patientCount; first += rangeSize) {
+                generator.generateBlock(first, Math.min(patientCount, first + rangeSize - 1), output);
+            }
+        }
+    }
+
+    private static void measure(String name, int rounds, boolean report, Runnable round) {
+        samples = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            round.run();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (report) {
+            System.out.printf("%-10s %,.0f samples/s%n", name, samples / seconds);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.cardio_generator.generators;
+
+import com.alerts.ecg.QrsDetector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ECGDataGeneratorTest {
+
+    @Test
+    void testEmitsOneBlockOfDueSamplesPerCall() {
+        ECGDataGenerator generator = new ECGDataGenerator(2, 500);
+        List<Long> timestamps = new ArrayList<>();
+
+        assertEquals(500, generator.generateSamples(1, 10_000, (id, time, label, data) -> timestamps.add(time)));
+        assertEquals(9_000, timestamps.get(0));
+        assertEquals(9_002, timestamps.get(1));
+
+        assertEquals(250, generator.generateSamples(1, 10_500, (id, time, label, data) -> timestamps.add(time)));
+        assertEquals(10_498, timestamps.get(timestamps.size() - 1));
+        assertEquals(0, generator.generateSamples(1, 10_500, (id, time, label, data) -> fail("Nothing is due")));
+    }
+
+    @Test
+    void testGeneratedBeatsHaveRestingHeartRate() {
+        ECGDataGenerator generator = new ECGDataGenerator(1, 250);
+        QrsDetector detector = new QrsDetector(250);
+        for (long second = 1; second <= 30; second++) {
+            generator.generateSamples(1, second * 1000,
+                    (id, time, label, data) -> detector.process(Double.parseDouble(data), time));
+        }
+        double heartRate = detector.getHeartRate();
+        assertTrue(heartRate > 55 && heartRate < 90, "heart rate: " + heartRate);
+    }
+
+    @Test
+    void testSameSeedGivesBitIdenticalSamples() {
+        List<String> firstRun = new ArrayList<>();
+        List<String> secondRun = new ArrayList<>();
+        ECGDataGenerator one = new ECGDataGenerator(2, 250, 1234);
+        ECGDataGenerator other = new ECGDataGenerator(2, 250, 1234);
+        for (long second = 1; second <= 5; second++) {
+            one.generateSamples(1, second * 1000, (id, time, label, data) -> firstRun.add(time + ":" + data));
+            one.generateSamples(2, second * 1000, (id, time, label, data) -> { });
+        }
+        for (long second = 1; second <= 5; second++) {
+            other.generateSamples(1, second * 1000, (id, time, label, data) -> secondRun.add(time + ":" + data));
+        }
+        assertEquals(1250, firstRun.size());
+        assertEquals(firstRun, secondRun);
+    }
+
+    @Test
+    void testDefaultModeEmitsOneValuePerCall() {
+        ECGDataGenerator generator = new ECGDataGenerator(1);
+        int[] count = new int[1];
+        generator.generate(1, (id, time, label, data) -> count[0]++);
+        assertEquals(1, count[0]);
+        assertThrows(IllegalStateException.class, () -> generator.generateSamples(1, 1000, (id, time, label, data) -> { }));
+    }
+}
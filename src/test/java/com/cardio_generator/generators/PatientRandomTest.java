@@ -0,0 +1,104 @@
+package com.cardio_generator.generators;
+
+import com.cardio_generator.VirtualClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientRandomTest {
+
+    @Test
+    void testSameSeedGivesSameStreamsInAnyOrder() {
+        PatientRandom first = new PatientRandom(42, "ECG", 3);
+        PatientRandom second = new PatientRandom(42, "ECG", 3);
+
+        long[] patientOne = new long[100];
+        for (int i = 0; i < patientOne.length; i++) {
+            patientOne[i] = first.nextLong(1);
+        }
+        for (int i = 0; i < patientOne.length; i++) {
+            second.nextLong(2); // Other patients' draws do not shift patient 1's stream.
+            assertEquals(patientOne[i], second.nextLong(1));
+        }
+    }
+
+    @Test
+    void testStreamsDifferBySeedNameAndPatient() {
+        long value = new PatientRandom(42, "ECG", 2).nextLong(1);
+        assertNotEquals(value, new PatientRandom(43, "ECG", 2).nextLong(1));
+        assertNotEquals(value, new PatientRandom(42, "Saturation", 2).nextLong(1));
+        assertNotEquals(value, new PatientRandom(42, "ECG", 2).nextLong(2));
+        assertNotEquals(value, new PatientRandom(42, "ECG", 2).nextLong(0));
+    }
+
+    @Test
+    void testDistributions() {
+        PatientRandom random = new PatientRandom(7, "test", 1);
+        int[] counts = new int[5];
+        double sum = 0;
+        double sumOfSquares = 0;
+        int n = 100_000;
+        for (int i = 0; i < n; i++) {
+            double uniform = random.nextDouble(1);
+            assertTrue(uniform >= 0 && uniform < 1);
+            counts[random.nextInt(1, 5)]++;
+            double gaussian = random.nextGaussian(1);
+            sum += gaussian;
+            sumOfSquares += gaussian * gaussian;
+        }
+        for (int count : counts) {
+            assertEquals(n / 5.0, count, n * 0.01);
+        }
+        assertEquals(0, sum / n, 0.02);
+        assertEquals(1, sumOfSquares / n, 0.03);
+        assertThrows(IllegalArgumentException.class, () -> random.nextInt(1, 0));
+    }
+
+    @Test
+    void testGeneratorsReproduceValuesFromSeed() {
+        assertEquals(values(new BloodPressureDataGenerator(10, 99), 10),
+                values(new BloodPressureDataGenerator(10, 99), 10));
+        assertEquals(values(new BloodLevelsDataGenerator(10, 99), 10),
+                values(new BloodLevelsDataGenerator(10, 99), 10));
+        assertEquals(values(new BloodSaturationDataGenerator(10, 99), 10),
+                values(new BloodSaturationDataGenerator(10, 99), 10));
+        assertEquals(values(new AlertGenerator(10, 99), 10), values(new AlertGenerator(10, 99), 10));
+        assertNotEquals(values(new BloodLevelsDataGenerator(10, 99), 10),
+                values(new BloodLevelsDataGenerator(10, 100), 10));
+    }
+
+    @Test
+    void testPatientValuesDoNotDependOnTheRange() {
+        VirtualClock clock = new VirtualClock(5000);
+        assertEquals(values(new BloodPressureDataGenerator(1, 10, 99, clock), 6, 10),
+                values(new BloodPressureDataGenerator(6, 10, 99, clock), 6, 10));
+        assertEquals(values(new BloodLevelsDataGenerator(1, 10, 99, clock), 6, 10),
+                values(new BloodLevelsDataGenerator(6, 10, 99, clock), 6, 10));
+        assertEquals(values(new BloodSaturationDataGenerator(1, 10, 99, clock), 6, 10),
+                values(new BloodSaturationDataGenerator(6, 10, 99, clock), 6, 10));
+        assertEquals(values(new AlertGenerator(1, 10, 99, clock), 6, 10),
+                values(new AlertGenerator(6, 10, 99, clock), 6, 10));
+        assertEquals(values(new ECGDataGenerator(1, 10, 250, 99, clock), 6, 10),
+                values(new ECGDataGenerator(6, 10, 250, 99, clock), 6, 10));
+        assertEquals(new PatientRandom(99, "ECG", 10).nextLong(0), new PatientRandom(99, "ECG", 6, 10).nextLong(0),
+                "The shared stream should not depend on the range either.");
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> new PatientRandom(99, "ECG", 6, 10).nextLong(5));
+    }
+
+    private static List<String> values(PatientDataGenerator generator, int patientCount) {
+        return values(generator, 1, patientCount);
+    }
+
+    private static List<String> values(PatientDataGenerator generator, int firstPatientId, int lastPatientId) {
+        List<String> values = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int patientId = firstPatientId; patientId <= lastPatientId; patientId++) {
+                generator.generate(patientId, (id, time, label, data) -> values.add(id + ":" + label + ":" + data));
+            }
+        }
+        return values;
+    }
+}
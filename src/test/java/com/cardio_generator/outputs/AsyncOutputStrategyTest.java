@@ -0,0 +1,87 @@
+package com.cardio_generator.outputs;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+class AsyncOutputStrategyTest {
+
+    @Test
+    void testWritesSamplesInOrderOnAnotherThread() throws InterruptedException {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        OutputStrategy sink = (patientId, timestamp, label, data) -> {
+            written.add(patientId + ":" + timestamp + ":" + label + ":" + data);
+            threads.add(Thread.currentThread().getName());
+        };
+
+        AsyncOutputStrategy async = new AsyncOutputStrategy(sink, 4, Executors.defaultThreadFactory());
+        for (int i = 0; i < 100; i++) {
+            async.output(1, i, "ECG", Integer.toString(i));
+        }
+        async.close();
+
+        assertEquals(100, written.size(), "Close waits for queued samples");
+        for (int i = 0; i < 100; i++) {
+            assertEquals("1:" + i + ":ECG:" + i, written.get(i));
+        }
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+
+        async.output(1, 100, "ECG", "100");
+        assertEquals(100, written.size(), "Samples after close are discarded");
+    }
+
+    @Test
+    void testQueuesBlocksWhole() {
+        List<Object> written = Collections.synchronizedList(new ArrayList<>());
+        OutputStrategy sink = new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                written.add(label + ":" + data);
+            }
+
+            @Override
+            public void outputBlock(SampleBlock block) {
+                written.add(block);
+            }
+        };
+        SampleBlock block = new SampleBlock("ECG", "", 2);
+        int at = block.append(2);
+        block.patientIds()[at] = 1;
+        block.patientIds()[at + 1] = 2;
+
+        AsyncOutputStrategy async = new AsyncOutputStrategy(sink, 4, Executors.defaultThreadFactory());
+        async.output(1, 0, "Alert", "triggered");
+        async.outputBlock(block);
+        async.output(1, 0, "Alert", "resolved");
+        async.close();
+
+        assertEquals(3, written.size());
+        assertEquals("Alert:triggered", written.get(0));
+        assertSame(block, written.get(1), "A block should be handed over as one entry");
+        assertEquals("Alert:resolved", written.get(2));
+    }
+
+    @Test
+    void testFailingSinkDoesNotStopTheWriter() throws InterruptedException {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        OutputStrategy sink = (patientId, timestamp, label, data) -> {
+            if (patientId == 2) {
+                throw new IllegalStateException("disconnected");
+            }
+            written.add(patientId);
+        };
+
+        AsyncOutputStrategy async = new AsyncOutputStrategy(sink, Executors.defaultThreadFactory());
+        async.output(1, 0, "ECG", "0.1");
+        async.output(2, 0, "ECG", "0.2");
+        async.output(3, 0, "ECG", "0.3");
+        async.close();
+
+        assertEquals(List.of(1, 3), written);
+    }
+}
@@ -0,0 +1,72 @@
+package com.cardio_generator.outputs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataStorageOutputStrategyTest {
+
+    @Test
+    void testBlockIsStoredLikeSingleSamples() {
+        DataStorage single = new DataStorage();
+        DataStorage blocks = new DataStorage();
+        SampleBlock block = new SampleBlock("Saturation", "%", 1);
+        block.add(1, 1000, 97);
+        block.add(2, 1000, 95);
+        block.add(1, 2000, 100);
+
+        for (int i = 0; i < block.size(); i++) {
+            new DataStorageOutputStrategy(single).output(block.patientIds()[i], block.timestamps()[i],
+                    block.getLabel(), block.data(i));
+        }
+        new DataStorageOutputStrategy(blocks).outputBlock(block);
+
+        for (DataStorage storage : new DataStorage[] {single, blocks}) {
+            List<PatientRecord> records = storage.getRecords(1, 0, Long.MAX_VALUE);
+            assertEquals(2, records.size());
+            assertEquals("BloodSaturation", records.get(1).getRecordType());
+            assertEquals(100, records.get(1).getMeasurementValue());
+            assertEquals(2000, records.get(1).getTimestamp());
+            assertEquals(95, storage.getRecords(2, 0, Long.MAX_VALUE).get(0).getMeasurementValue());
+        }
+    }
+
+    @Test
+    void testMapsLabelsToRecordTypes() {
+        DataStorage storage = new DataStorage();
+        DataStorageOutputStrategy output = new DataStorageOutputStrategy(storage);
+
+        output.output(1, 1000, "Alert", "triggered");
+        output.output(1, 2000, "Alert", "resolved");
+        output.output(1, 3000, "Cholesterol", "190.5");
+        output.output(1, 4000, "ECG", "not a number");
+
+        List<PatientRecord> records = storage.getRecords(1, 0, Long.MAX_VALUE);
+        assertEquals(3, records.size());
+        assertEquals("ManualAlert", records.get(0).getRecordType());
+        assertEquals(1, records.get(0).getMeasurementValue());
+        assertEquals(0, records.get(1).getMeasurementValue());
+        assertEquals("Cholesterol", records.get(2).getRecordType());
+        assertEquals(190.5, records.get(2).getMeasurementValue());
+    }
+
+    @Test
+    void testStoresGeneratedPressureForTheAlertStrategies() {
+        DataStorage storage = new DataStorage();
+        new BloodPressureDataGenerator(10, 42).generateBlock(1, 10, new DataStorageOutputStrategy(storage));
+
+        for (int patientId = 1; patientId <= 10; patientId++) {
+            List<PatientRecord> records = storage.getRecords(patientId, 0, Long.MAX_VALUE);
+            assertEquals(2, records.size(), "Patient " + patientId);
+            assertEquals("BloodPressureSystolic", records.get(0).getRecordType());
+            assertEquals("BloodPressureDiastolic", records.get(1).getRecordType());
+            assertTrue(records.get(0).getMeasurementValue() > records.get(1).getMeasurementValue());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.cardio_generator.outputs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileOutputStrategyTest {
+
+    @Test
+    void testBlockIsWrittenLikeSingleSamples(@TempDir Path directory) throws IOException {
+        FileOutputStrategy single = new FileOutputStrategy(directory.resolve("single").toString());
+        FileOutputStrategy blocks = new FileOutputStrategy(directory.resolve("blocks").toString());
+        SampleBlock block = new SampleBlock("Saturation", "%", 1);
+        block.add(1, 1000, 97);
+        block.add(2, 1000, 95);
+        block.add(3, 2000, 100);
+
+        single.output(1, 1000, "Saturation", "97.0%");
+        single.output(2, 1000, "Saturation", "95.0%");
+        single.output(3, 2000, "Saturation", "100.0%");
+        blocks.outputBlock(block);
+
+        List<String> lines = Files.readAllLines(directory.resolve("blocks").resolve("Saturation.txt"));
+        assertEquals(Files.readAllLines(directory.resolve("single").resolve("Saturation.txt")), lines);
+        assertEquals("Patient ID: 3, Timestamp: 2000, Label: Saturation, Data: 100.0%", lines.get(2));
+    }
+
+    @Test
+    void testConcurrentBlocksAreNotInterleaved(@TempDir Path directory) throws Exception {
+        FileOutputStrategy strategy = new FileOutputStrategy(directory.toString());
+        int threadCount = 4;
+        int blockCount = 10;
+        int blockSize = 500; // Far more than one buffer flush per block.
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int shard = t;
+            threads.add(new Thread(() -> {
+                for (int b = 0; b < blockCount; b++) {
+                    SampleBlock block = new SampleBlock("ECG", "", blockSize);
+                    for (int i = 0; i < blockSize; i++) {
+                        block.add(shard, b * blockSize + i, 0.125);
+                    }
+                    strategy.outputBlock(block);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Pattern format = Pattern.compile("Patient ID: (\\d+), Timestamp: (\\d+), Label: ECG, Data: 0\\.125");
+        long[] next = new long[threadCount];
+        List<String> lines = Files.readAllLines(directory.resolve("ECG.txt"));
+        assertEquals(threadCount * blockCount * blockSize, lines.size());
+        for (String line : lines) {
+            Matcher matcher = format.matcher(line);
+            assertTrue(matcher.matches(), "Corrupted line: " + line);
+            int shard = Integer.parseInt(matcher.group(1));
+            assertEquals(next[shard]++, Long.parseLong(matcher.group(2)), "Lines of a shard should stay in order");
+        }
+    }
+}
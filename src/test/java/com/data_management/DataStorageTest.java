@@ -2,9 +2,11 @@ package com.data_management;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.metrics.LatencyMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 class DataStorageTest {
@@ -116,4 +118,63 @@ class DataStorageTest {
         assertEquals(1000L, records.get(0).getTimestamp());
     }
 
+    @Test
+    void testStoredLatencyIsRecordedInInjectedMetrics() {
+        LatencyMetrics metrics = new LatencyMetrics();
+        DataStorage tracked = new DataStorage(metrics);
+        long now = System.currentTimeMillis();
+        tracked.addPatientData(1, 98.0, "BloodSaturation", now);
+        tracked.addPatientData("ECG", new int[] {1, 2}, new double[] {0.1, 0.2}, new long[] {now, now}, 2);
+        assertEquals(3, metrics.histogram(LatencyMetrics.Stage.STORED).getCount());
+        assertEquals(2, metrics.histogram(LatencyMetrics.Stage.STORED, "ECG").getCount());
+    }
+
+    @Test
+    void testRecordRetentionDiscardsOldRecords() {
+        storage.setRecordRetention(5000L);
+        for (int i = 0; i < 100; i++) {
+            storage.addPatientData(1, i, "HeartRate", i * 1000L);
+        }
+        storage.addPatientData("ECG", new int[] {1, 2}, new double[] {0.1, 0.2}, new long[] {100000L, 100000L}, 2);
+
+        Patient patient = storage.getPatient(1);
+        assertEquals(101, patient.getRecordCount());
+        assertEquals(6, patient.getAllRecords().size(), "Only records up to 5 s older than the newest should be kept.");
+        assertEquals(95.0, patient.getAllRecords().get(0).getMeasurementValue());
+        assertEquals(1, storage.getPatient(2).getAllRecords().size());
+    }
+
+    @Test
+    void testConcurrentAddsAndReads() throws Exception {
+        int writerCount = 4;
+        int recordsPerWriter = 20000;
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < writerCount; w++) {
+            int patientId = w % 2; // Two writers per patient.
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < recordsPerWriter; i++) {
+                    storage.addPatientData(patientId, i, "HeartRate", i);
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        int[] consumed = new int[2];
+        while (writers.stream().anyMatch(Thread::isAlive)) {
+            for (Patient patient : storage.getAllPatients()) {
+                consumed[patient.getPatientId()] += patient.getRecordsFrom(consumed[patient.getPatientId()]).size();
+            }
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        for (int patientId = 0; patientId < 2; patientId++) {
+            Patient patient = storage.getPatient(patientId);
+            assertEquals(2 * recordsPerWriter, patient.getRecordCount());
+            consumed[patientId] += patient.getRecordsFrom(consumed[patientId]).size();
+            assertEquals(2 * recordsPerWriter, consumed[patientId], "Every record should be read exactly once.");
+        }
+    }
 }
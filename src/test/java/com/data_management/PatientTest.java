@@ -73,4 +73,25 @@ class PatientTest {
         records = emptyPatient.getAllRecords();
         assertTrue(records.isEmpty(), "getAllRecords should return an empty list for a patient with no records.");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testDiscardedRecordsKeepCursorPositions() {
+        Patient cursorPatient = new Patient(3);
+        for (int i = 0; i < 10; i++) {
+            cursorPatient.addRecord(i, "HeartRate", i * 1000L);
+        }
+        cursorPatient.discardRecordsBefore(7000L);
+
+        assertEquals(10, cursorPatient.getRecordCount(), "Discarded records still count as added.");
+        assertEquals(3, cursorPatient.getAllRecords().size());
+        assertEquals(1, cursorPatient.getRecords(0L, 7000L).size());
+        assertEquals(7.0, cursorPatient.getRecordsFrom(2).get(0).getMeasurementValue(),
+                "Discarded records should be skipped.");
+        assertEquals(9.0, cursorPatient.getRecordsFrom(9).get(0).getMeasurementValue());
+
+        cursorPatient.addRecord(10, "HeartRate", 10000L);
+        assertEquals(11, cursorPatient.getRecordCount());
+        assertEquals(2, cursorPatient.getRecordsFrom(9).size());
+        assertTrue(cursorPatient.getRecordsFrom(11).isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package com.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 50; value++) {
+            histogram.record(value);
+        }
+        assertEquals(50, histogram.getCount());
+        assertEquals(25, histogram.getValueAtPercentile(50));
+        assertEquals(50, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testLargeValuesHaveBoundedRelativeError() {
+        for (long value : new long[] {100, 1_000, 123_456, 10_000_000_000L}) {
+            long reported = LatencyHistogram.highestValue(LatencyHistogram.index(value));
+            assertTrue(reported >= value && reported <= value * 1.016, value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void testTailPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.record(10);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5_000);
+        }
+        assertEquals(10, histogram.getValueAtPercentile(99));
+        assertEquals(5_000, histogram.getValueAtPercentile(99.9));
+        assertEquals(5_000, histogram.getMax());
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i % 1000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(400_000, histogram.getCount());
+    }
+
+    @Test
+    void testMetricsReportPerStageAndType() {
+        LatencyMetrics metrics = new LatencyMetrics();
+        long now = System.currentTimeMillis();
+        metrics.record(LatencyMetrics.Stage.STORED, "ECG", now - 5);
+        metrics.record(LatencyMetrics.Stage.STORED, "BloodSaturation", now - 20);
+
+        assertEquals(2, metrics.histogram(LatencyMetrics.Stage.STORED).getCount());
+        assertEquals(1, metrics.histogram(LatencyMetrics.Stage.STORED, "ECG").getCount());
+        String report = metrics.report();
+        assertTrue(report.contains("ECG"));
+        assertTrue(report.contains("(all)"));
+        assertFalse(report.contains("ALERTED"));
+    }
+}
@@ -0,0 +1,39 @@
+package com.metrics;
+
+/**
+ * Measures the cost of recording one sample's latency, which must stay well
+ * under 50 ns for the metrics to stay on in production. Not run as part of the
+ * test suite; start it with
+ * {@code java -cp target/classes:target/test-classes com.metrics.LatencyMetricsBenchmark [threads]}.
+ */
+public class LatencyMetricsBenchmark {
+    private static final String[] TYPES = {
+        "ECG", "BloodSaturation", "BloodPressureSystolic", "BloodPressureDiastolic",
+        "Cholesterol", "WhiteBloodCells", "RedBloodCells", "HeartRate"
+    };
+    private static final int SAMPLES_PER_THREAD = 20_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        for (int round = 1; round <= 5; round++) {
+            LatencyMetrics metrics = new LatencyMetrics();
+            Thread[] threads = new Thread[threadCount];
+            long start = System.nanoTime();
+            for (int t = 0; t < threadCount; t++) {
+                threads[t] = new Thread(() -> {
+                    long generatedAt = System.currentTimeMillis();
+                    for (int i = 0; i < SAMPLES_PER_THREAD; i++) {
+                        metrics.record(LatencyMetrics.Stage.STORED, TYPES[i & 7], generatedAt - (i & 15));
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("round %d: %.1f ns per sample per thread (%d threads)%n",
+                    round, (double) elapsed / SAMPLES_PER_THREAD, threadCount);
+        }
+    }
+}